@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedObject;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Reads <code>jdk.ExecutionSample</code>, <code>jdk.Compilation</code> and <code>jdk.CompilerInlining</code> events
+ * with the <code>jdk.jfr.consumer</code> API of JDK 11. Instantiated by {@link InliningProfile#readRecording(Path)}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class JfrRecordingReader implements InliningProfile.RecordingReader {
+
+    @Override
+    public void read(final Path recording, final InliningProfile profile) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                final RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample":
+                        final RecordedStackTrace stackTrace = event.getStackTrace();
+                        if (stackTrace != null) {
+                            final List<RecordedFrame> frames = stackTrace.getFrames();
+                            if (!frames.isEmpty() && frames.get(0).isJavaFrame()) {
+                                profile.sample(keyOf(frames.get(0).getMethod()));
+                            }
+                        }
+                        break;
+                    case "jdk.Compilation":
+                        if (event.hasField("method")) {
+                            final RecordedMethod method = event.getValue("method");
+                            if (method != null) {
+                                profile.compile(keyOf(method));
+                            }
+                        }
+                        break;
+                    case "jdk.CompilerInlining":
+                        readInlining(event, profile);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    private static void readInlining(final RecordedEvent event, final InliningProfile profile) {
+        if (!event.hasField("callee") || !event.hasField("message") || event.getBoolean("succeeded")) {
+            return;
+        }
+        final String message = event.getString("message");
+        final RecordedObject callee = event.getValue("callee");
+        if (message != null && callee != null && InliningProfile.isTooBig(message)) {
+            final String type = callee.getString("type");
+            final String name = callee.getString("name");
+            final String descriptor = callee.getString("descriptor");
+            if (type != null && name != null && descriptor != null) {
+                profile.reject(type.replace('/', '.') + "::" + name + descriptor, message);
+            }
+        }
+    }
+
+    private static String keyOf(final RecordedMethod method) {
+        return method.getType().getName() + "::" + method.getName() + method.getDescriptor();
+    }
+
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+import com.github.sebhoss.common.annotation.inventory.Suppression;
+import com.github.sebhoss.common.annotation.inventory.SuppressionInventory;
+
+/**
+ * Ranks the elements suppressing PMD rules by the CPU time and the allocations sampled on their paths. The elements
+ * are read from {@link SuppressionInventory suppression inventories} and joined with the stack traces of
+ * <code>jdk.ExecutionSample</code> and <code>jdk.ObjectAllocationSample</code> events of JFR recordings; the TLAB
+ * allocation events of older JDKs are used for recordings without allocation samples. A sample counts for an element
+ * if the element is on its stack: for a method, constructor, parameter or local variable if its method is, including
+ * the lambdas declared in it, for a type if any of its methods or the methods of its nested types are. Suppressions of
+ * fields are not attributed, nor are anonymous and local classes to the methods declaring them.
+ * <p/>
+ * Methods are matched by their parameter types, falling back to their number of parameters and to their name. Stack
+ * traces are truncated to the stack depth of the recording, 64 frames by default. The class requires the
+ * <code>jdk.jfr.consumer</code> API of JDK 11 and is therefore shipped in the <code>jfr</code> artifact only.
+ * <p/>
+ * Usage: <code>SuppressionHotspots [-r rule,...] [-s cpu|alloc] [-n top] &lt;inventory&gt;... &lt;recording&gt;...
+ * </code> reads the given class output directories and JAR archives and the given <code>.jfr</code> recordings, and
+ * prints the elements suppressing any or the given rules which are on sampled stacks.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressionHotspots {
+
+    private static final String              RECORDING_SUFFIX = ".jfr";
+    private static final String              CONSTRUCTOR      = "<init>";
+    private static final String              LAMBDA           = "lambda$";
+    private static final Pattern             ANNOTATIONS      = Pattern.compile("@[\\w$.]+(\\([^)]*\\))?\\s*");
+    private static final int[]               NONE             = new int[0];
+
+    private final List<Location>             locations        = new ArrayList<>();
+    private final Map<String, List<Integer>> types            = new HashMap<>();
+    private final Map<String, List<Member>>  methods          = new HashMap<>();
+    private final Map<String, int[]>         resolved         = new HashMap<>();
+    private int                              fields;
+    private long                             executionSamples;
+    private long                             allocationWeight;
+    private long                             tlabWeight;
+    private int                              event;
+
+    /**
+     * An element suppressing PMD rules and the samples on its paths.
+     */
+    public static final class Location {
+
+        private final String      element;
+        private final ElementKind kind;
+        private final Set<String> values = new LinkedHashSet<>();
+        long                      selfSamples;
+        long                      samples;
+        long                      allocation;
+        long                      tlabAllocation;
+        int                       lastEvent;
+
+        Location(final String element, final ElementKind kind) {
+            this.element = element;
+            this.kind = kind;
+        }
+
+        /**
+         * @return The name of the element, e.g. <code>com.example.Foo#bar(java.lang.String)</code>.
+         */
+        public String getElement() {
+            return element;
+        }
+
+        /**
+         * @return The kind of the element.
+         */
+        public ElementKind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return The suppressed values of the element.
+         */
+        public Set<String> getValues() {
+            return Collections.unmodifiableSet(values);
+        }
+
+        /**
+         * @return The number of execution samples with the element on their stack.
+         */
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * @return The number of execution samples whose topmost frame belongs to the element.
+         */
+        public long getSelfSamples() {
+            return selfSamples;
+        }
+
+    }
+
+    private static final class Member {
+
+        final List<String> parameters;
+        final int          location;
+
+        Member(final List<String> parameters, final int location) {
+            this.parameters = parameters;
+            this.location = location;
+        }
+
+    }
+
+    /**
+     * @param suppressions
+     *            The suppressions to consider.
+     * @param rules
+     *            The rules of interest, suppressions of other rules are ignored.
+     */
+    public SuppressionHotspots(final List<Suppression> suppressions, final Set<PMDRule> rules) {
+        final String[] keys = new String[rules.size()];
+        int index = 0;
+        for (final PMDRule rule : rules) {
+            keys[index++] = rule.getKey();
+        }
+        final SuppressionSet selected = SuppressionSet.of(keys);
+        final Map<String, Integer> ids = new HashMap<>();
+        for (final Suppression suppression : suppressions) {
+            if (SuppressionSet.of(suppression.getValue()).intersection(selected).isEmpty()) {
+                continue;
+            }
+            final Integer known = ids.get(suppression.getElement());
+            if (known != null) {
+                locations.get(known.intValue()).values.add(suppression.getValue());
+                continue;
+            }
+            final int id = locations.size();
+            final Location location = new Location(suppression.getElement(), suppression.getKind());
+            location.values.add(suppression.getValue());
+            locations.add(location);
+            ids.put(suppression.getElement(), Integer.valueOf(id));
+            index(location, id);
+        }
+    }
+
+    /**
+     * @param args
+     *            The options followed by the inventories and recordings.
+     * @throws IOException
+     *             In case an inventory or a recording cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        final Set<PMDRule> rules = new LinkedHashSet<>();
+        boolean byAllocation = false;
+        int top = 50;
+        final List<Suppression> suppressions = new ArrayList<>();
+        final List<Path> recordings = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            if ("-r".equals(args[index]) && index + 1 < args.length) {
+                for (final String name : args[++index].split(",")) {
+                    final PMDRule rule = PMDRule.fromKey(name.startsWith("PMD.") ? name : "PMD." + name);
+                    if (rule == null) {
+                        throw new IllegalArgumentException("Unknown rule: " + name);
+                    }
+                    rules.add(rule);
+                }
+            } else if ("-s".equals(args[index]) && index + 1 < args.length) {
+                byAllocation = "alloc".equals(args[++index]);
+            } else if ("-n".equals(args[index]) && index + 1 < args.length) {
+                top = Integer.parseInt(args[++index]);
+            } else if (args[index].endsWith(RECORDING_SUFFIX)) {
+                recordings.add(Paths.get(args[index]));
+            } else {
+                suppressions.addAll(SuppressionInventory.open(Paths.get(args[index])).getSuppressions());
+            }
+        }
+        if (recordings.isEmpty()) {
+            System.err.println("Usage: SuppressionHotspots [-r rule,...] [-s cpu|alloc] [-n top] <inventory>... "
+                    + "<recording>...");
+            return;
+        }
+        if (rules.isEmpty()) {
+            Collections.addAll(rules, PMDRule.values());
+        }
+        final SuppressionHotspots hotspots = new SuppressionHotspots(suppressions, rules);
+        for (final Path recording : recordings) {
+            hotspots.read(recording);
+        }
+        hotspots.print(System.out, byAllocation, top);
+    }
+
+    /**
+     * @param recording
+     *            A JFR recording.
+     * @throws IOException
+     *             In case the recording cannot be read.
+     */
+    public void read(final Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                final RecordedEvent recorded = file.readEvent();
+                switch (recorded.getEventType().getName()) {
+                    case "jdk.ExecutionSample":
+                        executionSamples++;
+                        sample(recorded, 0, true);
+                        break;
+                    case "jdk.ObjectAllocationSample":
+                        allocationWeight += recorded.getLong("weight");
+                        sample(recorded, recorded.getLong("weight"), false);
+                        break;
+                    case "jdk.ObjectAllocationInNewTLAB":
+                        tlabWeight += recorded.getLong("tlabSize");
+                        sample(recorded, -recorded.getLong("tlabSize"), false);
+                        break;
+                    case "jdk.ObjectAllocationOutsideTLAB":
+                        tlabWeight += recorded.getLong("allocationSize");
+                        sample(recorded, -recorded.getLong("allocationSize"), false);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param byAllocation
+     *            <code>true</code> to rank by allocation share, <code>false</code> to rank by CPU share.
+     * @return The elements on sampled stacks, ranked by their share.
+     */
+    public List<Location> getHotspots(final boolean byAllocation) {
+        final List<Location> hot = new ArrayList<>();
+        for (final Location location : locations) {
+            if (location.samples > 0 || allocationOf(location) > 0) {
+                hot.add(location);
+            }
+        }
+        Collections.sort(hot, new Comparator<Location>() {
+
+            @Override
+            public int compare(final Location first, final Location second) {
+                return byAllocation ? Long.compare(allocationOf(second), allocationOf(first)) : Long.compare(
+                        second.samples, first.samples);
+            }
+
+        });
+        return hot;
+    }
+
+    /**
+     * @param location
+     *            An element.
+     * @return The sampled allocation weight on the paths of the element in bytes.
+     */
+    public long allocationOf(final Location location) {
+        return allocationWeight > 0 ? location.allocation : location.tlabAllocation;
+    }
+
+    /**
+     * Prints the given number of top elements and a summary.
+     *
+     * @param out
+     *            The stream to print to.
+     * @param byAllocation
+     *            <code>true</code> to rank by allocation share, <code>false</code> to rank by CPU share.
+     * @param top
+     *            The number of elements to print.
+     */
+    public void print(final PrintStream out, final boolean byAllocation, final int top) {
+        final List<Location> hot = getHotspots(byAllocation);
+        final long allocation = allocationWeight > 0 ? allocationWeight : tlabWeight;
+        out.println(String.format(Locale.ROOT, "%7s %7s %7s  %s", "cpu %", "self %", "alloc %", "element"));
+        for (final Location location : hot.subList(0, Math.min(top, hot.size()))) {
+            out.println(String.format(Locale.ROOT, "%7.2f %7.2f %7.2f  %s %s %s",
+                    Double.valueOf(share(location.samples, executionSamples)),
+                    Double.valueOf(share(location.selfSamples, executionSamples)),
+                    Double.valueOf(share(allocationOf(location), allocation)), location.kind, location.element,
+                    location.values));
+        }
+        out.println(String.format(Locale.ROOT,
+                "%d of %d suppressing elements on sampled stacks, %d fields not attributed; %d execution samples, "
+                        + "%.1f MB sampled allocations", Integer.valueOf(hot.size()),
+                Integer.valueOf(locations.size()), Integer.valueOf(fields), Long.valueOf(executionSamples),
+                Double.valueOf(allocation / 1048576.0)));
+    }
+
+    private void sample(final RecordedEvent recorded, final long weight, final boolean execution) {
+        final RecordedStackTrace stackTrace = recorded.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        event++;
+        boolean top = true;
+        for (final RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            for (final int id : resolve(frame.getMethod())) {
+                final Location location = locations.get(id);
+                if (execution && top) {
+                    location.selfSamples++;
+                }
+                if (location.lastEvent != event) {
+                    location.lastEvent = event;
+                    if (execution) {
+                        location.samples++;
+                    } else if (weight > 0) {
+                        location.allocation += weight;
+                    } else {
+                        location.tlabAllocation -= weight;
+                    }
+                }
+            }
+            top = false;
+        }
+    }
+
+    /**
+     * @return The elements covering the given method.
+     */
+    private int[] resolve(final RecordedMethod method) {
+        final String type = method.getType().getName();
+        final String key = type + "#" + method.getName() + method.getDescriptor();
+        final int[] cached = resolved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<Integer> found = new LinkedHashSet<>();
+        for (String enclosing = type; enclosing != null; enclosing = enclosingOf(enclosing)) {
+            final List<Integer> typeLocations = types.get(enclosing);
+            if (typeLocations != null) {
+                found.addAll(typeLocations);
+            }
+        }
+        String name = method.getName();
+        final boolean lambda = name.startsWith(LAMBDA) && name.indexOf('$', LAMBDA.length()) > 0;
+        if (lambda) {
+            // javac names lambdas lambda$<declaring method>$<index>
+            name = name.substring(LAMBDA.length(), name.indexOf('$', LAMBDA.length()));
+            name = "new".equals(name) ? CONSTRUCTOR : name;
+        }
+        final List<Member> members = methods.get(type + "#" + name);
+        if (members != null) {
+            final List<String> parameters = descriptorParameters(method.getDescriptor());
+            for (final Member member : lambda ? members : match(members, parameters)) {
+                found.add(Integer.valueOf(member.location));
+            }
+        }
+        final int[] ids = found.isEmpty() ? NONE : new int[found.size()];
+        int index = 0;
+        for (final Integer id : found) {
+            ids[index++] = id.intValue();
+        }
+        resolved.put(key, ids);
+        return ids;
+    }
+
+    /**
+     * @return The members with the given parameter types, or else with as many parameters, or else all of them.
+     */
+    private static List<Member> match(final List<Member> members, final List<String> parameters) {
+        final List<Member> exact = new ArrayList<>();
+        final List<Member> arity = new ArrayList<>();
+        for (final Member member : members) {
+            if (member.parameters.equals(parameters)) {
+                exact.add(member);
+            } else if (member.parameters.size() == parameters.size()) {
+                arity.add(member);
+            }
+        }
+        if (!exact.isEmpty()) {
+            return exact;
+        }
+        return arity.isEmpty() ? members : arity;
+    }
+
+    private void index(final Location location, final int id) {
+        final String element = location.element;
+        final int member = element.indexOf('#');
+        if (member < 0) {
+            if (location.kind.isClass() || location.kind.isInterface()) {
+                List<Integer> typeLocations = types.get(element);
+                if (typeLocations == null) {
+                    typeLocations = new ArrayList<>();
+                    types.put(element, typeLocations);
+                }
+                typeLocations.add(Integer.valueOf(id));
+            }
+            return;
+        }
+        final String type = element.substring(0, member);
+        // parameters and local variables are attributed to their method
+        final int local = element.indexOf('/', member);
+        final String signature = element.substring(member + 1, local < 0 ? element.length() : local);
+        final int open = signature.indexOf('(');
+        if (open < 0) {
+            fields++;
+            return;
+        }
+        String name = signature.substring(0, open);
+        if (name.equals(type.substring(Math.max(type.lastIndexOf('.'), type.lastIndexOf('$')) + 1))) {
+            name = CONSTRUCTOR;
+        }
+        List<Member> members = methods.get(type + "#" + name);
+        if (members == null) {
+            members = new ArrayList<>();
+            methods.put(type + "#" + name, members);
+        }
+        final String parameters = signature.substring(open + 1, signature.lastIndexOf(')'));
+        members.add(new Member(parametersOf(parameters), id));
+    }
+
+    /**
+     * @return The parameter types of a source signature such as <code>java.util.List&lt;T&gt;,int...</code> in the
+     *         form of {@link #descriptorParameters(String)}, without type arguments and annotations.
+     */
+    private static List<String> parametersOf(final String signature) {
+        final String erased = ANNOTATIONS.matcher(eraseTypeArguments(signature)).replaceAll("");
+        final List<String> parameters = new ArrayList<>();
+        if (erased.trim().isEmpty()) {
+            return parameters;
+        }
+        for (final String parameter : erased.split(",")) {
+            parameters.add(parameter.trim().replace("...", "[]").replace('$', '.'));
+        }
+        return parameters;
+    }
+
+    /**
+     * @return The parameter types of a method descriptor, e.g. <code>[java.lang.String, int[]]</code> for
+     *         <code>(Ljava/lang/String;[I)V</code>, nested types being separated by dots.
+     */
+    private static List<String> descriptorParameters(final String descriptor) {
+        final List<String> parameters = new ArrayList<>();
+        int index = descriptor.indexOf('(') + 1;
+        while (index > 0 && index < descriptor.length() && descriptor.charAt(index) != ')') {
+            int dimensions = 0;
+            while (descriptor.charAt(index) == '[') {
+                dimensions++;
+                index++;
+            }
+            final StringBuilder parameter = new StringBuilder();
+            final char current = descriptor.charAt(index);
+            if (current == 'L') {
+                final int end = descriptor.indexOf(';', index);
+                parameter.append(descriptor.substring(index + 1, end).replace('/', '.').replace('$', '.'));
+                index = end + 1;
+            } else {
+                parameter.append(primitiveOf(current));
+                index++;
+            }
+            for (int dimension = 0; dimension < dimensions; dimension++) {
+                parameter.append("[]");
+            }
+            parameters.add(parameter.toString());
+        }
+        return parameters;
+    }
+
+    private static String primitiveOf(final char descriptor) {
+        switch (descriptor) {
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            default:
+                return "int";
+        }
+    }
+
+    private static String eraseTypeArguments(final String signature) {
+        final StringBuilder erased = new StringBuilder(signature.length());
+        int depth = 0;
+        for (int index = 0; index < signature.length(); index++) {
+            final char current = signature.charAt(index);
+            if (current == '<') {
+                depth++;
+            } else if (current == '>') {
+                depth--;
+            } else if (depth == 0) {
+                erased.append(current);
+            }
+        }
+        return erased.toString();
+    }
+
+    @Nullable
+    private static String enclosingOf(final String type) {
+        final int nested = type.lastIndexOf('$');
+        return nested > type.lastIndexOf('.') + 1 ? type.substring(0, nested) : null;
+    }
+
+    private static double share(final long part, final long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a <code>&lt;Type&gt;Codec</code> class next to the annotated class or record, which writes instances to
+ * and reads them from a {@link java.nio.ByteBuffer} without reflection. Fields which are not null according to
+ * {@link NotNullByDefault} are written without a null marker, all other reference fields are preceded by a single
+ * presence byte.
+ * <p/>
+ * Supported field types are primitives and their wrappers, <code>String</code>, <code>byte[]</code>, enums, other types
+ * annotated with {@link BinaryCodec} and <code>java.util.List</code>s of these. A class must either declare a
+ * non-private constructor taking all its fields in declaration order, or a non-private no-arg constructor with
+ * non-private, non-final fields. Private fields are read through an accessor named like the field or prefixed with
+ * <code>get</code>/<code>is</code>.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface BinaryCodec {
+
+    // marker annotation
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Compiler options which make the null analysis of the Eclipse compiler (ECJ) treat {@link NotNullByDefault} and
+ * {@link StaticNotNullByDefault} as its non-null defaults, and <code>javax.annotation.Nullable</code> and
+ * <code>@CheckForNull</code> as its nullable annotations. <code>@ParametersAreNonnullByDefault</code> is left out,
+ * since ECJ would apply it to return values and fields as well. Violations of these contracts are compile errors,
+ * thus values proven non-null need no runtime {@link Nullsafe} check anymore: only values from unannotated APIs,
+ * reported as unchecked conversions, still do.
+ * <p/>
+ * The JSR-305 annotations are declaration annotations, therefore ECJ analyses fields, parameters and return values
+ * but not type arguments. The options are shipped as <code>META-INF/ecj/null-analysis.prefs</code>, which can be
+ * passed to the batch compiler with <code>-properties</code>. This library is not built with ECJ, therefore the
+ * options are not verified against a particular ECJ version. Usage:
+ * <code>EclipseNullAnalysis [.settings/org.eclipse.jdt.core.prefs]</code> writes that file, e.g. into an Eclipse
+ * project.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class EclipseNullAnalysis {
+
+    /** The class path resource holding the compiler options. */
+    public static final String RESOURCE = "META-INF/ecj/null-analysis.prefs";
+
+    /**
+     * @param args
+     *            The file to write the options to, defaults to <code>.settings/org.eclipse.jdt.core.prefs</code>.
+     * @throws IOException
+     *             In case the options cannot be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path target = Paths.get(args.length == 0 ? ".settings/org.eclipse.jdt.core.prefs" : args[0]);
+        final Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (InputStream input = open()) {
+            Files.copy(input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return The compiler options by name, e.g. for the <code>JavaCore</code> API.
+     * @throws IOException
+     *             In case the options cannot be read.
+     */
+    public static Map<String, String> getOptions() throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = open()) {
+            properties.load(input);
+        }
+        final Map<String, String> options = new TreeMap<>();
+        for (final String name : properties.stringPropertyNames()) {
+            options.put(name, properties.getProperty(name));
+        }
+        return Collections.unmodifiableMap(options);
+    }
+
+    private static InputStream open() throws IOException {
+        final InputStream input = EclipseNullAnalysis.class.getResourceAsStream("/" + RESOURCE);
+        if (input == null) {
+            throw new IOException("Missing " + RESOURCE);
+        }
+        return input;
+    }
+
+    private EclipseNullAnalysis() {
+        // utility class
+    }
+
+}
@@ -17,7 +17,9 @@ import javax.annotation.meta.TypeQualifierDefault;
 
 /**
  * This annotation can be applied to a package, class or method to indicate that the class fields, method return types
- * and parameters in that element are not null by default unless there is:
+ * and parameters in that element are not null by default. The qualifier default also names type uses and type
+ * parameters, but JSR-305 defines no meaning for them: no checker verifies that e.g. the elements of a
+ * <code>List&lt;String&gt;</code> are not null, so they must still be checked. The default holds unless there is:
  * <ul>
  * <li>An explicit nullness annotation
  * <li>The method overrides a method in a superclass (in which case the annotation of the corresponding parameter in the
@@ -30,7 +32,8 @@ import javax.annotation.meta.TypeQualifierDefault;
 @Nonnull
 @Inherited
 @TypeQualifierDefault({ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR, ElementType.FIELD,
-        ElementType.LOCAL_VARIABLE, ElementType.METHOD, ElementType.PACKAGE, ElementType.PARAMETER, ElementType.TYPE })
+        ElementType.LOCAL_VARIABLE, ElementType.METHOD, ElementType.PACKAGE, ElementType.PARAMETER, ElementType.TYPE,
+        ElementType.TYPE_PARAMETER, ElementType.TYPE_USE })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface NotNullByDefault {
 
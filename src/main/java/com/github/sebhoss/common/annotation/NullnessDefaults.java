@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.meta.TypeQualifierDefault;
+
+/**
+ * Runtime lookups of {@link NotNullByDefault} which apply the nesting rules of the annotation: a method is covered if
+ * it, its declaring class, one of the enclosing classes or the package is annotated.
+ * <p/>
+ * {@link #getDefaultLocations()} lists the kinds of elements named by the qualifier default. JSR-305 defines no
+ * meaning for {@link ElementType#TYPE_USE} there, thus no checker verifies that e.g. the elements of a covered
+ * <code>List&lt;String&gt;</code> are not null, and generated code must keep checking them.
+ * <p/>
+ * Results are cached per {@link Class} in a {@link ClassValue} and per {@link Package} in a lock-free, weakly keyed
+ * cache. Neither cache keeps a class loader reachable, thus redeployed applications can be unloaded as usual.
+ */
+public final class NullnessDefaults {
+
+    private static final ClassValue<Boolean>                 CLASSES   = new DefaultsByClass();
+    private static final WeakIdentityCache<Package, Boolean> PACKAGES  = new WeakIdentityCache<>();
+    private static final Set<ElementType>                    LOCATIONS = defaultLocations();
+
+    /**
+     * @param type
+     *            The class to check.
+     * @return <code>true</code> if the class, one of its enclosing classes or its package is annotated with
+     *         {@link NotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Class<?> type) {
+        return CLASSES.get(type).booleanValue();
+    }
+
+    /**
+     * @param method
+     *            The method to check.
+     * @return <code>true</code> if the method or its declaring class is covered by {@link NotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Method method) {
+        return method.isAnnotationPresent(NotNullByDefault.class) || isNotNullByDefault(method.getDeclaringClass());
+    }
+
+    /**
+     * @param constructor
+     *            The constructor to check.
+     * @return <code>true</code> if the constructor or its declaring class is covered by {@link NotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Constructor<?> constructor) {
+        return constructor.isAnnotationPresent(NotNullByDefault.class)
+                || isNotNullByDefault(constructor.getDeclaringClass());
+    }
+
+    /**
+     * @param field
+     *            The field to check.
+     * @return <code>true</code> if the field or its declaring class is covered by {@link NotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Field field) {
+        return field.isAnnotationPresent(NotNullByDefault.class) || isNotNullByDefault(field.getDeclaringClass());
+    }
+
+    /**
+     * @param location
+     *            Some kind of program element.
+     * @return <code>true</code> if {@link NotNullByDefault} declares a default for the given kind of element.
+     */
+    public static boolean appliesTo(final ElementType location) {
+        return LOCATIONS.contains(location);
+    }
+
+    /**
+     * @return All kinds of program elements for which {@link NotNullByDefault} declares a default.
+     */
+    public static Set<ElementType> getDefaultLocations() {
+        return LOCATIONS;
+    }
+
+    /**
+     * @param pkg
+     *            The package to check.
+     * @return <code>true</code> if the <code>package-info</code> of the package is annotated with
+     *         {@link NotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Package pkg) {
+        final Boolean cached = PACKAGES.get(pkg);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        final boolean annotated = pkg.isAnnotationPresent(NotNullByDefault.class);
+        PACKAGES.put(pkg, Boolean.valueOf(annotated));
+        return annotated;
+    }
+
+    private static Set<ElementType> defaultLocations() {
+        final TypeQualifierDefault qualifierDefault = NotNullByDefault.class.getAnnotation(TypeQualifierDefault.class);
+        final Set<ElementType> locations = EnumSet.noneOf(ElementType.class);
+        if (qualifierDefault != null) {
+            locations.addAll(Arrays.asList(qualifierDefault.value()));
+        }
+        return Collections.unmodifiableSet(locations);
+    }
+
+    private static final class DefaultsByClass extends ClassValue<Boolean> {
+
+        @Override
+        protected Boolean computeValue(@Nullable final Class<?> type) {
+            final Class<?> checked = Nullsafe.nullsafe(type);
+            if (checked.isAnnotationPresent(NotNullByDefault.class)) {
+                return Boolean.TRUE;
+            }
+            final Class<?> enclosing = checked.getEnclosingClass();
+            if (enclosing != null) {
+                return Boolean.valueOf(isNotNullByDefault(enclosing));
+            }
+            final Package pkg = checked.getPackage();
+            return Boolean.valueOf(pkg != null && isNotNullByDefault(pkg));
+        }
+
+    }
+
+    private NullnessDefaults() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,973 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The rules listed in {@link PMDWarnings} together with their rule set and the PMD version which introduced them.
+ * {@link #fromKey(String)} maps suppression keys like <code>"PMD.JumbledIncrementer"</code> back to their rule through
+ * a minimal perfect hash built during class initialization: each key lands in its own slot of a table with one entry
+ * per rule, thus a lookup costs two multiplications, three array reads and at most one <code>equals</code> call and
+ * never allocates.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public enum PMDRule {
+
+    /** @see PMDWarnings#JUMBLED_INCREMENTER */
+    JUMBLED_INCREMENTER(PMDWarnings.JUMBLED_INCREMENTER, PMDRuleSet.BASIC, "1.0"),
+
+    /** @see PMDWarnings#FOR_LOOP_SHOULD_BE_WHILE_LOOP */
+    FOR_LOOP_SHOULD_BE_WHILE_LOOP(PMDWarnings.FOR_LOOP_SHOULD_BE_WHILE_LOOP, PMDRuleSet.BASIC, "1.02"),
+
+    /** @see PMDWarnings#OVERRIDE_BOTH_EQUALS_AND_HASHCODE */
+    OVERRIDE_BOTH_EQUALS_AND_HASHCODE(PMDWarnings.OVERRIDE_BOTH_EQUALS_AND_HASHCODE, PMDRuleSet.BASIC, "0.4"),
+
+    /** @see PMDWarnings#DOUBLE_CHECKED_LOCKING */
+    DOUBLE_CHECKED_LOCKING(PMDWarnings.DOUBLE_CHECKED_LOCKING, PMDRuleSet.BASIC, "1.04"),
+
+    /** @see PMDWarnings#RETURN_FROM_FINALLY_BLOCK */
+    RETURN_FROM_FINALLY_BLOCK(PMDWarnings.RETURN_FROM_FINALLY_BLOCK, PMDRuleSet.BASIC, "1.05"),
+
+    /** @see PMDWarnings#UNCONDITIONAL_IF_STATEMENT */
+    UNCONDITIONAL_IF_STATEMENT(PMDWarnings.UNCONDITIONAL_IF_STATEMENT, PMDRuleSet.BASIC, "1.5"),
+
+    /** @see PMDWarnings#BOOLEAN_INSTANTIATION */
+    BOOLEAN_INSTANTIATION(PMDWarnings.BOOLEAN_INSTANTIATION, PMDRuleSet.BASIC, "1.2"),
+
+    /** @see PMDWarnings#COLLAPSIBLE_IF_STATEMENTS */
+    COLLAPSIBLE_IF_STATEMENTS(PMDWarnings.COLLAPSIBLE_IF_STATEMENTS, PMDRuleSet.BASIC, "3.1"),
+
+    /** @see PMDWarnings#CLASS_CAST_EXCEPTION_WITH_TO_ARRAY */
+    CLASS_CAST_EXCEPTION_WITH_TO_ARRAY(PMDWarnings.CLASS_CAST_EXCEPTION_WITH_TO_ARRAY, PMDRuleSet.BASIC, "3.4"),
+
+    /** @see PMDWarnings#AVOID_DECIMAL_LITERALS_IN_BIG_DECIMAL_CONSTRUCTOR */
+    AVOID_DECIMAL_LITERALS_IN_BIG_DECIMAL_CONSTRUCTOR(PMDWarnings.AVOID_DECIMAL_LITERALS_IN_BIG_DECIMAL_CONSTRUCTOR,
+            PMDRuleSet.BASIC, "3.4"),
+
+    /** @see PMDWarnings#MISPLACED_NULL_CHECK */
+    MISPLACED_NULL_CHECK(PMDWarnings.MISPLACED_NULL_CHECK, PMDRuleSet.BASIC, "3.5"),
+
+    /** @see PMDWarnings#AVOID_THREAD_GROUP */
+    AVOID_THREAD_GROUP(PMDWarnings.AVOID_THREAD_GROUP, PMDRuleSet.BASIC, "3.6"),
+
+    /** @see PMDWarnings#BROKEN_NULL_CHECK */
+    BROKEN_NULL_CHECK(PMDWarnings.BROKEN_NULL_CHECK, PMDRuleSet.BASIC, "3.8"),
+
+    /** @see PMDWarnings#BIG_INTEGER_INSTANTIATION */
+    BIG_INTEGER_INSTANTIATION(PMDWarnings.BIG_INTEGER_INSTANTIATION, PMDRuleSet.BASIC, "3.9"),
+
+    /** @see PMDWarnings#AVOID_USING_OCTAL_VALUES */
+    AVOID_USING_OCTAL_VALUES(PMDWarnings.AVOID_USING_OCTAL_VALUES, PMDRuleSet.BASIC, "3.9"),
+
+    /** @see PMDWarnings#AVOID_USING_HARD_CODED_IP */
+    AVOID_USING_HARD_CODED_IP(PMDWarnings.AVOID_USING_HARD_CODED_IP, PMDRuleSet.BASIC, "4.1"),
+
+    /** @see PMDWarnings#CHECK_RESULT_SET */
+    CHECK_RESULT_SET(PMDWarnings.CHECK_RESULT_SET, PMDRuleSet.BASIC, "4.1"),
+
+    /** @see PMDWarnings#AVOID_MULTIPLE_UNARY_OPERATORS */
+    AVOID_MULTIPLE_UNARY_OPERATORS(PMDWarnings.AVOID_MULTIPLE_UNARY_OPERATORS, PMDRuleSet.BASIC, "4.2"),
+
+    /** @see PMDWarnings#EXTENDS_OBJECT */
+    EXTENDS_OBJECT(PMDWarnings.EXTENDS_OBJECT, PMDRuleSet.BASIC, "5.0"),
+
+    /** @see PMDWarnings#CHECK_SKIP_RESULT */
+    CHECK_SKIP_RESULT(PMDWarnings.CHECK_SKIP_RESULT, PMDRuleSet.BASIC, "5.0"),
+
+    /** @see PMDWarnings#AVOID_BRANCHING_STATEMENT_AS_LAST_IN_LOOP */
+    AVOID_BRANCHING_STATEMENT_AS_LAST_IN_LOOP(PMDWarnings.AVOID_BRANCHING_STATEMENT_AS_LAST_IN_LOOP,
+            PMDRuleSet.BASIC, "5.0"),
+
+    /** @see PMDWarnings#DONT_CALL_THREAD_RUN */
+    DONT_CALL_THREAD_RUN(PMDWarnings.DONT_CALL_THREAD_RUN, PMDRuleSet.BASIC, "4.3"),
+
+    /** @see PMDWarnings#DONT_USE_FLOAT_TYPE_FOR_LOOP_INDICES */
+    DONT_USE_FLOAT_TYPE_FOR_LOOP_INDICES(PMDWarnings.DONT_USE_FLOAT_TYPE_FOR_LOOP_INDICES, PMDRuleSet.BASIC, "4.3"),
+
+    /** @see PMDWarnings#IF_STMTS_MUST_USE_BRACES */
+    IF_STMTS_MUST_USE_BRACES(PMDWarnings.IF_STMTS_MUST_USE_BRACES, PMDRuleSet.BRACES, "1.0"),
+
+    /** @see PMDWarnings#WHILE_LOOPS_MUST_USE_BRACES */
+    WHILE_LOOPS_MUST_USE_BRACES(PMDWarnings.WHILE_LOOPS_MUST_USE_BRACES, PMDRuleSet.BRACES, "0.7"),
+
+    /** @see PMDWarnings#IF_ELSE_STATEMENTS_MUST_USE_BRACES */
+    IF_ELSE_STATEMENTS_MUST_USE_BRACES(PMDWarnings.IF_ELSE_STATEMENTS_MUST_USE_BRACES, PMDRuleSet.BRACES, "0.2"),
+
+    /** @see PMDWarnings#FOR_LOOPS_MUST_USE_BRACES */
+    FOR_LOOPS_MUST_USE_BRACES(PMDWarnings.FOR_LOOPS_MUST_USE_BRACES, PMDRuleSet.BRACES, "0.7"),
+
+    /** @see PMDWarnings#PROPER_CLONE_IMPLEMENTATION */
+    PROPER_CLONE_IMPLEMENTATION(PMDWarnings.PROPER_CLONE_IMPLEMENTATION, PMDRuleSet.CLONE, "1.4"),
+
+    /** @see PMDWarnings#CLONE_THROWS_CLONE_NOT_SUPPORTED_EXCEPTION */
+    CLONE_THROWS_CLONE_NOT_SUPPORTED_EXCEPTION(PMDWarnings.CLONE_THROWS_CLONE_NOT_SUPPORTED_EXCEPTION,
+            PMDRuleSet.CLONE, "1.9"),
+
+    /** @see PMDWarnings#CLONE_METHOD_MUST_IMPLEMENT_CLONEABLE */
+    CLONE_METHOD_MUST_IMPLEMENT_CLONEABLE(PMDWarnings.CLONE_METHOD_MUST_IMPLEMENT_CLONEABLE, PMDRuleSet.CLONE, "1.9"),
+
+    /** @see PMDWarnings#NPATH_COMPLEXITY */
+    NPATH_COMPLEXITY(PMDWarnings.NPATH_COMPLEXITY, PMDRuleSet.CODESIZE, "3.9"),
+
+    /** @see PMDWarnings#EXCESSIVE_METHOD_LENGTH */
+    EXCESSIVE_METHOD_LENGTH(PMDWarnings.EXCESSIVE_METHOD_LENGTH, PMDRuleSet.CODESIZE, "0.6"),
+
+    /** @see PMDWarnings#EXCESSIVE_PARAMETER_LIST */
+    EXCESSIVE_PARAMETER_LIST(PMDWarnings.EXCESSIVE_PARAMETER_LIST, PMDRuleSet.CODESIZE, "0.9"),
+
+    /** @see PMDWarnings#EXCESSIVE_CLASS_LENGTH */
+    EXCESSIVE_CLASS_LENGTH(PMDWarnings.EXCESSIVE_CLASS_LENGTH, PMDRuleSet.CODESIZE, "0.6"),
+
+    /** @see PMDWarnings#CYCLOMATIC_COMPLEXITY */
+    CYCLOMATIC_COMPLEXITY(PMDWarnings.CYCLOMATIC_COMPLEXITY, PMDRuleSet.CODESIZE, "1.03"),
+
+    /** @see PMDWarnings#EXCESSIVE_PUBLIC_COUNT */
+    EXCESSIVE_PUBLIC_COUNT(PMDWarnings.EXCESSIVE_PUBLIC_COUNT, PMDRuleSet.CODESIZE, "1.04"),
+
+    /** @see PMDWarnings#TOO_MANY_FIELDS */
+    TOO_MANY_FIELDS(PMDWarnings.TOO_MANY_FIELDS, PMDRuleSet.CODESIZE, "3.0"),
+
+    /** @see PMDWarnings#NCSS_METHOD_COUNT */
+    NCSS_METHOD_COUNT(PMDWarnings.NCSS_METHOD_COUNT, PMDRuleSet.CODESIZE, "3.9"),
+
+    /** @see PMDWarnings#NCSS_TYPE_COUNT */
+    NCSS_TYPE_COUNT(PMDWarnings.NCSS_TYPE_COUNT, PMDRuleSet.CODESIZE, "3.9"),
+
+    /** @see PMDWarnings#NCSS_CONSTRUCTOR_COUNT */
+    NCSS_CONSTRUCTOR_COUNT(PMDWarnings.NCSS_CONSTRUCTOR_COUNT, PMDRuleSet.CODESIZE, "3.9"),
+
+    /** @see PMDWarnings#TOO_MANY_METHODS */
+    TOO_MANY_METHODS(PMDWarnings.TOO_MANY_METHODS, PMDRuleSet.CODESIZE, "4.2"),
+
+    /** @see PMDWarnings#COMMENT_REQUIRED */
+    COMMENT_REQUIRED(PMDWarnings.COMMENT_REQUIRED, PMDRuleSet.COMMENTS, "5.0"),
+
+    /** @see PMDWarnings#COMMENT_SIZE */
+    COMMENT_SIZE(PMDWarnings.COMMENT_SIZE, PMDRuleSet.COMMENTS, "5.0"),
+
+    /** @see PMDWarnings#COMMENT_CONTENT */
+    COMMENT_CONTENT(PMDWarnings.COMMENT_CONTENT, PMDRuleSet.COMMENTS, "5.0"),
+
+    /** @see PMDWarnings#UNNECESSARY_CONSTRUCTOR */
+    UNNECESSARY_CONSTRUCTOR(PMDWarnings.UNNECESSARY_CONSTRUCTOR, PMDRuleSet.CONTROVERSIAL, "1.0"),
+
+    /** @see PMDWarnings#NULL_ASSIGNMENT */
+    NULL_ASSIGNMENT(PMDWarnings.NULL_ASSIGNMENT, PMDRuleSet.CONTROVERSIAL, "1.02"),
+
+    /** @see PMDWarnings#ONLY_ONE_RETURN */
+    ONLY_ONE_RETURN(PMDWarnings.ONLY_ONE_RETURN, PMDRuleSet.CONTROVERSIAL, "1.0"),
+
+    /** @see PMDWarnings#ASSIGNMENT_IN_OPERAND */
+    ASSIGNMENT_IN_OPERAND(PMDWarnings.ASSIGNMENT_IN_OPERAND, PMDRuleSet.CONTROVERSIAL, "1.03"),
+
+    /** @see PMDWarnings#AT_LEAST_ONE_CONSTRUCTOR */
+    AT_LEAST_ONE_CONSTRUCTOR(PMDWarnings.AT_LEAST_ONE_CONSTRUCTOR, PMDRuleSet.CONTROVERSIAL, "1.04"),
+
+    /** @see PMDWarnings#DONT_IMPORT_SUN */
+    DONT_IMPORT_SUN(PMDWarnings.DONT_IMPORT_SUN, PMDRuleSet.CONTROVERSIAL, "1.5"),
+
+    /** @see PMDWarnings#SUSPICIOUS_OCTAL_ESCAPE */
+    SUSPICIOUS_OCTAL_ESCAPE(PMDWarnings.SUSPICIOUS_OCTAL_ESCAPE, PMDRuleSet.CONTROVERSIAL, "1.5"),
+
+    /** @see PMDWarnings#CALL_SUPER_IN_CONSTRUCTOR */
+    CALL_SUPER_IN_CONSTRUCTOR(PMDWarnings.CALL_SUPER_IN_CONSTRUCTOR, PMDRuleSet.CONTROVERSIAL, "3.0"),
+
+    /** @see PMDWarnings#UNNECESSARY_PARENTHESES */
+    UNNECESSARY_PARENTHESES(PMDWarnings.UNNECESSARY_PARENTHESES, PMDRuleSet.CONTROVERSIAL, "3.1"),
+
+    /** @see PMDWarnings#DEFAULT_PACKAGE */
+    DEFAULT_PACKAGE(PMDWarnings.DEFAULT_PACKAGE, PMDRuleSet.CONTROVERSIAL, "3.4"),
+
+    /** @see PMDWarnings#BOOLEAN_INVERSION */
+    BOOLEAN_INVERSION(PMDWarnings.BOOLEAN_INVERSION, PMDRuleSet.CONTROVERSIAL, "3.5"),
+
+    /** @see PMDWarnings#DATAFLOW_ANOMALY_ANALYSIS */
+    DATAFLOW_ANOMALY_ANALYSIS(PMDWarnings.DATAFLOW_ANOMALY_ANALYSIS, PMDRuleSet.CONTROVERSIAL, "3.9"),
+
+    /** @see PMDWarnings#AVOID_FINAL_LOCAL_VARIABLE */
+    AVOID_FINAL_LOCAL_VARIABLE(PMDWarnings.AVOID_FINAL_LOCAL_VARIABLE, PMDRuleSet.CONTROVERSIAL, "4.1"),
+
+    /** @see PMDWarnings#AVOID_USING_SHORT_TYPE */
+    AVOID_USING_SHORT_TYPE(PMDWarnings.AVOID_USING_SHORT_TYPE, PMDRuleSet.CONTROVERSIAL, "4.1"),
+
+    /** @see PMDWarnings#AVOID_USING_VOLATILE */
+    AVOID_USING_VOLATILE(PMDWarnings.AVOID_USING_VOLATILE, PMDRuleSet.CONTROVERSIAL, "4.1"),
+
+    /** @see PMDWarnings#AVOID_USING_NATIVE_CODE */
+    AVOID_USING_NATIVE_CODE(PMDWarnings.AVOID_USING_NATIVE_CODE, PMDRuleSet.CONTROVERSIAL, "4.1"),
+
+    /** @see PMDWarnings#AVOID_ACCESSIBILITY_ALTERATION */
+    AVOID_ACCESSIBILITY_ALTERATION(PMDWarnings.AVOID_ACCESSIBILITY_ALTERATION, PMDRuleSet.CONTROVERSIAL, "4.1"),
+
+    /** @see PMDWarnings#DO_NOT_CALL_GARBAGE_COLLECTION_EXPLICITLY */
+    DO_NOT_CALL_GARBAGE_COLLECTION_EXPLICITLY(PMDWarnings.DO_NOT_CALL_GARBAGE_COLLECTION_EXPLICITLY,
+            PMDRuleSet.CONTROVERSIAL, "4.2"),
+
+    /** @see PMDWarnings#ONE_DECLARATION_PER_LINE */
+    ONE_DECLARATION_PER_LINE(PMDWarnings.ONE_DECLARATION_PER_LINE, PMDRuleSet.CONTROVERSIAL, "5.0"),
+
+    /** @see PMDWarnings#AVOID_PREFIXING_METHOD_PARAMETERS */
+    AVOID_PREFIXING_METHOD_PARAMETERS(PMDWarnings.AVOID_PREFIXING_METHOD_PARAMETERS, PMDRuleSet.CONTROVERSIAL, "5.0"),
+
+    /** @see PMDWarnings#AVOID_LITERALS_IN_IF_CONDITION */
+    AVOID_LITERALS_IN_IF_CONDITION(PMDWarnings.AVOID_LITERALS_IN_IF_CONDITION, PMDRuleSet.CONTROVERSIAL, "4.2.6"),
+
+    /** @see PMDWarnings#USE_OBJECT_FOR_CLEARER_API */
+    USE_OBJECT_FOR_CLEARER_API(PMDWarnings.USE_OBJECT_FOR_CLEARER_API, PMDRuleSet.CONTROVERSIAL, "4.2.6"),
+
+    /** @see PMDWarnings#USE_CONCURRENT_HASH_MAP */
+    USE_CONCURRENT_HASH_MAP(PMDWarnings.USE_CONCURRENT_HASH_MAP, PMDRuleSet.CONTROVERSIAL, "4.2.6"),
+
+    /** @see PMDWarnings#COUPLING_BETWEEN_OBJECTS */
+    COUPLING_BETWEEN_OBJECTS(PMDWarnings.COUPLING_BETWEEN_OBJECTS, PMDRuleSet.COUPLING, "1.04"),
+
+    /** @see PMDWarnings#EXCESSIVE_IMPORTS */
+    EXCESSIVE_IMPORTS(PMDWarnings.EXCESSIVE_IMPORTS, PMDRuleSet.COUPLING, "1.04"),
+
+    /** @see PMDWarnings#LOOSE_COUPLING */
+    LOOSE_COUPLING(PMDWarnings.LOOSE_COUPLING, PMDRuleSet.COUPLING, "0.7"),
+
+    /** @see PMDWarnings#LOOSE_PACKAGE_COUPLING */
+    LOOSE_PACKAGE_COUPLING(PMDWarnings.LOOSE_PACKAGE_COUPLING, PMDRuleSet.COUPLING, "5.0"),
+
+    /** @see PMDWarnings#LAW_OF_DEMETER */
+    LAW_OF_DEMETER(PMDWarnings.LAW_OF_DEMETER, PMDRuleSet.COUPLING, "5.0"),
+
+    /** @see PMDWarnings#USE_SINGLETON */
+    USE_SINGLETON(PMDWarnings.USE_SINGLETON, PMDRuleSet.DESIGN, "0.3"),
+
+    /** @see PMDWarnings#SIMPLIFY_BOOLEAN_RETURNS */
+    SIMPLIFY_BOOLEAN_RETURNS(PMDWarnings.SIMPLIFY_BOOLEAN_RETURNS, PMDRuleSet.DESIGN, "0.9"),
+
+    /** @see PMDWarnings#SIMPLIFY_BOOLEAN_EXPRESSIONS */
+    SIMPLIFY_BOOLEAN_EXPRESSIONS(PMDWarnings.SIMPLIFY_BOOLEAN_EXPRESSIONS, PMDRuleSet.DESIGN, "1.05"),
+
+    /** @see PMDWarnings#SWITCH_STATEMENTS_SHOULD_HAVE_DEFAULT */
+    SWITCH_STATEMENTS_SHOULD_HAVE_DEFAULT(PMDWarnings.SWITCH_STATEMENTS_SHOULD_HAVE_DEFAULT, PMDRuleSet.DESIGN, "1.0"),
+
+    /** @see PMDWarnings#AVOID_DEEPLY_NESTED_IF_STATEMENTS */
+    AVOID_DEEPLY_NESTED_IF_STATEMENTS(PMDWarnings.AVOID_DEEPLY_NESTED_IF_STATEMENTS, PMDRuleSet.DESIGN, "1.0"),
+
+    /** @see PMDWarnings#AVOID_REASSIGNING_PARAMETERS */
+    AVOID_REASSIGNING_PARAMETERS(PMDWarnings.AVOID_REASSIGNING_PARAMETERS, PMDRuleSet.DESIGN, "1.0"),
+
+    /** @see PMDWarnings#SWITCH_DENSITY */
+    SWITCH_DENSITY(PMDWarnings.SWITCH_DENSITY, PMDRuleSet.DESIGN, "1.02"),
+
+    /** @see PMDWarnings#CONSTRUCTOR_CALLS_OVERRIDABLE_METHOD */
+    CONSTRUCTOR_CALLS_OVERRIDABLE_METHOD(PMDWarnings.CONSTRUCTOR_CALLS_OVERRIDABLE_METHOD, PMDRuleSet.DESIGN, "1.04"),
+
+    /** @see PMDWarnings#ACCESSOR_CLASS_GENERATION */
+    ACCESSOR_CLASS_GENERATION(PMDWarnings.ACCESSOR_CLASS_GENERATION, PMDRuleSet.DESIGN, "1.04"),
+
+    /** @see PMDWarnings#FINAL_FIELD_COULD_BE_STATIC */
+    FINAL_FIELD_COULD_BE_STATIC(PMDWarnings.FINAL_FIELD_COULD_BE_STATIC, PMDRuleSet.DESIGN, "1.1"),
+
+    /** @see PMDWarnings#CLOSE_RESOURCE */
+    CLOSE_RESOURCE(PMDWarnings.CLOSE_RESOURCE, PMDRuleSet.DESIGN, "1.2.2"),
+
+    /** @see PMDWarnings#NON_STATIC_INITIALIZER */
+    NON_STATIC_INITIALIZER(PMDWarnings.NON_STATIC_INITIALIZER, PMDRuleSet.DESIGN, "1.5"),
+
+    /** @see PMDWarnings#DEFAULT_LABEL_NOT_LAST_IN_SWITCH_STATEMENT */
+    DEFAULT_LABEL_NOT_LAST_IN_SWITCH_STATEMENT(PMDWarnings.DEFAULT_LABEL_NOT_LAST_IN_SWITCH_STATEMENT,
+            PMDRuleSet.DESIGN, "1.5"),
+
+    /** @see PMDWarnings#NON_CASE_LABEL_IN_SWITCH_STATEMENT */
+    NON_CASE_LABEL_IN_SWITCH_STATEMENT(PMDWarnings.NON_CASE_LABEL_IN_SWITCH_STATEMENT, PMDRuleSet.DESIGN, "1.5"),
+
+    /** @see PMDWarnings#OPTIMIZABLE_TO_ARRAY_CALL */
+    OPTIMIZABLE_TO_ARRAY_CALL(PMDWarnings.OPTIMIZABLE_TO_ARRAY_CALL, PMDRuleSet.DESIGN, "1.8"),
+
+    /** @see PMDWarnings#BAD_COMPARISON */
+    BAD_COMPARISON(PMDWarnings.BAD_COMPARISON, PMDRuleSet.DESIGN, "1.8"),
+
+    /** @see PMDWarnings#EQUALS_NULL */
+    EQUALS_NULL(PMDWarnings.EQUALS_NULL, PMDRuleSet.DESIGN, "1.9"),
+
+    /** @see PMDWarnings#CONFUSING_TERNARY */
+    CONFUSING_TERNARY(PMDWarnings.CONFUSING_TERNARY, PMDRuleSet.DESIGN, "1.9"),
+
+    /** @see PMDWarnings#INSTANTIATION_TO_GET_CLASS */
+    INSTANTIATION_TO_GET_CLASS(PMDWarnings.INSTANTIATION_TO_GET_CLASS, PMDRuleSet.DESIGN, "2.0"),
+
+    /** @see PMDWarnings#IDEMPOTENT_OPERATIONS */
+    IDEMPOTENT_OPERATIONS(PMDWarnings.IDEMPOTENT_OPERATIONS, PMDRuleSet.DESIGN, "2.0"),
+
+    /** @see PMDWarnings#SIMPLE_DATE_FORMAT_NEEDS_LOCALE */
+    SIMPLE_DATE_FORMAT_NEEDS_LOCALE(PMDWarnings.SIMPLE_DATE_FORMAT_NEEDS_LOCALE, PMDRuleSet.DESIGN, "2.0"),
+
+    /** @see PMDWarnings#IMMUTABLE_FIELD */
+    IMMUTABLE_FIELD(PMDWarnings.IMMUTABLE_FIELD, PMDRuleSet.DESIGN, "2.0"),
+
+    /** @see PMDWarnings#USE_LOCALE_WITH_CASE_CONVERSIONS */
+    USE_LOCALE_WITH_CASE_CONVERSIONS(PMDWarnings.USE_LOCALE_WITH_CASE_CONVERSIONS, PMDRuleSet.DESIGN, "2.0"),
+
+    /** @see PMDWarnings#AVOID_PROTECTED_FIELD_IN_FINAL_CLASS */
+    AVOID_PROTECTED_FIELD_IN_FINAL_CLASS(PMDWarnings.AVOID_PROTECTED_FIELD_IN_FINAL_CLASS, PMDRuleSet.DESIGN, "2.1"),
+
+    /** @see PMDWarnings#ASSIGNMENT_TO_NON_FINAL_STATIC */
+    ASSIGNMENT_TO_NON_FINAL_STATIC(PMDWarnings.ASSIGNMENT_TO_NON_FINAL_STATIC, PMDRuleSet.DESIGN, "2.2"),
+
+    /** @see PMDWarnings#MISSING_STATIC_METHOD_IN_NON_INSTANTIATABLE_CLASS */
+    MISSING_STATIC_METHOD_IN_NON_INSTANTIATABLE_CLASS(PMDWarnings.MISSING_STATIC_METHOD_IN_NON_INSTANTIATABLE_CLASS,
+            PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#AVOID_SYNCHRONIZED_AT_METHOD_LEVEL */
+    AVOID_SYNCHRONIZED_AT_METHOD_LEVEL(PMDWarnings.AVOID_SYNCHRONIZED_AT_METHOD_LEVEL, PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#MISSING_BREAK_IN_SWITCH */
+    MISSING_BREAK_IN_SWITCH(PMDWarnings.MISSING_BREAK_IN_SWITCH, PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#USE_NOTIFY_ALL_INSTEAD_OF_NOTIFY */
+    USE_NOTIFY_ALL_INSTEAD_OF_NOTIFY(PMDWarnings.USE_NOTIFY_ALL_INSTEAD_OF_NOTIFY, PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#AVOID_INSTANCEOF_CHECKS_IN_CATCH_CLAUSE */
+    AVOID_INSTANCEOF_CHECKS_IN_CATCH_CLAUSE(PMDWarnings.AVOID_INSTANCEOF_CHECKS_IN_CATCH_CLAUSE,
+            PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#ABSTRACT_CLASS_WITH_ABSTRACT_METHOD */
+    ABSTRACT_CLASS_WITH_ABSTRACT_METHOD(PMDWarnings.ABSTRACT_CLASS_WITH_ABSTRACT_METHOD, PMDRuleSet.DESIGN, "3.0"),
+
+    /** @see PMDWarnings#SIMPLIFY_CONDITIONAL */
+    SIMPLIFY_CONDITIONAL(PMDWarnings.SIMPLIFY_CONDITIONAL, PMDRuleSet.DESIGN, "3.1"),
+
+    /** @see PMDWarnings#COMPARE_OBJECTS_WITH_EQUALS */
+    COMPARE_OBJECTS_WITH_EQUALS(PMDWarnings.COMPARE_OBJECTS_WITH_EQUALS, PMDRuleSet.DESIGN, "3.2"),
+
+    /** @see PMDWarnings#POSITION_LITERALS_FIRST_IN_COMPARISONS */
+    POSITION_LITERALS_FIRST_IN_COMPARISONS(PMDWarnings.POSITION_LITERALS_FIRST_IN_COMPARISONS,
+            PMDRuleSet.DESIGN, "3.3"),
+
+    /** @see PMDWarnings#UNNECESSARY_LOCAL_BEFORE_RETURN */
+    UNNECESSARY_LOCAL_BEFORE_RETURN(PMDWarnings.UNNECESSARY_LOCAL_BEFORE_RETURN, PMDRuleSet.DESIGN, "3.3"),
+
+    /** @see PMDWarnings#NON_THREAD_SAFE_SINGLETON */
+    NON_THREAD_SAFE_SINGLETON(PMDWarnings.NON_THREAD_SAFE_SINGLETON, PMDRuleSet.DESIGN, "3.4"),
+
+    /** @see PMDWarnings#UNCOMMENTED_EMPTY_METHOD */
+    UNCOMMENTED_EMPTY_METHOD(PMDWarnings.UNCOMMENTED_EMPTY_METHOD, PMDRuleSet.DESIGN, "3.4"),
+
+    /** @see PMDWarnings#UNCOMMENTED_EMPTY_CONSTRUCTOR */
+    UNCOMMENTED_EMPTY_CONSTRUCTOR(PMDWarnings.UNCOMMENTED_EMPTY_CONSTRUCTOR, PMDRuleSet.DESIGN, "3.4"),
+
+    /** @see PMDWarnings#AVOID_CONSTANTS_INTERFACE */
+    AVOID_CONSTANTS_INTERFACE(PMDWarnings.AVOID_CONSTANTS_INTERFACE, PMDRuleSet.DESIGN, "3.5"),
+
+    /** @see PMDWarnings#UNSYCHRONIZED_STATIC_DATE_FORMATTER */
+    UNSYCHRONIZED_STATIC_DATE_FORMATTER(PMDWarnings.UNSYCHRONIZED_STATIC_DATE_FORMATTER, PMDRuleSet.DESIGN, "3.6"),
+
+    /** @see PMDWarnings#PRESERVE_STACK_TRACE */
+    PRESERVE_STACK_TRACE(PMDWarnings.PRESERVE_STACK_TRACE, PMDRuleSet.DESIGN, "3.7"),
+
+    /** @see PMDWarnings#USE_COLLECTION_IS_EMPTY */
+    USE_COLLECTION_IS_EMPTY(PMDWarnings.USE_COLLECTION_IS_EMPTY, PMDRuleSet.DESIGN, "3.9"),
+
+    /** @see PMDWarnings#CLASS_WITH_ONLY_PRIVATE_CONSTRUCTOR_SHOULD_BE_FINAL */
+    CLASS_WITH_ONLY_PRIVATE_CONSTRUCTOR_SHOULD_BE_FINAL(PMDWarnings.CLASS_WITH_ONLY_PRIVATE_CONSTRUCTOR_SHOULD_BE_FINAL,
+            PMDRuleSet.DESIGN, "4.1"),
+
+    /** @see PMDWarnings#EMPTY_METHOD_IN_ABSTRACT_CLASS_SHOULD_BE_ABSTRACT */
+    EMPTY_METHOD_IN_ABSTRACT_CLASS_SHOULD_BE_ABSTRACT(PMDWarnings.EMPTY_METHOD_IN_ABSTRACT_CLASS_SHOULD_BE_ABSTRACT,
+            PMDRuleSet.DESIGN, "4.1"),
+
+    /** @see PMDWarnings#SINGULAR_FIELD */
+    SINGULAR_FIELD(PMDWarnings.SINGULAR_FIELD, PMDRuleSet.DESIGN, "3.1"),
+
+    /** @see PMDWarnings#RETURN_EMPTY_ARRAY_RATHER_THAN_NULL */
+    RETURN_EMPTY_ARRAY_RATHER_THAN_NULL(PMDWarnings.RETURN_EMPTY_ARRAY_RATHER_THAN_NULL, PMDRuleSet.DESIGN, "4.2"),
+
+    /** @see PMDWarnings#ABSTRACT_CLASS_WITHOUT_ANY_METHOD */
+    ABSTRACT_CLASS_WITHOUT_ANY_METHOD(PMDWarnings.ABSTRACT_CLASS_WITHOUT_ANY_METHOD, PMDRuleSet.DESIGN, "4.2"),
+
+    /** @see PMDWarnings#TOO_FEW_BRANCHES_FOR_A_SWITCH_STATEMENT */
+    TOO_FEW_BRANCHES_FOR_A_SWITCH_STATEMENT(PMDWarnings.TOO_FEW_BRANCHES_FOR_A_SWITCH_STATEMENT,
+            PMDRuleSet.DESIGN, "4.2"),
+
+    /** @see PMDWarnings#LOGIC_INVERSION */
+    LOGIC_INVERSION(PMDWarnings.LOGIC_INVERSION, PMDRuleSet.DESIGN, "5.0"),
+
+    /** @see PMDWarnings#USE_VARARGS */
+    USE_VARARGS(PMDWarnings.USE_VARARGS, PMDRuleSet.DESIGN, "5.0"),
+
+    /** @see PMDWarnings#FIELD_DECLARATIONS_SHOULD_BE_AT_START_OF_CLASS */
+    FIELD_DECLARATIONS_SHOULD_BE_AT_START_OF_CLASS(PMDWarnings.FIELD_DECLARATIONS_SHOULD_BE_AT_START_OF_CLASS,
+            PMDRuleSet.DESIGN, "5.0"),
+
+    /** @see PMDWarnings#GOD_CLASS */
+    GOD_CLASS(PMDWarnings.GOD_CLASS, PMDRuleSet.DESIGN, "5.0"),
+
+    /** @see PMDWarnings#EMPTY_CATCH_BLOCK */
+    EMPTY_CATCH_BLOCK(PMDWarnings.EMPTY_CATCH_BLOCK, PMDRuleSet.EMPTY, "0.1"),
+
+    /** @see PMDWarnings#EMPTY_IF_STATEMENT */
+    EMPTY_IF_STATEMENT(PMDWarnings.EMPTY_IF_STATEMENT, PMDRuleSet.EMPTY, "0.1"),
+
+    /** @see PMDWarnings#EMPTY_WHILE_STATEMENT */
+    EMPTY_WHILE_STATEMENT(PMDWarnings.EMPTY_WHILE_STATEMENT, PMDRuleSet.EMPTY, "0.2"),
+
+    /** @see PMDWarnings#EMPTY_TRY_BLOCK */
+    EMPTY_TRY_BLOCK(PMDWarnings.EMPTY_TRY_BLOCK, PMDRuleSet.EMPTY, "0.4"),
+
+    /** @see PMDWarnings#EMPTY_FINALLY_BLOCK */
+    EMPTY_FINALLY_BLOCK(PMDWarnings.EMPTY_FINALLY_BLOCK, PMDRuleSet.EMPTY, "0.4"),
+
+    /** @see PMDWarnings#EMPTY_SWITCH_STATEMENTS */
+    EMPTY_SWITCH_STATEMENTS(PMDWarnings.EMPTY_SWITCH_STATEMENTS, PMDRuleSet.EMPTY, "1.0"),
+
+    /** @see PMDWarnings#EMPTY_SYNCHRONIZED_BLOCK */
+    EMPTY_SYNCHRONIZED_BLOCK(PMDWarnings.EMPTY_SYNCHRONIZED_BLOCK, PMDRuleSet.EMPTY, "1.3"),
+
+    /** @see PMDWarnings#EMPTY_STATEMENT_NOT_IN_LOOP */
+    EMPTY_STATEMENT_NOT_IN_LOOP(PMDWarnings.EMPTY_STATEMENT_NOT_IN_LOOP, PMDRuleSet.EMPTY, "1.5"),
+
+    /** @see PMDWarnings#EMPTY_INITIALIZER */
+    EMPTY_INITIALIZER(PMDWarnings.EMPTY_INITIALIZER, PMDRuleSet.EMPTY, "5.0"),
+
+    /** @see PMDWarnings#EMPTY_STATEMENT_BLOCK */
+    EMPTY_STATEMENT_BLOCK(PMDWarnings.EMPTY_STATEMENT_BLOCK, PMDRuleSet.EMPTY, "5.0"),
+
+    /** @see PMDWarnings#EMPTY_STATIC_INITIALIZER */
+    EMPTY_STATIC_INITIALIZER(PMDWarnings.EMPTY_STATIC_INITIALIZER, PMDRuleSet.EMPTY, "1.5"),
+
+    /** @see PMDWarnings#EMPTY_FINANLIZER */
+    EMPTY_FINANLIZER(PMDWarnings.EMPTY_FINANLIZER, PMDRuleSet.FINALIZERS, "1.5"),
+
+    /** @see PMDWarnings#FINALIZE_ONLY_CALLS_SUPER_FINALIZE */
+    FINALIZE_ONLY_CALLS_SUPER_FINALIZE(PMDWarnings.FINALIZE_ONLY_CALLS_SUPER_FINALIZE, PMDRuleSet.FINALIZERS, "1.5"),
+
+    /** @see PMDWarnings#FINALIZE_OVERLOADED */
+    FINALIZE_OVERLOADED(PMDWarnings.FINALIZE_OVERLOADED, PMDRuleSet.FINALIZERS, "1.5"),
+
+    /** @see PMDWarnings#FINALIZE_DOES_NOT_CALL_SUPER_FINALIZE */
+    FINALIZE_DOES_NOT_CALL_SUPER_FINALIZE(PMDWarnings.FINALIZE_DOES_NOT_CALL_SUPER_FINALIZE,
+            PMDRuleSet.FINALIZERS, "1.5"),
+
+    /** @see PMDWarnings#FINALIZE_SHOULD_BE_PROTECTED */
+    FINALIZE_SHOULD_BE_PROTECTED(PMDWarnings.FINALIZE_SHOULD_BE_PROTECTED, PMDRuleSet.FINALIZERS, "1.1"),
+
+    /** @see PMDWarnings#AVOID_CALLING_FINALIZE */
+    AVOID_CALLING_FINALIZE(PMDWarnings.AVOID_CALLING_FINALIZE, PMDRuleSet.FINALIZERS, "3.0"),
+
+    /** @see PMDWarnings#DUPLICATE_IMPORTS */
+    DUPLICATE_IMPORTS(PMDWarnings.DUPLICATE_IMPORTS, PMDRuleSet.IMPORTS, "0.5"),
+
+    /** @see PMDWarnings#DONT_IMPORT_JAVA_LANG */
+    DONT_IMPORT_JAVA_LANG(PMDWarnings.DONT_IMPORT_JAVA_LANG, PMDRuleSet.IMPORTS, "0.5"),
+
+    /** @see PMDWarnings#UNUSED_IMPORTS */
+    UNUSED_IMPORTS(PMDWarnings.UNUSED_IMPORTS, PMDRuleSet.IMPORTS, "1.0"),
+
+    /** @see PMDWarnings#IMPORT_FROM_SAME_PACKAGE */
+    IMPORT_FROM_SAME_PACKAGE(PMDWarnings.IMPORT_FROM_SAME_PACKAGE, PMDRuleSet.IMPORTS, "1.02"),
+
+    /** @see PMDWarnings#TOO_MANY_STATIC_IMPORTS */
+    TOO_MANY_STATIC_IMPORTS(PMDWarnings.TOO_MANY_STATIC_IMPORTS, PMDRuleSet.IMPORTS, "4.1"),
+
+    /** @see PMDWarnings#UNNECESSARY_FULLY_QUALIFIED_NAME */
+    UNNECESSARY_FULLY_QUALIFIED_NAME(PMDWarnings.UNNECESSARY_FULLY_QUALIFIED_NAME, PMDRuleSet.IMPORTS, "5.0"),
+
+    /** @see PMDWarnings#USE_PROPER_CLASS_LOADER */
+    USE_PROPER_CLASS_LOADER(PMDWarnings.USE_PROPER_CLASS_LOADER, PMDRuleSet.J2EE, "3.7"),
+
+    /** @see PMDWarnings#MDB_AND_SESSION_BEAN_NAMING_CONVENTION */
+    MDB_AND_SESSION_BEAN_NAMING_CONVENTION(PMDWarnings.MDB_AND_SESSION_BEAN_NAMING_CONVENTION, PMDRuleSet.J2EE, "4.0"),
+
+    /** @see PMDWarnings#REMOTE_SESSION_INTERFACE_NAMING_CONVENTION */
+    REMOTE_SESSION_INTERFACE_NAMING_CONVENTION(PMDWarnings.REMOTE_SESSION_INTERFACE_NAMING_CONVENTION,
+            PMDRuleSet.J2EE, "4.0"),
+
+    /** @see PMDWarnings#LOCAL_INTERFACE_SESSION_NAMING_CONVENTION */
+    LOCAL_INTERFACE_SESSION_NAMING_CONVENTION(PMDWarnings.LOCAL_INTERFACE_SESSION_NAMING_CONVENTION,
+            PMDRuleSet.J2EE, "4.0"),
+
+    /** @see PMDWarnings#LOCAL_HOME_NAMING_CONVENTION */
+    LOCAL_HOME_NAMING_CONVENTION(PMDWarnings.LOCAL_HOME_NAMING_CONVENTION, PMDRuleSet.J2EE, "4.0"),
+
+    /** @see PMDWarnings#REMOTE_INTERFACE_NAMING_CONVENTION */
+    REMOTE_INTERFACE_NAMING_CONVENTION(PMDWarnings.REMOTE_INTERFACE_NAMING_CONVENTION, PMDRuleSet.J2EE, "4.0"),
+
+    /** @see PMDWarnings#DO_NOT_CALL_SYSTEM_EXIT */
+    DO_NOT_CALL_SYSTEM_EXIT(PMDWarnings.DO_NOT_CALL_SYSTEM_EXIT, PMDRuleSet.J2EE, "4.1"),
+
+    /** @see PMDWarnings#STATIC_EJB_FIELD_SHOULD_BE_FINAL */
+    STATIC_EJB_FIELD_SHOULD_BE_FINAL(PMDWarnings.STATIC_EJB_FIELD_SHOULD_BE_FINAL, PMDRuleSet.J2EE, "4.1"),
+
+    /** @see PMDWarnings#DO_NOT_USE_THREADS */
+    DO_NOT_USE_THREADS(PMDWarnings.DO_NOT_USE_THREADS, PMDRuleSet.J2EE, "4.1"),
+
+    /** @see PMDWarnings#BEAN_MEMBERS_SHOULD_SERIALIZE */
+    BEAN_MEMBERS_SHOULD_SERIALIZE(PMDWarnings.BEAN_MEMBERS_SHOULD_SERIALIZE, PMDRuleSet.JAVABEANS, "1.1"),
+
+    /** @see PMDWarnings#MISSING_SERIAL_VERSION_UID */
+    MISSING_SERIAL_VERSION_UID(PMDWarnings.MISSING_SERIAL_VERSION_UID, PMDRuleSet.JAVABEANS, "3.0"),
+
+    /** @see PMDWarnings#JUNIT_STATIC_SUITE */
+    JUNIT_STATIC_SUITE(PMDWarnings.JUNIT_STATIC_SUITE, PMDRuleSet.JUNIT, "1.0"),
+
+    /** @see PMDWarnings#JUNIT_SPELLING */
+    JUNIT_SPELLING(PMDWarnings.JUNIT_SPELLING, PMDRuleSet.JUNIT, "1.0"),
+
+    /** @see PMDWarnings#JUNIT_ASSERTIONS_SHOULD_INCLUDE_MESSAGE */
+    JUNIT_ASSERTIONS_SHOULD_INCLUDE_MESSAGE(PMDWarnings.JUNIT_ASSERTIONS_SHOULD_INCLUDE_MESSAGE,
+            PMDRuleSet.JUNIT, "1.04"),
+
+    /** @see PMDWarnings#JUNIT_TESTS_SHOULD_INCLUDE_ASSERT */
+    JUNIT_TESTS_SHOULD_INCLUDE_ASSERT(PMDWarnings.JUNIT_TESTS_SHOULD_INCLUDE_ASSERT, PMDRuleSet.JUNIT, "2.0"),
+
+    /** @see PMDWarnings#TEST_CLASS_WITHOUT_TEST_CASES */
+    TEST_CLASS_WITHOUT_TEST_CASES(PMDWarnings.TEST_CLASS_WITHOUT_TEST_CASES, PMDRuleSet.JUNIT, "3.0"),
+
+    /** @see PMDWarnings#UNNECESSARY_BOOLEAN_ASSERTION */
+    UNNECESSARY_BOOLEAN_ASSERTION(PMDWarnings.UNNECESSARY_BOOLEAN_ASSERTION, PMDRuleSet.JUNIT, "3.0"),
+
+    /** @see PMDWarnings#USE_ASSERT_EQUALS_INSTEAD_OF_ASSERT_TRUE */
+    USE_ASSERT_EQUALS_INSTEAD_OF_ASSERT_TRUE(PMDWarnings.USE_ASSERT_EQUALS_INSTEAD_OF_ASSERT_TRUE,
+            PMDRuleSet.JUNIT, "3.1"),
+
+    /** @see PMDWarnings#USE_ASSERT_SAME_INSTEAD_OF_ASSERT_TRUE */
+    USE_ASSERT_SAME_INSTEAD_OF_ASSERT_TRUE(PMDWarnings.USE_ASSERT_SAME_INSTEAD_OF_ASSERT_TRUE, PMDRuleSet.JUNIT, "3.1"),
+
+    /** @see PMDWarnings#USE_ASSERT_NULL_INSTEAD_OF_ASSERT_TRUE */
+    USE_ASSERT_NULL_INSTEAD_OF_ASSERT_TRUE(PMDWarnings.USE_ASSERT_NULL_INSTEAD_OF_ASSERT_TRUE, PMDRuleSet.JUNIT, "3.5"),
+
+    /** @see PMDWarnings#SIMPLIFY_BOOLEAN_ASSERTION */
+    SIMPLIFY_BOOLEAN_ASSERTION(PMDWarnings.SIMPLIFY_BOOLEAN_ASSERTION, PMDRuleSet.JUNIT, "3.6"),
+
+    /** @see PMDWarnings#JUNIT_TEST_CONTAINS_TOO_MANY_ASSERTS */
+    JUNIT_TEST_CONTAINS_TOO_MANY_ASSERTS(PMDWarnings.JUNIT_TEST_CONTAINS_TOO_MANY_ASSERTS, PMDRuleSet.JUNIT, "5.0"),
+
+    /** @see PMDWarnings#USE_ASSERT_TRUE_INSTEAD_OF_ASSERT_EQUALS */
+    USE_ASSERT_TRUE_INSTEAD_OF_ASSERT_EQUALS(PMDWarnings.USE_ASSERT_TRUE_INSTEAD_OF_ASSERT_EQUALS,
+            PMDRuleSet.JUNIT, "5.0"),
+
+    /** @see PMDWarnings#USE_CORRECT_EXCEPTION_LOGGING */
+    USE_CORRECT_EXCEPTION_LOGGING(PMDWarnings.USE_CORRECT_EXCEPTION_LOGGING, PMDRuleSet.LOGGING_JAKARTA_COMMONS, "3.2"),
+
+    /** @see PMDWarnings#PROPER_LOGGER */
+    PROPER_LOGGER(PMDWarnings.PROPER_LOGGER, PMDRuleSet.LOGGING_JAKARTA_COMMONS, "3.3"),
+
+    /** @see PMDWarnings#GUARD_DEBUG_LOGGING */
+    GUARD_DEBUG_LOGGING(PMDWarnings.GUARD_DEBUG_LOGGING, PMDRuleSet.LOGGING_JAKARTA_COMMONS, "4.3"),
+
+    /** @see PMDWarnings#MORE_THAN_ONE_LOGGER */
+    MORE_THAN_ONE_LOGGER(PMDWarnings.MORE_THAN_ONE_LOGGER, PMDRuleSet.LOGGING_JAVA, "2.0"),
+
+    /** @see PMDWarnings#LOGGER_IS_NOT_STATIC_FINAL */
+    LOGGER_IS_NOT_STATIC_FINAL(PMDWarnings.LOGGER_IS_NOT_STATIC_FINAL, PMDRuleSet.LOGGING_JAVA, "2.0"),
+
+    /** @see PMDWarnings#SYSTEM_PRINTLN */
+    SYSTEM_PRINTLN(PMDWarnings.SYSTEM_PRINTLN, PMDRuleSet.LOGGING_JAVA, "2.1"),
+
+    /** @see PMDWarnings#AVOID_PRINT_STACK_TRACE */
+    AVOID_PRINT_STACK_TRACE(PMDWarnings.AVOID_PRINT_STACK_TRACE, PMDRuleSet.LOGGING_JAVA, "3.2"),
+
+    /** @see PMDWarnings#REPLACE_VECTOR_WITH_LIST */
+    REPLACE_VECTOR_WITH_LIST(PMDWarnings.REPLACE_VECTOR_WITH_LIST, PMDRuleSet.MIGRATING, "3.4"),
+
+    /** @see PMDWarnings#REPLACE_HASHTABLE_WITH_MAP */
+    REPLACE_HASHTABLE_WITH_MAP(PMDWarnings.REPLACE_HASHTABLE_WITH_MAP, PMDRuleSet.MIGRATING, "3.4"),
+
+    /** @see PMDWarnings#REPLACE_ENUMERATION_WITH_ITERATOR */
+    REPLACE_ENUMERATION_WITH_ITERATOR(PMDWarnings.REPLACE_ENUMERATION_WITH_ITERATOR, PMDRuleSet.MIGRATING, "3.4"),
+
+    /** @see PMDWarnings#AVOID_ENUM_AS_IDENTIFIER */
+    AVOID_ENUM_AS_IDENTIFIER(PMDWarnings.AVOID_ENUM_AS_IDENTIFIER, PMDRuleSet.MIGRATING, "3.4"),
+
+    /** @see PMDWarnings#AVOID_ASSERT_AS_IDENTIFIER */
+    AVOID_ASSERT_AS_IDENTIFIER(PMDWarnings.AVOID_ASSERT_AS_IDENTIFIER, PMDRuleSet.MIGRATING, "3.4"),
+
+    /** @see PMDWarnings#INTEGER_INSTANTIATION */
+    INTEGER_INSTANTIATION(PMDWarnings.INTEGER_INSTANTIATION, PMDRuleSet.MIGRATING, "3.5"),
+
+    /** @see PMDWarnings#BYTE_INSTANTIATION */
+    BYTE_INSTANTIATION(PMDWarnings.BYTE_INSTANTIATION, PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#SHORT_INSTANTIATION */
+    SHORT_INSTANTIATION(PMDWarnings.SHORT_INSTANTIATION, PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#LONG_INSTANTIATION */
+    LONG_INSTANTIATION(PMDWarnings.LONG_INSTANTIATION, PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#JUNIT_4_TEST_SHOULD_USE_BEFORE_ANNOTATION */
+    JUNIT_4_TEST_SHOULD_USE_BEFORE_ANNOTATION(PMDWarnings.JUNIT_4_TEST_SHOULD_USE_BEFORE_ANNOTATION,
+            PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#JUNIT_4_TEST_SHOULD_USE_AFTER_ANNOTATION */
+    JUNIT_4_TEST_SHOULD_USE_AFTER_ANNOTATION(PMDWarnings.JUNIT_4_TEST_SHOULD_USE_AFTER_ANNOTATION,
+            PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#JUNIT_4_TEST_SHOULD_USE_TEST_ANNOTATION */
+    JUNIT_4_TEST_SHOULD_USE_TEST_ANNOTATION(PMDWarnings.JUNIT_4_TEST_SHOULD_USE_TEST_ANNOTATION,
+            PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#JUNIT_4_SUITES_SHOULD_USE_SUITE_ANNOTATION */
+    JUNIT_4_SUITES_SHOULD_USE_SUITE_ANNOTATION(PMDWarnings.JUNIT_4_SUITES_SHOULD_USE_SUITE_ANNOTATION,
+            PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#JUNIT_USE_EXPECTED */
+    JUNIT_USE_EXPECTED(PMDWarnings.JUNIT_USE_EXPECTED, PMDRuleSet.MIGRATING, "4.0"),
+
+    /** @see PMDWarnings#SHORT_VARIABLE */
+    SHORT_VARIABLE(PMDWarnings.SHORT_VARIABLE, PMDRuleSet.NAMING, "0.3"),
+
+    /** @see PMDWarnings#LONG_VARIABLE */
+    LONG_VARIABLE(PMDWarnings.LONG_VARIABLE, PMDRuleSet.NAMING, "0.3"),
+
+    /** @see PMDWarnings#SHORT_METHOD_NAME */
+    SHORT_METHOD_NAME(PMDWarnings.SHORT_METHOD_NAME, PMDRuleSet.NAMING, "0.3"),
+
+    /** @see PMDWarnings#VARIABLE_NAMING_CONVENTIONS */
+    VARIABLE_NAMING_CONVENTIONS(PMDWarnings.VARIABLE_NAMING_CONVENTIONS, PMDRuleSet.NAMING, "1.2"),
+
+    /** @see PMDWarnings#METHOD_NAMING_CONVENTIONS */
+    METHOD_NAMING_CONVENTIONS(PMDWarnings.METHOD_NAMING_CONVENTIONS, PMDRuleSet.NAMING, "1.2"),
+
+    /** @see PMDWarnings#CLASS_NAMING_CONVENTIONS */
+    CLASS_NAMING_CONVENTIONS(PMDWarnings.CLASS_NAMING_CONVENTIONS, PMDRuleSet.NAMING, "1.2"),
+
+    /** @see PMDWarnings#ABSTRACT_NAMING */
+    ABSTRACT_NAMING(PMDWarnings.ABSTRACT_NAMING, PMDRuleSet.NAMING, "1.4"),
+
+    /** @see PMDWarnings#AVOID_DOLLAR_SIGNS */
+    AVOID_DOLLAR_SIGNS(PMDWarnings.AVOID_DOLLAR_SIGNS, PMDRuleSet.NAMING, "1.5"),
+
+    /** @see PMDWarnings#METHOD_WITH_SAME_NAME_AS_ENCLOSING_CLASS */
+    METHOD_WITH_SAME_NAME_AS_ENCLOSING_CLASS(PMDWarnings.METHOD_WITH_SAME_NAME_AS_ENCLOSING_CLASS,
+            PMDRuleSet.NAMING, "1.5"),
+
+    /** @see PMDWarnings#SUSPICIOUS_HASHCODE_METHOD_NAME */
+    SUSPICIOUS_HASHCODE_METHOD_NAME(PMDWarnings.SUSPICIOUS_HASHCODE_METHOD_NAME, PMDRuleSet.NAMING, "1.5"),
+
+    /** @see PMDWarnings#SUSPICIOUS_CONSTANT_FIELD_NAME */
+    SUSPICIOUS_CONSTANT_FIELD_NAME(PMDWarnings.SUSPICIOUS_CONSTANT_FIELD_NAME, PMDRuleSet.NAMING, "2.0"),
+
+    /** @see PMDWarnings#SUSPICIOUS_EQUALS_METHOD_NAME */
+    SUSPICIOUS_EQUALS_METHOD_NAME(PMDWarnings.SUSPICIOUS_EQUALS_METHOD_NAME, PMDRuleSet.NAMING, "2.0"),
+
+    /** @see PMDWarnings#AVOID_FIELD_NAME_MATCHING_TYPE_NAME */
+    AVOID_FIELD_NAME_MATCHING_TYPE_NAME(PMDWarnings.AVOID_FIELD_NAME_MATCHING_TYPE_NAME, PMDRuleSet.NAMING, "3.0"),
+
+    /** @see PMDWarnings#AVOID_FIELD_NAME_MATCHING_METHOD_NAME */
+    AVOID_FIELD_NAME_MATCHING_METHOD_NAME(PMDWarnings.AVOID_FIELD_NAME_MATCHING_METHOD_NAME, PMDRuleSet.NAMING, "3.0"),
+
+    /** @see PMDWarnings#NO_PACKAGE */
+    NO_PACKAGE(PMDWarnings.NO_PACKAGE, PMDRuleSet.NAMING, "3.3"),
+
+    /** @see PMDWarnings#PACKAGE_CASE */
+    PACKAGE_CASE(PMDWarnings.PACKAGE_CASE, PMDRuleSet.NAMING, "3.3"),
+
+    /** @see PMDWarnings#MISLEADING_VARIABLE_NAME */
+    MISLEADING_VARIABLE_NAME(PMDWarnings.MISLEADING_VARIABLE_NAME, PMDRuleSet.NAMING, "3.4"),
+
+    /** @see PMDWarnings#BOOLEAN_GET_METHOD_NAME */
+    BOOLEAN_GET_METHOD_NAME(PMDWarnings.BOOLEAN_GET_METHOD_NAME, PMDRuleSet.NAMING, "4.0"),
+
+    /** @see PMDWarnings#SHORT_CLASS_NAME */
+    SHORT_CLASS_NAME(PMDWarnings.SHORT_CLASS_NAME, PMDRuleSet.NAMING, "5.0"),
+
+    /** @see PMDWarnings#GENERICS_NAMING */
+    GENERICS_NAMING(PMDWarnings.GENERICS_NAMING, PMDRuleSet.NAMING, "4.2.6"),
+
+    /** @see PMDWarnings#LOCAL_VARIABLE_COULD_BE_FINAL */
+    LOCAL_VARIABLE_COULD_BE_FINAL(PMDWarnings.LOCAL_VARIABLE_COULD_BE_FINAL, PMDRuleSet.OPTIMIZATIONS, "2.2"),
+
+    /** @see PMDWarnings#METHOD_ARGUMENT_COULD_BE_FINAL */
+    METHOD_ARGUMENT_COULD_BE_FINAL(PMDWarnings.METHOD_ARGUMENT_COULD_BE_FINAL, PMDRuleSet.OPTIMIZATIONS, "2.2"),
+
+    /** @see PMDWarnings#AVOID_INSTANTIATING_OBJECTS_IN_LOOPS */
+    AVOID_INSTANTIATING_OBJECTS_IN_LOOPS(PMDWarnings.AVOID_INSTANTIATING_OBJECTS_IN_LOOPS,
+            PMDRuleSet.OPTIMIZATIONS, "2.2"),
+
+    /** @see PMDWarnings#USE_ARRAY_LIST_INSTEAD_OF_VECTOR */
+    USE_ARRAY_LIST_INSTEAD_OF_VECTOR(PMDWarnings.USE_ARRAY_LIST_INSTEAD_OF_VECTOR, PMDRuleSet.OPTIMIZATIONS, "3.0"),
+
+    /** @see PMDWarnings#SIMPLIFY_STARTS_WITH */
+    SIMPLIFY_STARTS_WITH(PMDWarnings.SIMPLIFY_STARTS_WITH, PMDRuleSet.OPTIMIZATIONS, "3.1"),
+
+    /** @see PMDWarnings#USE_STRING_BUFFER_FOR_STRING_APPENDS */
+    USE_STRING_BUFFER_FOR_STRING_APPENDS(PMDWarnings.USE_STRING_BUFFER_FOR_STRING_APPENDS,
+            PMDRuleSet.OPTIMIZATIONS, "3.1"),
+
+    /** @see PMDWarnings#USE_ARRAYS_AS_LIST */
+    USE_ARRAYS_AS_LIST(PMDWarnings.USE_ARRAYS_AS_LIST, PMDRuleSet.OPTIMIZATIONS, "3.5"),
+
+    /** @see PMDWarnings#AVOID_ARRAY_LOOPS */
+    AVOID_ARRAY_LOOPS(PMDWarnings.AVOID_ARRAY_LOOPS, PMDRuleSet.OPTIMIZATIONS, "3.5"),
+
+    /** @see PMDWarnings#UNNECESSARY_WRAPPER_OBJECT_CREATION */
+    UNNECESSARY_WRAPPER_OBJECT_CREATION(PMDWarnings.UNNECESSARY_WRAPPER_OBJECT_CREATION,
+            PMDRuleSet.OPTIMIZATIONS, "3.8"),
+
+    /** @see PMDWarnings#ADD_EMPTY_STRING */
+    ADD_EMPTY_STRING(PMDWarnings.ADD_EMPTY_STRING, PMDRuleSet.OPTIMIZATIONS, "4.0"),
+
+    /** @see PMDWarnings#REDUNDANT_FIELD_INITIALIZER */
+    REDUNDANT_FIELD_INITIALIZER(PMDWarnings.REDUNDANT_FIELD_INITIALIZER, PMDRuleSet.OPTIMIZATIONS, "4.0"),
+
+    /** @see PMDWarnings#PREMATURE_DECLARATION */
+    PREMATURE_DECLARATION(PMDWarnings.PREMATURE_DECLARATION, PMDRuleSet.OPTIMIZATIONS, "5.0"),
+
+    /** @see PMDWarnings#AVOID_CATCHING_THROWABLE */
+    AVOID_CATCHING_THROWABLE(PMDWarnings.AVOID_CATCHING_THROWABLE, PMDRuleSet.STRICTEXCEPTION, "1.2"),
+
+    /** @see PMDWarnings#SIGNATURE_DECLARE_THROWS_EXCEPTION */
+    SIGNATURE_DECLARE_THROWS_EXCEPTION(PMDWarnings.SIGNATURE_DECLARE_THROWS_EXCEPTION,
+            PMDRuleSet.STRICTEXCEPTION, "1.2"),
+
+    /** @see PMDWarnings#EXCEPTION_AS_FLOW_CONTROL */
+    EXCEPTION_AS_FLOW_CONTROL(PMDWarnings.EXCEPTION_AS_FLOW_CONTROL, PMDRuleSet.STRICTEXCEPTION, "1.8"),
+
+    /** @see PMDWarnings#AVOID_CATCHING_NPE */
+    AVOID_CATCHING_NPE(PMDWarnings.AVOID_CATCHING_NPE, PMDRuleSet.STRICTEXCEPTION, "1.8"),
+
+    /** @see PMDWarnings#AVOID_THROWING_RAW_EXCEPTION_TYPES */
+    AVOID_THROWING_RAW_EXCEPTION_TYPES(PMDWarnings.AVOID_THROWING_RAW_EXCEPTION_TYPES,
+            PMDRuleSet.STRICTEXCEPTION, "1.8"),
+
+    /** @see PMDWarnings#AVOID_THROWING_NULL_POINTER_EXCEPTION */
+    AVOID_THROWING_NULL_POINTER_EXCEPTION(PMDWarnings.AVOID_THROWING_NULL_POINTER_EXCEPTION,
+            PMDRuleSet.STRICTEXCEPTION, "1.8"),
+
+    /** @see PMDWarnings#AVOID_RETHROWING_EXCEPTION */
+    AVOID_RETHROWING_EXCEPTION(PMDWarnings.AVOID_RETHROWING_EXCEPTION, PMDRuleSet.STRICTEXCEPTION, "3.8"),
+
+    /** @see PMDWarnings#DO_NOT_EXTEND_JAVA_LANG_ERROR */
+    DO_NOT_EXTEND_JAVA_LANG_ERROR(PMDWarnings.DO_NOT_EXTEND_JAVA_LANG_ERROR, PMDRuleSet.STRICTEXCEPTION, "4.0"),
+
+    /** @see PMDWarnings#DO_NOT_THROW_EXCEPTION_IN_FINALLY */
+    DO_NOT_THROW_EXCEPTION_IN_FINALLY(PMDWarnings.DO_NOT_THROW_EXCEPTION_IN_FINALLY, PMDRuleSet.STRICTEXCEPTION, "4.2"),
+
+    /** @see PMDWarnings#AVOID_THROWING_NEW_INSTANCE_OF_SAME_EXCEPTION */
+    AVOID_THROWING_NEW_INSTANCE_OF_SAME_EXCEPTION(PMDWarnings.AVOID_THROWING_NEW_INSTANCE_OF_SAME_EXCEPTION,
+            PMDRuleSet.STRICTEXCEPTION, "4.2.5"),
+
+    /** @see PMDWarnings#AVOID_CATCHING_GENERIC_EXCEPTION */
+    AVOID_CATCHING_GENERIC_EXCEPTION(PMDWarnings.AVOID_CATCHING_GENERIC_EXCEPTION, PMDRuleSet.STRICTEXCEPTION, "4.2.6"),
+
+    /** @see PMDWarnings#AVOID_LOSING_EXCEPTION_INFORMATION */
+    AVOID_LOSING_EXCEPTION_INFORMATION(PMDWarnings.AVOID_LOSING_EXCEPTION_INFORMATION,
+            PMDRuleSet.STRICTEXCEPTION, "4.2.6"),
+
+    /** @see PMDWarnings#AVOID_DUPLICATE_LITERALS */
+    AVOID_DUPLICATE_LITERALS(PMDWarnings.AVOID_DUPLICATE_LITERALS, PMDRuleSet.STRINGS, "1.0"),
+
+    /** @see PMDWarnings#STRING_INSTANTIATION */
+    STRING_INSTANTIATION(PMDWarnings.STRING_INSTANTIATION, PMDRuleSet.STRINGS, "1.0"),
+
+    /** @see PMDWarnings#STRING_TO_STRING */
+    STRING_TO_STRING(PMDWarnings.STRING_TO_STRING, PMDRuleSet.STRINGS, "1.0"),
+
+    /** @see PMDWarnings#INEFFICIENT_STRING_BUFFERING */
+    INEFFICIENT_STRING_BUFFERING(PMDWarnings.INEFFICIENT_STRING_BUFFERING, PMDRuleSet.STRINGS, "3.4"),
+
+    /** @see PMDWarnings#UNNECESSARY_CASE_CHANGE */
+    UNNECESSARY_CASE_CHANGE(PMDWarnings.UNNECESSARY_CASE_CHANGE, PMDRuleSet.STRINGS, "3.3"),
+
+    /** @see PMDWarnings#USE_STRING_BUFFER_LENGTH */
+    USE_STRING_BUFFER_LENGTH(PMDWarnings.USE_STRING_BUFFER_LENGTH, PMDRuleSet.STRINGS, "3.4"),
+
+    /** @see PMDWarnings#APPEND_CHARACTER_WITH_CHAR */
+    APPEND_CHARACTER_WITH_CHAR(PMDWarnings.APPEND_CHARACTER_WITH_CHAR, PMDRuleSet.STRINGS, "3.5"),
+
+    /** @see PMDWarnings#CONSECUTIVE_LITERAL_APPENDS */
+    CONSECUTIVE_LITERAL_APPENDS(PMDWarnings.CONSECUTIVE_LITERAL_APPENDS, PMDRuleSet.STRINGS, "3.5"),
+
+    /** @see PMDWarnings#USE_INDEX_OF_CHAR */
+    USE_INDEX_OF_CHAR(PMDWarnings.USE_INDEX_OF_CHAR, PMDRuleSet.STRINGS, "3.5"),
+
+    /** @see PMDWarnings#INEFFICIENT_EMPTY_STRING_CHECK */
+    INEFFICIENT_EMPTY_STRING_CHECK(PMDWarnings.INEFFICIENT_EMPTY_STRING_CHECK, PMDRuleSet.STRINGS, "3.6"),
+
+    /** @see PMDWarnings#INSUFFICIENT_STRING_BUFFER_DECLARATION */
+    INSUFFICIENT_STRING_BUFFER_DECLARATION(PMDWarnings.INSUFFICIENT_STRING_BUFFER_DECLARATION,
+            PMDRuleSet.STRINGS, "3.6"),
+
+    /** @see PMDWarnings#USELESS_STRING_VALUE_OF */
+    USELESS_STRING_VALUE_OF(PMDWarnings.USELESS_STRING_VALUE_OF, PMDRuleSet.STRINGS, "3.8"),
+
+    /** @see PMDWarnings#STRING_BUFFER_INSTANTIATION_WITH_CHAR */
+    STRING_BUFFER_INSTANTIATION_WITH_CHAR(PMDWarnings.STRING_BUFFER_INSTANTIATION_WITH_CHAR, PMDRuleSet.STRINGS, "3.9"),
+
+    /** @see PMDWarnings#USE_EQUALS_TO_COMPARE_STRINGS */
+    USE_EQUALS_TO_COMPARE_STRINGS(PMDWarnings.USE_EQUALS_TO_COMPARE_STRINGS, PMDRuleSet.STRINGS, "4.1"),
+
+    /** @see PMDWarnings#AVOID_STRING_BUFFER_FIELD */
+    AVOID_STRING_BUFFER_FIELD(PMDWarnings.AVOID_STRING_BUFFER_FIELD, PMDRuleSet.STRINGS, "4.2"),
+
+    /** @see PMDWarnings#METHOD_RETURNS_INTERNAL_ARRAY */
+    METHOD_RETURNS_INTERNAL_ARRAY(PMDWarnings.METHOD_RETURNS_INTERNAL_ARRAY, PMDRuleSet.SUNSECURE, "2.2"),
+
+    /** @see PMDWarnings#ARRAY_IS_STORED_DIRECTLY */
+    ARRAY_IS_STORED_DIRECTLY(PMDWarnings.ARRAY_IS_STORED_DIRECTLY, PMDRuleSet.SUNSECURE, "2.2"),
+
+    /** @see PMDWarnings#UNNECESSARY_CONVERSION_TEMPORARY */
+    UNNECESSARY_CONVERSION_TEMPORARY(PMDWarnings.UNNECESSARY_CONVERSION_TEMPORARY, PMDRuleSet.UNNECESSARY, "0.1"),
+
+    /** @see PMDWarnings#UNNECESSARY_RETURN */
+    UNNECESSARY_RETURN(PMDWarnings.UNNECESSARY_RETURN, PMDRuleSet.UNNECESSARY, "1.3"),
+
+    /** @see PMDWarnings#UNNECESSARY_FINAL_MODIFIER */
+    UNNECESSARY_FINAL_MODIFIER(PMDWarnings.UNNECESSARY_FINAL_MODIFIER, PMDRuleSet.UNNECESSARY, "3.0"),
+
+    /** @see PMDWarnings#USELESS_OVERRIDING_METHOD */
+    USELESS_OVERRIDING_METHOD(PMDWarnings.USELESS_OVERRIDING_METHOD, PMDRuleSet.UNNECESSARY, "3.3"),
+
+    /** @see PMDWarnings#USELESS_OPERATION_ON_IMMUTABLE */
+    USELESS_OPERATION_ON_IMMUTABLE(PMDWarnings.USELESS_OPERATION_ON_IMMUTABLE, PMDRuleSet.UNNECESSARY, "3.5"),
+
+    /** @see PMDWarnings#UNUSED_NULL_CHECK_IN_EQUALS */
+    UNUSED_NULL_CHECK_IN_EQUALS(PMDWarnings.UNUSED_NULL_CHECK_IN_EQUALS, PMDRuleSet.UNNECESSARY, "3.5"),
+
+    /** @see PMDWarnings#USELESS_PARANTHESES */
+    USELESS_PARANTHESES(PMDWarnings.USELESS_PARANTHESES, PMDRuleSet.UNNECESSARY, "5.0"),
+
+    /** @see PMDWarnings#UNUSED_PRIVATE_FIELD */
+    UNUSED_PRIVATE_FIELD(PMDWarnings.UNUSED_PRIVATE_FIELD, PMDRuleSet.UNUSEDCODE, "0.1"),
+
+    /** @see PMDWarnings#UNUSED_LOCAL_VARIABLE */
+    UNUSED_LOCAL_VARIABLE(PMDWarnings.UNUSED_LOCAL_VARIABLE, PMDRuleSet.UNUSEDCODE, "0.1"),
+
+    /** @see PMDWarnings#UNUSED_PRIVATE_METHOD */
+    UNUSED_PRIVATE_METHOD(PMDWarnings.UNUSED_PRIVATE_METHOD, PMDRuleSet.UNUSEDCODE, "0.7"),
+
+    /** @see PMDWarnings#UNUSED_FORMAL_PARAMETER */
+    UNUSED_FORMAL_PARAMETER(PMDWarnings.UNUSED_FORMAL_PARAMETER, PMDRuleSet.UNUSEDCODE, "0.8"),
+
+    /** @see PMDWarnings#UNUSED_MODIFIER */
+    UNUSED_MODIFIER(PMDWarnings.UNUSED_MODIFIER, PMDRuleSet.UNUSEDCODE, "1.02");
+
+    private static final int       GOLDEN_RATIO     = 0x9E3779B9;
+    private static final int       MAX_DISPLACEMENT = 1 << 20;
+
+    private static final int       SHIFT;
+    private static final int[]     DISPLACEMENTS;
+    private static final PMDRule[] SLOTS;
+    private static final int[]     HASHES;
+
+    static {
+        final PMDRule[] rules = values();
+        final int bucketCount = Integer.highestOneBit(rules.length);
+        final List<List<PMDRule>> buckets = new ArrayList<>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            buckets.add(new ArrayList<PMDRule>(4));
+        }
+        SHIFT = 32 - Integer.numberOfTrailingZeros(bucketCount);
+        for (final PMDRule rule : rules) {
+            buckets.get(bucketOf(rule.key.hashCode())).add(rule);
+        }
+        final List<List<PMDRule>> largestFirst = new ArrayList<>(buckets);
+        Collections.sort(largestFirst, (first, second) -> second.size() - first.size());
+
+        SLOTS = new PMDRule[rules.length];
+        DISPLACEMENTS = new int[bucketCount];
+        final int[] candidates = new int[largestFirst.get(0).size()];
+        for (final List<PMDRule> bucket : largestFirst) {
+            if (bucket.isEmpty()) {
+                break;
+            }
+            int displacement = 1;
+            while (!place(bucket, displacement, candidates)) {
+                if (++displacement > MAX_DISPLACEMENT) {
+                    throw new IllegalStateException("Cannot build perfect hash of PMD rules");
+                }
+            }
+            DISPLACEMENTS[bucketOf(bucket.get(0).key.hashCode())] = displacement;
+        }
+        HASHES = new int[SLOTS.length];
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            HASHES[slot] = SLOTS[slot].key.hashCode();
+        }
+    }
+
+    private final String           key;
+    private final PMDRuleSet       ruleSet;
+    private final String           since;
+
+    private PMDRule(final String key, final PMDRuleSet ruleSet, final String since) {
+        this.key = key;
+        this.ruleSet = ruleSet;
+        this.since = since;
+    }
+
+    /**
+     * @return The key which suppresses the rule, e.g. <code>"PMD.JumbledIncrementer"</code>.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return The name of the rule inside its rule set, e.g. <code>"JumbledIncrementer"</code>.
+     */
+    public String getName() {
+        return key.substring(PMDWarnings.PMD.length() + 1);
+    }
+
+    /**
+     * @return The rule set containing the rule.
+     */
+    public PMDRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * @return The PMD version which introduced the rule, e.g. <code>"1.0"</code>.
+     */
+    public String getSince() {
+        return since;
+    }
+
+    /**
+     * @param key
+     *            A suppression key, e.g. <code>"PMD.JumbledIncrementer"</code>.
+     * @return The rule suppressed by the given key or <code>null</code> if there is no such rule.
+     */
+    @Nullable
+    public static PMDRule fromKey(final String key) {
+        final int hash = key.hashCode();
+        final int slot = slotOf(hash, DISPLACEMENTS[bucketOf(hash)]);
+        if (HASHES[slot] != hash) {
+            return null;
+        }
+        final PMDRule rule = SLOTS[slot];
+        return rule.key.equals(key) ? rule : null;
+    }
+
+    private static boolean place(final List<PMDRule> bucket, final int displacement, final int[] candidates) {
+        for (int index = 0; index < bucket.size(); index++) {
+            final int slot = slotOf(bucket.get(index).key.hashCode(), displacement);
+            if (SLOTS[slot] != null) {
+                return false;
+            }
+            for (int previous = 0; previous < index; previous++) {
+                if (candidates[previous] == slot) {
+                    return false;
+                }
+            }
+            candidates[index] = slot;
+        }
+        for (int index = 0; index < bucket.size(); index++) {
+            SLOTS[candidates[index]] = bucket.get(index);
+        }
+        return true;
+    }
+
+    private static int bucketOf(final int hash) {
+        return hash * GOLDEN_RATIO >>> SHIFT;
+    }
+
+    private static int slotOf(final int hash, final int displacement) {
+        return (int) ((((hash ^ displacement) * GOLDEN_RATIO & 0xFFFFFFFFL) * SLOTS.length) >>> 32);
+    }
+
+}
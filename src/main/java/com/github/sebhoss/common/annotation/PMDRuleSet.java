@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+/**
+ * The Java rule sets of PMD 5.0.5 which contain the rules listed in {@link PMDWarnings}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public enum PMDRuleSet {
+
+    /** Basic rule set */
+    BASIC("basic", "Basic"),
+
+    /** Braces rule set */
+    BRACES("braces", "Braces"),
+
+    /** Clone Implementation rule set */
+    CLONE("clone", "Clone Implementation"),
+
+    /** Code Size rule set */
+    CODESIZE("codesize", "Code Size"),
+
+    /** Comments rule set */
+    COMMENTS("comments", "Comments"),
+
+    /** Controversial rule set */
+    CONTROVERSIAL("controversial", "Controversial"),
+
+    /** Coupling rule set */
+    COUPLING("coupling", "Coupling"),
+
+    /** Design rule set */
+    DESIGN("design", "Design"),
+
+    /** Empty Code rule set */
+    EMPTY("empty", "Empty Code"),
+
+    /** Finalizers rule set */
+    FINALIZERS("finalizers", "Finalizers"),
+
+    /** Import Statements rule set */
+    IMPORTS("imports", "Import Statements"),
+
+    /** J2EE rule set */
+    J2EE("j2ee", "J2EE"),
+
+    /** JavaBeans rule set */
+    JAVABEANS("javabeans", "JavaBeans"),
+
+    /** JUnit rule set */
+    JUNIT("junit", "JUnit"),
+
+    /** Jakarta Commons Logging rule set */
+    LOGGING_JAKARTA_COMMONS("logging-jakarta-commons", "Jakarta Commons Logging"),
+
+    /** Java Logging rule set */
+    LOGGING_JAVA("logging-java", "Java Logging"),
+
+    /** Migration rule set */
+    MIGRATING("migrating", "Migration"),
+
+    /** Naming rule set */
+    NAMING("naming", "Naming"),
+
+    /** Optimization rule set */
+    OPTIMIZATIONS("optimizations", "Optimization"),
+
+    /** Strict Exceptions rule set */
+    STRICTEXCEPTION("strictexception", "Strict Exceptions"),
+
+    /** String and StringBuffer rule set */
+    STRINGS("strings", "String and StringBuffer"),
+
+    /** Security Code Guidelines rule set */
+    SUNSECURE("sunsecure", "Security Code Guidelines"),
+
+    /** Unnecessary rule set */
+    UNNECESSARY("unnecessary", "Unnecessary"),
+
+    /** Unused rule set */
+    UNUSEDCODE("unusedcode", "Unused");
+
+    private static final String DOCUMENTATION = "http://pmd.sourceforge.net/pmd-5.0.5/rules/java/";
+    private static final String RULESETS      = "rulesets/java/";
+
+    private final String        id;
+    private final String        displayName;
+
+    private PMDRuleSet(final String id, final String displayName) {
+        this.id = id;
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return The identifier of the rule set, e.g. <code>basic</code>.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The human readable name of the rule set, e.g. <code>Basic</code>.
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return The location of the documentation of the rule set.
+     */
+    public String getDocumentation() {
+        return DOCUMENTATION + id + ".html";
+    }
+
+    /**
+     * @return The class path location PMD loads the rule set from, e.g. <code>rulesets/java/basic.xml</code>.
+     */
+    public String getReference() {
+        return RULESETS + id + ".xml";
+    }
+
+}
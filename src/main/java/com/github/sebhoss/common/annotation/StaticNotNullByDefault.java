@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.meta.TypeQualifierDefault;
+
+/**
+ * Same as {@link NotNullByDefault}, but retained in the class file only. Compilers, annotation processors and the
+ * class file tools of this library treat both annotations alike, while reflection never sees this one: classes
+ * annotated with it neither parse the annotation nor allocate a proxy instance when frameworks call
+ * <code>getAnnotations()</code>. Thus {@link NullnessDefaults} and anything else relying on runtime reflection ignore
+ * it, and since the default is never looked up reflectively it is not <code>@Inherited</code> either.
+ */
+@Documented
+@Nonnull
+@TypeQualifierDefault({ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR, ElementType.FIELD,
+        ElementType.LOCAL_VARIABLE, ElementType.METHOD, ElementType.PACKAGE, ElementType.PARAMETER, ElementType.TYPE,
+        ElementType.TYPE_PARAMETER, ElementType.TYPE_USE })
+@Retention(RetentionPolicy.CLASS)
+public @interface StaticNotNullByDefault {
+
+    // marker annotation
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable set of the warnings suppressed by one or more {@link SuppressWarnings} annotations. Each warning listed in
+ * {@link CompilerWarnings} and each {@link PMDRule} owns one bit of a <code>long[]</code>, thus membership checks read
+ * a single word and set operations combine words without creating any intermediate objects.
+ * <p/>
+ * The catch-all keys are expanded once: {@link CompilerWarnings#ALL} suppresses every warning and
+ * {@link PMDWarnings#PMD} every PMD rule. Values which belong to neither catalog are ignored.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressionSet {
+
+    private static final String[]             COMPILER_WARNINGS = { CompilerWarnings.ALL, CompilerWarnings.BOXING,
+            CompilerWarnings.CAST, CompilerWarnings.DEP_ANN, CompilerWarnings.DEPRECATION, CompilerWarnings.FALLTHROUGH,
+            CompilerWarnings.FINALLY, CompilerWarnings.HIDING, CompilerWarnings.INCOMPLETE_SWITCH,
+            CompilerWarnings.JAVADOC, CompilerWarnings.NLS, CompilerWarnings.NULL, CompilerWarnings.RAWTYPES,
+            CompilerWarnings.RESOURCE, CompilerWarnings.RESTRICTION, CompilerWarnings.SERIAL,
+            CompilerWarnings.STATIC_ACCESS, CompilerWarnings.STATIC_METHOD, CompilerWarnings.SUPER,
+            CompilerWarnings.SYNTHETHIC_ACCESS, CompilerWarnings.SYNC_OVERRIDE, CompilerWarnings.UNCHECKED,
+            CompilerWarnings.UNQUALIFIED_FIELD_ACCESS, CompilerWarnings.UNUSED };
+
+    private static final PMDRule[]            PMD_RULES         = PMDRule.values();
+    private static final int                  PMD_ALL           = COMPILER_WARNINGS.length;
+    private static final int                  PMD_OFFSET        = PMD_ALL + 1;
+    private static final int                  SIZE              = PMD_OFFSET + PMD_RULES.length;
+    private static final int                  WORDS             = (SIZE + 63) >>> 6;
+    private static final Map<String, Integer> COMPILER_INDEXES  = new HashMap<>();
+
+    /** The set which suppresses nothing. */
+    public static final SuppressionSet        EMPTY             = new SuppressionSet(new long[WORDS]);
+
+    /** The set which suppresses everything, the same as <code>@SuppressWarnings("all")</code>. */
+    public static final SuppressionSet        ALL;
+
+    static {
+        for (int index = 0; index < COMPILER_WARNINGS.length; index++) {
+            COMPILER_INDEXES.put(COMPILER_WARNINGS[index], Integer.valueOf(index));
+        }
+        final long[] words = new long[WORDS];
+        Arrays.fill(words, -1L);
+        words[WORDS - 1] = -1L >>> -SIZE;
+        ALL = new SuppressionSet(words);
+    }
+
+    private final long[]                      words;
+
+    private SuppressionSet(final long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @param annotation
+     *            The annotation to read.
+     * @return The warnings suppressed by the given annotation.
+     */
+    public static SuppressionSet of(final SuppressWarnings annotation) {
+        return of(annotation.value());
+    }
+
+    /**
+     * @param values
+     *            The values of a {@link SuppressWarnings} annotation, e.g. <code>"unchecked"</code> or
+     *            <code>"PMD.JumbledIncrementer"</code>.
+     * @return The warnings suppressed by the given values.
+     */
+    public static SuppressionSet of(final String... values) {
+        final long[] words = new long[WORDS];
+        for (final String value : values) {
+            if (CompilerWarnings.ALL.equals(value)) {
+                return ALL;
+            } else if (PMDWarnings.PMD.equals(value)) {
+                for (int index = PMD_ALL; index < SIZE; index++) {
+                    set(words, index);
+                }
+            } else {
+                final int index = indexOf(value);
+                if (index >= 0) {
+                    set(words, index);
+                }
+            }
+        }
+        return new SuppressionSet(words);
+    }
+
+    /**
+     * @param rule
+     *            The rule to check.
+     * @return <code>true</code> if the given rule is suppressed.
+     */
+    public boolean contains(final PMDRule rule) {
+        return isSet(PMD_OFFSET + rule.ordinal());
+    }
+
+    /**
+     * @param value
+     *            The key of a compiler warning or PMD rule, e.g. <code>"unchecked"</code> or
+     *            <code>"PMD.JumbledIncrementer"</code>.
+     * @return <code>true</code> if the given warning is suppressed, <code>false</code> for unknown keys.
+     */
+    public boolean contains(final String value) {
+        final int index = indexOf(value);
+        return index >= 0 && isSet(index);
+    }
+
+    /**
+     * @param other
+     *            Another set.
+     * @return <code>true</code> if every warning suppressed by the given set is suppressed by this set as well.
+     */
+    public boolean containsAll(final SuppressionSet other) {
+        for (int word = 0; word < WORDS; word++) {
+            if ((other.words[word] & ~words[word]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other
+     *            Another set, e.g. the one of an enclosing declaration.
+     * @return The warnings suppressed by either set.
+     */
+    public SuppressionSet union(final SuppressionSet other) {
+        if (containsAll(other)) {
+            return this;
+        } else if (other.containsAll(this)) {
+            return other;
+        }
+        final long[] union = new long[WORDS];
+        for (int word = 0; word < WORDS; word++) {
+            union[word] = words[word] | other.words[word];
+        }
+        return new SuppressionSet(union);
+    }
+
+    /**
+     * @param other
+     *            Another set.
+     * @return The warnings suppressed by both sets.
+     */
+    public SuppressionSet intersection(final SuppressionSet other) {
+        if (containsAll(other)) {
+            return other;
+        } else if (other.containsAll(this)) {
+            return this;
+        }
+        final long[] intersection = new long[WORDS];
+        for (int word = 0; word < WORDS; word++) {
+            intersection[word] = words[word] & other.words[word];
+        }
+        return new SuppressionSet(intersection);
+    }
+
+    /**
+     * @return <code>true</code> if no warning is suppressed.
+     */
+    public boolean isEmpty() {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of suppressed warnings, counting the catch-all keys as one warning each.
+     */
+    public int size() {
+        int size = 0;
+        for (final long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object object) {
+        return object instanceof SuppressionSet && Arrays.equals(words, ((SuppressionSet) object).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int index = 0; index < SIZE; index++) {
+            if (isSet(index)) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(keyOf(index));
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    private boolean isSet(final int index) {
+        return (words[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static void set(final long[] words, final int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    private static int indexOf(final String value) {
+        if (value.startsWith("PMD.")) {
+            final PMDRule rule = PMDRule.fromKey(value);
+            return rule == null ? -1 : PMD_OFFSET + rule.ordinal();
+        } else if (PMDWarnings.PMD.equals(value)) {
+            return PMD_ALL;
+        }
+        final Integer index = COMPILER_INDEXES.get(value);
+        return index == null ? -1 : index.intValue();
+    }
+
+    private static String keyOf(final int index) {
+        if (index < PMD_ALL) {
+            return COMPILER_WARNINGS[index];
+        } else if (index == PMD_ALL) {
+            return PMDWarnings.PMD;
+        }
+        return PMD_RULES[index - PMD_OFFSET].getKey();
+    }
+
+}
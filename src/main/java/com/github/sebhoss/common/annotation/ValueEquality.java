@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a <code>&lt;Type&gt;Equality</code> class next to the annotated class or record with static
+ * <code>equals(Type, Object)</code>, <code>hashCode(Type)</code> and, for non-generic types whose fields are all
+ * comparable, <code>compare(Type, Type)</code> methods over all non-static, non-transient fields. Fields which are
+ * not null according to {@link NotNullByDefault} are compared and hashed without any <code>null</code> handling.
+ * <p/>
+ * The annotated type delegates to the generated methods, e.g.
+ *
+ * <pre>
+ * &#064;Override
+ * public boolean equals(final Object other) {
+ *     return OrderEquality.equals(this, other);
+ * }
+ * </pre>
+ *
+ * Private fields are read through an accessor named like the field or prefixed with <code>get</code>/<code>is</code>.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface ValueEquality {
+
+    // marker annotation
+
+}
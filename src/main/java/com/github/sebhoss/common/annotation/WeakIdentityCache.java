@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Lock-free cache whose keys are compared by identity and held weakly, so that cached entries never keep a class
+ * loader reachable. Values must not reference their keys. Stale entries are purged on every write.
+ *
+ * @param <K>
+ *            The type of the keys.
+ * @param <V>
+ *            The type of the values.
+ */
+final class WeakIdentityCache<K, V> {
+
+    private final ConcurrentMap<Object, V> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K>        queue   = new ReferenceQueue<>();
+
+    @Nullable
+    V get(final K key) {
+        return entries.get(new LookupKey(key));
+    }
+
+    void put(final K key, final V value) {
+        purge();
+        entries.put(new WeakKey<>(key, queue), value);
+    }
+
+    private void purge() {
+        for (Object stale = queue.poll(); stale != null; stale = queue.poll()) {
+            entries.remove(stale);
+        }
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> {
+
+        private final int hash;
+
+        WeakKey(final K referent, final ReferenceQueue<K> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object other) {
+            if (this == other) {
+                return true;
+            }
+            final Object referent = get();
+            if (referent == null) {
+                return false;
+            }
+            if (other instanceof WeakKey) {
+                return referent == ((WeakKey<?>) other).get();
+            }
+            return other instanceof LookupKey && referent == ((LookupKey) other).referent;
+        }
+
+    }
+
+    private static final class LookupKey {
+
+        final Object      referent;
+        private final int hash;
+
+        LookupKey(final Object referent) {
+            this.referent = referent;
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object other) {
+            if (other instanceof WeakKey) {
+                return referent == ((WeakKey<?>) other).get();
+            }
+            return other instanceof LookupKey && referent == ((LookupKey) other).referent;
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+/**
+ * The ways in which the {@link NullnessAgent} can rewrite classes.
+ */
+public enum AgentMode {
+
+    /**
+     * Removes null checks which are provably redundant, see {@link NullCheckOptimizer}.
+     */
+    OPTIMIZE,
+
+    /**
+     * Counts violations of non-null contracts without enforcing them, see {@link ShadowEnforcer}.
+     */
+    SHADOW,
+
+    /**
+     * Samples which parameters and return values receive <code>null</code>, see {@link NullFlowProfiler}.
+     */
+    PROFILE
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Options of the {@link NullnessAgent}, given as comma separated <code>key=value</code> pairs, e.g.
+ * <code>-javaagent:common-annotations-&lt;version&gt;-agent.jar=mode=optimize,report=/tmp/nullness.txt</code>.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class AgentOptions {
+
+    private final Map<String, String> values;
+
+    private AgentOptions(final Map<String, String> values) {
+        this.values = values;
+    }
+
+    static AgentOptions parse(@Nullable final String arguments) {
+        final Map<String, String> values = new HashMap<>();
+        if (arguments != null) {
+            for (final String option : arguments.split(",")) {
+                final int separator = option.indexOf('=');
+                if (separator > 0) {
+                    values.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+                } else if (!option.trim().isEmpty()) {
+                    values.put(option.trim(), "true");
+                }
+            }
+        }
+        return new AgentOptions(values);
+    }
+
+    AgentMode getMode() {
+        return AgentMode.valueOf(get("mode", AgentMode.OPTIMIZE.name()).toUpperCase(Locale.ROOT));
+    }
+
+    String get(final String key, final String defaultValue) {
+        final String value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Nullable
+    String get(final String key) {
+        return values.get(key);
+    }
+
+    int getInt(final String key, final int defaultValue) {
+        final String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.PrintWriter;
+
+/**
+ * What an {@link AgentMode} reports, periodically or on shutdown.
+ */
+interface AgentReport {
+
+    /**
+     * @param writer
+     *            The writer to write the report to.
+     */
+    void write(PrintWriter writer);
+
+}
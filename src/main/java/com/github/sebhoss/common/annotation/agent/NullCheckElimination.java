@@ -0,0 +1,495 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FrameNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Removes null checks on local variables which a forward dataflow pass proves to be non-null. A local is known to be
+ * non-null after it was checked with <code>IFNULL</code>/<code>IFNONNULL</code> or {@link Nullsafe}, after it was
+ * dereferenced, or after a non-null value (<code>this</code>, a constant, a new array, a result of {@link Nullsafe})
+ * was stored in it. Parameters count as non-null only if the caller says so.
+ * <p/>
+ * Checks are removed as follows:
+ * <ul>
+ * <li><code>ALOAD n; IFNULL L</code> is dropped, <code>ALOAD n; IFNONNULL L</code> becomes <code>GOTO L</code>
+ * <li><code>Nullsafe.nullsafe(n)</code> and <code>Nullsafe.nullsafe(n, "message")</code> are reduced to
+ * <code>ALOAD n</code>
+ * </ul>
+ * Code which becomes unreachable afterwards, typically the <code>throw new NullPointerException()</code> branch, is
+ * removed as well.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullCheckElimination {
+
+    private static final String       NULLSAFE                    = Type.getInternalName(Nullsafe.class);
+    private static final String       NULLSAFE_DESCRIPTOR         = "(Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String       NULLSAFE_MESSAGE_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;";
+
+    private final MethodNode          method;
+    private final AbstractInsnNode[]  instructions;
+    private final BitSet[]            states;
+    private final Set<LabelNode>      targets;
+
+    private NullCheckElimination(final MethodNode method) {
+        this.method = method;
+        instructions = method.instructions.toArray();
+        states = new BitSet[instructions.length];
+        targets = branchTargets(method);
+    }
+
+    /**
+     * @param method
+     *            The method to optimize.
+     * @param nonNullParameters
+     *            The local variable slots which are non-null on method entry, including <code>this</code>.
+     * @return The number of removed null checks.
+     */
+    static int apply(final MethodNode method, final BitSet nonNullParameters) {
+        if (method.instructions.size() == 0 || usesSubroutines(method)) {
+            return 0;
+        }
+        final NullCheckElimination elimination = new NullCheckElimination(method);
+        elimination.analyze(nonNullParameters);
+        final int removed = elimination.rewrite();
+        if (removed > 0) {
+            removeUnreachableCode(method);
+        }
+        return removed;
+    }
+
+    /**
+     * @param method
+     *            Some method.
+     * @return The local variable slots which hold <code>this</code> and the parameters on method entry.
+     */
+    static int[] parameterSlots(final MethodNode method) {
+        final Type[] arguments = Type.getArgumentTypes(method.desc);
+        final int[] slots = new int[arguments.length];
+        int slot = (method.access & Opcodes.ACC_STATIC) == 0 ? 1 : 0;
+        for (int index = 0; index < arguments.length; index++) {
+            slots[index] = slot;
+            slot += arguments[index].getSize();
+        }
+        return slots;
+    }
+
+    private void analyze(final BitSet entry) {
+        final Deque<Integer> worklist = new ArrayDeque<>();
+        states[0] = entry;
+        worklist.push(Integer.valueOf(0));
+        while (!worklist.isEmpty()) {
+            final int index = worklist.pop().intValue();
+            final BitSet in = states[index];
+            final AbstractInsnNode instruction = instructions[index];
+            final BitSet out = transfer(index, in);
+
+            for (final TryCatchBlockNode block : method.tryCatchBlocks) {
+                if (indexOf(block.start) <= index && index < indexOf(block.end)) {
+                    merge(indexOf(block.handler), in, worklist);
+                    merge(indexOf(block.handler), out, worklist);
+                }
+            }
+
+            final int opcode = instruction.getOpcode();
+            if (instruction instanceof JumpInsnNode) {
+                final int target = indexOf(((JumpInsnNode) instruction).label);
+                final int checked = checkedLocal(index);
+                if (opcode == Opcodes.IFNULL && checked >= 0) {
+                    merge(target, in, worklist);
+                    merge(index + 1, with(out, checked), worklist);
+                } else if (opcode == Opcodes.IFNONNULL && checked >= 0) {
+                    merge(target, with(in, checked), worklist);
+                    merge(index + 1, out, worklist);
+                } else {
+                    merge(target, out, worklist);
+                    if (opcode != Opcodes.GOTO) {
+                        merge(index + 1, out, worklist);
+                    }
+                }
+            } else if (instruction instanceof TableSwitchInsnNode) {
+                final TableSwitchInsnNode table = (TableSwitchInsnNode) instruction;
+                merge(indexOf(table.dflt), out, worklist);
+                for (final LabelNode label : table.labels) {
+                    merge(indexOf(label), out, worklist);
+                }
+            } else if (instruction instanceof LookupSwitchInsnNode) {
+                final LookupSwitchInsnNode lookup = (LookupSwitchInsnNode) instruction;
+                merge(indexOf(lookup.dflt), out, worklist);
+                for (final LabelNode label : lookup.labels) {
+                    merge(indexOf(label), out, worklist);
+                }
+            } else if (!isExit(opcode) && index + 1 < instructions.length) {
+                merge(index + 1, out, worklist);
+            }
+        }
+    }
+
+    private BitSet transfer(final int index, final BitSet in) {
+        final AbstractInsnNode instruction = instructions[index];
+        final int opcode = instruction.getOpcode();
+        switch (opcode) {
+            case Opcodes.ASTORE:
+                final int variable = ((VarInsnNode) instruction).var;
+                final BitSet stored = (BitSet) in.clone();
+                stored.set(variable, isNonNullOnTop(index, in));
+                return stored;
+            case Opcodes.ISTORE:
+            case Opcodes.FSTORE:
+                return without(in, ((VarInsnNode) instruction).var, 1);
+            case Opcodes.LSTORE:
+            case Opcodes.DSTORE:
+                return without(in, ((VarInsnNode) instruction).var, 2);
+            default:
+                final int dereferenced = dereferencedLocal(index);
+                return dereferenced >= 0 ? with(in, dereferenced) : in;
+        }
+    }
+
+    private int rewrite() {
+        final InsnList list = method.instructions;
+        int removed = 0;
+        for (int index = 0; index < instructions.length; index++) {
+            final BitSet state = states[index];
+            final AbstractInsnNode instruction = instructions[index];
+            if (state == null) {
+                continue;
+            }
+            final int opcode = instruction.getOpcode();
+            if (opcode == Opcodes.IFNULL || opcode == Opcodes.IFNONNULL) {
+                final int checked = checkedLocal(index);
+                if (checked >= 0 && state.get(checked)) {
+                    list.remove(instructions[previous(index)]);
+                    if (opcode == Opcodes.IFNONNULL) {
+                        list.set(instruction, new JumpInsnNode(Opcodes.GOTO, ((JumpInsnNode) instruction).label));
+                    } else {
+                        list.remove(instruction);
+                    }
+                    removed++;
+                }
+            } else if (isNullsafe(instruction, NULLSAFE_DESCRIPTOR)) {
+                final int argument = previous(index);
+                if (argument >= 0 && isNonNullLocal(argument, state)) {
+                    list.remove(instruction);
+                    removed++;
+                }
+            } else if (isNullsafe(instruction, NULLSAFE_MESSAGE_DESCRIPTOR)) {
+                final int message = previous(index);
+                final int argument = message >= 0 ? previous(message) : -1;
+                if (argument >= 0 && isPureLoad(instructions[message]) && isNonNullLocal(argument, state)) {
+                    list.remove(instructions[message]);
+                    list.remove(instruction);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return The local which is loaded right before the null check at the given index, or <code>-1</code>.
+     */
+    private int checkedLocal(final int index) {
+        final int previous = previous(index);
+        if (previous >= 0 && instructions[previous].getOpcode() == Opcodes.ALOAD) {
+            return ((VarInsnNode) instructions[previous]).var;
+        }
+        return -1;
+    }
+
+    /**
+     * @return The local whose value is proven non-null once the instruction at the given index completes normally, or
+     *         <code>-1</code>.
+     */
+    private int dereferencedLocal(final int index) {
+        final AbstractInsnNode instruction = instructions[index];
+        switch (instruction.getOpcode()) {
+            case Opcodes.GETFIELD:
+            case Opcodes.ARRAYLENGTH:
+            case Opcodes.MONITORENTER:
+                return checkedLocal(index);
+            case Opcodes.INVOKEVIRTUAL:
+            case Opcodes.INVOKEINTERFACE:
+            case Opcodes.INVOKESPECIAL:
+                final MethodInsnNode call = (MethodInsnNode) instruction;
+                if (!"<init>".equals(call.name) && Type.getArgumentTypes(call.desc).length == 0) {
+                    return checkedLocal(index);
+                }
+                return -1;
+            case Opcodes.INVOKESTATIC:
+                if (isNullsafe(instruction, NULLSAFE_DESCRIPTOR)) {
+                    return checkedLocal(index);
+                } else if (isNullsafe(instruction, NULLSAFE_MESSAGE_DESCRIPTOR)) {
+                    final int message = previous(index);
+                    return message >= 0 && isPureLoad(instructions[message]) ? checkedLocal(message) : -1;
+                }
+                return -1;
+            default:
+                return -1;
+        }
+    }
+
+    private boolean isNonNullOnTop(final int index, final BitSet state) {
+        int producer = previous(index);
+        while (producer >= 0) {
+            final AbstractInsnNode instruction = instructions[producer];
+            switch (instruction.getOpcode()) {
+                case Opcodes.ALOAD:
+                    return state.get(((VarInsnNode) instruction).var);
+                case Opcodes.LDC:
+                    final Object constant = ((LdcInsnNode) instruction).cst;
+                    return constant instanceof String || constant instanceof Type;
+                case Opcodes.NEWARRAY:
+                case Opcodes.ANEWARRAY:
+                case Opcodes.MULTIANEWARRAY:
+                    return true;
+                case Opcodes.INVOKESTATIC:
+                    return isNullsafe(instruction, NULLSAFE_DESCRIPTOR)
+                            || isNullsafe(instruction, NULLSAFE_MESSAGE_DESCRIPTOR);
+                case Opcodes.CHECKCAST:
+                    producer = previous(producer);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean isNonNullLocal(final int index, final BitSet state) {
+        final AbstractInsnNode instruction = instructions[index];
+        return instruction.getOpcode() == Opcodes.ALOAD && state.get(((VarInsnNode) instruction).var);
+    }
+
+    /**
+     * @return The index of the real instruction before the given one, or <code>-1</code> if there is none or if a
+     *         branch target lies in between, in which case the operand stack has more than one producer.
+     */
+    private int previous(final int index) {
+        for (int candidate = index - 1; candidate >= 0; candidate--) {
+            final AbstractInsnNode instruction = instructions[candidate];
+            if (instruction instanceof LabelNode) {
+                if (targets.contains(instruction)) {
+                    return -1;
+                }
+            } else if (instruction.getOpcode() >= 0) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private void merge(final int index, final BitSet state, final Deque<Integer> worklist) {
+        final BitSet current = states[index];
+        if (current == null) {
+            states[index] = state;
+            worklist.push(Integer.valueOf(index));
+        } else {
+            final BitSet merged = (BitSet) current.clone();
+            merged.and(state);
+            if (!merged.equals(current)) {
+                states[index] = merged;
+                worklist.push(Integer.valueOf(index));
+            }
+        }
+    }
+
+    private int indexOf(final AbstractInsnNode instruction) {
+        return method.instructions.indexOf(instruction);
+    }
+
+    private static void removeUnreachableCode(final MethodNode method) {
+        final AbstractInsnNode[] instructions = method.instructions.toArray();
+        final boolean[] reachable = reachableInstructions(method, instructions);
+
+        for (final Iterator<TryCatchBlockNode> blocks = method.tryCatchBlocks.iterator(); blocks.hasNext();) {
+            final TryCatchBlockNode block = blocks.next();
+            final int start = method.instructions.indexOf(block.start);
+            final int end = method.instructions.indexOf(block.end);
+            boolean covered = false;
+            for (int index = start; index < end && !covered; index++) {
+                covered = reachable[index] && instructions[index].getOpcode() >= 0;
+            }
+            if (!covered || !reachable[method.instructions.indexOf(block.handler)]) {
+                blocks.remove();
+            }
+        }
+
+        @Nullable
+        FrameNode pendingFrame = null;
+        for (int index = 0; index < instructions.length; index++) {
+            final AbstractInsnNode instruction = instructions[index];
+            if (instruction instanceof FrameNode) {
+                if (pendingFrame != null) {
+                    method.instructions.remove(pendingFrame);
+                }
+                pendingFrame = (FrameNode) instruction;
+            } else if (instruction.getOpcode() >= 0) {
+                if (!reachable[index]) {
+                    method.instructions.remove(instruction);
+                    if (pendingFrame != null) {
+                        method.instructions.remove(pendingFrame);
+                    }
+                } else if (instruction.getOpcode() == Opcodes.GOTO
+                        && jumpsToNext(instructions, index, ((JumpInsnNode) instruction).label)) {
+                    method.instructions.remove(instruction);
+                }
+                pendingFrame = null;
+            } else if (!(instruction instanceof LabelNode) && !(instruction instanceof LineNumberNode)) {
+                pendingFrame = null;
+            }
+        }
+        if (pendingFrame != null) {
+            method.instructions.remove(pendingFrame);
+        }
+    }
+
+    private static boolean[] reachableInstructions(final MethodNode method, final AbstractInsnNode[] instructions) {
+        final boolean[] reachable = new boolean[instructions.length];
+        final Deque<Integer> worklist = new ArrayDeque<>();
+        worklist.push(Integer.valueOf(0));
+        while (!worklist.isEmpty()) {
+            final int index = worklist.pop().intValue();
+            if (index >= instructions.length || reachable[index]) {
+                continue;
+            }
+            reachable[index] = true;
+            final AbstractInsnNode instruction = instructions[index];
+            final int opcode = instruction.getOpcode();
+            if (instruction instanceof JumpInsnNode) {
+                worklist.push(Integer.valueOf(method.instructions.indexOf(((JumpInsnNode) instruction).label)));
+                if (opcode != Opcodes.GOTO) {
+                    worklist.push(Integer.valueOf(index + 1));
+                }
+            } else if (instruction instanceof TableSwitchInsnNode) {
+                final TableSwitchInsnNode table = (TableSwitchInsnNode) instruction;
+                worklist.push(Integer.valueOf(method.instructions.indexOf(table.dflt)));
+                for (final LabelNode label : table.labels) {
+                    worklist.push(Integer.valueOf(method.instructions.indexOf(label)));
+                }
+            } else if (instruction instanceof LookupSwitchInsnNode) {
+                final LookupSwitchInsnNode lookup = (LookupSwitchInsnNode) instruction;
+                worklist.push(Integer.valueOf(method.instructions.indexOf(lookup.dflt)));
+                for (final LabelNode label : lookup.labels) {
+                    worklist.push(Integer.valueOf(method.instructions.indexOf(label)));
+                }
+            } else if (!isExit(opcode)) {
+                worklist.push(Integer.valueOf(index + 1));
+            }
+            if (opcode >= 0) {
+                for (final TryCatchBlockNode block : method.tryCatchBlocks) {
+                    if (method.instructions.indexOf(block.start) <= index
+                            && index < method.instructions.indexOf(block.end)) {
+                        worklist.push(Integer.valueOf(method.instructions.indexOf(block.handler)));
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static boolean jumpsToNext(final AbstractInsnNode[] instructions, final int index, final LabelNode label) {
+        for (int next = index + 1; next < instructions.length; next++) {
+            final AbstractInsnNode instruction = instructions[next];
+            if (instruction == label) {
+                return true;
+            } else if (instruction.getOpcode() >= 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static Set<LabelNode> branchTargets(final MethodNode method) {
+        final Set<LabelNode> labels = new HashSet<>();
+        for (final Iterator<AbstractInsnNode> iterator = method.instructions.iterator(); iterator.hasNext();) {
+            final AbstractInsnNode instruction = iterator.next();
+            if (instruction instanceof JumpInsnNode) {
+                labels.add(((JumpInsnNode) instruction).label);
+            } else if (instruction instanceof TableSwitchInsnNode) {
+                labels.add(((TableSwitchInsnNode) instruction).dflt);
+                labels.addAll(((TableSwitchInsnNode) instruction).labels);
+            } else if (instruction instanceof LookupSwitchInsnNode) {
+                labels.add(((LookupSwitchInsnNode) instruction).dflt);
+                labels.addAll(((LookupSwitchInsnNode) instruction).labels);
+            }
+        }
+        for (final TryCatchBlockNode block : method.tryCatchBlocks) {
+            labels.add(block.handler);
+        }
+        return labels;
+    }
+
+    private static boolean usesSubroutines(final MethodNode method) {
+        for (final Iterator<AbstractInsnNode> iterator = method.instructions.iterator(); iterator.hasNext();) {
+            final int opcode = iterator.next().getOpcode();
+            if (opcode == Opcodes.JSR || opcode == Opcodes.RET) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNullsafe(final AbstractInsnNode instruction, final String descriptor) {
+        if (instruction.getOpcode() != Opcodes.INVOKESTATIC) {
+            return false;
+        }
+        final MethodInsnNode call = (MethodInsnNode) instruction;
+        return NULLSAFE.equals(call.owner) && "nullsafe".equals(call.name) && descriptor.equals(call.desc);
+    }
+
+    private static boolean isPureLoad(final AbstractInsnNode instruction) {
+        return instruction.getOpcode() == Opcodes.LDC || instruction.getOpcode() == Opcodes.ALOAD
+                || instruction.getOpcode() == Opcodes.ACONST_NULL;
+    }
+
+    private static boolean isExit(final int opcode) {
+        return opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN || opcode == Opcodes.ATHROW;
+    }
+
+    private static BitSet with(final BitSet state, final int variable) {
+        if (state.get(variable)) {
+            return state;
+        }
+        final BitSet result = (BitSet) state.clone();
+        result.set(variable);
+        return result;
+    }
+
+    private static BitSet without(final BitSet state, final int variable, final int size) {
+        final BitSet result = (BitSet) state.clone();
+        result.clear(variable, variable + size);
+        return result;
+    }
+
+}
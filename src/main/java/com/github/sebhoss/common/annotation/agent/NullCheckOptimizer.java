@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.nio.ByteBuffer;
+import java.security.ProtectionDomain;
+import java.util.BitSet;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+
+/**
+ * Removes provably redundant null checks from classes covered by {@link NotNullByDefault} while they are loaded, see
+ * {@link NullCheckElimination} for the rules. Smaller methods have a better chance to stay below HotSpot's inlining
+ * thresholds, which the {@link OptimizationReport} keeps track of.
+ * <p/>
+ * By default only facts established inside a method are used. With the <code>trust=parameters</code> option,
+ * reference parameters which are neither <code>@Nullable</code> nor <code>@CheckForNull</code> are assumed to be
+ * non-null on entry, i.e. callers are trusted to honor the contract.
+ */
+final class NullCheckOptimizer implements ClassFileTransformer {
+
+    private final NullnessScope      scope;
+    private final OptimizationReport report;
+    private final boolean            trustParameters;
+
+    NullCheckOptimizer(final NullnessScope scope, final OptimizationReport report, final boolean trustParameters) {
+        this.scope = scope;
+        this.report = report;
+        this.trustParameters = trustParameters;
+    }
+
+    @Override
+    @Nullable
+    public byte[] transform(@Nullable final ClassLoader loader, @Nullable final String className,
+            @Nullable final Class<?> classBeingRedefined, @Nullable final ProtectionDomain protectionDomain,
+            @Nullable final byte[] classfileBuffer) {
+        if (loader == null || className == null || classfileBuffer == null || NullnessScope.isAgentClass(className)) {
+            return null;
+        }
+        try {
+            final ClassFileReader before = new ClassFileReader(ByteBuffer.wrap(classfileBuffer));
+            final boolean covered = scope.isCovered(loader, before);
+            if (!covered && !NullnessScope.hasAnnotatedMethod(before)) {
+                return null;
+            }
+
+            final ClassReader reader = new ClassReader(classfileBuffer);
+            final ClassNode type = new ClassNode();
+            reader.accept(type, ClassReader.EXPAND_FRAMES);
+            int removed = 0;
+            for (final MethodNode method : type.methods) {
+                if (covered || NullnessAnnotations.isNotNullByDefault(method)) {
+                    removed += NullCheckElimination.apply(method, nonNullOnEntry(method));
+                }
+            }
+            if (removed == 0) {
+                return null;
+            }
+
+            final ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+            type.accept(writer);
+            final byte[] optimized = writer.toByteArray();
+            report.record(before, new ClassFileReader(ByteBuffer.wrap(optimized)), removed);
+            return optimized;
+        } catch (final RuntimeException exception) {
+            report.failed(className, exception);
+            return null;
+        }
+    }
+
+    private BitSet nonNullOnEntry(final MethodNode method) {
+        final BitSet slots = new BitSet();
+        if ((method.access & Opcodes.ACC_STATIC) == 0) {
+            slots.set(0);
+        }
+        if (trustParameters) {
+            final Type[] arguments = Type.getArgumentTypes(method.desc);
+            final int[] parameterSlots = NullCheckElimination.parameterSlots(method);
+            for (int index = 0; index < arguments.length; index++) {
+                if (NullnessAnnotations.isReference(arguments[index])
+                        && !NullnessAnnotations.isNullable(method, index)) {
+                    slots.set(parameterSlots[index]);
+                }
+            }
+        }
+        return slots;
+    }
+
+}
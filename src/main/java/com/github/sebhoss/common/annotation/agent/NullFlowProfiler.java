@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.nio.ByteBuffer;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+
+/**
+ * Samples which reference parameters and return values actually receive <code>null</code>, see
+ * {@link NullFlowSamples}. All classes of the configured packages are profiled, whether they are covered by
+ * {@link NotNullByDefault} or not, so that the {@link NullFlowReport} can suggest both new <code>@Nullable</code>
+ * annotations and packages ready for {@link NotNullByDefault}. Synthetic and bridge methods are skipped, and so are
+ * class loaders which do not resolve {@link NullFlowSamples} to the agent's own class.
+ * <p/>
+ * Once a site is settled, {@link #uninstrumentSettled(Instrumentation)} retransforms its class without the code
+ * injected for that site, so that profiling costs nothing there anymore while the other sites of the class keep
+ * sampling. Sites are kept per class loader and class, so that a class of the same name but another loader is profiled
+ * on its own.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullFlowProfiler implements ClassFileTransformer {
+
+    private static final ObserverCalls CALLS    = new ObserverCalls(NullFlowSamples.class, "observe");
+    private static final String[]      PLATFORM = { "java/", "javax/", "jdk/", "sun/", "com/sun/", "org/objectweb/" };
+
+    private final NullnessScope                                       scope;
+    private final String[]                                            packages;
+    private final NullFlowReport                                      report;
+    private final Map<ClassLoader, Map<String, NullFlowSamples.Sites>> classes = new WeakHashMap<>();
+    private final Queue<NullFlowSamples.Sites>                        settled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param scope
+     *            The scope of {@link NotNullByDefault}.
+     * @param packages
+     *            The internal names of the packages to profile, including sub packages. Profiles every class outside
+     *            of the platform if empty.
+     * @param report
+     *            The report to record instrumented classes in.
+     */
+    NullFlowProfiler(final NullnessScope scope, final String[] packages, final NullFlowReport report) {
+        this.scope = scope;
+        this.packages = packages.clone();
+        this.report = report;
+    }
+
+    @Override
+    @Nullable
+    public byte[] transform(@Nullable final ClassLoader loader, @Nullable final String className,
+            @Nullable final Class<?> classBeingRedefined, @Nullable final ProtectionDomain protectionDomain,
+            @Nullable final byte[] classfileBuffer) {
+        if (loader == null || className == null || classfileBuffer == null || NullnessScope.isAgentClass(className)
+                || !isProfiled(className) || !CALLS.isVisibleFrom(loader)) {
+            return null;
+        }
+        try {
+            final boolean covered = scope.isCovered(loader, new ClassFileReader(ByteBuffer.wrap(classfileBuffer)));
+            final ClassReader reader = new ClassReader(classfileBuffer);
+            final ClassNode type = new ClassNode();
+            reader.accept(type, 0);
+            final NullFlowSamples.Sites sites = sitesOf(loader, className);
+            int calls = 0;
+            for (final MethodNode method : type.methods) {
+                if ((method.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_SYNTHETIC
+                        | Opcodes.ACC_BRIDGE)) == 0) {
+                    calls += instrument(className.replace('/', '.'), method, sites, covered
+                            || NullnessAnnotations.isNotNullByDefault(method));
+                }
+            }
+            if (calls == 0) {
+                return null;
+            }
+
+            final ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+            type.accept(writer);
+            report.instrumented(calls);
+            return writer.toByteArray();
+        } catch (final RuntimeException exception) {
+            report.failed(className, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Retransforms all classes with newly settled sites. The transformer no longer instruments settled sites, and
+     * restores the original bytecode of classes whose sites are all settled.
+     *
+     * @param instrumentation
+     *            The instrumentation of the JVM.
+     */
+    void uninstrumentSettled(final Instrumentation instrumentation) {
+        final Map<String, List<ClassLoader>> names = new HashMap<>();
+        for (NullFlowSamples.Sites sites = settled.poll(); sites != null; sites = settled.poll()) {
+            sites.dequeue();
+            final ClassLoader loader = sites.getLoader();
+            if (loader != null) {
+                final String name = sites.getClassName().replace('/', '.');
+                List<ClassLoader> loaders = names.get(name);
+                if (loaders == null) {
+                    loaders = new ArrayList<>();
+                    names.put(name, loaders);
+                }
+                loaders.add(loader);
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        final List<Class<?>> targets = new ArrayList<>();
+        for (final Class<?> loaded : instrumentation.getAllLoadedClasses()) {
+            final List<ClassLoader> loaders = names.get(loaded.getName());
+            if (loaders != null && NullFlowProfiler.containsLoader(loaders, loaded.getClassLoader())
+                    && instrumentation.isModifiableClass(loaded)) {
+                targets.add(loaded);
+            }
+        }
+        try {
+            instrumentation.retransformClasses(targets.toArray(new Class<?>[targets.size()]));
+            report.retransformed(targets.size());
+        } catch (final UnmodifiableClassException | RuntimeException exception) {
+            report.failed(names.keySet().toString(), exception);
+        }
+    }
+
+    private NullFlowSamples.Sites sitesOf(final ClassLoader loader, final String className) {
+        synchronized (classes) {
+            Map<String, NullFlowSamples.Sites> loaded = classes.get(loader);
+            if (loaded == null) {
+                loaded = new HashMap<>();
+                classes.put(loader, loaded);
+            }
+            NullFlowSamples.Sites sites = loaded.get(className);
+            if (sites == null) {
+                sites = new NullFlowSamples.Sites(loader, className, settled);
+                loaded.put(className, sites);
+            }
+            return sites;
+        }
+    }
+
+    private boolean isProfiled(final String className) {
+        for (final String prefix : PLATFORM) {
+            if (className.startsWith(prefix)) {
+                return false;
+            }
+        }
+        if (packages.length == 0) {
+            return true;
+        }
+        for (final String prefix : packages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int instrument(final String owner, final MethodNode method, final NullFlowSamples.Sites sites,
+            final boolean covered) {
+        final String prefix = owner + "::" + method.name + method.desc;
+        final Type[] arguments = Type.getArgumentTypes(method.desc);
+        final int[] parameterSites = new int[arguments.length];
+        for (int index = 0; index < arguments.length; index++) {
+            parameterSites[index] = NullnessAnnotations.isReference(arguments[index]) ? register(prefix
+                    + " parameter " + index, sites, covered, NullnessAnnotations.isNullable(method, index)) : -1;
+        }
+        int calls = CALLS.observeParameters(method, parameterSites);
+        if (NullnessAnnotations.isReference(Type.getReturnType(method.desc))) {
+            final int returnSite = register(prefix + " return", sites, covered,
+                    NullnessAnnotations.isNullableReturn(method));
+            if (returnSite >= 0) {
+                calls += CALLS.observeReturns(method, returnSite);
+            }
+        }
+        return calls;
+    }
+
+    private static boolean containsLoader(final List<ClassLoader> loaders, @Nullable final ClassLoader loader) {
+        for (final ClassLoader candidate : loaders) {
+            if (candidate == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int register(final String description, final NullFlowSamples.Sites sites, final boolean covered,
+            final boolean nullable) {
+        final int id = NullFlowSamples.SITES.register(sites.keyOf(description), description,
+                new NullFlowSamples.Site(sites, covered, nullable));
+        return NullFlowSamples.SITES.get(id).isSettled() ? -1 : id;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * Turns the samples of the {@link NullFlowProfiler} into annotation changes:
+ * <ul>
+ * <li>sites which received <code>null</code> but are not annotated as nullable need <code>@Nullable</code>, which is a
+ * contract violation if they are covered by {@link NotNullByDefault},
+ * <li>nullable sites which never received <code>null</code> in enough samples may drop <code>@Nullable</code>,
+ * <li>uncovered packages whose sites are all settled and never received <code>null</code> unless annotated as
+ * nullable are ready for {@link NotNullByDefault}.
+ * </ul>
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullFlowReport implements AgentReport {
+
+    private final int           sampling;
+    private final long          confidence;
+
+    private final AtomicLong    classes       = new AtomicLong();
+    private final AtomicLong    calls         = new AtomicLong();
+    private final AtomicLong    retransformed = new AtomicLong();
+    private final Queue<String> failures      = new ConcurrentLinkedQueue<>();
+
+    NullFlowReport(final int sampling, final long confidence) {
+        this.sampling = sampling;
+        this.confidence = confidence;
+    }
+
+    void instrumented(final int injectedCalls) {
+        classes.incrementAndGet();
+        calls.addAndGet(injectedCalls);
+    }
+
+    void retransformed(final int count) {
+        retransformed.addAndGet(count);
+    }
+
+    void failed(final String className, final Throwable cause) {
+        failures.add(className + ": " + cause);
+    }
+
+    @Override
+    public void write(final PrintWriter writer) {
+        final int sites = NullFlowSamples.SITES.size();
+        final List<String> addNullable = new ArrayList<>();
+        final List<String> removeNullable = new ArrayList<>();
+        final Map<String, long[]> packages = new TreeMap<>();
+        int settled = 0;
+        for (int id = 0; id < sites; id++) {
+            final NullFlowSamples.Site site = NullFlowSamples.SITES.get(id);
+            final String description = NullFlowSamples.SITES.describe(id);
+            final String histogram = String.format("%s\tnull %d, non-null %d", description,
+                    Long.valueOf(site.getNulls()), Long.valueOf(site.getSamples() - site.getNulls()));
+            if (site.isSettled()) {
+                settled++;
+            }
+            if (site.getNulls() > 0 && !site.isNullable()) {
+                addNullable.add(site.isCovered() ? histogram + "\tviolates @NotNullByDefault" : histogram);
+            } else if (site.getNulls() == 0 && site.isNullable() && site.isSettled()) {
+                removeNullable.add(histogram);
+            }
+            if (!site.isCovered()) {
+                final String type = description.substring(0, description.indexOf("::"));
+                final String packageName = type.lastIndexOf('.') < 0 ? "" : type.substring(0, type.lastIndexOf('.'));
+                long[] counts = packages.get(packageName);
+                if (counts == null) {
+                    counts = new long[2];
+                    packages.put(packageName, counts);
+                }
+                counts[0]++;
+                if (!site.isNullable() && (site.getNulls() > 0 || !site.isSettled())) {
+                    counts[1]++;
+                }
+            }
+        }
+
+        writer.printf("Null-flow profile: %d sites, %d settled, %d calls in %d classes, %d retransformed for "
+                + "settled sites (sampling 1 in %d, settled after %d samples)%n", Integer.valueOf(sites),
+                Integer.valueOf(settled), Long.valueOf(calls.get()), Long.valueOf(classes.get()),
+                Long.valueOf(retransformed.get()), Integer.valueOf(sampling), Long.valueOf(confidence));
+        writer.printf("Add @Nullable: %d%n", Integer.valueOf(addNullable.size()));
+        for (final String entry : addNullable) {
+            writer.printf("  %s%n", entry);
+        }
+        writer.printf("Remove @Nullable: %d%n", Integer.valueOf(removeNullable.size()));
+        for (final String entry : removeNullable) {
+            writer.printf("  %s%n", entry);
+        }
+        writer.println("Packages without @NotNullByDefault:");
+        for (final Map.Entry<String, long[]> entry : packages.entrySet()) {
+            final long[] counts = entry.getValue();
+            writer.printf("  %s %s\t%d sites, %d null or unsettled%n", counts[1] == 0 ? "+" : "-",
+                    entry.getKey().isEmpty() ? "<default>" : entry.getKey(), Long.valueOf(counts[0]),
+                    Long.valueOf(counts[1]));
+        }
+        if (!failures.isEmpty()) {
+            writer.printf("Failed to instrument: %d%n", Integer.valueOf(failures.size()));
+            for (final String entry : failures) {
+                writer.printf("  %s%n", entry);
+            }
+        }
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Records the values which code injected by the {@link NullFlowProfiler} observed. Only every n-th value of a site is
+ * sampled, decided by a thread-local random number so that unsampled calls write no shared state. Sampled values
+ * update two {@link AtomicLong atomic counters}. Once a site collected enough samples it is settled and ignores further
+ * values, and its class is queued for retransformation without the code injected for that site. The class is public
+ * only because injected code calls it, do not use it directly.
+ */
+public final class NullFlowSamples {
+
+    /** The instrumented sites. */
+    static final SiteTable<Site> SITES = new SiteTable<>();
+
+    private static volatile int  sampling   = 16;
+    private static volatile long confidence = 10_000;
+
+    /**
+     * The histogram of a single parameter or return value.
+     */
+    static final class Site {
+
+        private final Sites      owner;
+        private final boolean    covered;
+        private final boolean    nullable;
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong nulls   = new AtomicLong();
+        private volatile boolean settled;
+
+        Site(final Sites owner, final boolean covered, final boolean nullable) {
+            this.owner = owner;
+            this.covered = covered;
+            this.nullable = nullable;
+        }
+
+        /**
+         * @return <code>true</code> if the site is covered by <code>@NotNullByDefault</code>.
+         */
+        boolean isCovered() {
+            return covered;
+        }
+
+        /**
+         * @return <code>true</code> if the site is annotated as nullable.
+         */
+        boolean isNullable() {
+            return nullable;
+        }
+
+        /**
+         * @return The number of sampled values.
+         */
+        long getSamples() {
+            return samples.get();
+        }
+
+        /**
+         * @return The number of sampled <code>null</code> values.
+         */
+        long getNulls() {
+            return nulls.get();
+        }
+
+        /**
+         * @return <code>true</code> if the site collected enough samples.
+         */
+        boolean isSettled() {
+            return settled;
+        }
+
+    }
+
+    /**
+     * The sites of a single class as defined by a single class loader, which is retransformed whenever one of its sites
+     * settles. Classes of the same name but another loader have sites of their own.
+     */
+    static final class Sites {
+
+        private static final AtomicLong          CLASSES = new AtomicLong();
+
+        private final long                       id      = CLASSES.incrementAndGet();
+        private final WeakReference<ClassLoader> loader;
+        private final String                     className;
+        private final Queue<Sites>               settledClasses;
+        private final AtomicBoolean              queued  = new AtomicBoolean();
+
+        /**
+         * @param loader
+         *            The class loader which defines the class.
+         * @param className
+         *            The internal name of the class.
+         * @param settledClasses
+         *            The queue to add the class to once one of its sites is settled.
+         */
+        Sites(final ClassLoader loader, final String className, final Queue<Sites> settledClasses) {
+            this.loader = new WeakReference<>(loader);
+            this.className = className;
+            this.settledClasses = settledClasses;
+        }
+
+        /**
+         * @param description
+         *            The description of a site of the class.
+         * @return A key which tells the site apart from the same site of a class of the same name but another loader.
+         */
+        String keyOf(final String description) {
+            return id + " " + description;
+        }
+
+        /**
+         * @return The class loader which defines the class, <code>null</code> if it was garbage collected.
+         */
+        @Nullable
+        ClassLoader getLoader() {
+            return loader.get();
+        }
+
+        /**
+         * @return The internal name of the class.
+         */
+        String getClassName() {
+            return className;
+        }
+
+        /**
+         * Marks one site of the class as settled, queueing the class unless it is queued already.
+         */
+        void settle() {
+            if (queued.compareAndSet(false, true)) {
+                settledClasses.add(this);
+            }
+        }
+
+        /**
+         * Must be called once the class was taken from the queue, before it is retransformed.
+         */
+        void dequeue() {
+            queued.set(false);
+        }
+
+    }
+
+    /**
+     * Must be called before any class is instrumented.
+     *
+     * @param sampledValues
+     *            Sample every n-th value on average.
+     * @param requiredSamples
+     *            The number of samples after which a site is settled.
+     */
+    static void configure(final int sampledValues, final long requiredSamples) {
+        sampling = Math.max(1, sampledValues);
+        confidence = Math.max(1, requiredSamples);
+    }
+
+    /**
+     * Samples a value. Never throws.
+     *
+     * @param value
+     *            The value of a parameter or return value.
+     * @param site
+     *            The site the value was observed at.
+     */
+    public static void observe(@Nullable final Object value, final int site) {
+        final Site state = SITES.find(site);
+        if (state == null || state.settled || sampling > 1 && ThreadLocalRandom.current().nextInt(sampling) != 0) {
+            return;
+        }
+        if (value == null) {
+            state.nulls.incrementAndGet();
+        }
+        if (state.samples.incrementAndGet() == confidence) {
+            state.settled = true;
+            state.owner.settle();
+        }
+    }
+
+    private NullFlowSamples() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.instrument.Instrumentation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * Java agent which rewrites classes covered by {@link NotNullByDefault} while they are loaded. Use it with
+ * <code>-javaagent:common-annotations-&lt;version&gt;-agent.jar=mode=optimize</code>, the <code>agent</code> artifact
+ * bundling a relocated copy of ASM. The plain artifact declares ASM as an optional dependency only: without ASM on
+ * the class path the agent reports that it is disabled and leaves all classes untouched. Supported options are:
+ * <ul>
+ * <li><code>mode</code>: one of {@link AgentMode}, defaults to <code>optimize</code>
+ * <li><code>report</code>: file to write the report to on shutdown, defaults to standard error
+ * <li><code>trust=parameters</code>: treat non-nullable parameters as non-null on method entry
+ * <li><code>maxInlineSize</code>, <code>freqInlineSize</code>: the inlining thresholds of the JVM, defaulting to
+ * HotSpot's <code>35</code> and <code>325</code> bytes
+ * <li><code>interval</code>: seconds between two reports in <code>shadow</code> and <code>profile</code> mode,
+ * defaults to <code>60</code>
+ * <li><code>packages</code>: colon separated packages to profile in <code>profile</code> mode, defaults to all
+ * packages outside of the platform
+ * <li><code>sampling</code>: sample every n-th value in <code>profile</code> mode, defaults to <code>16</code>
+ * <li><code>confidence</code>: number of samples after which a site is settled in <code>profile</code> mode, defaults
+ * to <code>10000</code>
+ * </ul>
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class NullnessAgent {
+
+    private static final int      MAX_INLINE_SIZE  = 35;
+    private static final int      FREQ_INLINE_SIZE = 325;
+    private static final int      REPORT_INTERVAL  = 60;
+    private static final int      SAMPLING         = 16;
+    private static final int      CONFIDENCE       = 10_000;
+    private static final String[] ASM_CLASSES      = { "org.objectweb.asm.ClassVisitor",
+            "org.objectweb.asm.tree.ClassNode" };
+
+    /**
+     * @param arguments
+     *            The agent options.
+     * @param instrumentation
+     *            The instrumentation of the JVM.
+     */
+    public static void premain(@Nullable final String arguments, final Instrumentation instrumentation) {
+        agentmain(arguments, instrumentation);
+    }
+
+    /**
+     * @param arguments
+     *            The agent options.
+     * @param instrumentation
+     *            The instrumentation of the JVM.
+     */
+    public static void agentmain(@Nullable final String arguments, final Instrumentation instrumentation) {
+        final String missing = missingAsmClass();
+        if (missing != null) {
+            System.err.println("Nullness agent disabled: " + missing + " not found, use the agent artifact or add "
+                    + "asm and asm-tree to the class path");
+            return;
+        }
+        final AgentOptions options = AgentOptions.parse(arguments);
+        switch (options.getMode()) {
+            case OPTIMIZE:
+                final OptimizationReport report = new OptimizationReport(options.getInt("maxInlineSize",
+                        MAX_INLINE_SIZE), options.getInt("freqInlineSize", FREQ_INLINE_SIZE));
+                instrumentation.addTransformer(new NullCheckOptimizer(new NullnessScope(), report, "parameters"
+                        .equals(options.get("trust"))));
+                onShutdown(reporting(options, report));
+                break;
+            case SHADOW:
+                final ShadowReport shadowReport = new ShadowReport();
+                instrumentation.addTransformer(new ShadowEnforcer(new NullnessScope(), shadowReport));
+                periodically(options, reporting(options, shadowReport));
+                onShutdown(reporting(options, shadowReport));
+                break;
+            case PROFILE:
+                final int sampling = options.getInt("sampling", SAMPLING);
+                final int confidence = options.getInt("confidence", CONFIDENCE);
+                NullFlowSamples.configure(sampling, confidence);
+                final NullFlowReport profileReport = new NullFlowReport(sampling, confidence);
+                final NullFlowProfiler profiler = new NullFlowProfiler(new NullnessScope(), packages(options),
+                        profileReport);
+                instrumentation.addTransformer(profiler, true);
+                final Runnable reporting = reporting(options, profileReport);
+                periodically(options, new Runnable() {
+
+                    @Override
+                    public void run() {
+                        profiler.uninstrumentSettled(instrumentation);
+                        reporting.run();
+                    }
+
+                });
+                onShutdown(reporting);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported mode: " + options.getMode());
+        }
+    }
+
+    @Nullable
+    private static String missingAsmClass() {
+        for (final String name : ASM_CLASSES) {
+            try {
+                Class.forName(name, false, NullnessAgent.class.getClassLoader());
+            } catch (final ClassNotFoundException | LinkageError exception) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static String[] packages(final AgentOptions options) {
+        final String value = options.get("packages");
+        if (value == null || value.isEmpty()) {
+            return new String[0];
+        }
+        final String[] packages = value.split(":");
+        for (int index = 0; index < packages.length; index++) {
+            packages[index] = packages[index].trim().replace('.', '/') + "/";
+        }
+        return packages;
+    }
+
+    private static Runnable reporting(final AgentOptions options, final AgentReport report) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                writeReport(options, report);
+            }
+
+        };
+    }
+
+    private static void onShutdown(final Runnable task) {
+        final Thread hook = new Thread(task, "nullness-agent-report");
+        hook.setDaemon(true);
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
+
+    private static void periodically(final AgentOptions options, final Runnable task) {
+        final long interval = TimeUnit.SECONDS.toMillis(options.getInt("interval", REPORT_INTERVAL));
+        final Thread dumper = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Thread.sleep(interval);
+                        task.run();
+                    }
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+        }, "nullness-agent-dump");
+        dumper.setDaemon(true);
+        dumper.start();
+    }
+
+    private static synchronized void writeReport(final AgentOptions options, final AgentReport report) {
+        final String target = options.get("report");
+        if (target == null) {
+            report.write(new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8)));
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8)) {
+            report.write(new PrintWriter(writer));
+        } catch (final IOException exception) {
+            System.err.println("Could not write nullness agent report to " + target + ": " + exception);
+        }
+    }
+
+    private NullnessAgent() {
+        // agent entry point
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.StaticNotNullByDefault;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+
+/**
+ * Reads the nullness annotations of methods from their tree representation. <code>@Nullable</code> and
+ * <code>@CheckForNull</code> of <code>javax.annotation</code> mark a parameter or return value as nullable.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullnessAnnotations {
+
+    private static final String NULLABLE                   = "Ljavax/annotation/Nullable;";
+    private static final String CHECK_FOR_NULL             = "Ljavax/annotation/CheckForNull;";
+    private static final String NOT_NULL_BY_DEFAULT        = ClassFileReader.descriptorOf(NotNullByDefault.class);
+    private static final String STATIC_NOT_NULL_BY_DEFAULT = ClassFileReader.descriptorOf(StaticNotNullByDefault.class);
+
+    /**
+     * @param method
+     *            The method to inspect.
+     * @param parameter
+     *            The index of the parameter in the method descriptor, not counting <code>this</code>.
+     * @return <code>true</code> if the parameter is annotated as nullable.
+     */
+    static boolean isNullable(final MethodNode method, final int parameter) {
+        final int parameters = Type.getArgumentTypes(method.desc).length;
+        return isNullable(method.visibleParameterAnnotations, method.visibleAnnotableParameterCount, parameters,
+                parameter)
+                || isNullable(method.invisibleParameterAnnotations, method.invisibleAnnotableParameterCount,
+                        parameters, parameter);
+    }
+
+    /**
+     * @param method
+     *            The method to inspect.
+     * @return <code>true</code> if the return value of the method is annotated as nullable.
+     */
+    static boolean isNullableReturn(final MethodNode method) {
+        return hasAnnotation(method.visibleAnnotations, NULLABLE)
+                || hasAnnotation(method.visibleAnnotations, CHECK_FOR_NULL)
+                || hasAnnotation(method.invisibleAnnotations, NULLABLE)
+                || hasAnnotation(method.invisibleAnnotations, CHECK_FOR_NULL);
+    }
+
+    /**
+     * @param method
+     *            The method to inspect.
+     * @return <code>true</code> if the method is annotated with {@link NotNullByDefault} or
+     *         {@link StaticNotNullByDefault}.
+     */
+    static boolean isNotNullByDefault(final MethodNode method) {
+        return hasAnnotation(method.visibleAnnotations, NOT_NULL_BY_DEFAULT)
+                || hasAnnotation(method.invisibleAnnotations, STATIC_NOT_NULL_BY_DEFAULT);
+    }
+
+    /**
+     * @param type
+     *            A parameter or return type.
+     * @return <code>true</code> if values of the given type can be <code>null</code>.
+     */
+    static boolean isReference(final Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
+    }
+
+    /**
+     * Parameter annotations only cover the last <code>annotable</code> parameters of the descriptor, javac leaves out
+     * synthetic leading ones such as the outer instance of inner classes or the name and ordinal of enum constants.
+     * An <code>annotable</code> count of zero stands for all parameters.
+     */
+    private static boolean isNullable(@Nullable final List<AnnotationNode>[] annotations, final int annotable,
+            final int parameters, final int parameter) {
+        if (annotations == null) {
+            return false;
+        }
+        final int index = annotable == 0 ? parameter : parameter - (parameters - annotable);
+        if (index < 0 || index >= annotations.length) {
+            return false;
+        }
+        return hasAnnotation(annotations[index], NULLABLE) || hasAnnotation(annotations[index], CHECK_FOR_NULL);
+    }
+
+    private static boolean hasAnnotation(@Nullable final List<AnnotationNode> annotations, final String descriptor) {
+        if (annotations != null) {
+            for (final AnnotationNode annotation : annotations) {
+                if (descriptor.equals(annotation.desc)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private NullnessAnnotations() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.StaticNotNullByDefault;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+
+/**
+ * Decides at load time whether a class is covered by {@link NotNullByDefault} or {@link StaticNotNullByDefault},
+ * without loading any other class. The class itself, its enclosing classes and its <code>package-info</code> are read
+ * as resources of the defining class loader. Results for enclosing classes and packages are cached per class loader,
+ * which is held weakly.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullnessScope {
+
+    private static final String AGENT_PACKAGE = "com/github/sebhoss/common/annotation/agent/";
+
+    private final Map<ClassLoader, ConcurrentMap<String, Boolean>> cache = new WeakHashMap<>();
+
+    /**
+     * @param loader
+     *            The class loader defining the class.
+     * @param type
+     *            The class file of the class.
+     * @return <code>true</code> if the class is covered by {@link NotNullByDefault}.
+     */
+    boolean isCovered(final ClassLoader loader, final ClassFileReader type) {
+        if (type.isNotNullByDefault()) {
+            return true;
+        }
+        final String name = type.getClassName();
+        final ConcurrentMap<String, Boolean> resources = resourcesOf(loader);
+        final int nested = name.lastIndexOf('$');
+        if (nested > name.lastIndexOf('/') + 1 && isAnnotated(loader, resources, name.substring(0, nested))) {
+            return true;
+        }
+        final int slash = name.lastIndexOf('/');
+        return isAnnotated(loader, resources, slash < 0 ? "package-info" : name.substring(0, slash) + "/package-info");
+    }
+
+    /**
+     * @param className
+     *            The internal name of a class.
+     * @return <code>true</code> if the class belongs to the agent itself and must never be rewritten, since injected
+     *         code calls back into it.
+     */
+    static boolean isAgentClass(final String className) {
+        return className.startsWith(AGENT_PACKAGE);
+    }
+
+    /**
+     * @param type
+     *            The class file of a class.
+     * @return <code>true</code> if a method of the class is annotated with {@link NotNullByDefault}.
+     */
+    static boolean hasAnnotatedMethod(final ClassFileReader type) {
+        for (final ClassFileReader.Method method : type.getMethods()) {
+            if (ClassFileReader.isNotNullByDefault(method.getAnnotations())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ConcurrentMap<String, Boolean> resourcesOf(final ClassLoader loader) {
+        synchronized (cache) {
+            ConcurrentMap<String, Boolean> resources = cache.get(loader);
+            if (resources == null) {
+                resources = new ConcurrentHashMap<>();
+                cache.put(loader, resources);
+            }
+            return resources;
+        }
+    }
+
+    private boolean isAnnotated(final ClassLoader loader, final ConcurrentMap<String, Boolean> resources,
+            final String className) {
+        final Boolean cached = resources.get(className);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        boolean annotated = false;
+        final byte[] bytes = read(loader, className + ".class");
+        if (bytes != null) {
+            try {
+                final ClassFileReader reader = new ClassFileReader(ByteBuffer.wrap(bytes));
+                annotated = className.endsWith("package-info") ? reader.isNotNullByDefault()
+                        : isCovered(loader, reader);
+            } catch (final IllegalArgumentException exception) {
+                annotated = false;
+            }
+        }
+        resources.put(className, Boolean.valueOf(annotated));
+        return annotated;
+    }
+
+    @Nullable
+    private static byte[] read(final ClassLoader loader, final String resource) {
+        try (InputStream input = loader.getResourceAsStream(resource)) {
+            if (input == null) {
+                return null;
+            }
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+}
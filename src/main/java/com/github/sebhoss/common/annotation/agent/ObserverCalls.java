@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Injects calls to a static observer method <code>void observe(Object value, int site)</code> which is handed
+ * parameters on method entry and return values right before they are returned. The injected code contains no branches,
+ * so existing stack map frames stay valid and only the maximum stack size has to be recomputed.
+ * <p/>
+ * Injected calls link against whatever observer class the defining class loader resolves, so classes are only
+ * instrumented for loaders which resolve the agent's own observer, see {@link #isVisibleFrom(ClassLoader)}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class ObserverCalls {
+
+    private static final String             DESCRIPTOR = "(Ljava/lang/Object;I)V";
+
+    private final Class<?>                  observer;
+    private final String                    owner;
+    private final String                    name;
+    private final Map<ClassLoader, Boolean> visible    = new WeakHashMap<>();
+
+    /**
+     * @param observer
+     *            The class declaring the observer method.
+     * @param name
+     *            The name of the observer method.
+     */
+    ObserverCalls(final Class<?> observer, final String name) {
+        this.observer = observer;
+        owner = Type.getInternalName(observer);
+        this.name = name;
+    }
+
+    /**
+     * @param loader
+     *            The class loader defining an instrumented class.
+     * @return <code>true</code> if the loader resolves the observer to the agent's own class. A child-first loader
+     *         bundling its own copy of the agent does not, neither does a loader which cannot see the agent at all.
+     */
+    boolean isVisibleFrom(final ClassLoader loader) {
+        synchronized (visible) {
+            final Boolean cached = visible.get(loader);
+            if (cached != null) {
+                return cached.booleanValue();
+            }
+        }
+        // resolve outside of the lock, since loading may transform further classes of other loaders
+        boolean resolved;
+        try {
+            resolved = Class.forName(observer.getName(), false, loader) == observer;
+        } catch (final ClassNotFoundException | LinkageError exception) {
+            resolved = false;
+        }
+        synchronized (visible) {
+            visible.put(loader, Boolean.valueOf(resolved));
+        }
+        return resolved;
+    }
+
+    /**
+     * @param method
+     *            The method to instrument.
+     * @param sites
+     *            The site of each parameter, or <code>-1</code> to skip a parameter.
+     * @return The number of injected calls.
+     */
+    int observeParameters(final MethodNode method, final int[] sites) {
+        final int[] slots = NullCheckElimination.parameterSlots(method);
+        final InsnList calls = new InsnList();
+        int injected = 0;
+        for (int parameter = 0; parameter < sites.length; parameter++) {
+            if (sites[parameter] >= 0) {
+                calls.add(new VarInsnNode(Opcodes.ALOAD, slots[parameter]));
+                calls.add(push(sites[parameter]));
+                calls.add(new MethodInsnNode(Opcodes.INVOKESTATIC, owner, name, DESCRIPTOR, false));
+                injected++;
+            }
+        }
+        method.instructions.insert(calls);
+        return injected;
+    }
+
+    /**
+     * @param method
+     *            The method to instrument.
+     * @param site
+     *            The site of the return value.
+     * @return The number of injected calls.
+     */
+    int observeReturns(final MethodNode method, final int site) {
+        int injected = 0;
+        for (final AbstractInsnNode instruction : method.instructions.toArray()) {
+            if (instruction.getOpcode() == Opcodes.ARETURN) {
+                final InsnList call = new InsnList();
+                call.add(new InsnNode(Opcodes.DUP));
+                call.add(push(site));
+                call.add(new MethodInsnNode(Opcodes.INVOKESTATIC, owner, name, DESCRIPTOR, false));
+                method.instructions.insertBefore(instruction, call);
+                injected++;
+            }
+        }
+        return injected;
+    }
+
+    private static AbstractInsnNode push(final int value) {
+        if (value <= 5) {
+            return new InsnNode(Opcodes.ICONST_0 + value);
+        } else if (value <= Short.MAX_VALUE) {
+            return new IntInsnNode(value <= Byte.MAX_VALUE ? Opcodes.BIPUSH : Opcodes.SIPUSH, value);
+        }
+        return new LdcInsnNode(Integer.valueOf(value));
+    }
+
+}
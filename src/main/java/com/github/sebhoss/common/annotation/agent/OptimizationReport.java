@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+
+/**
+ * Collects what the {@link NullCheckOptimizer} changed, most importantly the methods whose bytecode dropped below
+ * HotSpot's <code>MaxInlineSize</code> and <code>FreqInlineSize</code> thresholds.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class OptimizationReport implements AgentReport {
+
+    private final int           maxInlineSize;
+    private final int           freqInlineSize;
+
+    private final AtomicLong    classes         = new AtomicLong();
+    private final AtomicLong    methods         = new AtomicLong();
+    private final AtomicLong    checks          = new AtomicLong();
+    private final AtomicLong    bytesBefore     = new AtomicLong();
+    private final AtomicLong    bytesAfter      = new AtomicLong();
+    private final Queue<String> belowMaxInline  = new ConcurrentLinkedQueue<>();
+    private final Queue<String> belowFreqInline = new ConcurrentLinkedQueue<>();
+    private final Queue<String> failures        = new ConcurrentLinkedQueue<>();
+
+    OptimizationReport(final int maxInlineSize, final int freqInlineSize) {
+        this.maxInlineSize = maxInlineSize;
+        this.freqInlineSize = freqInlineSize;
+    }
+
+    void record(final ClassFileReader before, final ClassFileReader after, final int removedChecks) {
+        final Map<String, Integer> sizes = new HashMap<>();
+        for (final ClassFileReader.Method method : before.getMethods()) {
+            sizes.put(method.getName() + method.getDescriptor(), Integer.valueOf(method.getCodeLength()));
+        }
+        classes.incrementAndGet();
+        checks.addAndGet(removedChecks);
+        for (final ClassFileReader.Method method : after.getMethods()) {
+            final String signature = method.getName() + method.getDescriptor();
+            final Integer previous = sizes.get(signature);
+            if (previous == null || previous.intValue() == method.getCodeLength()) {
+                continue;
+            }
+            final int oldSize = previous.intValue();
+            final int newSize = method.getCodeLength();
+            methods.incrementAndGet();
+            bytesBefore.addAndGet(oldSize);
+            bytesAfter.addAndGet(newSize);
+            final String entry = before.getClassName().replace('/', '.') + "::" + signature + " " + oldSize + " -> "
+                    + newSize + " bytes";
+            if (oldSize > maxInlineSize && newSize <= maxInlineSize) {
+                belowMaxInline.add(entry);
+            } else if (oldSize > freqInlineSize && newSize <= freqInlineSize) {
+                belowFreqInline.add(entry);
+            }
+        }
+    }
+
+    void failed(final String className, final Throwable cause) {
+        failures.add(className + ": " + cause);
+    }
+
+    @Override
+    public void write(final PrintWriter writer) {
+        writer.printf("Null check optimizer: %d checks removed in %d methods of %d classes%n", Long.valueOf(checks
+                .get()), Long.valueOf(methods.get()), Long.valueOf(classes.get()));
+        writer.printf("Bytecode of changed methods: %d -> %d bytes%n", Long.valueOf(bytesBefore.get()),
+                Long.valueOf(bytesAfter.get()));
+        writer.printf("Now below MaxInlineSize (%d): %d%n", Integer.valueOf(maxInlineSize),
+                Integer.valueOf(belowMaxInline.size()));
+        for (final String entry : belowMaxInline) {
+            writer.printf("  %s%n", entry);
+        }
+        writer.printf("Now below FreqInlineSize (%d): %d%n", Integer.valueOf(freqInlineSize),
+                Integer.valueOf(belowFreqInline.size()));
+        for (final String entry : belowFreqInline) {
+            writer.printf("  %s%n", entry);
+        }
+        if (!failures.isEmpty()) {
+            writer.printf("Failed to optimize: %d%n", Integer.valueOf(failures.size()));
+            for (final String entry : failures) {
+                writer.printf("  %s%n", entry);
+            }
+        }
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Counts contract violations found by code which the {@link ShadowEnforcer} injected. Every site, i.e. a parameter or
+ * the return value of a method, has its own {@link LongAdder}, which stripes increments over several cells once
+ * threads contend for it. The class is public only because injected code calls it, do not use it directly.
+ */
+public final class ShadowCounters {
+
+    /** The instrumented sites. */
+    static final SiteTable<LongAdder> SITES = new SiteTable<>();
+
+    /**
+     * Counts a violation if the given value is <code>null</code>. Never throws.
+     *
+     * @param value
+     *            The value of a non-nullable parameter or return value.
+     * @param site
+     *            The site the value was observed at.
+     */
+    public static void observe(@Nullable final Object value, final int site) {
+        if (value == null) {
+            final LongAdder counter = SITES.find(site);
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+    }
+
+    private ShadowCounters() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Lists the sites at which the {@link ShadowEnforcer} observed contract violations, most violated first.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class ShadowReport implements AgentReport {
+
+    private final AtomicLong    classes  = new AtomicLong();
+    private final AtomicLong    checks   = new AtomicLong();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    void instrumented(final int injectedChecks) {
+        classes.incrementAndGet();
+        checks.addAndGet(injectedChecks);
+    }
+
+    void failed(final String className, final Throwable cause) {
+        failures.add(className + ": " + cause);
+    }
+
+    @Override
+    public void write(final PrintWriter writer) {
+        final int sites = ShadowCounters.SITES.size();
+        final List<long[]> violated = new ArrayList<>();
+        long violations = 0;
+        for (int site = 0; site < sites; site++) {
+            final long count = ShadowCounters.SITES.get(site).sum();
+            if (count > 0) {
+                violated.add(new long[] { count, site });
+                violations += count;
+            }
+        }
+        Collections.sort(violated, new Comparator<long[]>() {
+
+            @Override
+            public int compare(final long[] first, final long[] second) {
+                return Long.compare(second[0], first[0]);
+            }
+
+        });
+
+        writer.printf("Shadow enforcement: %d violations at %d of %d sites, %d checks in %d classes%n",
+                Long.valueOf(violations), Integer.valueOf(violated.size()), Integer.valueOf(sites),
+                Long.valueOf(checks.get()), Long.valueOf(classes.get()));
+        for (final long[] entry : violated) {
+            writer.printf("  %d\t%s%n", Long.valueOf(entry[0]), ShadowCounters.SITES.describe((int) entry[1]));
+        }
+        if (!failures.isEmpty()) {
+            writer.printf("Failed to instrument: %d%n", Integer.valueOf(failures.size()));
+            for (final String entry : failures) {
+                writer.printf("  %s%n", entry);
+            }
+        }
+        writer.flush();
+    }
+
+}
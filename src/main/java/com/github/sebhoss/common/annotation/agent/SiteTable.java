@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Numbers the instrumented sites of a mode, e.g. a parameter of a method, so that injected code can refer to them with
+ * a constant. Registration happens while classes are transformed and is synchronized, lookups from injected code read
+ * a copy-on-write array without locking. Reading the volatile size first makes a site visible to every thread that
+ * runs code referring to it.
+ *
+ * @param <T>
+ *            The type of the per-site state.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, CompilerWarnings.UNCHECKED })
+final class SiteTable<T> {
+
+    private final Map<String, Integer> ids          = new HashMap<>();
+    private volatile Object[]          sites        = new Object[64];
+    private volatile String[]          descriptions = new String[64];
+    private volatile int               size;
+
+    /**
+     * @param description
+     *            A unique description of the site, e.g. <code>com.example.Foo::bar(I)V parameter 1</code>.
+     * @param site
+     *            The state of the site, used only if the site was not registered before.
+     * @return The number of the site.
+     */
+    int register(final String description, final T site) {
+        return register(description, description, site);
+    }
+
+    /**
+     * @param key
+     *            A unique key of the site, e.g. when the description alone does not tell apart classes of the same
+     *            name but different class loaders.
+     * @param description
+     *            The description of the site, e.g. <code>com.example.Foo::bar(I)V parameter 1</code>.
+     * @param site
+     *            The state of the site, used only if the site was not registered before.
+     * @return The number of the site.
+     */
+    synchronized int register(final String key, final String description, final T site) {
+        final Integer existing = ids.get(key);
+        if (existing != null) {
+            return existing.intValue();
+        }
+        final int id = size;
+        if (id == sites.length) {
+            descriptions = Arrays.copyOf(descriptions, id * 2);
+            sites = Arrays.copyOf(sites, id * 2);
+        }
+        descriptions[id] = description;
+        sites[id] = site;
+        ids.put(key, Integer.valueOf(id));
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * @param id
+     *            The number of a registered site.
+     * @return The state of the site.
+     */
+    T get(final int id) {
+        if (id >= size) {
+            throw new IllegalArgumentException("Unknown site: " + id);
+        }
+        return (T) sites[id];
+    }
+
+    /**
+     * Looks up a site for injected code, which may refer to a table other than the one it was registered in, e.g. when
+     * a class loader defines its own copy of the agent classes.
+     *
+     * @param id
+     *            The number of a site.
+     * @return The state of the site or <code>null</code> if no such site is registered.
+     */
+    @Nullable
+    T find(final int id) {
+        return id >= 0 && id < size ? (T) sites[id] : null;
+    }
+
+    /**
+     * @param id
+     *            The number of a registered site.
+     * @return The description of the site.
+     */
+    String describe(final int id) {
+        return descriptions[id];
+    }
+
+    /**
+     * @return The number of registered sites.
+     */
+    int size() {
+        return size;
+    }
+
+}
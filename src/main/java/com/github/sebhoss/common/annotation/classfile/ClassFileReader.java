@@ -0,0 +1,402 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.StaticNotNullByDefault;
+
+/**
+ * Reads the class name, the class level annotations, the element a class is nested in and the methods of a class file.
+ * Fields are skipped without decoding them and methods only expose their name, descriptor, annotations and code size,
+ * which keeps the cost of reading a <code>package-info.class</code> close to the cost of reading its constant pool.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class ClassFileReader {
+
+    private static final int    MAGIC                          = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS    = "RuntimeVisibleAnnotations";
+    private static final String RUNTIME_INVISIBLE_ANNOTATIONS  = "RuntimeInvisibleAnnotations";
+    private static final String CODE                           = "Code";
+    private static final String INNER_CLASSES                  = "InnerClasses";
+    private static final String ENCLOSING_METHOD               = "EnclosingMethod";
+    private static final String NOT_NULL_BY_DEFAULT            = descriptorOf(NotNullByDefault.class);
+    private static final String STATIC_NOT_NULL_BY_DEFAULT     = descriptorOf(StaticNotNullByDefault.class);
+
+    private final ByteBuffer    buffer;
+    private final int[]         offsets;
+    private final String        className;
+    private final List<String>  annotations;
+    private final List<Method>  methods;
+    @Nullable
+    private final String        enclosingClassName;
+    @Nullable
+    private final String        enclosingMethod;
+
+    /**
+     * A method declared in a class file.
+     */
+    public static final class Method {
+
+        private final int          access;
+        private final String       name;
+        private final String       descriptor;
+        private final int          codeLength;
+        private final List<String> annotations;
+
+        Method(final int access, final String name, final String descriptor, final int codeLength,
+                final List<String> annotations) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.codeLength = codeLength;
+            this.annotations = annotations;
+        }
+
+        /**
+         * @return The access flags of the method.
+         */
+        public int getAccess() {
+            return access;
+        }
+
+        /**
+         * @return The name of the method.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The descriptor of the method, e.g. <code>(Ljava/lang/Object;)Ljava/lang/Object;</code>.
+         */
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * @return The length of the bytecode of the method, or <code>0</code> for abstract and native methods.
+         */
+        public int getCodeLength() {
+            return codeLength;
+        }
+
+        /**
+         * @return The descriptors of all runtime visible and invisible method annotations.
+         */
+        public List<String> getAnnotations() {
+            return annotations;
+        }
+
+    }
+
+    /**
+     * @param classFile
+     *            The raw bytes of a class file, starting at the buffer's current position.
+     * @throws IllegalArgumentException
+     *             In case the given bytes do not form a valid class file.
+     */
+    public ClassFileReader(final ByteBuffer classFile) {
+        buffer = classFile.slice();
+        try {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            offsets = new int[u2(8)];
+            int position = readConstantPool();
+            className = classAt(u2(position + 2));
+            position += 6;
+            position += 2 + 2 * u2(position);
+            position = skipMembers(position);
+            final List<Method> declared = new ArrayList<>(u2(position));
+            position = readMethods(position, declared);
+            methods = Collections.unmodifiableList(declared);
+            annotations = readAnnotations(position);
+            final int enclosing = findAttribute(position, ENCLOSING_METHOD);
+            if (enclosing >= 0) {
+                enclosingClassName = classAt(u2(enclosing + 6));
+                enclosingMethod = u2(enclosing + 8) == 0 ? null : nameAndTypeAt(u2(enclosing + 8));
+            } else {
+                final int innerClasses = findAttribute(position, INNER_CLASSES);
+                enclosingClassName = innerClasses < 0 ? null : outerClassAt(innerClasses);
+                enclosingMethod = null;
+            }
+        } catch (final IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated class file", exception);
+        }
+    }
+
+    /**
+     * @return The internal name of the class, e.g. <code>com/example/package-info</code>.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return The descriptors of all runtime visible and invisible class annotations, e.g.
+     *         <code>Lcom/github/sebhoss/common/annotation/NotNullByDefault;</code>.
+     */
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @return The internal name of the class this class is declared in, taken from the <code>InnerClasses</code>
+     *         attribute for member classes and from the <code>EnclosingMethod</code> attribute for local and anonymous
+     *         classes, or <code>null</code> for top level classes. The name of a class is never split at
+     *         <code>$</code>, which is a legal character of top level class names.
+     */
+    @Nullable
+    public String getEnclosingClassName() {
+        return enclosingClassName;
+    }
+
+    /**
+     * @return The name and descriptor of the method a local or anonymous class is declared in, e.g.
+     *         <code>run()V</code>, or <code>null</code> if the class is not declared in a method, e.g. in a field
+     *         initializer.
+     */
+    @Nullable
+    public String getEnclosingMethod() {
+        return enclosingMethod;
+    }
+
+    /**
+     * @return All methods declared in the class, including constructors and static initializers.
+     */
+    public List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * @param type
+     *            The annotation type to look for.
+     * @return <code>true</code> if the class is annotated with the given type, <code>false</code> otherwise.
+     */
+    public boolean isAnnotatedWith(final Class<?> type) {
+        return annotations.contains(descriptorOf(type));
+    }
+
+    /**
+     * @return <code>true</code> if the class is annotated with {@link NotNullByDefault} or
+     *         {@link StaticNotNullByDefault}.
+     */
+    public boolean isNotNullByDefault() {
+        return isNotNullByDefault(annotations);
+    }
+
+    /**
+     * @param annotations
+     *            The descriptors of the annotations of a class or method.
+     * @return <code>true</code> if the descriptors contain {@link NotNullByDefault} or {@link StaticNotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final List<String> annotations) {
+        return annotations.contains(NOT_NULL_BY_DEFAULT) || annotations.contains(STATIC_NOT_NULL_BY_DEFAULT);
+    }
+
+    /**
+     * @param type
+     *            Some type.
+     * @return The field descriptor of the given type.
+     */
+    public static String descriptorOf(final Class<?> type) {
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    private int readConstantPool() {
+        int position = 10;
+        for (int index = 1; index < offsets.length; index++) {
+            offsets[index] = position;
+            final int tag = buffer.get(position) & 0xFF;
+            switch (tag) {
+                case 1: // Utf8
+                    position += 3 + u2(position + 1);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    position += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    position += 9;
+                    index++;
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    position += 3;
+                    break;
+                case 15: // MethodHandle
+                    position += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        return position;
+    }
+
+    private int skipMembers(final int start) {
+        int position = start + 2;
+        for (int member = u2(start); member > 0; member--) {
+            position = skipAttributes(position + 6);
+        }
+        return position;
+    }
+
+    private int skipAttributes(final int start) {
+        int position = start + 2;
+        for (int attribute = u2(start); attribute > 0; attribute--) {
+            position += 6 + buffer.getInt(position + 2);
+        }
+        return position;
+    }
+
+    private int readMethods(final int start, final List<Method> declared) {
+        int position = start + 2;
+        for (int member = u2(start); member > 0; member--) {
+            final int access = u2(position);
+            final String name = utf8At(u2(position + 2));
+            final String descriptor = utf8At(u2(position + 4));
+            int codeLength = 0;
+            int attribute = position + 8;
+            for (int count = u2(position + 6); count > 0; count--) {
+                if (CODE.equals(utf8At(u2(attribute)))) {
+                    codeLength = buffer.getInt(attribute + 10);
+                }
+                attribute += 6 + buffer.getInt(attribute + 2);
+            }
+            declared.add(new Method(access, name, descriptor, codeLength, readAnnotations(position + 6)));
+            position = attribute;
+        }
+        return position;
+    }
+
+    private List<String> readAnnotations(final int start) {
+        final List<String> found = new ArrayList<>();
+        int position = start + 2;
+        for (int attribute = u2(start); attribute > 0; attribute--) {
+            final String name = utf8At(u2(position));
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name) || RUNTIME_INVISIBLE_ANNOTATIONS.equals(name)) {
+                int annotation = position + 8;
+                for (int count = u2(position + 6); count > 0; count--) {
+                    found.add(utf8At(u2(annotation)));
+                    annotation = skipAnnotation(annotation);
+                }
+            }
+            position += 6 + buffer.getInt(position + 2);
+        }
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * @return The offset of the given class attribute, or <code>-1</code> if the class has none.
+     */
+    private int findAttribute(final int start, final String name) {
+        int position = start + 2;
+        for (int attribute = u2(start); attribute > 0; attribute--) {
+            if (name.equals(utf8At(u2(position)))) {
+                return position;
+            }
+            position += 6 + buffer.getInt(position + 2);
+        }
+        return -1;
+    }
+
+    /**
+     * @return The outer class of this class as listed in the given <code>InnerClasses</code> attribute, which has no
+     *         outer class for local and anonymous classes.
+     */
+    @Nullable
+    private String outerClassAt(final int attribute) {
+        int entry = attribute + 8;
+        for (int count = u2(attribute + 6); count > 0; count--) {
+            if (u2(entry) != 0 && u2(entry + 2) != 0 && className.equals(classAt(u2(entry)))) {
+                return classAt(u2(entry + 2));
+            }
+            entry += 8;
+        }
+        return null;
+    }
+
+    private int skipAnnotation(final int start) {
+        int position = start + 4;
+        for (int pair = u2(start + 2); pair > 0; pair--) {
+            position = skipElementValue(position + 2);
+        }
+        return position;
+    }
+
+    private int skipElementValue(final int start) {
+        final char tag = (char) buffer.get(start);
+        switch (tag) {
+            case 'e':
+                return start + 5;
+            case '@':
+                return skipAnnotation(start + 1);
+            case '[':
+                int position = start + 3;
+                for (int value = u2(start + 1); value > 0; value--) {
+                    position = skipElementValue(position);
+                }
+                return position;
+            default:
+                return start + 3;
+        }
+    }
+
+    private String classAt(final int index) {
+        return utf8At(u2(offsets[index] + 1));
+    }
+
+    private String nameAndTypeAt(final int index) {
+        return utf8At(u2(offsets[index] + 1)) + utf8At(u2(offsets[index] + 3));
+    }
+
+    private String utf8At(final int index) {
+        final int offset = offsets[index];
+        final int length = u2(offset + 1);
+        final char[] chars = new char[length];
+        int count = 0;
+        int position = offset + 3;
+        final int end = position + length;
+        while (position < end) {
+            final int first = buffer.get(position++) & 0xFF;
+            if (first < 0x80) {
+                chars[count++] = (char) first;
+            } else if (first < 0xE0) {
+                chars[count++] = (char) ((first & 0x1F) << 6 | buffer.get(position++) & 0x3F);
+            } else {
+                chars[count++] = (char) ((first & 0x0F) << 12 | (buffer.get(position++) & 0x3F) << 6 | buffer
+                        .get(position++) & 0x3F);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private int u2(final int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Memory-mapped view of a JAR (ZIP) archive. Only the central directory is decoded when the archive is opened, entry
+ * contents are inflated on demand.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class JarArchive {
+
+    private static final int  END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int  CENTRAL_DIRECTORY_ENTRY  = 0x02014b50;
+    private static final int  LOCAL_FILE_HEADER        = 0x04034b50;
+    private static final int  END_RECORD_SIZE          = 22;
+    private static final int  STORED                   = 0;
+    private static final int  DEFLATED                 = 8;
+
+    private final Path        path;
+    private final ByteBuffer  buffer;
+    private final List<Entry> entries;
+
+    /**
+     * A single file inside a {@link JarArchive}.
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final int    method;
+        private final int    compressedSize;
+        private final int    size;
+        private final int    localHeaderOffset;
+
+        Entry(final String name, final int method, final int compressedSize, final int size,
+                final int localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        /**
+         * @return The full name of the entry, e.g. <code>com/example/package-info.class</code>.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The uncompressed size of the entry in bytes.
+         */
+        public int getSize() {
+            return size;
+        }
+
+    }
+
+    private JarArchive(final Path path, final ByteBuffer buffer, final List<Entry> entries) {
+        this.path = path;
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * @param path
+     *            The JAR file to open.
+     * @return A view of the archive with its central directory decoded.
+     * @throws IOException
+     *             In case the file cannot be mapped or is not a supported ZIP archive.
+     */
+    public static JarArchive open(final Path path) throws IOException {
+        final MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return new JarArchive(path, buffer, readCentralDirectory(path, buffer));
+    }
+
+    /**
+     * @return The path of the archive.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return All entries of the archive in central directory order.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param entry
+     *            An entry of this archive.
+     * @return The uncompressed content of the entry.
+     * @throws IOException
+     *             In case the entry is corrupt or uses an unsupported compression method.
+     */
+    public ByteBuffer read(final Entry entry) throws IOException {
+        final int header = entry.localHeaderOffset;
+        if (buffer.getInt(header) != LOCAL_FILE_HEADER) {
+            throw new IOException("Corrupt local header for " + entry.name + " in " + path);
+        }
+        final int data = header + 30 + u2(header + 26) + u2(header + 28);
+        final ByteBuffer compressed = buffer.duplicate();
+        compressed.position(data).limit(data + entry.compressedSize);
+
+        if (entry.method == STORED) {
+            return compressed.slice().order(ByteOrder.BIG_ENDIAN);
+        } else if (entry.method == DEFLATED) {
+            final byte[] input = new byte[entry.compressedSize];
+            compressed.get(input);
+            final byte[] output = new byte[entry.size];
+            final Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(input);
+                final int inflated = inflater.inflate(output);
+                if (inflated != entry.size || !inflater.finished()) {
+                    throw new IOException("Truncated data for " + entry.name + " in " + path + ": inflated "
+                            + inflated + " of " + entry.size + " bytes");
+                }
+            } catch (final DataFormatException exception) {
+                throw new IOException("Corrupt data for " + entry.name + " in " + path, exception);
+            } finally {
+                inflater.end();
+            }
+            return ByteBuffer.wrap(output);
+        }
+        throw new IOException("Unsupported compression method " + entry.method + " for " + entry.name);
+    }
+
+    private static List<Entry> readCentralDirectory(final Path path, final ByteBuffer buffer) throws IOException {
+        final int end = findEndOfCentralDirectory(path, buffer);
+        final int count = u2(buffer, end + 10);
+        final long offset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+        if (count == 0xFFFF || offset == 0xFFFFFFFFL) {
+            throw new IOException("ZIP64 archives are not supported: " + path);
+        }
+
+        final List<Entry> entries = new ArrayList<>(count);
+        int position = (int) offset;
+        for (int index = 0; index < count; index++) {
+            if (buffer.getInt(position) != CENTRAL_DIRECTORY_ENTRY) {
+                throw new IOException("Corrupt central directory in " + path);
+            }
+            final int nameLength = u2(buffer, position + 28);
+            final byte[] name = new byte[nameLength];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(position + 46);
+            view.get(name);
+            entries.add(new Entry(new String(name, StandardCharsets.UTF_8), u2(buffer, position + 10),
+                    buffer.getInt(position + 20), buffer.getInt(position + 24), buffer.getInt(position + 42)));
+            position += 46 + nameLength + u2(buffer, position + 30) + u2(buffer, position + 32);
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static int findEndOfCentralDirectory(final Path path, final ByteBuffer buffer) throws IOException {
+        final int last = buffer.limit() - END_RECORD_SIZE;
+        final int first = Math.max(0, last - 0xFFFF);
+        for (int position = last; position >= first; position--) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY) {
+                return position;
+            }
+        }
+        throw new IOException("Not a ZIP archive: " + path);
+    }
+
+    private int u2(final int position) {
+        return u2(buffer, position);
+    }
+
+    private static int u2(final ByteBuffer buffer, final int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import java.lang.annotation.ElementType;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * The type qualifier defaults declared in a single JAR archive, resolved by {@link TypeQualifierDefaults}. Instances
+ * are immutable and can be shared between threads. Defaults are resolved within the archive only: a method is covered
+ * by the defaults declared on itself, on its class, on the classes and methods its class is nested in and on the
+ * <code>package-info</code> of its package, as long as these are part of the same archive. Nesting is taken from the
+ * <code>InnerClasses</code> and <code>EnclosingMethod</code> attributes, see {@link ClassFileReader}, thus a local or
+ * anonymous class is covered by the defaults of the method declaring it.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class JarDefaults {
+
+    private static final String                 PACKAGE_INFO = "package-info";
+
+    private final Path                          jar;
+    private final Map<String, Set<ElementType>> declared;
+    private final Map<String, Set<ElementType>> declaredMethods;
+    private final Map<String, String>           enclosing;
+    private final Map<String, Set<ElementType>> classes;
+    private final Map<String, Set<ElementType>> methods;
+
+    /**
+     * @param jar
+     *            The archive the defaults were read from.
+     * @param declared
+     *            The defaults declared on classes and <code>package-info</code>s, by internal name.
+     * @param classNames
+     *            The internal names of all classes of the archive.
+     * @param methods
+     *            The defaults declared on methods, by internal class name, method name and descriptor.
+     * @param enclosing
+     *            The element each nested class is declared in, by internal name: the internal name of a class, or a
+     *            method in the notation of <code>methods</code>.
+     */
+    JarDefaults(final Path jar, final Map<String, Set<ElementType>> declared, final Iterable<String> classNames,
+            final Map<String, Set<ElementType>> methods, final Map<String, String> enclosing) {
+        this.jar = jar;
+        this.declared = Collections.unmodifiableMap(new HashMap<>(declared));
+        declaredMethods = Collections.unmodifiableMap(new HashMap<>(methods));
+        this.enclosing = Collections.unmodifiableMap(new HashMap<>(enclosing));
+        final Map<String, Set<ElementType>> resolved = new HashMap<>();
+        final Map<String, Set<ElementType>> covered = new HashMap<>();
+        for (final String className : classNames) {
+            final Set<ElementType> defaults = resolve(className, resolved);
+            if (!defaults.isEmpty()) {
+                covered.put(className, defaults);
+            }
+        }
+        classes = Collections.unmodifiableMap(covered);
+        final Map<String, Set<ElementType>> resolvedMethods = new HashMap<>();
+        for (final String key : methods.keySet()) {
+            resolvedMethods.put(key, resolveMethod(key, resolved));
+        }
+        this.methods = Collections.unmodifiableMap(resolvedMethods);
+    }
+
+    /**
+     * @return The archive the defaults were read from.
+     */
+    public Path getJar() {
+        return jar;
+    }
+
+    /**
+     * @param className
+     *            The internal name of a class, e.g. <code>com/example/Outer$Inner</code>.
+     * @return The kinds of elements inside the class which are covered by a default.
+     */
+    public Set<ElementType> getDefaults(final String className) {
+        final Set<ElementType> defaults = classes.get(className);
+        return defaults == null ? resolve(className, new HashMap<String, Set<ElementType>>()) : defaults;
+    }
+
+    /**
+     * @param className
+     *            The internal name of the class declaring the method.
+     * @param methodName
+     *            The name of the method.
+     * @param descriptor
+     *            The descriptor of the method.
+     * @return The kinds of elements inside the method, i.e. its parameters, return value and local variables, which
+     *         are covered by a default.
+     */
+    public Set<ElementType> getDefaults(final String className, final String methodName, final String descriptor) {
+        final Set<ElementType> defaults = methods.get(className + "." + methodName + descriptor);
+        return defaults == null ? getDefaults(className) : defaults;
+    }
+
+    /**
+     * @param className
+     *            The internal name of the class declaring the method.
+     * @param methodName
+     *            The name of the method.
+     * @param descriptor
+     *            The descriptor of the method.
+     * @param location
+     *            The kind of element, e.g. {@link ElementType#PARAMETER} or {@link ElementType#METHOD} for the return
+     *            value.
+     * @return <code>true</code> if elements of the given kind inside the method are covered by a default.
+     */
+    public boolean isCovered(final String className, final String methodName, final String descriptor,
+            final ElementType location) {
+        return getDefaults(className, methodName, descriptor).contains(location);
+    }
+
+    /**
+     * @return The number of classes of the archive which are covered by any default.
+     */
+    public int getCoveredClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * Resolves a class and the elements it is nested in, memoizing the results in the given map.
+     */
+    private Set<ElementType> resolve(final String className, final Map<String, Set<ElementType>> resolved) {
+        final Set<ElementType> known = resolved.get(className);
+        if (known != null) {
+            return known;
+        }
+        // guards against malformed archives whose classes enclose each other
+        resolved.put(className, Collections.<ElementType> emptySet());
+        final String outer = enclosing.get(className);
+        final Set<ElementType> outerDefaults;
+        if (outer == null) {
+            final int slash = className.lastIndexOf('/');
+            outerDefaults = declaredOn(slash < 0 ? PACKAGE_INFO : className.substring(0, slash + 1) + PACKAGE_INFO);
+        } else if (outer.indexOf('.') < 0) {
+            outerDefaults = resolve(outer, resolved);
+        } else {
+            outerDefaults = resolveMethod(outer, resolved);
+        }
+        final Set<ElementType> defaults = union(outerDefaults, declaredOn(className));
+        resolved.put(className, defaults);
+        return defaults;
+    }
+
+    private Set<ElementType> resolveMethod(final String key, final Map<String, Set<ElementType>> resolved) {
+        return union(resolve(key.substring(0, key.indexOf('.')), resolved), declaredMethods.get(key));
+    }
+
+    private Set<ElementType> declaredOn(final String name) {
+        final Set<ElementType> defaults = declared.get(name);
+        return defaults == null ? Collections.<ElementType> emptySet() : defaults;
+    }
+
+    private static Set<ElementType> union(final Set<ElementType> first, @Nullable final Set<ElementType> second) {
+        if (second == null || second.isEmpty() || first.containsAll(second)) {
+            return first;
+        } else if (first.isEmpty()) {
+            return second;
+        }
+        final Set<ElementType> union = EnumSet.copyOf(first);
+        union.addAll(second);
+        return Collections.unmodifiableSet(union);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.NullnessDefaults;
+import com.github.sebhoss.common.annotation.Nullsafe;
+import com.github.sebhoss.common.annotation.StaticNotNullByDefault;
+
+/**
+ * Resolves JSR-305 type qualifier defaults like {@link NotNullByDefault} from class files, without loading any class
+ * and thus without running static initializers or touching a class loader. Each default annotation is configured with
+ * the kinds of elements it applies to, as declared by its <code>@TypeQualifierDefault</code>. All configured
+ * annotations are expected to default to the same qualifier, therefore the defaults of a method, its classes and its
+ * package add up.
+ * <p/>
+ * Archives are read once and their {@link JarDefaults} are cached by path, so that tools checking many classes of the
+ * same archive, possibly from several threads, share a single immutable result.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class TypeQualifierDefaults {
+
+    private static final String                    CLASS_SUFFIX = ".class";
+    private static final String                    META_INF     = "META-INF/";
+
+    private final Map<String, Set<ElementType>>    annotations;
+    private final ConcurrentMap<Path, JarDefaults> cache        = new ConcurrentHashMap<>();
+
+    /**
+     * @param annotations
+     *            The default annotations to resolve, mapping the descriptor of each annotation, e.g.
+     *            <code>Ljavax/annotation/ParametersAreNonnullByDefault;</code>, to the kinds of elements it applies
+     *            to.
+     */
+    public TypeQualifierDefaults(final Map<String, ? extends Set<ElementType>> annotations) {
+        final Map<String, Set<ElementType>> copy = new HashMap<>();
+        for (final Map.Entry<String, ? extends Set<ElementType>> entry : annotations.entrySet()) {
+            final Set<ElementType> locations = EnumSet.noneOf(ElementType.class);
+            locations.addAll(entry.getValue());
+            copy.put(entry.getKey(), Collections.unmodifiableSet(locations));
+        }
+        this.annotations = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * @return A resolver for {@link NotNullByDefault}, {@link StaticNotNullByDefault} and JSR-305's
+     *         <code>@ParametersAreNonnullByDefault</code>.
+     */
+    public static TypeQualifierDefaults notNullByDefault() {
+        final Map<String, Set<ElementType>> annotations = new HashMap<>();
+        annotations.put(ClassFileReader.descriptorOf(NotNullByDefault.class), NullnessDefaults.getDefaultLocations());
+        annotations.put(ClassFileReader.descriptorOf(StaticNotNullByDefault.class),
+                NullnessDefaults.getDefaultLocations());
+        annotations.put("Ljavax/annotation/ParametersAreNonnullByDefault;", EnumSet.of(ElementType.PARAMETER));
+        return new TypeQualifierDefaults(annotations);
+    }
+
+    /**
+     * @param jar
+     *            The archive to resolve.
+     * @return The defaults declared in the archive, read at most once per path.
+     * @throws IOException
+     *             In case the archive cannot be read or contains an invalid class file.
+     */
+    public JarDefaults resolve(final Path jar) throws IOException {
+        final JarDefaults cached = cache.get(jar);
+        if (cached != null) {
+            return cached;
+        }
+        final JarDefaults defaults = read(jar);
+        final JarDefaults previous = cache.putIfAbsent(jar, defaults);
+        return previous == null ? defaults : previous;
+    }
+
+    /**
+     * @param jars
+     *            The archives to resolve.
+     * @param parallelism
+     *            The number of worker threads to use.
+     * @return The defaults of each archive, in the order of the given list.
+     * @throws IOException
+     *             In case an archive cannot be read or contains an invalid class file.
+     */
+    public List<JarDefaults> resolveAll(final List<Path> jars, final int parallelism) throws IOException {
+        final List<Callable<JarDefaults>> tasks = new ArrayList<>(jars.size());
+        for (final Path jar : jars) {
+            tasks.add(() -> resolve(jar));
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<JarDefaults> result = new ArrayList<>(jars.size());
+            for (final Future<JarDefaults> future : pool.invokeAll(tasks)) {
+                result.add(Nullsafe.nullsafe(future.get()));
+            }
+            return result;
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private JarDefaults read(final Path jar) throws IOException {
+        final JarArchive archive = JarArchive.open(jar);
+        final Map<String, Set<ElementType>> declared = new HashMap<>();
+        final Map<String, Set<ElementType>> methods = new HashMap<>();
+        final Map<String, String> enclosing = new HashMap<>();
+        final List<String> classNames = new ArrayList<>();
+        try {
+            for (final JarArchive.Entry entry : archive.getEntries()) {
+                final String name = entry.getName();
+                if (!name.endsWith(CLASS_SUFFIX) || name.startsWith(META_INF)) {
+                    continue;
+                }
+                final ClassFileReader reader = new ClassFileReader(archive.read(entry));
+                final String className = reader.getClassName();
+                classNames.add(className);
+                final String enclosingClassName = reader.getEnclosingClassName();
+                if (enclosingClassName != null) {
+                    final String enclosingMethod = reader.getEnclosingMethod();
+                    enclosing.put(className, enclosingMethod == null ? enclosingClassName : enclosingClassName + "."
+                            + enclosingMethod);
+                }
+                final Set<ElementType> classDefaults = defaultsOf(reader.getAnnotations());
+                if (!classDefaults.isEmpty()) {
+                    declared.put(className, classDefaults);
+                }
+                for (final ClassFileReader.Method method : reader.getMethods()) {
+                    final Set<ElementType> methodDefaults = defaultsOf(method.getAnnotations());
+                    if (!methodDefaults.isEmpty()) {
+                        methods.put(className + "." + method.getName() + method.getDescriptor(), methodDefaults);
+                    }
+                }
+            }
+        } catch (final IllegalArgumentException exception) {
+            throw new IOException("Invalid class file in " + jar, exception);
+        }
+        return new JarDefaults(jar, declared, classNames, methods, enclosing);
+    }
+
+    private Set<ElementType> defaultsOf(final List<String> descriptors) {
+        Set<ElementType> defaults = Collections.emptySet();
+        for (final String descriptor : descriptors) {
+            final Set<ElementType> locations = annotations.get(descriptor);
+            if (locations == null) {
+                continue;
+            } else if (defaults.isEmpty()) {
+                defaults = locations;
+            } else {
+                final Set<ElementType> union = EnumSet.copyOf(defaults);
+                union.addAll(locations);
+                defaults = Collections.unmodifiableSet(union);
+            }
+        }
+        return defaults;
+    }
+
+}
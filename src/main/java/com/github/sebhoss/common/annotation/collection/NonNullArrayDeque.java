@@ -0,0 +1,396 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Circular array backed {@link Deque} which rejects <code>null</code> elements. Every free slot holds
+ * <code>null</code>, therefore polling an empty deque is detected by reading the head slot alone and lookups compare
+ * with {@link Object#equals(Object)} directly.
+ * <p/>
+ * Iterators are not fail-fast. Instances are not thread-safe.
+ *
+ * @param <E>
+ *            The type of the elements.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, CompilerWarnings.UNCHECKED })
+public final class NonNullArrayDeque<E> extends AbstractCollection<E> implements Deque<E> {
+
+    private static final int MINIMUM_CAPACITY = 8;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private Object[]         elements;
+    private int              head;
+    private int              tail;
+
+    /**
+     * Creates a new, empty deque.
+     */
+    public NonNullArrayDeque() {
+        this(MINIMUM_CAPACITY - 1);
+    }
+
+    /**
+     * @param expectedSize
+     *            The number of elements the deque should hold without resizing.
+     */
+    public NonNullArrayDeque(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative size: " + expectedSize);
+        }
+        final int capacity = expectedSize >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : Integer
+                .highestOneBit(Math.max(MINIMUM_CAPACITY - 1, expectedSize)) << 1;
+        elements = new Object[capacity];
+    }
+
+    /**
+     * @param elements
+     *            The elements to copy. They must not contain <code>null</code>.
+     */
+    public NonNullArrayDeque(final Collection<? extends E> elements) {
+        this(elements.size());
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return tail - head & elements.length - 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    @Override
+    public void addFirst(final E element) {
+        Nullsafe.nullsafe(element, "Null elements are not supported");
+        if ((head - 1 & elements.length - 1) == tail) {
+            grow();
+        }
+        head = head - 1 & elements.length - 1;
+        elements[head] = element;
+    }
+
+    @Override
+    public void addLast(final E element) {
+        Nullsafe.nullsafe(element, "Null elements are not supported");
+        if ((tail + 1 & elements.length - 1) == head) {
+            grow();
+        }
+        elements[tail] = element;
+        tail = tail + 1 & elements.length - 1;
+    }
+
+    @Override
+    public boolean offerFirst(final E element) {
+        addFirst(element);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(final E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        final E element = pollFirst();
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    @Override
+    public E removeLast() {
+        final E element = pollLast();
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    @Override
+    @Nullable
+    public E pollFirst() {
+        final E element = (E) elements[head];
+        if (element != null) {
+            elements[head] = null;
+            head = head + 1 & elements.length - 1;
+        }
+        return element;
+    }
+
+    @Override
+    @Nullable
+    public E pollLast() {
+        final int last = tail - 1 & elements.length - 1;
+        final E element = (E) elements[last];
+        if (element != null) {
+            elements[last] = null;
+            tail = last;
+        }
+        return element;
+    }
+
+    @Override
+    public E getFirst() {
+        final E element = peekFirst();
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    @Override
+    public E getLast() {
+        final E element = peekLast();
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    @Override
+    @Nullable
+    public E peekFirst() {
+        return (E) elements[head];
+    }
+
+    @Override
+    @Nullable
+    public E peekLast() {
+        return (E) elements[tail - 1 & elements.length - 1];
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(@Nullable final Object element) {
+        if (element != null) {
+            final int mask = elements.length - 1;
+            for (int index = head; index != tail; index = index + 1 & mask) {
+                if (element.equals(elements[index])) {
+                    delete(index);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(@Nullable final Object element) {
+        if (element != null) {
+            final int mask = elements.length - 1;
+            for (int index = tail - 1 & mask; index != (head - 1 & mask); index = index - 1 & mask) {
+                if (element.equals(elements[index])) {
+                    delete(index);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public boolean offer(final E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    @Nullable
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    @Nullable
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(final E element) {
+        addFirst(element);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(@Nullable final Object element) {
+        return removeFirstOccurrence(element);
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object element) {
+        if (element != null) {
+            final int mask = elements.length - 1;
+            for (int index = head; index != tail; index = index + 1 & mask) {
+                if (element.equals(elements[index])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        if (head <= tail) {
+            Arrays.fill(elements, head, tail, null);
+        } else {
+            Arrays.fill(elements, head, elements.length, null);
+            Arrays.fill(elements, 0, tail, null);
+        }
+        head = 0;
+        tail = 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new AscendingIterator();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new DescendingIterator();
+    }
+
+    /**
+     * Removes the element at the given slot by moving all following elements one slot towards the head.
+     */
+    private void delete(final int index) {
+        final int mask = elements.length - 1;
+        int current = index;
+        for (int next = current + 1 & mask; next != tail; next = next + 1 & mask) {
+            elements[current] = elements[next];
+            current = next;
+        }
+        elements[current] = null;
+        tail = current;
+    }
+
+    /**
+     * Doubles the capacity of a deque with a single free slot left, before the next element is written to it.
+     */
+    private void grow() {
+        final int capacity = elements.length;
+        if (capacity == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum capacity reached");
+        }
+        final Object[] grown = new Object[capacity << 1];
+        final int size = size();
+        if (head <= tail) {
+            System.arraycopy(elements, head, grown, 0, size);
+        } else {
+            final int headLength = capacity - head;
+            System.arraycopy(elements, head, grown, 0, headLength);
+            System.arraycopy(elements, 0, grown, headLength, tail);
+        }
+        elements = grown;
+        head = 0;
+        tail = size;
+    }
+
+    private final class AscendingIterator implements Iterator<E> {
+
+        private int cursor = head;
+        private int last   = -1;
+
+        @Override
+        public boolean hasNext() {
+            return cursor != tail;
+        }
+
+        @Override
+        public E next() {
+            final E element = (E) elements[cursor];
+            if (element == null) {
+                throw new NoSuchElementException();
+            }
+            last = cursor;
+            cursor = cursor + 1 & elements.length - 1;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            delete(last);
+            cursor = last;
+            last = -1;
+        }
+
+    }
+
+    private final class DescendingIterator implements Iterator<E> {
+
+        private int cursor = tail - 1 & elements.length - 1;
+        private int last   = -1;
+
+        @Override
+        public boolean hasNext() {
+            return elements[cursor] != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final E element = (E) elements[cursor];
+            last = cursor;
+            cursor = cursor - 1 & elements.length - 1;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            delete(last);
+            last = -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Array backed {@link java.util.List} which rejects <code>null</code> elements. Since no slot below {@link #size()}
+ * can be <code>null</code>, lookups compare with {@link Object#equals(Object)} directly and bulk removals compact the
+ * array in a single pass.
+ *
+ * @param <E>
+ *            The type of the elements.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, CompilerWarnings.UNCHECKED })
+public final class NonNullArrayList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int MAXIMUM_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private Object[]         elements;
+    private int              size;
+
+    /**
+     * Creates a new, empty list.
+     */
+    public NonNullArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity
+     *            The number of elements the list should hold without resizing.
+     */
+    public NonNullArrayList(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+        }
+        elements = new Object[initialCapacity];
+    }
+
+    /**
+     * @param elements
+     *            The elements to copy. They must not contain <code>null</code>.
+     */
+    public NonNullArrayList(final Collection<? extends E> elements) {
+        this(elements.size());
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(final int index) {
+        checkIndex(index, size);
+        return (E) elements[index];
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        checkIndex(index, size);
+        final E previous = (E) elements[index];
+        elements[index] = Nullsafe.nullsafe(element, "Null elements are not supported");
+        return previous;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        Nullsafe.nullsafe(element, "Null elements are not supported");
+        modCount++;
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = element;
+        return true;
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        checkIndex(index, size + 1);
+        Nullsafe.nullsafe(element, "Null elements are not supported");
+        modCount++;
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends E> collection) {
+        return addAll(size, collection);
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> collection) {
+        checkIndex(index, size + 1);
+        final Object[] added = collection.toArray();
+        for (final Object element : added) {
+            Nullsafe.nullsafe(element, "Null elements are not supported");
+        }
+        if (added.length == 0) {
+            return false;
+        }
+        modCount++;
+        if (size + added.length > elements.length) {
+            grow(size + added.length);
+        }
+        System.arraycopy(elements, index, elements, index + added.length, size - index);
+        System.arraycopy(added, 0, elements, index, added.length);
+        size += added.length;
+        return true;
+    }
+
+    @Override
+    public E remove(final int index) {
+        checkIndex(index, size);
+        modCount++;
+        final E previous = (E) elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        return previous;
+    }
+
+    @Override
+    public boolean remove(@Nullable final Object element) {
+        final int index = indexOf(element);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(@Nullable final Object element) {
+        if (element != null) {
+            for (int index = 0; index < size; index++) {
+                if (element.equals(elements[index])) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(@Nullable final Object element) {
+        if (element != null) {
+            for (int index = size - 1; index >= 0; index--) {
+                if (element.equals(elements[index])) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object element) {
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> collection) {
+        return compact(collection, false);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> collection) {
+        return compact(collection, true);
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        modCount++;
+        System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+        final int newSize = size - (toIndex - fromIndex);
+        Arrays.fill(elements, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * Makes sure that the list can hold the given number of elements without resizing.
+     *
+     * @param minimumCapacity
+     *            The required capacity.
+     */
+    public void ensureCapacity(final int minimumCapacity) {
+        if (minimumCapacity > elements.length) {
+            modCount++;
+            grow(minimumCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the backing array to the current size.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            modCount++;
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    private boolean compact(final Collection<?> collection, final boolean retain) {
+        final int length = size;
+        int index = 0;
+        int target = 0;
+        try {
+            for (; index < length; index++) {
+                final Object element = elements[index];
+                if (collection.contains(element) == retain) {
+                    elements[target++] = element;
+                }
+            }
+        } finally {
+            // keeps the unchecked elements in case contains() throws, like ArrayList does
+            if (index < length) {
+                System.arraycopy(elements, index, elements, target, length - index);
+                target += length - index;
+            }
+            if (target != length) {
+                modCount++;
+                Arrays.fill(elements, target, length, null);
+                size = target;
+            }
+        }
+        return target != length;
+    }
+
+    private void grow(final int minimumCapacity) {
+        if (minimumCapacity < 0 || minimumCapacity > MAXIMUM_CAPACITY) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        final int grown = elements.length + (elements.length >> 1) + 1;
+        final int capacity = grown < 0 || grown > MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : grown;
+        elements = Arrays.copyOf(elements, Math.max(capacity, minimumCapacity));
+    }
+
+    private void checkIndex(final int index, final int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
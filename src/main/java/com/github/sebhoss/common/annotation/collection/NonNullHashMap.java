@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * {@link Map} which rejects <code>null</code> keys and values. Entries are stored in a single flat array using linear
+ * probing, keys at even and values at odd indices, with <code>null</code> marking an empty slot. No node objects are
+ * allocated on insertion and removals use backward shifting instead of tombstones.
+ * <p/>
+ * Iterators are not fail-fast. Instances are not thread-safe.
+ *
+ * @param <K>
+ *            The type of the keys.
+ * @param <V>
+ *            The type of the values.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, CompilerWarnings.UNCHECKED })
+public final class NonNullHashMap<K, V> extends AbstractMap<K, V> {
+
+    private Object[] table;
+    private int      mask;
+    private int      threshold;
+    private int      size;
+
+    /**
+     * Creates a new, empty map.
+     */
+    public NonNullHashMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize
+     *            The number of entries the map should hold without resizing.
+     */
+    public NonNullHashMap(final int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    /**
+     * @param map
+     *            The map whose entries should be copied. It must neither contain <code>null</code> keys nor values.
+     */
+    public NonNullHashMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable final Object key) {
+        return key != null && indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(@Nullable final Object value) {
+        if (value != null) {
+            for (int index = 1; index < table.length; index += 2) {
+                final Object candidate = table[index];
+                if (candidate == value || value.equals(candidate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @Nullable
+    public V get(@Nullable final Object key) {
+        if (key == null) {
+            return null;
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : (V) table[index + 1];
+    }
+
+    @Override
+    @Nullable
+    public V put(final K key, final V value) {
+        Nullsafe.nullsafe(key, "Null keys are not supported");
+        Nullsafe.nullsafe(value, "Null values are not supported");
+        int slot = OpenAddressing.slot(key.hashCode(), mask);
+        for (Object current = table[slot << 1]; current != null; current = table[slot << 1]) {
+            if (current == key || key.equals(current)) {
+                final V previous = (V) table[(slot << 1) + 1];
+                table[(slot << 1) + 1] = value;
+                return previous;
+            }
+            slot = slot + 1 & mask;
+        }
+        if (size >= threshold) {
+            grow();
+            return put(key, value);
+        }
+        table[slot << 1] = key;
+        table[(slot << 1) + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public V remove(@Nullable final Object key) {
+        if (key == null) {
+            return null;
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        final V previous = (V) table[index + 1];
+        delete(index >>> 1, -1, null);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(final Object key) {
+        int slot = OpenAddressing.slot(key.hashCode(), mask);
+        for (Object current = table[slot << 1]; current != null; current = table[slot << 1]) {
+            if (current == key || key.equals(current)) {
+                return slot << 1;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Frees the given slot and shifts following entries of the same probe sequence backwards.
+     *
+     * @param slot
+     *            The slot to free.
+     * @param iterated
+     *            The slot an iterator currently visits, or <code>-1</code>.
+     * @param wrapped
+     *            Receives keys which an iterator walking downwards from <code>iterated</code> would otherwise miss.
+     */
+    private void delete(final int slot, final int iterated, @Nullable final List<Object> wrapped) {
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = current + 1 & mask;
+            final Object key = table[current << 1];
+            if (key == null) {
+                break;
+            }
+            if (OpenAddressing.canShift(OpenAddressing.slot(key.hashCode(), mask), gap, current)) {
+                if (wrapped != null && current < iterated && gap >= iterated) {
+                    wrapped.add(key);
+                }
+                table[gap << 1] = key;
+                table[(gap << 1) + 1] = table[(current << 1) + 1];
+                gap = current;
+            }
+        }
+        table[gap << 1] = null;
+        table[(gap << 1) + 1] = null;
+        size--;
+    }
+
+    private void grow() {
+        if (mask + 1 == OpenAddressing.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum capacity reached");
+        }
+        allocate((mask + 1) << 1);
+    }
+
+    private void allocate(final int capacity) {
+        final Object[] previous = table;
+        table = new Object[capacity << 1];
+        mask = capacity - 1;
+        threshold = OpenAddressing.thresholdOf(capacity);
+        if (previous != null) {
+            for (int index = 0; index < previous.length; index += 2) {
+                final Object key = previous[index];
+                if (key != null) {
+                    int slot = OpenAddressing.slot(key.hashCode(), mask);
+                    while (table[slot << 1] != null) {
+                        slot = slot + 1 & mask;
+                    }
+                    table[slot << 1] = key;
+                    table[(slot << 1) + 1] = previous[index + 1];
+                }
+            }
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            NonNullHashMap.this.clear();
+        }
+
+    }
+
+    /**
+     * Walks the table downwards, so that backward shifts caused by {@link #remove()} only move entries into slots
+     * which were already visited. Entries shifted across the start of the table are remembered and returned last.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private int          slot      = mask + 1;
+        private int          remaining = size;
+        private int          last      = -1;
+        @Nullable
+        private Object       lastWrappedKey;
+        @Nullable
+        private List<Object> wrapped;
+        private int          wrappedIndex;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            while (--slot >= 0) {
+                final Object key = table[slot << 1];
+                if (key != null) {
+                    last = slot;
+                    return new Entry((K) key, (V) table[(slot << 1) + 1]);
+                }
+            }
+            final Object key = Nullsafe.nullsafe(Nullsafe.nullsafe(wrapped).get(wrappedIndex++));
+            last = -1;
+            lastWrappedKey = key;
+            return new Entry((K) key, Nullsafe.nullsafe(get(key)));
+        }
+
+        @Override
+        public void remove() {
+            if (last >= 0) {
+                if (wrapped == null) {
+                    wrapped = new ArrayList<>(2);
+                }
+                delete(last, slot, wrapped);
+                last = -1;
+            } else if (lastWrappedKey != null) {
+                NonNullHashMap.this.remove(lastWrappedKey);
+                lastWrappedKey = null;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+    }
+
+    private final class Entry extends AbstractMap.SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        Entry(final K key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * {@link Set} which rejects <code>null</code> elements. Elements are stored in a flat array using linear probing, with
+ * <code>null</code> marking an empty slot. No node objects are allocated on insertion and removals use backward
+ * shifting instead of tombstones.
+ * <p/>
+ * Iterators are not fail-fast. Instances are not thread-safe.
+ *
+ * @param <E>
+ *            The type of the elements.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, CompilerWarnings.UNCHECKED })
+public final class NonNullHashSet<E> extends AbstractSet<E> {
+
+    private Object[] table;
+    private int      threshold;
+    private int      size;
+
+    /**
+     * Creates a new, empty set.
+     */
+    public NonNullHashSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize
+     *            The number of elements the set should hold without resizing.
+     */
+    public NonNullHashSet(final int expectedSize) {
+        table = new Object[OpenAddressing.capacityFor(expectedSize)];
+        threshold = OpenAddressing.thresholdOf(table.length);
+    }
+
+    /**
+     * @param elements
+     *            The elements to copy. They must not contain <code>null</code>.
+     */
+    public NonNullHashSet(final Collection<? extends E> elements) {
+        this(elements.size());
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object element) {
+        return element != null && indexOf(element) >= 0;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        Nullsafe.nullsafe(element, "Null elements are not supported");
+        final int mask = table.length - 1;
+        int slot = OpenAddressing.slot(element.hashCode(), mask);
+        for (Object current = table[slot]; current != null; current = table[slot]) {
+            if (current == element || element.equals(current)) {
+                return false;
+            }
+            slot = slot + 1 & mask;
+        }
+        if (size >= threshold) {
+            grow();
+            return add(element);
+        }
+        table[slot] = element;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(@Nullable final Object element) {
+        if (element == null) {
+            return false;
+        }
+        final int slot = indexOf(element);
+        if (slot < 0) {
+            return false;
+        }
+        delete(slot, -1, null);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ElementIterator();
+    }
+
+    private int indexOf(final Object element) {
+        final int mask = table.length - 1;
+        int slot = OpenAddressing.slot(element.hashCode(), mask);
+        for (Object current = table[slot]; current != null; current = table[slot]) {
+            if (current == element || element.equals(current)) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    private void delete(final int slot, final int iterated, @Nullable final List<Object> wrapped) {
+        final int mask = table.length - 1;
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = current + 1 & mask;
+            final Object element = table[current];
+            if (element == null) {
+                break;
+            }
+            if (OpenAddressing.canShift(OpenAddressing.slot(element.hashCode(), mask), gap, current)) {
+                if (wrapped != null && current < iterated && gap >= iterated) {
+                    wrapped.add(element);
+                }
+                table[gap] = element;
+                gap = current;
+            }
+        }
+        table[gap] = null;
+        size--;
+    }
+
+    private void grow() {
+        if (table.length == OpenAddressing.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum capacity reached");
+        }
+        final Object[] previous = table;
+        table = new Object[previous.length << 1];
+        threshold = OpenAddressing.thresholdOf(table.length);
+        final int mask = table.length - 1;
+        for (final Object element : previous) {
+            if (element != null) {
+                int slot = OpenAddressing.slot(element.hashCode(), mask);
+                while (table[slot] != null) {
+                    slot = slot + 1 & mask;
+                }
+                table[slot] = element;
+            }
+        }
+    }
+
+    /**
+     * Walks the table downwards, see {@link NonNullHashMap} for the reasoning.
+     */
+    private final class ElementIterator implements Iterator<E> {
+
+        private int          slot      = table.length;
+        private int          remaining = size;
+        private int          last      = -1;
+        @Nullable
+        private Object       lastWrapped;
+        @Nullable
+        private List<Object> wrapped;
+        private int          wrappedIndex;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            while (--slot >= 0) {
+                final Object element = table[slot];
+                if (element != null) {
+                    last = slot;
+                    return (E) element;
+                }
+            }
+            final Object element = Nullsafe.nullsafe(Nullsafe.nullsafe(wrapped).get(wrappedIndex++));
+            last = -1;
+            lastWrapped = element;
+            return (E) element;
+        }
+
+        @Override
+        public void remove() {
+            if (last >= 0) {
+                if (wrapped == null) {
+                    wrapped = new ArrayList<>(2);
+                }
+                delete(last, slot, wrapped);
+                last = -1;
+            } else if (lastWrapped != null) {
+                NonNullHashSet.this.remove(lastWrapped);
+                lastWrapped = null;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Shared sizing and hashing rules of the linear probing tables used by {@link NonNullHashMap} and
+ * {@link NonNullHashSet}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class OpenAddressing {
+
+    /** Largest supported number of slots. */
+    static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    /** Smallest number of slots of a non-empty table. */
+    static final int MINIMUM_CAPACITY = 8;
+
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    /**
+     * @param hashCode
+     *            The hash code of a key.
+     * @param mask
+     *            The number of slots minus one.
+     * @return The preferred slot of the key.
+     */
+    static int slot(final int hashCode, final int mask) {
+        final int hash = hashCode * GOLDEN_RATIO;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    /**
+     * @param expectedSize
+     *            The number of entries the table should hold without resizing.
+     * @return The smallest number of slots whose {@link #thresholdOf(int) threshold} is at least the given size,
+     *         always a power of two, or {@link #MAXIMUM_CAPACITY} for sizes beyond its threshold.
+     */
+    static int capacityFor(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative size: " + expectedSize);
+        }
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && thresholdOf(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * @param capacity
+     *            The number of slots.
+     * @return The number of entries after which the table must grow, keeping the load factor at two thirds.
+     */
+    static int thresholdOf(final int capacity) {
+        return capacity == MAXIMUM_CAPACITY ? capacity - 1 : capacity / 3 * 2;
+    }
+
+    /**
+     * @param ideal
+     *            The preferred slot of the entry at <code>current</code>.
+     * @param gap
+     *            The slot which became free.
+     * @param current
+     *            The slot of the entry which is considered for being moved.
+     * @return <code>true</code> if the entry at <code>current</code> can be moved into <code>gap</code> without
+     *         breaking its probe sequence.
+     */
+    static boolean canShift(final int ideal, final int gap, final int current) {
+        return gap <= current ? ideal <= gap || ideal > current : ideal <= gap && ideal > current;
+    }
+
+    private OpenAddressing() {
+        // utility class
+    }
+
+}
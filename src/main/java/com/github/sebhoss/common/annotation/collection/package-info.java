@@ -0,0 +1,13 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+/**
+ * Collections which never store <code>null</code> and use it as their internal empty marker instead.
+ */
+@NotNullByDefault
+package com.github.sebhoss.common.annotation.collection;
+
+import com.github.sebhoss.common.annotation.NotNullByDefault;
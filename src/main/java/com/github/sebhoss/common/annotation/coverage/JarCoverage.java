@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.coverage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+import com.github.sebhoss.common.annotation.classfile.JarArchive;
+
+/**
+ * The {@link NotNullByDefault} coverage of a single JAR archive.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class JarCoverage {
+
+    private static final String     CLASS_SUFFIX     = ".class";
+    private static final String     PACKAGE_INFO     = "package-info.class";
+    private static final String     MODULE_INFO      = "module-info.class";
+    private static final String     VERSIONS_PREFIX  = "META-INF/versions/";
+
+    private final Path              jar;
+    private final SortedSet<String> packages;
+    private final SortedSet<String> annotatedPackages;
+    @Nullable
+    private final String            error;
+
+    private JarCoverage(final Path jar, final SortedSet<String> packages, final SortedSet<String> annotatedPackages,
+            @Nullable final String error) {
+        this.jar = jar;
+        this.packages = Collections.unmodifiableSortedSet(packages);
+        this.annotatedPackages = Collections.unmodifiableSortedSet(annotatedPackages);
+        this.error = error;
+    }
+
+    /**
+     * Reads the central directory of the given JAR and parses its <code>package-info.class</code> entries only.
+     * Failures are recorded in the result instead of being thrown, so that a single broken archive does not abort a
+     * whole scan.
+     *
+     * @param jar
+     *            The JAR archive to scan.
+     * @return The coverage of the given archive.
+     */
+    public static JarCoverage scan(final Path jar) {
+        final SortedSet<String> packages = new TreeSet<>();
+        final SortedSet<String> annotated = new TreeSet<>();
+        try {
+            final JarArchive archive = JarArchive.open(jar);
+            for (final JarArchive.Entry entry : archive.getEntries()) {
+                final String name = stripVersionPrefix(entry.getName());
+                if (!name.endsWith(CLASS_SUFFIX) || MODULE_INFO.equals(name)) {
+                    continue;
+                }
+                final int slash = name.lastIndexOf('/');
+                final String packageName = slash < 0 ? "" : name.substring(0, slash).replace('/', '.');
+                packages.add(packageName);
+                if (name.endsWith(PACKAGE_INFO) && new ClassFileReader(archive.read(entry)).isNotNullByDefault()) {
+                    annotated.add(packageName);
+                }
+            }
+            return new JarCoverage(jar, packages, annotated, null);
+        } catch (final IOException | IllegalArgumentException exception) {
+            return new JarCoverage(jar, packages, annotated, String.valueOf(exception.getMessage()));
+        }
+    }
+
+    private static String stripVersionPrefix(final String name) {
+        if (name.startsWith(VERSIONS_PREFIX)) {
+            final int slash = name.indexOf('/', VERSIONS_PREFIX.length());
+            if (slash > 0) {
+                return name.substring(slash + 1);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * @return The scanned archive.
+     */
+    public Path getJar() {
+        return jar;
+    }
+
+    /**
+     * @return The names of all packages which contain at least one class.
+     */
+    public SortedSet<String> getPackages() {
+        return packages;
+    }
+
+    /**
+     * @return The names of all packages whose <code>package-info</code> is annotated with {@link NotNullByDefault}.
+     */
+    public SortedSet<String> getAnnotatedPackages() {
+        return annotatedPackages;
+    }
+
+    /**
+     * @return The reason why the archive could not be scanned completely, or <code>null</code> if it was.
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+}
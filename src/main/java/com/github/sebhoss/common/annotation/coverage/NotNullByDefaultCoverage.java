@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.coverage;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Command line tool which reports the {@link NotNullByDefault} coverage of JAR archives. Archives are scanned in
+ * parallel on a {@link ForkJoinPool} and only their <code>package-info.class</code> entries are inflated and parsed.
+ * <p/>
+ * Usage: <code>NotNullByDefaultCoverage [--output report.txt] [--parallelism n] (jar|directory)...</code>
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class NotNullByDefaultCoverage {
+
+    private static final String JAR_SUFFIX = ".jar";
+
+    /**
+     * @param args
+     *            The command line arguments.
+     * @throws IOException
+     *             In case the input cannot be listed or the report cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        final List<Path> inputs = new ArrayList<>();
+        @Nullable
+        Path output = null;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int index = 0; index < args.length; index++) {
+            if ("--output".equals(args[index]) && index + 1 < args.length) {
+                output = Paths.get(args[++index]);
+            } else if ("--parallelism".equals(args[index]) && index + 1 < args.length) {
+                parallelism = Integer.parseInt(args[++index]);
+            } else {
+                inputs.add(Paths.get(args[index]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: NotNullByDefaultCoverage [--output file] [--parallelism n] (jar|dir)...");
+            System.exit(1);
+        }
+
+        final long start = System.nanoTime();
+        final List<JarCoverage> coverages = scan(findJars(inputs), parallelism);
+        final long elapsed = System.nanoTime() - start;
+
+        if (output == null) {
+            final PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            writeReport(coverages, elapsed, writer);
+            writer.flush();
+        } else {
+            try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                writeReport(coverages, elapsed, new PrintWriter(writer));
+            }
+        }
+    }
+
+    /**
+     * @param jars
+     *            The archives to scan.
+     * @param parallelism
+     *            The number of worker threads to use.
+     * @return The coverage of each archive, in the order of the given list.
+     */
+    public static List<JarCoverage> scan(final List<Path> jars, final int parallelism) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return Nullsafe.nullsafe(pool.invoke(new ScanTask(jars)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Writes a plain text report, listing a summary line per archive followed by its packages. Annotated packages are
+     * marked with <code>+</code>, unannotated ones with <code>-</code>.
+     *
+     * @param coverages
+     *            The scanned archives.
+     * @param elapsedNanos
+     *            The time spent scanning.
+     * @param writer
+     *            The writer to write the report to.
+     */
+    public static void writeReport(final List<JarCoverage> coverages, final long elapsedNanos,
+            final PrintWriter writer) {
+        int packages = 0;
+        int annotated = 0;
+        for (final JarCoverage coverage : coverages) {
+            final int jarPackages = coverage.getPackages().size();
+            final int jarAnnotated = coverage.getAnnotatedPackages().size();
+            packages += jarPackages;
+            annotated += jarAnnotated;
+
+            writer.printf("%s\t%d/%d\t%s%n", coverage.getJar(), Integer.valueOf(jarAnnotated),
+                    Integer.valueOf(jarPackages), percentage(jarAnnotated, jarPackages));
+            final String error = coverage.getError();
+            if (error != null) {
+                writer.printf("  ! %s%n", error);
+            }
+            for (final String packageName : coverage.getPackages()) {
+                writer.printf("  %s %s%n", coverage.getAnnotatedPackages().contains(packageName) ? "+" : "-",
+                        packageName.isEmpty() ? "<default>" : packageName);
+            }
+        }
+        writer.printf("%nTOTAL\t%d/%d\t%s\t(%d jars in %d ms)%n", Integer.valueOf(annotated),
+                Integer.valueOf(packages), percentage(annotated, packages), Integer.valueOf(coverages.size()),
+                Long.valueOf(elapsedNanos / 1_000_000L));
+        writer.flush();
+    }
+
+    private static String percentage(final int part, final int total) {
+        return total == 0 ? "n/a" : String.format(Locale.ROOT, "%.1f%%", Double.valueOf(100.0 * part / total));
+    }
+
+    private static List<Path> findJars(final List<Path> inputs) throws IOException {
+        final List<Path> jars = new ArrayList<>();
+        for (final Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                Files.walkFileTree(input, new SimpleFileVisitor<Path>() {
+
+                    @Override
+                    public FileVisitResult visitFile(@Nullable final Path file,
+                            @Nullable final BasicFileAttributes attributes) {
+                        final Path jar = Nullsafe.nullsafe(file);
+                        if (jar.toString().endsWith(JAR_SUFFIX)) {
+                            jars.add(jar);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                });
+            } else {
+                jars.add(input);
+            }
+        }
+        return jars;
+    }
+
+    private static final class ScanTask extends RecursiveTask<List<JarCoverage>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path>  jars;
+
+        ScanTask(final List<Path> jars) {
+            this.jars = jars;
+        }
+
+        @Override
+        protected List<JarCoverage> compute() {
+            if (jars.size() == 1) {
+                final List<JarCoverage> result = new ArrayList<>(1);
+                result.add(JarCoverage.scan(jars.get(0)));
+                return result;
+            } else if (jars.isEmpty()) {
+                return new ArrayList<>(0);
+            }
+            final int middle = jars.size() / 2;
+            final ScanTask right = new ScanTask(jars.subList(middle, jars.size()));
+            right.fork();
+            final List<JarCoverage> result = new ScanTask(jars.subList(0, middle)).compute();
+            result.addAll(right.join());
+            return result;
+        }
+
+    }
+
+    private NotNullByDefaultCoverage() {
+        // command line tool
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.delegate;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NullnessDefaults;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Writes the bytecode of a class which implements an interface by calling a delegate stored in a final field. Each
+ * reference parameter and return value which is not null according to {@link NullnessDefaults} and not annotated as
+ * nullable is passed through {@link Nullsafe#nullsafe(Object, String)}. The value stays on the operand stack while it
+ * is checked, so no cast is needed and the generated code contains no branches.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class DelegateGenerator {
+
+    private static final String FIELD    = "delegate";
+    private static final String NULLSAFE = Type.getInternalName(Nullsafe.class);
+    private static final String CHECK    = "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;";
+
+    /**
+     * @param className
+     *            The binary name of the generated class.
+     * @param type
+     *            The public interface to implement.
+     * @return The class file of the generated class.
+     */
+    static byte[] generate(final String className, final Class<?> type) {
+        final String internalName = className.replace('.', '/');
+        final String typeName = Type.getInternalName(type);
+        final String typeDescriptor = Type.getDescriptor(type);
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                internalName, null, "java/lang/Object", new String[] { typeName });
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, FIELD, typeDescriptor, null, null).visitEnd();
+
+        final MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(" + typeDescriptor
+                + ")V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, internalName, FIELD, typeDescriptor);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        final Set<String> written = new HashSet<>();
+        for (final Method method : type.getMethods()) {
+            final String descriptor = Type.getMethodDescriptor(method);
+            if (!Modifier.isStatic(method.getModifiers()) && written.add(method.getName() + descriptor)) {
+                delegate(writer, internalName, typeName, typeDescriptor, method, descriptor);
+            }
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void delegate(final ClassWriter writer, final String internalName, final String typeName,
+            final String typeDescriptor, final Method method, final String descriptor) {
+        final Class<?>[] exceptionTypes = method.getExceptionTypes();
+        final String[] exceptions = new String[exceptionTypes.length];
+        for (int index = 0; index < exceptions.length; index++) {
+            exceptions[index] = Type.getInternalName(exceptionTypes[index]);
+        }
+        final MethodVisitor visitor = writer.visitMethod(Opcodes.ACC_PUBLIC
+                | (method.isVarArgs() ? Opcodes.ACC_VARARGS : 0), method.getName(), descriptor, null, exceptions);
+        visitor.visitCode();
+
+        final boolean covered = NullnessDefaults.isNotNullByDefault(method);
+        final String name = method.getDeclaringClass().getName() + "." + method.getName();
+        final Class<?>[] parameters = method.getParameterTypes();
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        int slot = 1;
+        for (int index = 0; index < parameters.length; index++) {
+            if (covered && !parameters[index].isPrimitive() && !isNullable(parameterAnnotations[index])) {
+                visitor.visitVarInsn(Opcodes.ALOAD, slot);
+                visitor.visitLdcInsn(name + " parameter " + index + " is null");
+                visitor.visitMethodInsn(Opcodes.INVOKESTATIC, NULLSAFE, "nullsafe", CHECK, false);
+                visitor.visitInsn(Opcodes.POP);
+            }
+            slot += Type.getType(parameters[index]).getSize();
+        }
+
+        visitor.visitVarInsn(Opcodes.ALOAD, 0);
+        visitor.visitFieldInsn(Opcodes.GETFIELD, internalName, FIELD, typeDescriptor);
+        slot = 1;
+        for (final Class<?> parameter : parameters) {
+            final Type parameterType = Type.getType(parameter);
+            visitor.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), slot);
+            slot += parameterType.getSize();
+        }
+        visitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, typeName, method.getName(), descriptor, true);
+
+        final Class<?> returnType = method.getReturnType();
+        if (covered && !returnType.isPrimitive() && !isNullable(method.getAnnotations())) {
+            visitor.visitInsn(Opcodes.DUP);
+            visitor.visitLdcInsn(name + " returned null");
+            visitor.visitMethodInsn(Opcodes.INVOKESTATIC, NULLSAFE, "nullsafe", CHECK, false);
+            visitor.visitInsn(Opcodes.POP);
+        }
+        visitor.visitInsn(Type.getType(returnType).getOpcode(Opcodes.IRETURN));
+        visitor.visitMaxs(0, 0);
+        visitor.visitEnd();
+    }
+
+    private static boolean isNullable(final Annotation[] annotations) {
+        for (final Annotation annotation : annotations) {
+            if (annotation instanceof Nullable || annotation instanceof CheckForNull) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DelegateGenerator() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.delegate;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Defines a single generated delegate. Classes are loaded from the loader of the implemented interface, except for
+ * {@link Nullsafe} which the interface's loader might not see.
+ */
+final class DelegateLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * @param parent
+     *            The loader of the implemented interface, <code>null</code> for the bootstrap loader.
+     */
+    DelegateLoader(@Nullable final ClassLoader parent) {
+        super(parent);
+    }
+
+    /**
+     * @param className
+     *            The binary name of the class.
+     * @param classFile
+     *            The class file to define.
+     * @return The defined class.
+     */
+    Class<?> define(final String className, final byte[] classFile) {
+        return defineClass(className, classFile, 0, classFile.length, DelegateLoader.class.getProtectionDomain());
+    }
+
+    @Override
+    protected Class<?> loadClass(@Nullable final String name, final boolean resolve) throws ClassNotFoundException {
+        if (Nullsafe.class.getName().equals(name)) {
+            return Nullsafe.class;
+        }
+        return super.loadClass(name, resolve);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.delegate;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Wraps implementations of an interface into a delegate which throws a {@link NullPointerException} as soon as a
+ * parameter or return value violates the nullness annotations of the interface, see {@link NotNullByDefault}. Unlike
+ * a {@link java.lang.reflect.Proxy}, the delegate class is generated once per interface and calls the wrapped instance
+ * directly, thus it costs about as much as a hand-written wrapper.
+ * <p/>
+ * The delegate class is defined by a class loader of its own whose parent is the loader of the interface, so that it
+ * can be unloaded together with the interface. Only public interfaces are supported. Methods of
+ * <code>java.lang.Object</code> are not forwarded unless the interface declares them.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class NullEnforcingDelegates {
+
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new DelegateConstructors();
+
+    /**
+     * @param type
+     *            The interface to implement.
+     * @param delegate
+     *            The implementation to wrap.
+     * @return A delegate which checks parameters and return values before and after calling the given implementation.
+     * @throws IllegalArgumentException
+     *             In case the given type is not a public interface.
+     * @throws NullPointerException
+     *             In case the given implementation is <code>null</code>.
+     */
+    public static <T> T wrap(final Class<T> type, final T delegate) {
+        final T checked = Nullsafe.nullsafe(delegate, "Cannot wrap a null delegate");
+        try {
+            return type.cast(Nullsafe.nullsafe(CONSTRUCTORS.get(type).newInstance(checked)));
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException exception) {
+            throw new IllegalStateException("Cannot create delegate for " + type.getName(), exception);
+        }
+    }
+
+    private static final class DelegateConstructors extends ClassValue<Constructor<?>> {
+
+        @Override
+        protected Constructor<?> computeValue(@Nullable final Class<?> type) {
+            final Class<?> checked = Nullsafe.nullsafe(type);
+            if (!checked.isInterface() || !Modifier.isPublic(checked.getModifiers())) {
+                throw new IllegalArgumentException(checked.getName() + " is not a public interface");
+            }
+            final String className = NullEnforcingDelegates.class.getPackage().getName() + "."
+                    + checked.getName().replace('.', '_') + "$NullEnforcing";
+            final DelegateLoader loader = new DelegateLoader(checked.getClassLoader());
+            try {
+                return loader.define(className, DelegateGenerator.generate(className, checked)).getConstructor(
+                        checked);
+            } catch (final NoSuchMethodException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+    }
+
+    private NullEnforcingDelegates() {
+        // utility class
+    }
+
+}
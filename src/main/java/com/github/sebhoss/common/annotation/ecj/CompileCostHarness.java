@@ -0,0 +1,359 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.ecj;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Measures what each warning category of {@link CompilerWarnings} costs the Eclipse compiler. A local corpus is
+ * compiled in batch mode, without generating class files, with each category toggled twice: enabled on its own,
+ * compared to a compilation with all warnings disabled, and disabled on its own, compared to a compilation with all
+ * categories enabled. The first shows the cost of an analysis in isolation, the second what a full build saves without
+ * it, since some analyses share their work. Each compilation runs <code>warmups</code> times unmeasured and
+ * <code>repetitions</code> times measured, of which the median wall-clock time and the median peak heap growth are
+ * kept.
+ * <p/>
+ * ECJ is loaded reflectively, from the class path of this class or from the given class path, and is driven through its
+ * public <code>BatchCompiler</code> API.
+ * <p/>
+ * Usage: <code>CompileCostHarness [-cp ecj class path] [-w warmups] [-r repetitions] [-c category,...]
+ * &lt;corpus&gt;... [-- ecj option...]</code> prints the costs of all or the given categories, ranked by their cost in
+ * isolation. The options following <code>--</code>, e.g. <code>-classpath</code> or <code>-source</code>, are passed to
+ * every compilation.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class CompileCostHarness {
+
+    private static final Map<String, String> WARN_TOKENS = new LinkedHashMap<>();
+
+    static {
+        WARN_TOKENS.put(CompilerWarnings.BOXING, "boxing");
+        WARN_TOKENS.put(CompilerWarnings.CAST, "uselessTypeCheck");
+        WARN_TOKENS.put(CompilerWarnings.DEP_ANN, "dep-ann");
+        WARN_TOKENS.put(CompilerWarnings.DEPRECATION, "deprecation");
+        WARN_TOKENS.put(CompilerWarnings.FALLTHROUGH, "fallthrough");
+        WARN_TOKENS.put(CompilerWarnings.FINALLY, "finally");
+        WARN_TOKENS.put(CompilerWarnings.HIDING, "hiding");
+        WARN_TOKENS.put(CompilerWarnings.INCOMPLETE_SWITCH, "enumSwitch");
+        WARN_TOKENS.put(CompilerWarnings.JAVADOC, "javadoc");
+        WARN_TOKENS.put(CompilerWarnings.NLS, "nls");
+        WARN_TOKENS.put(CompilerWarnings.NULL, "null");
+        WARN_TOKENS.put(CompilerWarnings.RAWTYPES, "raw");
+        WARN_TOKENS.put(CompilerWarnings.RESOURCE, "resource");
+        WARN_TOKENS.put(CompilerWarnings.RESTRICTION, "forbidden,discouraged");
+        WARN_TOKENS.put(CompilerWarnings.SERIAL, "serial");
+        WARN_TOKENS.put(CompilerWarnings.STATIC_ACCESS, "static-access");
+        WARN_TOKENS.put(CompilerWarnings.STATIC_METHOD, "static-method");
+        WARN_TOKENS.put(CompilerWarnings.SUPER, "super");
+        WARN_TOKENS.put(CompilerWarnings.SYNTHETHIC_ACCESS, "synthetic-access");
+        WARN_TOKENS.put(CompilerWarnings.SYNC_OVERRIDE, "syncOverride");
+        WARN_TOKENS.put(CompilerWarnings.UNCHECKED, "unchecked");
+        WARN_TOKENS.put(CompilerWarnings.UNQUALIFIED_FIELD_ACCESS, "unqualifiedField");
+        WARN_TOKENS.put(CompilerWarnings.UNUSED, "unused");
+    }
+
+    private final Method                     compile;
+    private final ClassLoader                ecj;
+    private final int                        warmups;
+    private final int                        repetitions;
+    private final List<String>               arguments;
+    private boolean                          failed;
+
+    /**
+     * The median cost of a compilation.
+     */
+    public static final class Cost {
+
+        private final long nanos;
+        private final long bytes;
+
+        Cost(final long nanos, final long bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return The wall-clock time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return The growth of the used heap, from its size before the compilation to its peak during it, in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @param other
+         *            Another cost.
+         * @return The difference between this and the given cost.
+         */
+        public Cost minus(final Cost other) {
+            return new Cost(nanos - other.nanos, bytes - other.bytes);
+        }
+
+    }
+
+    /**
+     * @param ecj
+     *            The class loader to load ECJ with.
+     * @param warmups
+     *            The number of unmeasured compilations per configuration.
+     * @param repetitions
+     *            The number of measured compilations per configuration.
+     * @param corpus
+     *            The source directories and files to compile.
+     * @param options
+     *            Further options for each compilation, e.g. <code>-classpath</code>.
+     */
+    public CompileCostHarness(final ClassLoader ecj, final int warmups, final int repetitions,
+            final List<String> corpus, final List<String> options) {
+        if (warmups < 0 || repetitions < 1) {
+            throw new IllegalArgumentException("Invalid number of runs: " + warmups + " warmups, " + repetitions
+                    + " repetitions");
+        }
+        try {
+            compile = ecj.loadClass("org.eclipse.jdt.core.compiler.batch.BatchCompiler").getMethod("compile",
+                    String[].class, PrintWriter.class, PrintWriter.class,
+                    ecj.loadClass("org.eclipse.jdt.core.compiler.CompilationProgress"));
+        } catch (final ReflectiveOperationException exception) {
+            throw new IllegalStateException("Unsupported ECJ version", exception);
+        }
+        this.ecj = ecj;
+        this.warmups = warmups;
+        this.repetitions = repetitions;
+        arguments = new ArrayList<>(Arrays.asList("-d", "none", "-proc:none"));
+        arguments.addAll(options);
+        arguments.addAll(corpus);
+    }
+
+    /**
+     * @param args
+     *            The options, the corpus and the options for the compiler.
+     * @throws IOException
+     *             In case the class path of ECJ is invalid.
+     */
+    public static void main(final String[] args) throws IOException {
+        @Nullable
+        String classPath = null;
+        int warmups = 1;
+        int repetitions = 3;
+        final Set<String> categories = new LinkedHashSet<>(WARN_TOKENS.keySet());
+        final List<String> corpus = new ArrayList<>();
+        final List<String> options = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            if ("--".equals(args[index])) {
+                options.addAll(Arrays.asList(args).subList(index + 1, args.length));
+                break;
+            } else if ("-cp".equals(args[index]) && index + 1 < args.length) {
+                classPath = args[++index];
+            } else if ("-w".equals(args[index]) && index + 1 < args.length) {
+                warmups = Integer.parseInt(args[++index]);
+            } else if ("-r".equals(args[index]) && index + 1 < args.length) {
+                repetitions = Integer.parseInt(args[++index]);
+            } else if ("-c".equals(args[index]) && index + 1 < args.length) {
+                categories.clear();
+                for (final String category : args[++index].split(",")) {
+                    if (!WARN_TOKENS.containsKey(category.trim())) {
+                        throw new IllegalArgumentException("Unknown category: " + category);
+                    }
+                    categories.add(category.trim());
+                }
+            } else {
+                corpus.add(args[index]);
+            }
+        }
+        if (corpus.isEmpty()) {
+            System.err.println("Usage: CompileCostHarness [-cp ecj class path] [-w warmups] [-r repetitions] "
+                    + "[-c category,...] <corpus>... [-- ecj option...]");
+            return;
+        }
+        final ClassLoader loader = classPath == null ? CompileCostHarness.class.getClassLoader()
+                : classLoaderOf(classPath);
+        final CompileCostHarness harness = new CompileCostHarness(loader, warmups, repetitions, corpus, options);
+        final PrintStream err = System.err;
+        final Cost none = harness.measure(Collections.<String> emptySet());
+        err.println("measured no warnings");
+        final Cost all = harness.measure(WARN_TOKENS.keySet());
+        err.println("measured all warnings");
+        final Map<String, Cost[]> costs = new LinkedHashMap<>();
+        for (final String category : categories) {
+            final Set<String> others = new LinkedHashSet<>(WARN_TOKENS.keySet());
+            others.remove(category);
+            costs.put(category, new Cost[] { harness.measure(Collections.singleton(category)).minus(none),
+                    all.minus(harness.measure(others)) });
+            err.println("measured " + category);
+        }
+        harness.print(System.out, none, all, costs);
+    }
+
+    /**
+     * @param categories
+     *            The {@link CompilerWarnings} to enable, all others are disabled.
+     * @return The median cost of compiling the corpus.
+     */
+    public Cost measure(final Collection<String> categories) {
+        final StringBuilder tokens = new StringBuilder();
+        for (final String category : categories) {
+            final String token = WARN_TOKENS.get(category);
+            if (token == null) {
+                throw new IllegalArgumentException("Unknown category: " + category);
+            }
+            tokens.append(tokens.length() == 0 ? "" : ",").append(token);
+        }
+        final List<String> command = new ArrayList<>(arguments);
+        command.add("-warn:" + (tokens.length() == 0 ? "none" : tokens));
+        final String[] commandLine = command.toArray(new String[command.size()]);
+        for (int run = 0; run < warmups; run++) {
+            compile(commandLine);
+        }
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        final long[] nanos = new long[repetitions];
+        final long[] bytes = new long[repetitions];
+        for (int run = 0; run < repetitions; run++) {
+            System.gc();
+            long before = 0;
+            for (final MemoryPoolMXBean pool : pools) {
+                pool.resetPeakUsage();
+                before += pool.getUsage().getUsed();
+            }
+            final long start = System.nanoTime();
+            compile(commandLine);
+            nanos[run] = System.nanoTime() - start;
+            long peak = 0;
+            for (final MemoryPoolMXBean pool : pools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            bytes[run] = peak - before;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new Cost(nanos[repetitions / 2], bytes[repetitions / 2]);
+    }
+
+    /**
+     * Prints the costs of the given categories, ranked by their cost in isolation.
+     *
+     * @param out
+     *            The stream to print to.
+     * @param none
+     *            The cost of a compilation without warnings.
+     * @param all
+     *            The cost of a compilation with all categories.
+     * @param costs
+     *            The cost of each category in isolation and within all categories.
+     */
+    public void print(final PrintStream out, final Cost none, final Cost all, final Map<String, Cost[]> costs) {
+        out.println(String.format(Locale.ROOT, "no warnings: %.1f ms, %.1f MB; all categories: %.1f ms, %.1f MB",
+                Double.valueOf(none.getNanos() / 1e6), Double.valueOf(none.getBytes() / 1048576.0),
+                Double.valueOf(all.getNanos() / 1e6), Double.valueOf(all.getBytes() / 1048576.0)));
+        out.println(String.format(Locale.ROOT, "%-26s %-22s %10s %10s %10s %10s", "category", "-warn", "alone ms",
+                "in all ms", "alone MB", "in all MB"));
+        final List<String> ranked = new ArrayList<>(costs.keySet());
+        Collections.sort(ranked, new Comparator<String>() {
+
+            @Override
+            public int compare(final String first, final String second) {
+                return Long.compare(costs.get(second)[0].getNanos(), costs.get(first)[0].getNanos());
+            }
+
+        });
+        for (final String category : ranked) {
+            final Cost alone = costs.get(category)[0];
+            final Cost within = costs.get(category)[1];
+            out.println(String.format(Locale.ROOT, "%-26s %-22s %10.1f %10.1f %10.1f %10.1f", category,
+                    WARN_TOKENS.get(category), Double.valueOf(alone.getNanos() / 1e6),
+                    Double.valueOf(within.getNanos() / 1e6), Double.valueOf(alone.getBytes() / 1048576.0),
+                    Double.valueOf(within.getBytes() / 1048576.0)));
+        }
+        if (failed) {
+            out.println("The corpus does not compile cleanly, analyses of erroneous code may be skipped.");
+        }
+    }
+
+    private void compile(final String[] commandLine) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(ecj);
+        try {
+            final PrintWriter discard = new PrintWriter(new NullWriter());
+            if (!((Boolean) compile.invoke(null, commandLine, discard, discard, null)).booleanValue()) {
+                failed = true;
+            }
+        } catch (final InvocationTargetException exception) {
+            throw new IllegalStateException("ECJ failed", exception.getCause());
+        } catch (final IllegalAccessException exception) {
+            throw new IllegalStateException("Unsupported ECJ version", exception);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static ClassLoader classLoaderOf(final String classPath) throws IOException {
+        final String[] entries = classPath.split(File.pathSeparator);
+        final URL[] urls = new URL[entries.length];
+        for (int index = 0; index < entries.length; index++) {
+            urls[index] = Paths.get(entries[index]).toUri().toURL();
+        }
+        return new URLClassLoader(urls, CompileCostHarness.class.getClassLoader());
+    }
+
+    private static final class NullWriter extends Writer {
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) {
+            // discarded
+        }
+
+        @Override
+        public void flush() {
+            // nothing buffered
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+
+    }
+
+}
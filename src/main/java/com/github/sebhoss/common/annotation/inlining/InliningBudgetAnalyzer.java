@@ -0,0 +1,272 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.Nullsafe;
+import com.github.sebhoss.common.annotation.classfile.ClassFileReader;
+import com.github.sebhoss.common.annotation.classfile.JarArchive;
+
+/**
+ * Command line tool which finds hot methods that HotSpot refuses to inline because their null checks push them over
+ * <code>MaxInlineSize</code> or <code>FreqInlineSize</code>. The bytecode of every method in a JAR is measured with
+ * {@link NullCheckBytes}, and the <em>too big</em> rejections found in <code>-XX:+PrintInlining</code> logs and JFR
+ * recordings are listed for methods covered by {@link NotNullByDefault}, ranked by their execution samples.
+ * <p/>
+ * Reading JFR recordings requires JDK 11 and the <code>jfr</code> artifact on the class path.
+ * <p/>
+ * Usage: <code>InliningBudgetAnalyzer [--jfr recording.jfr]... [--inlining-log log.txt]... [--output report.txt]
+ * [--max-inline-size n] [--freq-inline-size n] app.jar</code>
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class InliningBudgetAnalyzer {
+
+    private static final int    MAX_INLINE_SIZE  = 35;
+    private static final int    FREQ_INLINE_SIZE = 325;
+    private static final String CLASS_SUFFIX     = ".class";
+    private static final String PACKAGE_INFO     = "package-info";
+    private static final String META_INF         = "META-INF/";
+
+    /**
+     * @param args
+     *            The command line arguments.
+     * @throws IOException
+     *             In case an input cannot be read or the report cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        final InliningProfile profile = new InliningProfile();
+        @Nullable
+        Path jar = null;
+        @Nullable
+        Path output = null;
+        int maxInlineSize = MAX_INLINE_SIZE;
+        int freqInlineSize = FREQ_INLINE_SIZE;
+        for (int index = 0; index < args.length; index++) {
+            if ("--jfr".equals(args[index]) && index + 1 < args.length) {
+                profile.readRecording(Paths.get(args[++index]));
+            } else if ("--inlining-log".equals(args[index]) && index + 1 < args.length) {
+                profile.readPrintInlining(Paths.get(args[++index]));
+            } else if ("--output".equals(args[index]) && index + 1 < args.length) {
+                output = Paths.get(args[++index]);
+            } else if ("--max-inline-size".equals(args[index]) && index + 1 < args.length) {
+                maxInlineSize = Integer.parseInt(args[++index]);
+            } else if ("--freq-inline-size".equals(args[index]) && index + 1 < args.length) {
+                freqInlineSize = Integer.parseInt(args[++index]);
+            } else {
+                jar = Paths.get(args[index]);
+            }
+        }
+        if (jar == null) {
+            System.err.println("Usage: InliningBudgetAnalyzer [--jfr file]... [--inlining-log file]... "
+                    + "[--output file] [--max-inline-size n] [--freq-inline-size n] jar");
+            System.exit(1);
+        }
+
+        final List<MethodBudget> budgets = scan(Nullsafe.nullsafe(jar));
+        if (output == null) {
+            final PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            writeReport(budgets, profile, maxInlineSize, freqInlineSize, writer);
+        } else {
+            try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                writeReport(budgets, profile, maxInlineSize, freqInlineSize, new PrintWriter(writer));
+            }
+        }
+    }
+
+    /**
+     * Measures every method with bytecode in the given JAR. A method is covered by {@link NotNullByDefault} if it, its
+     * class, one of its enclosing classes or its package is annotated within the same JAR.
+     *
+     * @param jar
+     *            The JAR archive to scan.
+     * @return The budget of every method with bytecode.
+     * @throws IOException
+     *             In case the archive cannot be read.
+     */
+    public static List<MethodBudget> scan(final Path jar) throws IOException {
+        final JarArchive archive = JarArchive.open(jar);
+        final Set<String> annotated = new HashSet<>();
+        final List<JarArchive.Entry> classes = new ArrayList<>();
+        for (final JarArchive.Entry entry : archive.getEntries()) {
+            final String name = entry.getName();
+            if (!name.endsWith(CLASS_SUFFIX) || name.startsWith(META_INF)) {
+                continue;
+            }
+            final String className = name.substring(0, name.length() - CLASS_SUFFIX.length());
+            if (new ClassFileReader(archive.read(entry)).isNotNullByDefault()) {
+                annotated.add(className);
+            }
+            if (!className.endsWith(PACKAGE_INFO)) {
+                classes.add(entry);
+            }
+        }
+
+        final List<MethodBudget> budgets = new ArrayList<>();
+        for (final JarArchive.Entry entry : classes) {
+            final ByteBuffer buffer = archive.read(entry);
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            final ClassFileReader reader = new ClassFileReader(buffer);
+            final ClassNode type = new ClassNode();
+            new ClassReader(bytes).accept(type, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            final Map<String, MethodNode> methods = new HashMap<>();
+            for (final MethodNode method : type.methods) {
+                methods.put(method.name + method.desc, method);
+            }
+
+            final boolean classCovered = isCovered(reader.getClassName(), annotated);
+            final String className = reader.getClassName().replace('/', '.');
+            for (final ClassFileReader.Method method : reader.getMethods()) {
+                final MethodNode node = methods.get(method.getName() + method.getDescriptor());
+                if (node == null || method.getCodeLength() == 0) {
+                    continue;
+                }
+                budgets.add(new MethodBudget(className, method.getName(), method.getDescriptor(), method
+                        .getCodeLength(), NullCheckBytes.estimate(node), classCovered
+                        || ClassFileReader.isNotNullByDefault(method.getAnnotations())));
+            }
+        }
+        return budgets;
+    }
+
+    private static boolean isCovered(final String className, final Set<String> annotated) {
+        final int slash = className.lastIndexOf('/');
+        if (annotated.contains(slash < 0 ? PACKAGE_INFO : className.substring(0, slash + 1) + PACKAGE_INFO)) {
+            return true;
+        }
+        String name = className;
+        int nested = name.length();
+        while (nested > slash + 1) {
+            name = name.substring(0, nested);
+            if (annotated.contains(name)) {
+                return true;
+            }
+            nested = name.lastIndexOf('$');
+        }
+        return false;
+    }
+
+    /**
+     * Writes a plain text report. The first section lists the too-big rejections of covered methods, ranked by their
+     * execution samples and marked with <code>fits</code> if the method would have stayed below the threshold that
+     * rejected it without its null checks. The second section lists covered methods whose null checks alone push
+     * them over a threshold, regardless of whether a rejection was observed.
+     *
+     * @param budgets
+     *            The measured methods.
+     * @param profile
+     *            The observed inlining decisions and samples.
+     * @param maxInlineSize
+     *            The <code>MaxInlineSize</code> of the profiled JVM.
+     * @param freqInlineSize
+     *            The <code>FreqInlineSize</code> of the profiled JVM.
+     * @param writer
+     *            The writer to write the report to.
+     */
+    static void writeReport(final List<MethodBudget> budgets, final InliningProfile profile, final int maxInlineSize,
+            final int freqInlineSize, final PrintWriter writer) {
+        final List<MethodBudget> rejected = new ArrayList<>();
+        final List<MethodBudget> crossing = new ArrayList<>();
+        long totalBytes = 0;
+        long nullCheckBytes = 0;
+        int covered = 0;
+        for (final MethodBudget budget : budgets) {
+            if (!budget.isCovered()) {
+                continue;
+            }
+            covered++;
+            totalBytes += budget.getCodeLength();
+            nullCheckBytes += budget.getNullCheckBytes();
+            if (profile.getRejection(budget) != null) {
+                rejected.add(budget);
+            }
+            if (crosses(budget, maxInlineSize) || crosses(budget, freqInlineSize)) {
+                crossing.add(budget);
+            }
+        }
+        final Comparator<MethodBudget> byHotness = new Comparator<MethodBudget>() {
+
+            @Override
+            public int compare(final MethodBudget first, final MethodBudget second) {
+                final int samples = Long.compare(profile.getSamples(second), profile.getSamples(first));
+                if (samples != 0) {
+                    return samples;
+                }
+                final int checks = Integer.compare(second.getNullCheckBytes(), first.getNullCheckBytes());
+                return checks != 0 ? checks : first.getKey().compareTo(second.getKey());
+            }
+
+        };
+        Collections.sort(rejected, byHotness);
+        Collections.sort(crossing, byHotness);
+
+        writer.printf("Covered methods: %d of %d, %d bytes of bytecode, %d (%s) spent on null checks%n",
+                Integer.valueOf(covered), Integer.valueOf(budgets.size()), Long.valueOf(totalBytes),
+                Long.valueOf(nullCheckBytes), percentage(nullCheckBytes, totalBytes));
+
+        writer.printf("%nToo big rejections: %d%n", Integer.valueOf(rejected.size()));
+        writer.println("samples\trejected\tcompiled\tbytes\tnull checks\twithout\tthreshold\tmethod");
+        for (final MethodBudget budget : rejected) {
+            final InliningProfile.Rejection rejection = Nullsafe.nullsafe(profile.getRejection(budget));
+            final int threshold = rejection.isHot() ? freqInlineSize : maxInlineSize;
+            writer.printf("%d\t%d\t%d\t%d\t%d (%s)\t%d\t%d%s\t%s%n",
+                    Long.valueOf(profile.getSamples(budget)), Integer.valueOf(rejection.getCount()),
+                    Integer.valueOf(profile.getCompilations(budget)), Integer.valueOf(budget.getCodeLength()),
+                    Integer.valueOf(budget.getNullCheckBytes()),
+                    percentage(budget.getNullCheckBytes(), budget.getCodeLength()),
+                    Integer.valueOf(budget.getCodeLengthWithoutNullChecks()), Integer.valueOf(threshold),
+                    budget.getCodeLengthWithoutNullChecks() <= threshold ? " fits" : "", budget.getKey());
+        }
+
+        writer.printf("%nNull checks crossing MaxInlineSize (%d) or FreqInlineSize (%d): %d%n",
+                Integer.valueOf(maxInlineSize), Integer.valueOf(freqInlineSize), Integer.valueOf(crossing.size()));
+        for (final MethodBudget budget : crossing) {
+            writer.printf("  %s %d -> %d bytes, %d samples%n", budget.getKey(), Integer.valueOf(budget.getCodeLength()),
+                    Integer.valueOf(budget.getCodeLengthWithoutNullChecks()), Long.valueOf(profile.getSamples(budget)));
+        }
+        writer.flush();
+    }
+
+    private static boolean crosses(final MethodBudget budget, final int threshold) {
+        return budget.getCodeLength() > threshold && budget.getCodeLengthWithoutNullChecks() <= threshold;
+    }
+
+    private static String percentage(final long part, final long total) {
+        return total == 0 ? "n/a" : String.format(Locale.ROOT, "%.1f%%", Double.valueOf(100.0 * part / total));
+    }
+
+    private InliningBudgetAnalyzer() {
+        // command line tool
+    }
+
+}
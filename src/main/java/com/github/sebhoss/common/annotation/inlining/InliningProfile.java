@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Inlining decisions and hotness of methods, keyed by <code>Class::method</code> followed by the descriptor, see
+ * {@link MethodBudget#getKey()}. Sources are the output of
+ * <code>-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining</code> and JFR recordings, from which
+ * <code>jdk.ExecutionSample</code>, <code>jdk.Compilation</code> and, if enabled, <code>jdk.CompilerInlining</code>
+ * events are read. <code>PrintInlining</code> names no descriptor, so its rejections are matched to the overload whose
+ * bytecode has the logged size. Reading recordings requires the <code>jdk.jfr.consumer</code> API of JDK 11, its
+ * {@link RecordingReader} is therefore shipped in the <code>jfr</code> artifact and looked up at runtime.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class InliningProfile {
+
+    /** Matches e.g. <code>@ 12   com.example.Foo::bar (412 bytes)   hot method too big</code>. */
+    private static final Pattern         INLINING_LINE = Pattern
+            .compile("@\\s*\\d+\\s+.*?([\\w$.]+)::([\\w$<>]+)\\s+\\((\\d+) bytes\\)\\s+(.*)$");
+    private static final String          TOO_BIG       = "too big";
+    private static final String          TOO_LARGE     = "too large";
+    private static final String          JFR_READER    = InliningProfile.class.getName().replace("InliningProfile",
+                                                               "JfrRecordingReader");
+
+    private final Map<String, Rejection> rejections    = new HashMap<>();
+    private final Map<String, Long>      samples       = new HashMap<>();
+    private final Map<String, Integer>   compilations  = new HashMap<>();
+
+    /**
+     * Inlining attempts of a single method which HotSpot rejected because the callee was too big.
+     */
+    static final class Rejection {
+
+        private int    count;
+        private String reason = "";
+
+        void add(final int attempts, final String message) {
+            count += attempts;
+            if (message.startsWith("hot") || reason.isEmpty()) {
+                reason = message;
+            }
+        }
+
+        /**
+         * @return The number of rejected inlining attempts.
+         */
+        int getCount() {
+            return count;
+        }
+
+        /**
+         * @return <code>true</code> if the method was rejected at a hot call site, i.e. for exceeding
+         *         <code>FreqInlineSize</code> rather than <code>MaxInlineSize</code>.
+         */
+        boolean isHot() {
+            return reason.startsWith("hot") || reason.contains(": hot");
+        }
+
+    }
+
+    /**
+     * @param log
+     *            The output of a JVM running with <code>-XX:+PrintInlining</code>.
+     * @throws IOException
+     *             In case the log cannot be read.
+     */
+    void readPrintInlining(final Path log) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                final Matcher matcher = INLINING_LINE.matcher(line);
+                if (matcher.find() && isTooBig(matcher.group(4))) {
+                    add(sizeKey(matcher.group(1) + "::" + matcher.group(2), Integer.parseInt(matcher.group(3))),
+                            matcher.group(4).trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the events of a JFR recording into a profile.
+     */
+    interface RecordingReader {
+
+        /**
+         * @param recording
+         *            A JFR recording.
+         * @param profile
+         *            The profile to add the events to.
+         * @throws IOException
+         *             In case the recording cannot be read.
+         */
+        void read(Path recording, InliningProfile profile) throws IOException;
+
+    }
+
+    /**
+     * @param recording
+     *            A JFR recording.
+     * @throws IOException
+     *             In case the recording cannot be read or the <code>jfr</code> artifact is missing.
+     */
+    void readRecording(final Path recording) throws IOException {
+        final RecordingReader reader;
+        try {
+            reader = (RecordingReader) Class.forName(JFR_READER).getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError exception) {
+            throw new IOException("Reading JFR recordings requires JDK 11 and the jfr artifact on the class path",
+                    exception);
+        }
+        reader.read(recording, this);
+    }
+
+    /** C2 reports <code>too big</code>, C1 reports <code>callee is too large</code>. */
+    static boolean isTooBig(final String message) {
+        return message.contains(TOO_BIG) || message.contains(TOO_LARGE);
+    }
+
+    /**
+     * @param key
+     *            The rejected method in <code>Class::method</code> notation followed by its descriptor.
+     * @param reason
+     *            The message of the JIT.
+     */
+    void reject(final String key, final String reason) {
+        add(key, reason);
+    }
+
+    void sample(final String key) {
+        final Long previous = samples.get(key);
+        samples.put(key, Long.valueOf(previous == null ? 1 : previous.longValue() + 1));
+    }
+
+    void compile(final String key) {
+        final Integer previous = compilations.get(key);
+        compilations.put(key, Integer.valueOf(previous == null ? 1 : previous.intValue() + 1));
+    }
+
+    /**
+     * @param method
+     *            A measured method.
+     * @return The too-big rejections of the given method, if any.
+     */
+    @Nullable
+    Rejection getRejection(final MethodBudget method) {
+        final Rejection byDescriptor = rejections.get(method.getKey());
+        final Rejection bySize = rejections.get(sizeKey(method.getClassName() + "::" + method.getName(),
+                method.getCodeLength()));
+        if (byDescriptor == null || bySize == null) {
+            return byDescriptor == null ? bySize : byDescriptor;
+        }
+        final Rejection both = new Rejection();
+        both.add(byDescriptor.count, byDescriptor.reason);
+        both.add(bySize.count, bySize.reason);
+        return both;
+    }
+
+    /**
+     * @param method
+     *            A measured method.
+     * @return The number of execution samples whose top frame is the given method.
+     */
+    long getSamples(final MethodBudget method) {
+        final Long count = samples.get(method.getKey());
+        return count == null ? 0 : count.longValue();
+    }
+
+    /**
+     * @param method
+     *            A measured method.
+     * @return The number of times the JIT compiled the given method on its own.
+     */
+    int getCompilations(final MethodBudget method) {
+        final Integer count = compilations.get(method.getKey());
+        return count == null ? 0 : count.intValue();
+    }
+
+    private void add(final String key, final String reason) {
+        Rejection rejection = rejections.get(key);
+        if (rejection == null) {
+            rejection = new Rejection();
+            rejections.put(key, rejection);
+        }
+        rejection.add(1, reason);
+    }
+
+    private static String sizeKey(final String method, final int codeLength) {
+        return method + " (" + codeLength + " bytes)";
+    }
+
+}
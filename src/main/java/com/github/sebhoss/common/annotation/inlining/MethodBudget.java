@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * The bytecode size of a single method and the part of it spent on null checks.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class MethodBudget {
+
+    private final String  className;
+    private final String  name;
+    private final String  descriptor;
+    private final int     codeLength;
+    private final int     nullCheckBytes;
+    private final boolean covered;
+
+    MethodBudget(final String className, final String name, final String descriptor, final int codeLength,
+            final int nullCheckBytes, final boolean covered) {
+        this.className = className;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.codeLength = codeLength;
+        this.nullCheckBytes = Math.min(nullCheckBytes, codeLength);
+        this.covered = covered;
+    }
+
+    /**
+     * @return The binary name of the declaring class, e.g. <code>com.example.Outer$Inner</code>.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return The name of the method.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The descriptor of the method.
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * @return The method in the <code>Class::method</code> notation used by HotSpot's logs, followed by its descriptor
+     *         to tell overloads apart, e.g. <code>com.example.Foo::bar(I)V</code>.
+     */
+    public String getKey() {
+        return className + "::" + name + descriptor;
+    }
+
+    /**
+     * @return The length of the bytecode of the method.
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * @return The estimated number of bytes spent on null checks.
+     */
+    public int getNullCheckBytes() {
+        return nullCheckBytes;
+    }
+
+    /**
+     * @return The estimated length of the bytecode without any null checks.
+     */
+    public int getCodeLengthWithoutNullChecks() {
+        return codeLength - nullCheckBytes;
+    }
+
+    /**
+     * @return The share of the bytecode spent on null checks, between <code>0</code> and <code>1</code>.
+     */
+    public double getNullCheckShare() {
+        return codeLength == 0 ? 0 : (double) nullCheckBytes / codeLength;
+    }
+
+    /**
+     * @return <code>true</code> if the method is covered by {@link NotNullByDefault}.
+     */
+    public boolean isCovered() {
+        return covered;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Estimates how many bytes of a method's bytecode are spent on null checks. Counted are
+ * <ul>
+ * <li>calls to {@link Nullsafe} and <code>Objects.requireNonNull</code> including their message constant and a
+ * discarded result,
+ * <li><code>IFNULL</code>/<code>IFNONNULL</code> and <code>ACONST_NULL</code> comparisons including the load of the
+ * checked local variable,
+ * <li>explicit <code>throw new NullPointerException(...)</code> sequences.
+ * </ul>
+ * Instruction sizes are derived from their operands, ignoring <code>LDC_W</code> and <code>GOTO_W</code>, so the result
+ * is an estimate which is exact for the common case of small methods.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class NullCheckBytes {
+
+    private static final String NULLSAFE = Type.getInternalName(Nullsafe.class);
+    private static final String OBJECTS  = "java/util/Objects";
+    private static final String NPE      = "java/lang/NullPointerException";
+
+    /**
+     * @param method
+     *            The method to inspect.
+     * @return The estimated number of bytes spent on null checks.
+     */
+    static int estimate(final MethodNode method) {
+        int bytes = 0;
+        AbstractInsnNode instruction = method.instructions.getFirst();
+        while (instruction != null) {
+            final int opcode = instruction.getOpcode();
+            if (opcode == Opcodes.IFNULL || opcode == Opcodes.IFNONNULL) {
+                bytes += sizeOf(instruction) + loadSize(previous(instruction));
+            } else if (opcode == Opcodes.IF_ACMPEQ || opcode == Opcodes.IF_ACMPNE) {
+                final AbstractInsnNode constant = previous(instruction);
+                if (constant != null && constant.getOpcode() == Opcodes.ACONST_NULL) {
+                    bytes += sizeOf(instruction) + sizeOf(constant) + loadSize(previous(constant));
+                }
+            } else if (isNullCheckCall(instruction)) {
+                bytes += sizeOf(instruction);
+                AbstractInsnNode argument = previous(instruction);
+                if (Type.getArgumentTypes(((MethodInsnNode) instruction).desc).length == 2 && argument != null
+                        && argument.getOpcode() == Opcodes.LDC) {
+                    bytes += sizeOf(argument);
+                    argument = previous(argument);
+                }
+                final AbstractInsnNode result = next(instruction);
+                if (result != null && result.getOpcode() == Opcodes.POP) {
+                    bytes += sizeOf(result) + loadSize(argument);
+                }
+            } else if (opcode == Opcodes.NEW && NPE.equals(((TypeInsnNode) instruction).desc)) {
+                int sequence = 0;
+                AbstractInsnNode current = instruction;
+                while (current != null && current.getOpcode() != Opcodes.ATHROW && !endsBlock(current)) {
+                    sequence += sizeOf(current);
+                    current = current.getNext();
+                }
+                if (current != null && current.getOpcode() == Opcodes.ATHROW) {
+                    bytes += sequence + sizeOf(current);
+                    instruction = current;
+                }
+            }
+            instruction = instruction.getNext();
+        }
+        return bytes;
+    }
+
+    private static boolean isNullCheckCall(final AbstractInsnNode instruction) {
+        if (instruction.getOpcode() != Opcodes.INVOKESTATIC) {
+            return false;
+        }
+        final MethodInsnNode call = (MethodInsnNode) instruction;
+        return NULLSAFE.equals(call.owner) && "nullsafe".equals(call.name) || OBJECTS.equals(call.owner)
+                && "requireNonNull".equals(call.name);
+    }
+
+    private static boolean endsBlock(final AbstractInsnNode instruction) {
+        final int opcode = instruction.getOpcode();
+        return instruction.getType() == AbstractInsnNode.JUMP_INSN || opcode >= Opcodes.IRETURN
+                && opcode <= Opcodes.RETURN;
+    }
+
+    private static int loadSize(@Nullable final AbstractInsnNode instruction) {
+        return instruction != null && instruction.getOpcode() == Opcodes.ALOAD ? sizeOf(instruction) : 0;
+    }
+
+    @Nullable
+    private static AbstractInsnNode previous(final AbstractInsnNode instruction) {
+        AbstractInsnNode previous = instruction.getPrevious();
+        while (previous != null && previous.getOpcode() < 0) {
+            previous = previous.getPrevious();
+        }
+        return previous;
+    }
+
+    @Nullable
+    private static AbstractInsnNode next(final AbstractInsnNode instruction) {
+        AbstractInsnNode next = instruction.getNext();
+        while (next != null && next.getOpcode() < 0) {
+            next = next.getNext();
+        }
+        return next;
+    }
+
+    private static int sizeOf(final AbstractInsnNode instruction) {
+        switch (instruction.getType()) {
+            case AbstractInsnNode.LABEL:
+            case AbstractInsnNode.LINE:
+            case AbstractInsnNode.FRAME:
+                return 0;
+            case AbstractInsnNode.INT_INSN:
+                return instruction.getOpcode() == Opcodes.SIPUSH ? 3 : 2;
+            case AbstractInsnNode.VAR_INSN:
+                final int slot = ((VarInsnNode) instruction).var;
+                return slot <= 3 && instruction.getOpcode() != Opcodes.RET ? 1 : slot <= 0xFF ? 2 : 4;
+            case AbstractInsnNode.IINC_INSN:
+                final IincInsnNode increment = (IincInsnNode) instruction;
+                return increment.var <= 0xFF && increment.incr >= Byte.MIN_VALUE && increment.incr <= Byte.MAX_VALUE ? 3
+                        : 6;
+            case AbstractInsnNode.LDC_INSN:
+                final Object constant = ((LdcInsnNode) instruction).cst;
+                return constant instanceof Long || constant instanceof Double ? 3 : 2;
+            case AbstractInsnNode.METHOD_INSN:
+                return instruction.getOpcode() == Opcodes.INVOKEINTERFACE ? 5 : 3;
+            case AbstractInsnNode.INVOKE_DYNAMIC_INSN:
+                return 5;
+            case AbstractInsnNode.MULTIANEWARRAY_INSN:
+                return 4;
+            case AbstractInsnNode.TYPE_INSN:
+            case AbstractInsnNode.FIELD_INSN:
+            case AbstractInsnNode.JUMP_INSN:
+                return 3;
+            default:
+                return 1;
+        }
+    }
+
+    private NullCheckBytes() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Compares two {@link SuppressionTable tables} in a single pass over their sorted columns. The dictionaries of both
+ * tables are merged first, which maps every file and value to a rank shared by both tables, so that rows are compared
+ * as integers afterwards. Suppressions are matched by file and value only: a suppression which merely moved to
+ * another line is not reported.
+ * <p/>
+ * Usage: <code>InventoryDiff &lt;old table&gt; &lt;new table&gt;</code> prints removed suppressions prefixed by
+ * <code>-</code> and added ones prefixed by <code>+</code>.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class InventoryDiff {
+
+    /**
+     * Receives the differences found by {@link InventoryDiff#diff(SuppressionTable, SuppressionTable, Listener)}.
+     */
+    public interface Listener {
+
+        /**
+         * @param table
+         *            The old table.
+         * @param row
+         *            The row which has no counterpart in the new table.
+         */
+        void removed(SuppressionTable table, int row);
+
+        /**
+         * @param table
+         *            The new table.
+         * @param row
+         *            The row which has no counterpart in the old table.
+         */
+        void added(SuppressionTable table, int row);
+
+    }
+
+    /**
+     * @param args
+     *            The old and the new table.
+     * @throws IOException
+     *             In case a table cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: InventoryDiff <old table> <new table>");
+            return;
+        }
+        final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out,
+                StandardCharsets.UTF_8), 65536));
+        final long start = System.nanoTime();
+        final int[] counts = new int[2];
+        diff(SuppressionTable.open(Paths.get(args[0])), SuppressionTable.open(Paths.get(args[1])), new Listener() {
+
+            @Override
+            public void removed(final SuppressionTable table, final int row) {
+                print("- ", table, row);
+                counts[0]++;
+            }
+
+            @Override
+            public void added(final SuppressionTable table, final int row) {
+                print("+ ", table, row);
+                counts[1]++;
+            }
+
+            private void print(final String prefix, final SuppressionTable table, final int row) {
+                final int value = table.getValueId(row);
+                out.append(prefix).append(table.getFile(table.getFileId(row))).append(':')
+                        .append(String.valueOf(table.getLine(row))).append('\t').append(table.getValue(value))
+                        .append('\t').append(table.getCatalog(value).name()).append('\n');
+            }
+
+        });
+        out.flush();
+        System.err.println(counts[0] + " removed, " + counts[1] + " added in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * @param before
+     *            The old table.
+     * @param after
+     *            The new table.
+     * @param listener
+     *            The listener to notify, in the order of the rows.
+     */
+    public static void diff(final SuppressionTable before, final SuppressionTable after, final Listener listener) {
+        final int[][] files = ranks(before, after, true);
+        final int[][] values = ranks(before, after, false);
+        final int[] beforeFiles = files[0];
+        final int[] afterFiles = files[1];
+        final int[] beforeValues = values[0];
+        final int[] afterValues = values[1];
+
+        final int beforeRows = before.getRowCount();
+        final int afterRows = after.getRowCount();
+        int beforeRow = 0;
+        int afterRow = 0;
+        while (beforeRow < beforeRows && afterRow < afterRows) {
+            int order = Integer.compare(beforeFiles[before.getFileId(beforeRow)],
+                    afterFiles[after.getFileId(afterRow)]);
+            if (order == 0) {
+                order = Integer.compare(beforeValues[before.getValueId(beforeRow)],
+                        afterValues[after.getValueId(afterRow)]);
+            }
+            if (order < 0) {
+                listener.removed(before, beforeRow++);
+            } else if (order > 0) {
+                listener.added(after, afterRow++);
+            } else {
+                beforeRow++;
+                afterRow++;
+            }
+        }
+        while (beforeRow < beforeRows) {
+            listener.removed(before, beforeRow++);
+        }
+        while (afterRow < afterRows) {
+            listener.added(after, afterRow++);
+        }
+    }
+
+    /**
+     * Merges the sorted dictionaries of both tables.
+     *
+     * @return The rank of each entry of the first and of the second dictionary, equal entries sharing their rank.
+     */
+    private static int[][] ranks(final SuppressionTable before, final SuppressionTable after, final boolean files) {
+        final int beforeSize = files ? before.getFileCount() : before.getValueCount();
+        final int afterSize = files ? after.getFileCount() : after.getValueCount();
+        final int[] beforeRanks = new int[beforeSize];
+        final int[] afterRanks = new int[afterSize];
+        int beforeIndex = 0;
+        int afterIndex = 0;
+        int rank = 0;
+        String beforeName = beforeSize == 0 ? "" : nameOf(before, 0, files);
+        String afterName = afterSize == 0 ? "" : nameOf(after, 0, files);
+        while (beforeIndex < beforeSize || afterIndex < afterSize) {
+            final int order;
+            if (beforeIndex == beforeSize) {
+                order = 1;
+            } else if (afterIndex == afterSize) {
+                order = -1;
+            } else {
+                order = beforeName.compareTo(afterName);
+            }
+            if (order <= 0) {
+                beforeRanks[beforeIndex++] = rank;
+                if (beforeIndex < beforeSize) {
+                    beforeName = nameOf(before, beforeIndex, files);
+                }
+            }
+            if (order >= 0) {
+                afterRanks[afterIndex++] = rank;
+                if (afterIndex < afterSize) {
+                    afterName = nameOf(after, afterIndex, files);
+                }
+            }
+            rank++;
+        }
+        return new int[][] { beforeRanks, afterRanks };
+    }
+
+    private static String nameOf(final SuppressionTable table, final int id, final boolean files) {
+        return files ? table.getFile(id) : table.getValue(id);
+    }
+
+    private InventoryDiff() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Finds {@link SuppressWarnings} values in source trees without compiling them. Directories are walked by a
+ * {@link ForkJoinPool}, each subdirectory and each batch of files being a task of its own. Files are memory-mapped,
+ * copied into an array by a single bulk transfer and handed to a lexer which only looks at annotations, see
+ * {@link #scan(Path)}. Hidden directories and symbolic links are skipped.
+ * <p/>
+ * Usage: <code>SourceScanner [-j threads] [-o table] &lt;directory or file&gt;...</code> prints one line per value to
+ * standard output, or writes them into a {@link SuppressionTable}, and the totals to standard error.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SourceScanner {
+
+    private static final String JAVA_SUFFIX = ".java";
+    private static final int    BATCH_SIZE  = 16;
+
+    private final int           parallelism;
+
+    /**
+     * @param parallelism
+     *            The number of worker threads to use.
+     */
+    public SourceScanner(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param args
+     *            <code>-j threads</code> and <code>-o table</code> optionally, followed by the directories and files to
+     *            scan.
+     * @throws IOException
+     *             In case a directory cannot be listed or a file cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        @Nullable
+        Path table = null;
+        final List<Path> roots = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            if ("-j".equals(args[index]) && index + 1 < args.length) {
+                parallelism = Integer.parseInt(args[++index]);
+            } else if ("-o".equals(args[index]) && index + 1 < args.length) {
+                table = Paths.get(args[++index]);
+            } else {
+                roots.add(Paths.get(args[index]));
+            }
+        }
+        final long start = System.nanoTime();
+        final List<SourceSuppression> suppressions = new SourceScanner(parallelism).scan(roots);
+        final long millis = (System.nanoTime() - start) / 1_000_000;
+        if (table != null) {
+            SuppressionTable.write(table, suppressions);
+        } else {
+            final PrintStream out = System.out;
+            for (final SourceSuppression suppression : suppressions) {
+                out.println(suppression.getFile() + ":" + suppression.getLine() + "\t" + suppression.getValue() + "\t"
+                        + suppression.getCatalog());
+            }
+        }
+        System.err.println(suppressions.size() + " suppressions in " + millis + " ms using " + parallelism
+                + " threads");
+    }
+
+    /**
+     * @param file
+     *            A UTF-8 encoded Java source file.
+     * @return The values of all {@link SuppressWarnings} annotations in the file, in source order.
+     * @throws IOException
+     *             In case the file cannot be mapped.
+     */
+    public static List<SourceSuppression> scan(final Path file) throws IOException {
+        final MappedByteBuffer source;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                return Collections.emptyList();
+            } else if (size > Integer.MAX_VALUE) {
+                throw new IOException("Source file too large: " + file);
+            }
+            source = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        final byte[] bytes = new byte[source.remaining()];
+        source.get(bytes);
+        return SuppressionLexer.scan(file, bytes, bytes.length);
+    }
+
+    /**
+     * @param roots
+     *            The directories and files to scan.
+     * @return The values of all {@link SuppressWarnings} annotations, ordered by root, directory and file name, and
+     *         position.
+     * @throws IOException
+     *             In case a directory cannot be listed or a file cannot be read.
+     */
+    public List<SourceSuppression> scan(final List<Path> roots) throws IOException {
+        final List<ScanTask> tasks = new ArrayList<>(roots.size());
+        for (final Path root : roots) {
+            tasks.add(Files.isDirectory(root) ? new DirectoryTask(root) : new FilesTask(Collections
+                    .singletonList(root)));
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new ScanAll(tasks));
+        } catch (final UncheckedIOException exception) {
+            throw exception.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private abstract static class ScanTask extends RecursiveTask<List<SourceSuppression>> {
+
+        private static final long serialVersionUID = 1L;
+
+        static List<SourceSuppression> joinAll(final List<ScanTask> tasks) {
+            invokeAll(tasks);
+            final List<SourceSuppression> suppressions = new ArrayList<>();
+            for (final ScanTask task : tasks) {
+                suppressions.addAll(task.join());
+            }
+            return suppressions;
+        }
+
+    }
+
+    private static final class ScanAll extends ScanTask {
+
+        private static final long    serialVersionUID = 1L;
+
+        private final List<ScanTask> tasks;
+
+        ScanAll(final List<ScanTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected List<SourceSuppression> compute() {
+            return joinAll(tasks);
+        }
+
+    }
+
+    private static final class DirectoryTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path        directory;
+
+        DirectoryTask(final Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<SourceSuppression> compute() {
+            final List<Path> directories = new ArrayList<>();
+            final List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (final Path child : children) {
+                    final String name = String.valueOf(child.getFileName());
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        if (!name.startsWith(".")) {
+                            directories.add(child);
+                        }
+                    } else if (name.endsWith(JAVA_SUFFIX) && Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS)) {
+                        files.add(child);
+                    }
+                }
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            Collections.sort(directories);
+            Collections.sort(files);
+            final List<ScanTask> tasks = new ArrayList<>(directories.size() + files.size() / BATCH_SIZE + 1);
+            for (final Path child : directories) {
+                tasks.add(new DirectoryTask(child));
+            }
+            for (int start = 0; start < files.size(); start += BATCH_SIZE) {
+                tasks.add(new FilesTask(files.subList(start, Math.min(files.size(), start + BATCH_SIZE))));
+            }
+            return joinAll(tasks);
+        }
+
+    }
+
+    private static final class FilesTask extends ScanTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path>  files;
+
+        FilesTask(final List<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected List<SourceSuppression> compute() {
+            final List<SourceSuppression> suppressions = new ArrayList<>();
+            for (final Path file : files) {
+                try {
+                    suppressions.addAll(scan(file));
+                } catch (final IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }
+            return suppressions;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.nio.file.Path;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDWarnings;
+
+/**
+ * A single value of a {@link SuppressWarnings} annotation found by the {@link SourceScanner}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SourceSuppression {
+
+    private final Path           file;
+    private final int            line;
+    private final String         value;
+    @Nullable
+    private final String         constant;
+    private final WarningCatalog catalog;
+
+    /**
+     * @param file
+     *            The source file containing the annotation.
+     * @param line
+     *            The line of the value, starting at 1.
+     * @param value
+     *            The suppressed warning.
+     * @param constant
+     *            The constant the value was read from, e.g. <code>CompilerWarnings.NLS</code>, or <code>null</code>
+     *            for string literals.
+     */
+    public SourceSuppression(final Path file, final int line, final String value, @Nullable final String constant) {
+        this.file = file;
+        this.line = line;
+        this.value = value;
+        this.constant = constant;
+        catalog = WarningCatalog.of(value);
+    }
+
+    /**
+     * @return The source file containing the annotation.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The line of the value, starting at 1.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return The suppressed warning, e.g. <code>"unchecked"</code>.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return The {@link CompilerWarnings} or {@link PMDWarnings} constant the value was read from, or
+     *         <code>null</code> for string literals.
+     */
+    @Nullable
+    public String getConstant() {
+        return constant;
+    }
+
+    /**
+     * @return The catalog listing the suppressed warning.
+     */
+    public WarningCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public String toString() {
+        return file + ":" + line + " " + value + " (" + catalog + ")";
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.List;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+
+/**
+ * The lines of a source file in which PMD rules are suppressed, either by a {@link SuppressWarnings} annotation, which
+ * covers the lines of the declaration it annotates, or by a <code>NOPMD</code> comment, which covers its line.
+ * <p/>
+ * The regions also define the <em>normalized</em> source of the file: the source without its {@link SuppressWarnings}
+ * annotations, an annotation on a line of its own being removed with its line, and without its <code>NOPMD</code>
+ * comments, which leave their line break behind. Adding, changing or removing suppressions leaves the normalized
+ * source untouched, while lines are translated between both forms by {@link #toNormalizedLine(int)} and
+ * {@link #toLine(int)}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressedRegions {
+
+    private final byte[]           source;
+    private final int              length;
+    private final int[]            starts;
+    private final int[]            ends;
+    private final int[]            firstLines;
+    private final int[]            lastLines;
+    private final SuppressionSet[] values;
+    private final BitSet           markers;
+    private final BitSet           comments;
+    private final int[]            removedLines;
+    private final SuppressionSet   fileValues;
+
+    SuppressedRegions(final byte[] source, final int length, final List<SuppressionLexer.Region> regions,
+            final BitSet markers, final BitSet comments, final SuppressionSet fileValues) {
+        this.source = source;
+        this.length = length;
+        this.markers = markers;
+        this.comments = comments;
+        this.fileValues = fileValues;
+        final int size = regions.size();
+        starts = new int[size];
+        ends = new int[size];
+        firstLines = new int[size];
+        lastLines = new int[size];
+        values = new SuppressionSet[size];
+        int removed = 0;
+        int previousEnd = 0;
+        for (int index = 0; index < size; index++) {
+            final SuppressionLexer.Region region = regions.get(index);
+            int start = region.start;
+            int end = region.end;
+            while (start > previousEnd && isBlank(source[start - 1])) {
+                start--;
+            }
+            int after = end;
+            while (after < length && (isBlank(source[after]) || source[after] == '\r')) {
+                after++;
+            }
+            if ((start == 0 || source[start - 1] == '\n') && (after == length || source[after] == '\n')) {
+                end = after == length ? after : after + 1;
+            } else {
+                // keep the blanks before an annotation sharing its line, but not those after it
+                start = region.start;
+                while (end < length && isBlank(source[end])) {
+                    end++;
+                }
+            }
+            for (int position = start; position < end; position++) {
+                if (source[position] == '\n') {
+                    removed++;
+                }
+            }
+            starts[index] = start;
+            ends[index] = end;
+            previousEnd = end;
+            firstLines[index] = region.line;
+            lastLines[index] = region.endLine;
+            values[index] = region.values;
+        }
+        // an annotation starts on the line of its region, so its n-th line break ends its n-th line
+        removedLines = new int[removed];
+        removed = 0;
+        for (int index = 0; index < size; index++) {
+            int line = firstLines[index];
+            for (int position = starts[index]; position < ends[index]; position++) {
+                if (source[position] == '\n') {
+                    removedLines[removed++] = line++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param file
+     *            The file to report as the location of suppressions.
+     * @param source
+     *            The UTF-8 encoded content of the file.
+     * @param length
+     *            The number of bytes to read from the start of <code>source</code>.
+     * @return The suppressed regions of the given source.
+     */
+    public static SuppressedRegions scan(final Path file, final byte[] source, final int length) {
+        return SuppressionLexer.regions(file, source, length);
+    }
+
+    /**
+     * @param rule
+     *            Some rule.
+     * @param line
+     *            A line of the source, starting at 1.
+     * @return <code>true</code> if a violation of the given rule reported at the given line is suppressed.
+     */
+    public boolean isSuppressed(final PMDRule rule, final int line) {
+        if (markers.get(line)) {
+            return true;
+        }
+        for (int index = 0; index < values.length && firstLines[index] <= line; index++) {
+            if (line <= lastLines[index] && values[index].contains(rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The warnings suppressed for the whole file, that is by the annotations of each of its top-level types.
+     */
+    public SuppressionSet getFileSuppressions() {
+        return fileValues;
+    }
+
+    /**
+     * @return The number of {@link SuppressWarnings} annotations.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param digest
+     *            The digest to update with the normalized source.
+     */
+    public void digest(final MessageDigest digest) {
+        int position = 0;
+        for (int index = 0; index <= starts.length; index++) {
+            final int start = index < starts.length ? starts[index] : length;
+            // comments may share their blanks with the end of an annotation
+            for (int comment = comments.nextSetBit(position); comment >= 0 && comment < start; comment = comments
+                    .nextSetBit(position)) {
+                digest.update(source, position, comment - position);
+                position = comments.nextClearBit(comment);
+            }
+            if (start > position) {
+                digest.update(source, position, start - position);
+            }
+            position = Math.max(position, index < starts.length ? ends[index] : length);
+        }
+    }
+
+    /**
+     * @param line
+     *            A line of the source, starting at 1.
+     * @return The corresponding line of the normalized source.
+     */
+    public int toNormalizedLine(final int line) {
+        int normalized = line;
+        for (final int removed : removedLines) {
+            if (removed >= line) {
+                break;
+            }
+            normalized--;
+        }
+        return normalized;
+    }
+
+    /**
+     * @param normalizedLine
+     *            A line of the normalized source, starting at 1.
+     * @return The corresponding line of the source.
+     */
+    public int toLine(final int normalizedLine) {
+        int line = normalizedLine;
+        for (final int removed : removedLines) {
+            if (removed > line) {
+                break;
+            }
+            line++;
+        }
+        return line;
+    }
+
+    private static boolean isBlank(final byte current) {
+        return current == ' ' || current == '\t';
+    }
+
+}
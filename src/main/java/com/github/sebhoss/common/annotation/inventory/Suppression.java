@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+
+/**
+ * A single value of a {@link SuppressWarnings} annotation together with the element it is declared on.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class Suppression {
+
+    private final String         type;
+    private final ElementKind    kind;
+    private final String         element;
+    private final String         value;
+    private final WarningCatalog catalog;
+
+    /**
+     * @param type
+     *            The binary name of the top-level type declaring the element, or <code>module-info</code>.
+     * @param kind
+     *            The kind of the annotated element.
+     * @param element
+     *            The name of the annotated element, e.g. <code>com.example.Foo#bar(java.lang.String)</code>.
+     * @param value
+     *            The suppressed warning.
+     */
+    public Suppression(final String type, final ElementKind kind, final String element, final String value) {
+        this.type = type;
+        this.kind = kind;
+        this.element = element;
+        this.value = value;
+        catalog = WarningCatalog.of(value);
+    }
+
+    /**
+     * @return The binary name of the top-level type declaring the annotated element.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The kind of the annotated element.
+     */
+    public ElementKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The name of the annotated element.
+     */
+    public String getElement() {
+        return element;
+    }
+
+    /**
+     * @return The suppressed warning, e.g. <code>"unchecked"</code>.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return The catalog listing the suppressed warning.
+     */
+    public WarningCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return The suppressed PMD rule or <code>null</code> if the value does not name a single PMD rule.
+     */
+    @Nullable
+    public PMDRule getRule() {
+        return PMDRule.fromKey(value);
+    }
+
+    @Override
+    public String toString() {
+        return element + " " + value + " (" + catalog + ")";
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.classfile.JarArchive;
+
+/**
+ * The {@link SuppressWarnings} values of a class output directory or JAR archive, as written by the
+ * <code>SuppressionInventoryProcessor</code>. Each top-level type owns one fragment, a UTF-8 text file below
+ * {@link #LOCATION} holding one line per value with the element kind, the element name and the value separated by
+ * tabs, and types without suppressions own an empty fragment. Opening an inventory only lists the fragments, each
+ * fragment is parsed the first time it is asked for.
+ * <p/>
+ * Fragments of directories whose type has no class file anymore are left over from deleted sources and are skipped.
+ * Usage: <code>SuppressionInventory &lt;classes directory or JAR&gt;...</code> prints how often each value is used.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressionInventory {
+
+    /** The directory holding the fragments, relative to the class output. */
+    public static final String                LOCATION     = "META-INF/suppressions/";
+
+    /** The file extension of fragments. */
+    public static final String                EXTENSION    = ".tsv";
+
+    private static final String               MODULE_INFO  = "module-info";
+
+    private final SortedMap<String, Fragment> fragments;
+
+    private static final class Fragment {
+
+        @Nullable
+        private final Path                 file;
+        @Nullable
+        private final JarArchive           archive;
+        @Nullable
+        private final JarArchive.Entry     entry;
+        @Nullable
+        private volatile List<Suppression> suppressions;
+
+        Fragment(@Nullable final Path file, @Nullable final JarArchive archive,
+                @Nullable final JarArchive.Entry entry) {
+            this.file = file;
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        List<Suppression> load(final String type) throws IOException {
+            List<Suppression> loaded = suppressions;
+            if (loaded == null) {
+                loaded = Collections.unmodifiableList(parse(type, read()));
+                suppressions = loaded;
+            }
+            return loaded;
+        }
+
+        private String read() throws IOException {
+            if (file != null) {
+                return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            } else if (archive != null && entry != null) {
+                return StandardCharsets.UTF_8.decode(archive.read(entry)).toString();
+            }
+            throw new IllegalStateException("Fragment without location");
+        }
+
+    }
+
+    private SuppressionInventory(final SortedMap<String, Fragment> fragments) {
+        this.fragments = fragments;
+    }
+
+    /**
+     * @param args
+     *            The class output directories and JAR archives to read.
+     * @throws IOException
+     *             In case a fragment cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        final SortedMap<String, int[]> counts = new TreeMap<>();
+        for (final String arg : args) {
+            for (final Suppression suppression : open(Paths.get(arg)).getSuppressions()) {
+                final String key = suppression.getValue() + "\t" + suppression.getCatalog();
+                final int[] count = counts.get(key);
+                if (count == null) {
+                    counts.put(key, new int[] { 1 });
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+        final PrintStream out = System.out;
+        for (final Map.Entry<String, int[]> count : counts.entrySet()) {
+            out.println(count.getValue()[0] + "\t" + count.getKey());
+        }
+    }
+
+    /**
+     * @param path
+     *            A class output directory or a JAR archive.
+     * @return The inventory of the given location, empty if it holds no fragments.
+     * @throws IOException
+     *             In case the location cannot be listed.
+     */
+    public static SuppressionInventory open(final Path path) throws IOException {
+        final SortedMap<String, Fragment> fragments = new TreeMap<>();
+        if (Files.isDirectory(path)) {
+            final Path location = path.resolve(LOCATION);
+            if (Files.isDirectory(location)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(location, "*" + EXTENSION)) {
+                    for (final Path file : files) {
+                        final String type = typeOf(String.valueOf(file.getFileName()));
+                        if (isPresent(path, type)) {
+                            fragments.put(type, new Fragment(file, null, null));
+                        }
+                    }
+                }
+            }
+        } else {
+            final JarArchive archive = JarArchive.open(path);
+            for (final JarArchive.Entry entry : archive.getEntries()) {
+                final String name = entry.getName();
+                if (name.startsWith(LOCATION) && name.endsWith(EXTENSION) && name.indexOf('/', LOCATION.length()) < 0) {
+                    fragments.put(typeOf(name.substring(LOCATION.length())), new Fragment(null, archive, entry));
+                }
+            }
+        }
+        return new SuppressionInventory(Collections.unmodifiableSortedMap(fragments));
+    }
+
+    /**
+     * @return The binary names of all inventoried top-level types, in ascending order, including those without
+     *         suppressions.
+     */
+    public Set<String> getTypes() {
+        return fragments.keySet();
+    }
+
+    /**
+     * @param type
+     *            The binary name of a top-level type.
+     * @return The suppressions declared by the given type and its members, empty for unknown types.
+     * @throws IOException
+     *             In case the fragment of the type cannot be read.
+     */
+    public List<Suppression> getSuppressions(final String type) throws IOException {
+        final Fragment fragment = fragments.get(type);
+        return fragment == null ? Collections.<Suppression> emptyList() : fragment.load(type);
+    }
+
+    /**
+     * @return The suppressions of all types, ordered by type.
+     * @throws IOException
+     *             In case a fragment cannot be read.
+     */
+    public List<Suppression> getSuppressions() throws IOException {
+        final List<Suppression> suppressions = new ArrayList<>();
+        for (final Map.Entry<String, Fragment> fragment : fragments.entrySet()) {
+            suppressions.addAll(fragment.getValue().load(fragment.getKey()));
+        }
+        return suppressions;
+    }
+
+    private static String typeOf(final String fileName) {
+        return fileName.substring(0, fileName.length() - EXTENSION.length());
+    }
+
+    private static boolean isPresent(final Path classes, final String type) {
+        return MODULE_INFO.equals(type) || Files.exists(classes.resolve(type.replace('.', '/') + ".class"));
+    }
+
+    private static ElementKind kindOf(final String name) {
+        try {
+            return ElementKind.valueOf(name);
+        } catch (final IllegalArgumentException exception) {
+            // written by a newer compiler, e.g. RECORD on Java 8
+            return ElementKind.OTHER;
+        }
+    }
+
+    private static List<Suppression> parse(final String type, final String fragment) throws IOException {
+        final List<Suppression> suppressions = new ArrayList<>();
+        int start = 0;
+        while (start < fragment.length()) {
+            int end = fragment.indexOf('\n', start);
+            if (end < 0) {
+                end = fragment.length();
+            }
+            final int first = fragment.indexOf('\t', start);
+            final int second = first < 0 ? -1 : fragment.indexOf('\t', first + 1);
+            if (second < 0 || second > end) {
+                throw new IOException("Malformed line in suppression fragment of " + type + ": "
+                        + fragment.substring(start, end));
+            }
+            suppressions.add(new Suppression(type, kindOf(fragment.substring(start, first)), fragment.substring(
+                    first + 1, second), fragment.substring(second + 1, end)));
+            start = end + 1;
+        }
+        return suppressions;
+    }
+
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDWarnings;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+
+/**
+ * Finds the values of {@link SuppressWarnings} annotations in UTF-8 encoded Java source code without parsing it. The
+ * lexer skips comments, character literals and text blocks, and looks at the tokens following an <code>@</code> only.
+ * Values are string literals or {@link CompilerWarnings} and {@link PMDWarnings} constants, which are resolved when
+ * they are qualified by their class or imported statically. Unicode escapes outside of string literals and values
+ * computed by concatenation are not supported.
+ * <p/>
+ * When asked for {@link SuppressedRegions}, the lexer additionally tracks the nesting of braces and parentheses in
+ * order to find the end of each annotated declaration, and notes the lines and extents of <code>NOPMD</code> comments.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class SuppressionLexer {
+
+    private static final int                 EOF         = -1;
+    private static final int                 IDENTIFIER  = -2;
+    private static final int                 STRING      = -3;
+    private static final int                 OTHER       = -4;
+
+    private static final String              ANNOTATION  = SuppressWarnings.class.getSimpleName();
+    private static final byte[]              IMPORT      = bytesOf("import");
+    private static final byte[]              STATIC      = bytesOf("static");
+    private static final byte[]              NOPMD       = bytesOf("NOPMD");
+    private static final Map<String, String> CONSTANTS   = new HashMap<>();
+    private static final Set<String>         CATALOGS    = new HashSet<>();
+
+    static {
+        for (final Class<?> catalog : new Class<?>[] { CompilerWarnings.class, PMDWarnings.class }) {
+            CATALOGS.add(catalog.getSimpleName());
+            for (final Field field : catalog.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                    try {
+                        CONSTANTS.put(catalog.getSimpleName() + "." + field.getName(), (String) field.get(null));
+                    } catch (final IllegalAccessException exception) {
+                        throw new IllegalStateException(exception);
+                    }
+                }
+            }
+        }
+    }
+
+    private final Path                       file;
+    private final byte[]                     source;
+    private final int                        limit;
+    private final List<SourceSuppression>    found       = new ArrayList<>();
+    private final Map<String, String>        imported    = new HashMap<>();
+    private final Set<String>                wildcards   = new HashSet<>();
+    private final boolean                    tracking;
+    private final List<Region>               regions     = new ArrayList<>();
+    private final List<Region>               open        = new ArrayList<>();
+    private final BitSet                     markers     = new BitSet();
+    private final BitSet                     comments    = new BitSet();
+    private SuppressionSet                   throughout  = SuppressionSet.ALL;
+    private boolean                          typeBody;
+    private int                              nesting;
+    private int                              position;
+    private int                              line        = 1;
+    private int                              tokenLine;
+    private int                              tokenStart;
+    private int                              tokenEnd;
+    private boolean                          escaped;
+    private boolean                          pushedBack;
+    private int                              token;
+
+    /**
+     * An annotation and the extent of the declaration it annotates.
+     */
+    static final class Region {
+
+        final int            start;
+        final int            end;
+        final int            line;
+        final int            depth;
+        final SuppressionSet values;
+        int                  endLine;
+        boolean              body;
+
+        Region(final int start, final int end, final int line, final int depth, final SuppressionSet values) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.depth = depth;
+            this.values = values;
+            endLine = line;
+        }
+
+    }
+
+    private SuppressionLexer(final Path file, final byte[] source, final int length, final boolean tracking) {
+        this.file = file;
+        this.source = source;
+        limit = length;
+        this.tracking = tracking;
+    }
+
+    /**
+     * @param file
+     *            The file to report as the location of the found values.
+     * @param source
+     *            The UTF-8 encoded content of the file.
+     * @param length
+     *            The number of bytes to read from the start of <code>source</code>.
+     * @return All values of {@link SuppressWarnings} annotations, in source order.
+     */
+    static List<SourceSuppression> scan(final Path file, final byte[] source, final int length) {
+        final SuppressionLexer lexer = new SuppressionLexer(file, source, length, false);
+        lexer.compilationUnit();
+        return lexer.found.isEmpty() ? Collections.<SourceSuppression> emptyList() : lexer.found;
+    }
+
+    /**
+     * @param file
+     *            The file to report as the location of the found values.
+     * @param source
+     *            The UTF-8 encoded content of the file.
+     * @param length
+     *            The number of bytes to read from the start of <code>source</code>.
+     * @return The regions suppressed by {@link SuppressWarnings} annotations and <code>NOPMD</code> comments.
+     */
+    static SuppressedRegions regions(final Path file, final byte[] source, final int length) {
+        final SuppressionLexer lexer = new SuppressionLexer(file, source, length, true);
+        lexer.compilationUnit();
+        for (final Region region : lexer.open) {
+            region.endLine = lexer.line;
+        }
+        return new SuppressedRegions(source, length, lexer.regions, lexer.markers, lexer.comments,
+                lexer.typeBody ? lexer.throughout : SuppressionSet.EMPTY);
+    }
+
+    private void compilationUnit() {
+        for (int current = next(); current != EOF; current = next()) {
+            if (current == '@') {
+                annotation();
+            } else if (current == IDENTIFIER && isToken(IMPORT)) {
+                importDeclaration();
+            } else if (tracking) {
+                scope(current);
+            }
+        }
+    }
+
+    /**
+     * Closes the regions whose declaration ends with the given token: a declaration without a body ends with a
+     * semicolon, one with a body at its closing brace, and a parameter with the enclosing parenthesis. The body of a
+     * top-level type narrows the values suppressed throughout the file to those of its annotations.
+     */
+    private void scope(final int current) {
+        if (current == '{' || current == '(') {
+            if (current == '{') {
+                if (nesting == 0) {
+                    SuppressionSet annotated = SuppressionSet.EMPTY;
+                    for (final Region region : open) {
+                        if (region.depth == 0) {
+                            annotated = annotated.union(region.values);
+                        }
+                    }
+                    throughout = throughout.intersection(annotated);
+                    typeBody = true;
+                }
+                for (final Region region : open) {
+                    if (!region.body && region.depth == nesting) {
+                        region.body = true;
+                    }
+                }
+            }
+            nesting++;
+        } else if (current == '}' || current == ')' || current == ';') {
+            if (current != ';') {
+                nesting--;
+            }
+            for (int index = open.size() - 1; index >= 0; index--) {
+                final Region region = open.get(index);
+                if (region.body ? nesting == region.depth && current == '}' : nesting < region.depth
+                        || nesting == region.depth && current == ';') {
+                    region.endLine = tokenLine;
+                    open.remove(index);
+                }
+            }
+        }
+    }
+
+    private void importDeclaration() {
+        if (next() != IDENTIFIER || !isToken(STATIC)) {
+            pushedBack = true;
+            return;
+        }
+        final List<String> names = new ArrayList<>();
+        for (int current = next(); current != EOF && current != ';'; current = next()) {
+            if (current == IDENTIFIER) {
+                names.add(tokenText());
+            } else if (current == '*' && !names.isEmpty() && CATALOGS.contains(names.get(names.size() - 1))) {
+                wildcards.add(names.get(names.size() - 1));
+            }
+        }
+        if (names.size() >= 2) {
+            final String constant = names.get(names.size() - 2) + "." + names.get(names.size() - 1);
+            if (CONSTANTS.containsKey(constant)) {
+                imported.put(names.get(names.size() - 1), constant);
+            }
+        }
+    }
+
+    private void annotation() {
+        final int start = tokenStart;
+        final int annotationLine = tokenLine;
+        if (next() != IDENTIFIER) {
+            pushedBack = true;
+            return;
+        }
+        String name = tokenText();
+        while (next() == '.') {
+            if (next() != IDENTIFIER) {
+                pushedBack = true;
+                return;
+            }
+            name = tokenText();
+        }
+        if (token != '(' || !ANNOTATION.equals(name)) {
+            pushedBack = true;
+            return;
+        }
+        final int first = found.size();
+        int depth = 1;
+        while (depth > 0) {
+            final int current = next();
+            if (current == EOF) {
+                return;
+            } else if (current == '(') {
+                depth++;
+            } else if (current == ')') {
+                depth--;
+            } else if (current == STRING) {
+                found.add(new SourceSuppression(file, tokenLine, stringText(), null));
+            } else if (current == IDENTIFIER) {
+                constant();
+            }
+        }
+        if (tracking) {
+            final String[] values = new String[found.size() - first];
+            for (int index = 0; index < values.length; index++) {
+                values[index] = found.get(first + index).getValue();
+            }
+            final Region region = new Region(start, position, annotationLine, nesting, SuppressionSet.of(values));
+            regions.add(region);
+            open.add(region);
+        }
+    }
+
+    private void constant() {
+        final int constantLine = tokenLine;
+        @Nullable
+        String qualifier = null;
+        String name = tokenText();
+        while (next() == '.') {
+            if (next() != IDENTIFIER) {
+                pushedBack = true;
+                return;
+            }
+            qualifier = name;
+            name = tokenText();
+        }
+        pushedBack = true;
+        @Nullable
+        final String constant;
+        if (qualifier != null) {
+            constant = qualifier + "." + name;
+        } else if (imported.containsKey(name)) {
+            constant = imported.get(name);
+        } else {
+            constant = wildcardOf(name);
+        }
+        @Nullable
+        final String value = constant == null ? null : CONSTANTS.get(constant);
+        if (value != null) {
+            found.add(new SourceSuppression(file, constantLine, value, constant));
+        }
+    }
+
+    @Nullable
+    private String wildcardOf(final String name) {
+        for (final String catalog : wildcards) {
+            final String constant = catalog + "." + name;
+            if (CONSTANTS.containsKey(constant)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    private int next() {
+        if (pushedBack) {
+            pushedBack = false;
+            return token;
+        }
+        token = read();
+        return token;
+    }
+
+    private int read() {
+        final byte[] bytes = source;
+        final int end = limit;
+        while (true) {
+            int index = position;
+            int lines = line;
+            while (index < end) {
+                final byte current = bytes[index];
+                if (current == '\n') {
+                    lines++;
+                } else if (current < 0 || current > ' ') {
+                    break;
+                }
+                index++;
+            }
+            line = lines;
+            if (index == end) {
+                position = end;
+                return EOF;
+            }
+            final int start = index;
+            final byte current = bytes[index++];
+            position = index;
+            if (current == '/' && index < end && bytes[index] == '/') {
+                position = skipLine(bytes, index, end);
+                if (tracking && contains(bytes, index + 1, position, NOPMD)) {
+                    markers.set(line);
+                    comment(start);
+                }
+            } else if (current == '/' && index < end && bytes[index] == '*') {
+                skipBlockComment();
+            } else if (current == '"') {
+                return stringLiteral(start);
+            } else if (current == '\'') {
+                skipQuoted('\'');
+                return OTHER;
+            } else if (isIdentifierPart(current)) {
+                position = skipIdentifier(bytes, index, end);
+                return token(start, current >= '0' && current <= '9' ? OTHER : IDENTIFIER);
+            } else {
+                return token(start, current);
+            }
+        }
+    }
+
+    /**
+     * Notes the bytes of the <code>NOPMD</code> comment starting at the given position, together with the blanks in
+     * front of it but without the line break ending it.
+     */
+    private void comment(final int start) {
+        int first = start;
+        while (first > 0 && (source[first - 1] == ' ' || source[first - 1] == '\t')) {
+            first--;
+        }
+        int last = position;
+        if (last > start && source[last - 1] == '\r') {
+            last--;
+        }
+        comments.set(first, last);
+    }
+
+    private int token(final int start, final int type) {
+        tokenLine = line;
+        tokenStart = start;
+        tokenEnd = position;
+        return type;
+    }
+
+    private void skipBlockComment() {
+        final byte[] bytes = source;
+        final int end = limit;
+        int index = position + 1;
+        int lines = line;
+        while (index < end) {
+            final byte current = bytes[index++];
+            if (current == '\n') {
+                lines++;
+            } else if (current == '*' && index < end && bytes[index] == '/') {
+                index++;
+                break;
+            }
+        }
+        position = index;
+        line = lines;
+    }
+
+    private int stringLiteral(final int start) {
+        tokenLine = line;
+        if (position + 1 < limit && source[position] == '"' && source[position + 1] == '"') {
+            // text block, never a warning name
+            position += 2;
+            while (position < limit) {
+                final byte current = source[position++];
+                if (current == '\n') {
+                    line++;
+                } else if (current == '\\') {
+                    position++;
+                } else if (current == '"' && position + 1 < limit && source[position] == '"'
+                        && source[position + 1] == '"') {
+                    position += 2;
+                    break;
+                }
+            }
+            return token(start, OTHER);
+        }
+        escaped = skipQuoted('"');
+        tokenStart = start;
+        tokenEnd = position;
+        return STRING;
+    }
+
+    /**
+     * @return The value of the current string literal, decoded on demand since most literals are of no interest.
+     */
+    private String stringText() {
+        final int length = tokenEnd - tokenStart - (source[tokenEnd - 1] == '"' && tokenEnd - tokenStart > 1 ? 2 : 1);
+        final String raw = new String(source, tokenStart + 1, length, StandardCharsets.UTF_8);
+        return escaped ? unescape(raw) : raw;
+    }
+
+    /**
+     * Moves behind the closing quote of a string or character literal, or to the end of the line if there is none.
+     *
+     * @return <code>true</code> if the literal contains escape sequences.
+     */
+    private boolean skipQuoted(final char quote) {
+        final byte[] bytes = source;
+        final int end = limit;
+        int index = position;
+        boolean escape = false;
+        while (index < end) {
+            final byte current = bytes[index];
+            if (current == '\n') {
+                break;
+            }
+            index++;
+            if (current == '\\') {
+                escape = true;
+                index++;
+            } else if (current == quote) {
+                break;
+            }
+        }
+        position = Math.min(index, end);
+        return escape;
+    }
+
+    private boolean isToken(final byte[] word) {
+        if (tokenEnd - tokenStart != word.length) {
+            return false;
+        }
+        for (int index = 0; index < word.length; index++) {
+            if (source[tokenStart + index] != word[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String tokenText() {
+        return new String(source, tokenStart, tokenEnd - tokenStart, StandardCharsets.UTF_8);
+    }
+
+    private static int skipLine(final byte[] bytes, final int start, final int end) {
+        int index = start;
+        while (index < end && bytes[index] != '\n') {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean contains(final byte[] bytes, final int start, final int end, final byte[] word) {
+        for (int index = start; index <= end - word.length; index++) {
+            int matched = 0;
+            while (matched < word.length && bytes[index + matched] == word[matched]) {
+                matched++;
+            }
+            if (matched == word.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipIdentifier(final byte[] bytes, final int start, final int end) {
+        int index = start;
+        while (index < end && isIdentifierPart(bytes[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isIdentifierPart(final byte current) {
+        return current >= 'a' && current <= 'z' || current >= 'A' && current <= 'Z' || current >= '0'
+                && current <= '9' || current == '_' || current == '$' || current < 0;
+    }
+
+    private static String unescape(final String raw) {
+        final StringBuilder value = new StringBuilder(raw.length());
+        for (int index = 0; index < raw.length(); index++) {
+            final char current = raw.charAt(index);
+            if (current != '\\' || index + 1 == raw.length()) {
+                value.append(current);
+                continue;
+            }
+            final char escape = raw.charAt(++index);
+            switch (escape) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 's':
+                    value.append(' ');
+                    break;
+                case 'u':
+                    while (index + 1 < raw.length() && raw.charAt(index + 1) == 'u') {
+                        index++;
+                    }
+                    value.append(unicode(raw, index + 1));
+                    index += 4;
+                    break;
+                default:
+                    value.append(escape);
+                    break;
+            }
+        }
+        return value.toString();
+    }
+
+    private static char unicode(final String raw, final int start) {
+        try {
+            return (char) Integer.parseInt(raw.substring(start, Math.min(start + 4, raw.length())), 16);
+        } catch (final NumberFormatException exception) {
+            return '\uFFFD';
+        }
+    }
+
+    private static byte[] bytesOf(final String word) {
+        return word.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
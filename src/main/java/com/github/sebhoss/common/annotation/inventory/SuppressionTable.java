@@ -0,0 +1,340 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Memory-mapped, column-oriented inventory of {@link SourceSuppression suppressions}. File names and suppressed values
+ * are stored once in sorted dictionaries, rows refer to them by their index, and rows are sorted by file, value and
+ * line, therefore comparing two tables is a single merge over their columns, see {@link InventoryDiff}.
+ * <p/>
+ * All numbers are big-endian. The layout is:
+ * <ol>
+ * <li>header: magic <code>SUPT</code>, version, number of rows, files and values, as five <code>int</code>s</li>
+ * <li>file dictionary: <code>int</code> offsets of the names, one more than there are files, followed by the UTF-8
+ * encoded names, padded to a multiple of four bytes</li>
+ * <li>value dictionary: the same for values</li>
+ * <li>catalog column: the {@link WarningCatalog} ordinal of each value as a byte, padded</li>
+ * <li>file column: the file of each row as an <code>int</code></li>
+ * <li>line column: the line of each row as an <code>int</code></li>
+ * <li>value column: the value of each row as an unsigned <code>short</code></li>
+ * </ol>
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressionTable {
+
+    private static final int              MAGIC      = 0x53555054;
+    private static final int              VERSION    = 1;
+    private static final int              HEADER     = 20;
+    private static final int              FILE_BITS  = 23;
+    private static final int              VALUE_BITS = 16;
+    private static final int              LINE_BITS  = 25;
+    private static final WarningCatalog[] CATALOGS   = WarningCatalog.values();
+
+    private final ByteBuffer              buffer;
+    private final int                     rows;
+    private final Dictionary              files;
+    private final Dictionary              values;
+    private final int                     catalogs;
+    private final int                     fileColumn;
+    private final int                     lineColumn;
+    private final int                     valueColumn;
+
+    private static final class Dictionary {
+
+        private final int size;
+        private final int offsets;
+        private final int data;
+        private final int end;
+
+        Dictionary(final ByteBuffer buffer, final int start, final int size) throws IOException {
+            this.size = size;
+            offsets = start;
+            data = start + 4 * (size + 1);
+            if (data > buffer.limit()) {
+                throw new IOException("Truncated suppression table");
+            }
+            end = data + buffer.getInt(offsets + 4 * size);
+        }
+
+        String get(final ByteBuffer buffer, final int index) {
+            final int start = buffer.getInt(offsets + 4 * index);
+            final byte[] bytes = new byte[buffer.getInt(offsets + 4 * index + 4) - start];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(data + start);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+    private SuppressionTable(final ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a suppression table");
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported suppression table version " + buffer.getInt(4));
+        }
+        rows = buffer.getInt(8);
+        files = new Dictionary(buffer, HEADER, buffer.getInt(12));
+        values = new Dictionary(buffer, align(files.end), buffer.getInt(16));
+        catalogs = align(values.end);
+        fileColumn = align(catalogs + values.size);
+        lineColumn = fileColumn + 4 * rows;
+        valueColumn = lineColumn + 4 * rows;
+        if (valueColumn + 2L * rows > buffer.limit()) {
+            throw new IOException("Truncated suppression table");
+        }
+    }
+
+    /**
+     * @param file
+     *            The table to map.
+     * @return A view of the given table.
+     * @throws IOException
+     *             In case the file cannot be mapped or is not a suppression table.
+     */
+    public static SuppressionTable open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SuppressionTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param file
+     *            The file to write to.
+     * @param suppressions
+     *            The suppressions to store, in any order.
+     * @throws IOException
+     *             In case the file cannot be written.
+     * @throws IllegalArgumentException
+     *             In case there are more than 8M files, 64K values or a line beyond 32M.
+     */
+    public static void write(final Path file, final Collection<SourceSuppression> suppressions) throws IOException {
+        final int size = suppressions.size();
+        final Map<String, Integer> fileIds = new HashMap<>();
+        final Map<String, Integer> valueIds = new HashMap<>();
+        final int[] rowFiles = new int[size];
+        final int[] rowValues = new int[size];
+        final int[] rowLines = new int[size];
+        int row = 0;
+        @Nullable
+        Path previousFile = null;
+        int previousId = 0;
+        for (final SourceSuppression suppression : suppressions) {
+            if (suppression.getLine() < 0 || suppression.getLine() >= 1 << LINE_BITS) {
+                throw new IllegalArgumentException("Line out of range: " + suppression);
+            }
+            // suppressions of the same file are usually adjacent and share their path
+            if (suppression.getFile() != previousFile) {
+                previousFile = suppression.getFile();
+                previousId = idOf(fileIds, previousFile.toString());
+            }
+            rowFiles[row] = previousId;
+            rowValues[row] = idOf(valueIds, suppression.getValue());
+            rowLines[row++] = suppression.getLine();
+        }
+        final int[] fileRanks = new int[fileIds.size()];
+        final int[] valueRanks = new int[valueIds.size()];
+        final String[] fileNames = sort(fileIds, fileRanks, FILE_BITS, "files");
+        final String[] valueNames = sort(valueIds, valueRanks, VALUE_BITS, "values");
+
+        // file ranks reach into the sign bit, flipping it makes the signed order of the keys their unsigned order
+        final long[] keys = new long[size];
+        for (row = 0; row < size; row++) {
+            keys[row] = ((long) fileRanks[rowFiles[row]] << VALUE_BITS + LINE_BITS
+                    | (long) valueRanks[rowValues[row]] << LINE_BITS | rowLines[row]) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+        for (row = 0; row < size; row++) {
+            keys[row] ^= Long.MIN_VALUE;
+        }
+
+        final byte[][] encodedFiles = encode(fileNames);
+        final byte[][] encodedValues = encode(valueNames);
+        final int columns = align(align(HEADER + sizeOf(encodedFiles)) + sizeOf(encodedValues))
+                + align(valueNames.length);
+        final ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(columns + 10L * size));
+        out.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(fileNames.length).putInt(valueNames.length);
+        putDictionary(out, encodedFiles);
+        putDictionary(out, encodedValues);
+        for (final String value : valueNames) {
+            out.put((byte) WarningCatalog.of(value).ordinal());
+        }
+        out.position(columns);
+        for (final long key : keys) {
+            out.putInt((int) (key >>> VALUE_BITS + LINE_BITS));
+        }
+        for (final long key : keys) {
+            out.putInt((int) (key & (1L << LINE_BITS) - 1));
+        }
+        for (final long key : keys) {
+            out.putShort((short) (key >>> LINE_BITS));
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return The number of distinct files.
+     */
+    public int getFileCount() {
+        return files.size;
+    }
+
+    /**
+     * @return The number of distinct values.
+     */
+    public int getValueCount() {
+        return values.size;
+    }
+
+    /**
+     * @param row
+     *            A row of the table.
+     * @return The index of the file of the row in the file dictionary.
+     */
+    public int getFileId(final int row) {
+        return buffer.getInt(fileColumn + 4 * row);
+    }
+
+    /**
+     * @param row
+     *            A row of the table.
+     * @return The line of the row.
+     */
+    public int getLine(final int row) {
+        return buffer.getInt(lineColumn + 4 * row);
+    }
+
+    /**
+     * @param row
+     *            A row of the table.
+     * @return The index of the value of the row in the value dictionary.
+     */
+    public int getValueId(final int row) {
+        return buffer.getShort(valueColumn + 2 * row) & 0xFFFF;
+    }
+
+    /**
+     * @param fileId
+     *            An index of the file dictionary.
+     * @return The file name, decoded on every call.
+     */
+    public String getFile(final int fileId) {
+        return files.get(buffer, fileId);
+    }
+
+    /**
+     * @param valueId
+     *            An index of the value dictionary.
+     * @return The value, decoded on every call.
+     */
+    public String getValue(final int valueId) {
+        return values.get(buffer, valueId);
+    }
+
+    /**
+     * @param valueId
+     *            An index of the value dictionary.
+     * @return The catalog listing the value.
+     */
+    public WarningCatalog getCatalog(final int valueId) {
+        return CATALOGS[buffer.get(catalogs + valueId)];
+    }
+
+    private static int idOf(final Map<String, Integer> ids, final String name) {
+        final Integer id = ids.get(name);
+        if (id != null) {
+            return id.intValue();
+        }
+        final int next = ids.size();
+        ids.put(name, Integer.valueOf(next));
+        return next;
+    }
+
+    /**
+     * @param ids
+     *            The names by the order they were first seen in.
+     * @param ranks
+     *            Receives the position of each name in the sorted dictionary, indexed by its id.
+     * @return The names in ascending order.
+     */
+    private static String[] sort(final Map<String, Integer> ids, final int[] ranks, final int bits,
+            final String kind) {
+        if (ids.size() > 1 << bits) {
+            throw new IllegalArgumentException("Too many " + kind + ": " + ids.size());
+        }
+        final String[] names = ids.keySet().toArray(new String[ids.size()]);
+        Arrays.sort(names);
+        for (int rank = 0; rank < names.length; rank++) {
+            ranks[Nullsafe.nullsafe(ids.get(names[rank])).intValue()] = rank;
+        }
+        return names;
+    }
+
+    private static byte[][] encode(final String[] names) {
+        final byte[][] encoded = new byte[names.length][];
+        for (int index = 0; index < names.length; index++) {
+            encoded[index] = names[index].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static int sizeOf(final byte[][] dictionary) {
+        int size = 4 * (dictionary.length + 1);
+        for (final byte[] name : dictionary) {
+            size += name.length;
+        }
+        return size;
+    }
+
+    private static void putDictionary(final ByteBuffer out, final byte[][] dictionary) {
+        int offset = 0;
+        out.putInt(offset);
+        for (final byte[] name : dictionary) {
+            offset += name.length;
+            out.putInt(offset);
+        }
+        for (final byte[] name : dictionary) {
+            out.put(name);
+        }
+        out.position(align(out.position()));
+    }
+
+    private static int align(final int offset) {
+        return offset + 3 & ~3;
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.PMDWarnings;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+
+/**
+ * The catalog listing a {@link SuppressWarnings} value.
+ */
+public enum WarningCatalog {
+
+    /** The value is listed in {@link CompilerWarnings}. */
+    COMPILER,
+
+    /** The value is listed in {@link PMDWarnings}. */
+    PMD,
+
+    /** The value is listed in neither catalog, e.g. a misspelled key or a warning of another tool. */
+    UNKNOWN;
+
+    /**
+     * @param value
+     *            A value of a {@link SuppressWarnings} annotation.
+     * @return The catalog listing the given value.
+     */
+    public static WarningCatalog of(final String value) {
+        if (PMDWarnings.PMD.equals(value) || PMDRule.fromKey(value) != null) {
+            return PMD;
+        }
+        return SuppressionSet.of(value).isEmpty() ? UNKNOWN : COMPILER;
+    }
+
+}
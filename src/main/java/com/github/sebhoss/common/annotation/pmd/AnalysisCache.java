@@ -0,0 +1,487 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.inventory.SuppressedRegions;
+
+/**
+ * Caches PMD violations by the content of source files, so that unchanged files need not be analyzed again. Files are
+ * keyed by the SHA-256 hash of their normalized source, see {@link SuppressedRegions}, which ignores
+ * {@link SuppressWarnings} annotations and <code>NOPMD</code> comments. Therefore the cache stores the violations of a
+ * file <em>before</em> suppressions are applied, and applies the suppressions of the current source on every lookup:
+ * adding or removing a suppression is a cache hit, and the lines of cached violations are moved along with the
+ * removed or added annotation lines.
+ * <p/>
+ * A cache belongs to a configuration, e.g. the PMD version and the target JDK, and to the rules it was filled with. It
+ * answers lookups for the same configuration and any subset of its rules, and is empty otherwise. Entries which were
+ * neither looked up nor added since the cache was opened are dropped when it is {@link #write(Path) written}. Rules
+ * are stored by their ordinal, thus a cache written with another list of {@link PMDRule}s, whose ordinals may name
+ * other rules, is empty as well, and so is a cache of another version.
+ * <p/>
+ * The cache is a single memory-mapped file. All numbers are big-endian. The layout is:
+ * <ol>
+ * <li>header: magic <code>PMDC</code>, version, number of entries, violations and message bytes as <code>int</code>s,
+ * followed by the configuration hash and the hash of the keys of all {@link PMDRule}s in declaration order as
+ * <code>long</code>s, and a bit per {@link PMDRule} in <code>long</code>s</li>
+ * <li>entries, sorted by hash: the 128 bit hash as two <code>long</code>s, the index of the first violation and the
+ * number of violations as <code>int</code>s</li>
+ * <li>violations: the normalized line as an <code>int</code>, the rule ordinal as a <code>short</code>, two unused
+ * bytes, and offset and length of the message as <code>int</code>s</li>
+ * <li>messages: the UTF-8 encoded messages, each distinct message stored once</li>
+ * </ol>
+ * <p/>
+ * Usage: <code>AnalysisCache &lt;cache&gt; &lt;directory or file&gt;...</code> looks up the given source files with
+ * the configuration and the rules of the cache, prints the violations of all hits and lists the misses.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class AnalysisCache {
+
+    private static final int              MAGIC       = 0x504D4443;
+    private static final int              VERSION     = 2;
+    private static final PMDRule[]        RULES       = PMDRule.values();
+    private static final long             RULE_KEYS   = AnalysisCache.ruleKeys();
+    private static final int              WORDS       = (RULES.length + 63) >>> 6;
+    private static final int              HEADER      = 36 + 8 * WORDS;
+    private static final int              ENTRY       = 24;
+    private static final int              VIOLATION   = 16;
+    private static final String           JAVA_SUFFIX = ".java";
+
+    @Nullable
+    private final ByteBuffer              buffer;
+    private final int                     entries;
+    private final int                     violations;
+    private final long                    configuration;
+    private final Set<PMDRule>            rules;
+    private final BitSet                  retained    = new BitSet();
+    private final Map<Key, Violation[]>   added       = new HashMap<>();
+    private int                           hits;
+    private int                           misses;
+
+    private static final class Key implements Comparable<Key> {
+
+        final long high;
+        final long low;
+
+        Key(final byte[] hash) {
+            high = ByteBuffer.wrap(hash, 0, 8).getLong();
+            low = ByteBuffer.wrap(hash, 8, 8).getLong();
+        }
+
+        Key(final long high, final long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public int compareTo(final Key other) {
+            final int order = Long.compare(high, other.high);
+            return order == 0 ? Long.compare(low, other.low) : order;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object object) {
+            return object instanceof Key && high == ((Key) object).high && low == ((Key) object).low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ high >>> 32);
+        }
+
+    }
+
+    private AnalysisCache(@Nullable final ByteBuffer buffer, final long configuration, final Set<PMDRule> rules) {
+        this.buffer = buffer;
+        this.configuration = configuration;
+        this.rules = Collections.unmodifiableSet(EnumSet.copyOf(rules));
+        entries = buffer == null ? 0 : buffer.getInt(8);
+        violations = buffer == null ? 0 : buffer.getInt(12);
+    }
+
+    /**
+     * @param file
+     *            The cache file, which need not exist.
+     * @param configuration
+     *            Describes everything but the rules and the analyzed source which affects the violations, e.g. the PMD
+     *            version and the target JDK.
+     * @param rules
+     *            The rules to look up violations of.
+     * @return The cache stored in the given file, or an empty cache if there is none, if it was written by another
+     *         version or with other {@link PMDRule}s, or if it belongs to another configuration or lacks some of the
+     *         given rules.
+     * @throws IOException
+     *             In case the file exists but cannot be mapped or is not an analysis cache.
+     */
+    public static AnalysisCache open(final Path file, final String configuration, final Set<PMDRule> rules)
+            throws IOException {
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("No rules given");
+        }
+        final long hash = ByteBuffer.wrap(sha256().digest(configuration.getBytes(StandardCharsets.UTF_8))).getLong();
+        if (!Files.exists(file)) {
+            return new AnalysisCache(null, hash, rules);
+        }
+        final ByteBuffer buffer = map(file);
+        final boolean valid = isCompatible(file, buffer) && buffer.getLong(20) == hash
+                && storedRules(buffer).containsAll(rules);
+        return new AnalysisCache(valid ? buffer : null, hash, rules);
+    }
+
+    /**
+     * @param args
+     *            The cache followed by the directories and files to look up.
+     * @throws IOException
+     *             In case the cache or a source file cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AnalysisCache <cache> <directory or file>...");
+            return;
+        }
+        final ByteBuffer buffer = map(Paths.get(args[0]));
+        if (!isCompatible(Paths.get(args[0]), buffer)) {
+            System.err.println("Analysis cache of another version or other rules: " + args[0]);
+            return;
+        }
+        final AnalysisCache cache = new AnalysisCache(buffer, buffer.getLong(20), storedRules(buffer));
+        final List<Path> files = new ArrayList<>();
+        for (int index = 1; index < args.length; index++) {
+            final Path root = Paths.get(args[index]);
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile() && file.toString().endsWith(JAVA_SUFFIX)) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+            });
+        }
+        final long start = System.nanoTime();
+        final StringBuilder out = new StringBuilder();
+        for (final Path file : files) {
+            final byte[] source = Files.readAllBytes(file);
+            final List<Violation> found = cache.get(file, source, source.length);
+            if (found == null) {
+                System.err.println("miss " + file);
+            } else {
+                for (final Violation violation : found) {
+                    out.append(file).append(':').append(violation.getLine()).append('\t')
+                            .append(violation.getRule().getKey()).append('\t').append(violation.getMessage())
+                            .append('\n');
+                }
+            }
+        }
+        final long micros = (System.nanoTime() - start) / 1000;
+        System.out.print(out);
+        System.err.println(cache.getHits() + " hits, " + cache.getMisses() + " misses in " + micros / 1000 + " ms ("
+                + (files.isEmpty() ? 0 : micros / files.size()) + " us per file)");
+    }
+
+    /**
+     * @param file
+     *            The source file, used to report suppressions.
+     * @param source
+     *            The UTF-8 encoded content of the file.
+     * @param length
+     *            The number of bytes to read from the start of <code>source</code>.
+     * @return The violations of the rules of this cache which are not suppressed by the given source, or
+     *         <code>null</code> if the source has to be analyzed.
+     */
+    @Nullable
+    public List<Violation> get(final Path file, final byte[] source, final int length) {
+        final SuppressedRegions regions = SuppressedRegions.scan(file, source, length);
+        final Key key = keyOf(regions);
+        @Nullable
+        final Violation[] cached;
+        synchronized (this) {
+            cached = find(key);
+            if (cached == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        final List<Violation> found = new ArrayList<>(cached.length);
+        for (final Violation violation : cached) {
+            final int line = regions.toLine(violation.getLine());
+            if (rules.contains(violation.getRule()) && !regions.isSuppressed(violation.getRule(), line)) {
+                found.add(new Violation(violation.getRule(), line, violation.getMessage()));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param file
+     *            The source file, used to report suppressions.
+     * @param source
+     *            The UTF-8 encoded content of the file.
+     * @param length
+     *            The number of bytes to read from the start of <code>source</code>.
+     * @param found
+     *            All violations of the rules of this cache in the given source, including the suppressed ones, as
+     *            reported by PMD when asked to show suppressed violations.
+     */
+    public void put(final Path file, final byte[] source, final int length, final Collection<Violation> found) {
+        final SuppressedRegions regions = SuppressedRegions.scan(file, source, length);
+        final List<Violation> normalized = new ArrayList<>(found.size());
+        for (final Violation violation : found) {
+            if (rules.contains(violation.getRule())) {
+                normalized.add(new Violation(violation.getRule(), regions.toNormalizedLine(violation.getLine()),
+                        violation.getMessage()));
+            }
+        }
+        final Key key = keyOf(regions);
+        synchronized (this) {
+            added.put(key, normalized.toArray(new Violation[normalized.size()]));
+        }
+    }
+
+    /**
+     * @param file
+     *            The file to write to, usually the one the cache was opened from.
+     * @throws IOException
+     *             In case the file cannot be written.
+     */
+    public synchronized void write(final Path file) throws IOException {
+        final Map<Key, Violation[]> kept = new TreeMap<>(added);
+        for (int entry = retained.nextSetBit(0); entry >= 0; entry = retained.nextSetBit(entry + 1)) {
+            final Key key = keyAt(entry);
+            if (!kept.containsKey(key)) {
+                kept.put(key, violationsAt(entry));
+            }
+        }
+        final Map<String, int[]> messageOffsets = new HashMap<>();
+        final List<byte[]> messages = new ArrayList<>();
+        int messageBytes = 0;
+        int total = 0;
+        for (final Violation[] entryViolations : kept.values()) {
+            for (final Violation violation : entryViolations) {
+                if (rules.contains(violation.getRule()) && !messageOffsets.containsKey(violation.getMessage())) {
+                    final byte[] message = violation.getMessage().getBytes(StandardCharsets.UTF_8);
+                    messageOffsets.put(violation.getMessage(), new int[] { messageBytes, message.length });
+                    messages.add(message);
+                    messageBytes += message.length;
+                }
+                total += rules.contains(violation.getRule()) ? 1 : 0;
+            }
+        }
+        final ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(HEADER + (long) ENTRY * kept.size()
+                + (long) VIOLATION * total + messageBytes));
+        out.putInt(MAGIC).putInt(VERSION).putInt(kept.size()).putInt(total).putInt(messageBytes)
+                .putLong(configuration).putLong(RULE_KEYS);
+        final long[] words = new long[WORDS];
+        for (final PMDRule rule : rules) {
+            words[rule.ordinal() >>> 6] |= 1L << rule.ordinal();
+        }
+        for (final long word : words) {
+            out.putLong(word);
+        }
+        int first = 0;
+        for (final Map.Entry<Key, Violation[]> entry : kept.entrySet()) {
+            int count = 0;
+            for (final Violation violation : entry.getValue()) {
+                count += rules.contains(violation.getRule()) ? 1 : 0;
+            }
+            out.putLong(entry.getKey().high).putLong(entry.getKey().low).putInt(first).putInt(count);
+            first += count;
+        }
+        for (final Violation[] entryViolations : kept.values()) {
+            for (final Violation violation : entryViolations) {
+                if (rules.contains(violation.getRule())) {
+                    final int[] message = messageOffsets.get(violation.getMessage());
+                    out.putInt(violation.getLine()).putShort((short) violation.getRule().ordinal()).putShort((short) 0)
+                            .putInt(message[0]).putInt(message[1]);
+                }
+            }
+        }
+        for (final byte[] message : messages) {
+            out.put(message);
+        }
+        out.flip();
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return The rules whose violations this cache answers.
+     */
+    public Set<PMDRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups which require an analysis.
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    @Nullable
+    private Violation[] find(final Key key) {
+        final Violation[] fresh = added.get(key);
+        if (fresh != null) {
+            return fresh;
+        }
+        int low = 0;
+        int high = entries - 1;
+        while (low <= high) {
+            final int middle = low + high >>> 1;
+            final int order = keyAt(middle).compareTo(key);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                retained.set(middle);
+                return violationsAt(middle);
+            }
+        }
+        return null;
+    }
+
+    private Key keyAt(final int entry) {
+        final ByteBuffer mapped = mapped();
+        final int offset = HEADER + ENTRY * entry;
+        return new Key(mapped.getLong(offset), mapped.getLong(offset + 8));
+    }
+
+    private Violation[] violationsAt(final int entry) {
+        final ByteBuffer mapped = mapped();
+        final int offset = HEADER + ENTRY * entry;
+        final int first = mapped.getInt(offset + 16);
+        final Violation[] found = new Violation[mapped.getInt(offset + 20)];
+        final int violationStart = HEADER + ENTRY * entries;
+        final int messageStart = violationStart + VIOLATION * violations;
+        for (int index = 0; index < found.length; index++) {
+            final int violation = violationStart + VIOLATION * (first + index);
+            final byte[] message = new byte[mapped.getInt(violation + 12)];
+            final ByteBuffer view = mapped.duplicate();
+            view.position(messageStart + mapped.getInt(violation + 8));
+            view.get(message);
+            found[index] = new Violation(RULES[mapped.getShort(violation + 4)], mapped.getInt(violation),
+                    new String(message, StandardCharsets.UTF_8));
+        }
+        return found;
+    }
+
+    private ByteBuffer mapped() {
+        final ByteBuffer mapped = buffer;
+        if (mapped == null) {
+            throw new IllegalStateException("Empty cache");
+        }
+        return mapped;
+    }
+
+    private static Key keyOf(final SuppressedRegions regions) {
+        final MessageDigest digest = sha256();
+        regions.digest(digest);
+        return new Key(digest.digest());
+    }
+
+    private static ByteBuffer map(final Path file) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < 8 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an analysis cache: " + file);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return <code>true</code> if the cache was written by this version with the current {@link PMDRule}s, so that
+     *         its layout and rule ordinals can be read.
+     */
+    private static boolean isCompatible(final Path file, final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(4) != VERSION || buffer.limit() < HEADER || buffer.getLong(28) != RULE_KEYS) {
+            return false;
+        } else if (HEADER + (long) ENTRY * buffer.getInt(8) + (long) VIOLATION * buffer.getInt(12)
+                + buffer.getInt(16) > buffer.limit()) {
+            throw new IOException("Truncated analysis cache: " + file);
+        }
+        return true;
+    }
+
+    private static Set<PMDRule> storedRules(final ByteBuffer buffer) {
+        final Set<PMDRule> stored = EnumSet.noneOf(PMDRule.class);
+        for (final PMDRule rule : RULES) {
+            if ((buffer.getLong(36 + 8 * (rule.ordinal() >>> 6)) & 1L << rule.ordinal()) != 0) {
+                stored.add(rule);
+            }
+        }
+        return stored;
+    }
+
+    private static long ruleKeys() {
+        final MessageDigest digest = sha256();
+        for (final PMDRule rule : RULES) {
+            digest.update((rule.getKey() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
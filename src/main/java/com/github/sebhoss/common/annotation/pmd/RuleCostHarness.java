@@ -0,0 +1,385 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.PMDRuleSet;
+
+/**
+ * Measures the wall-clock time PMD spends on each rule by running the rules one at a time against a local corpus of
+ * source files. The corpus is split into buckets by file size and every rule is run on every bucket: first
+ * <code>warmups</code> times to let the JIT settle, then <code>repetitions</code> times, of which the median is kept.
+ * Each run also parses the bucket, so every bucket is measured once more with <code>META-INF/pmd/baseline.xml</code>,
+ * whose single rule only looks at the root of each file, and the cost of a rule is its median minus that baseline.
+ * <p/>
+ * PMD 5 or 6 is loaded reflectively, from the class path of this class or from the given class path, and runs
+ * single-threaded. Rule sets which the PMD version does not ship are skipped.
+ * <p/>
+ * Usage: <code>RuleCostHarness [-cp pmd class path] [-w warmups] [-r repetitions] [-s rule set,...] [-o timings]
+ * &lt;corpus&gt;...</code> prints a cost table ranked by rule set and rule, and writes the costs as
+ * {@link RuleTimings} for the {@link RulesetGenerator}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class RuleCostHarness {
+
+    private static final String      JAVA_SUFFIX = ".java";
+    private static final String      BASELINE    = "META-INF/pmd/baseline.xml";
+    private static final long[]      BUCKETS     = { 4 * 1024, 16 * 1024, 64 * 1024 };
+    private static final String[]    LABELS      = { "<4K", "4-16K", "16-64K", ">=64K" };
+
+    private final ClassLoader        pmd;
+    private final int                warmups;
+    private final int                repetitions;
+    private final List<List<Path>>   buckets     = new ArrayList<>();
+    private final long[]             bucketBytes = new long[LABELS.length];
+
+    /**
+     * @param pmd
+     *            The class loader to load PMD with.
+     * @param warmups
+     *            The number of unmeasured runs per rule and bucket.
+     * @param repetitions
+     *            The number of measured runs per rule and bucket.
+     * @param corpus
+     *            The directories and files to analyze.
+     * @throws IOException
+     *             In case the corpus cannot be walked.
+     */
+    public RuleCostHarness(final ClassLoader pmd, final int warmups, final int repetitions, final List<Path> corpus)
+            throws IOException {
+        if (warmups < 0 || repetitions < 1) {
+            throw new IllegalArgumentException("Invalid number of runs: " + warmups + " warmups, " + repetitions
+                    + " repetitions");
+        }
+        this.pmd = pmd;
+        this.warmups = warmups;
+        this.repetitions = repetitions;
+        for (int bucket = 0; bucket < LABELS.length; bucket++) {
+            buckets.add(new ArrayList<Path>());
+        }
+        for (final Path root : corpus) {
+            collect(root);
+        }
+    }
+
+    /**
+     * @param args
+     *            The options followed by the corpus.
+     * @throws IOException
+     *             In case the corpus cannot be read or the timings cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        @Nullable
+        String classPath = null;
+        int warmups = 2;
+        int repetitions = 5;
+        final Set<PMDRuleSet> ruleSets = EnumSet.allOf(PMDRuleSet.class);
+        @Nullable
+        Path output = null;
+        final List<Path> corpus = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            if ("-cp".equals(args[index]) && index + 1 < args.length) {
+                classPath = args[++index];
+            } else if ("-w".equals(args[index]) && index + 1 < args.length) {
+                warmups = Integer.parseInt(args[++index]);
+            } else if ("-r".equals(args[index]) && index + 1 < args.length) {
+                repetitions = Integer.parseInt(args[++index]);
+            } else if ("-s".equals(args[index]) && index + 1 < args.length) {
+                ruleSets.clear();
+                for (final String id : args[++index].split(",")) {
+                    ruleSets.add(ruleSetOf(id.trim()));
+                }
+            } else if ("-o".equals(args[index]) && index + 1 < args.length) {
+                output = Paths.get(args[++index]);
+            } else {
+                corpus.add(Paths.get(args[index]));
+            }
+        }
+        if (corpus.isEmpty()) {
+            System.err.println("Usage: RuleCostHarness [-cp pmd class path] [-w warmups] [-r repetitions] "
+                    + "[-s rule set,...] [-o timings] <corpus>...");
+            return;
+        }
+        final ClassLoader loader = classPath == null ? RuleCostHarness.class.getClassLoader()
+                : classLoaderOf(classPath);
+        final RuleCostHarness harness = new RuleCostHarness(loader, warmups, repetitions, corpus);
+        final List<PMDRule> rules = new ArrayList<>();
+        for (final PMDRule rule : PMDRule.values()) {
+            if (ruleSets.contains(rule.getRuleSet())) {
+                rules.add(rule);
+            }
+        }
+        final Map<PMDRule, long[]> costs = harness.measure(rules, System.err);
+        harness.print(System.out, costs);
+        if (output != null) {
+            final Map<PMDRule, Double> seconds = new EnumMap<>(PMDRule.class);
+            for (final Map.Entry<PMDRule, long[]> cost : costs.entrySet()) {
+                seconds.put(cost.getKey(), Double.valueOf(total(cost.getValue()) / 1e9));
+            }
+            new RuleTimings(seconds).write(output);
+        }
+    }
+
+    /**
+     * @param rules
+     *            The rules to measure.
+     * @param progress
+     *            Receives a line per measured rule.
+     * @return The cost of each rule per bucket in nanoseconds, for the rules whose rule set is available.
+     */
+    public Map<PMDRule, long[]> measure(final List<PMDRule> rules, final PrintStream progress) {
+        final Map<PMDRule, long[]> medians = new EnumMap<>(PMDRule.class);
+        final long[] baselines = new long[LABELS.length];
+        for (int bucket = 0; bucket < LABELS.length; bucket++) {
+            if (!buckets.get(bucket).isEmpty()) {
+                baselines[bucket] = median(BASELINE, buckets.get(bucket));
+            }
+        }
+        progress.println(String.format(Locale.ROOT, "measured baseline: %.1f ms",
+                Double.valueOf(total(baselines) / 1e6)));
+        final Set<PMDRuleSet> missing = EnumSet.noneOf(PMDRuleSet.class);
+        for (final PMDRule rule : rules) {
+            final PMDRuleSet ruleSet = rule.getRuleSet();
+            if (missing.contains(ruleSet) || pmd.getResource(ruleSet.getReference()) == null) {
+                if (missing.add(ruleSet)) {
+                    progress.println("skipped " + ruleSet.getReference() + ", not found");
+                }
+                continue;
+            }
+            final long[] times = new long[LABELS.length];
+            for (int bucket = 0; bucket < LABELS.length; bucket++) {
+                if (!buckets.get(bucket).isEmpty()) {
+                    times[bucket] = median(ruleSet.getReference() + "/" + rule.getName(), buckets.get(bucket));
+                }
+            }
+            progress.println(String.format(Locale.ROOT, "measured %s: %.1f ms", rule.getKey(),
+                    Double.valueOf(total(times) / 1e6)));
+            for (int bucket = 0; bucket < LABELS.length; bucket++) {
+                times[bucket] = Math.max(0, times[bucket] - baselines[bucket]);
+            }
+            medians.put(rule, times);
+        }
+        return medians;
+    }
+
+    /**
+     * Prints the rule sets ordered by their cost, each followed by its rules ordered by their cost.
+     *
+     * @param out
+     *            The stream to print to.
+     * @param costs
+     *            The costs as returned by {@link #measure(List, PrintStream)}.
+     */
+    public void print(final PrintStream out, final Map<PMDRule, long[]> costs) {
+        final Map<PMDRuleSet, long[]> setCosts = new EnumMap<>(PMDRuleSet.class);
+        final Map<PMDRuleSet, List<PMDRule>> setRules = new EnumMap<>(PMDRuleSet.class);
+        for (final Map.Entry<PMDRule, long[]> cost : costs.entrySet()) {
+            final PMDRuleSet ruleSet = cost.getKey().getRuleSet();
+            long[] sum = setCosts.get(ruleSet);
+            if (sum == null) {
+                sum = new long[LABELS.length];
+                setCosts.put(ruleSet, sum);
+                setRules.put(ruleSet, new ArrayList<PMDRule>());
+            }
+            for (int bucket = 0; bucket < LABELS.length; bucket++) {
+                sum[bucket] += cost.getValue()[bucket];
+            }
+            setRules.get(ruleSet).add(cost.getKey());
+        }
+        final StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-40s %10s", "ms", "total"));
+        final StringBuilder files = new StringBuilder(String.format(Locale.ROOT, "%-40s %10s", "files (KB)", ""));
+        for (int bucket = 0; bucket < LABELS.length; bucket++) {
+            header.append(String.format(Locale.ROOT, " %14s", LABELS[bucket]));
+            files.append(String.format(Locale.ROOT, " %14s", buckets.get(bucket).size() + " ("
+                    + bucketBytes[bucket] / 1024 + ")"));
+        }
+        out.println(header);
+        out.println(files);
+        final List<PMDRuleSet> ruleSets = new ArrayList<>(setCosts.keySet());
+        Collections.sort(ruleSets, byTotal(setCosts));
+        for (final PMDRuleSet ruleSet : ruleSets) {
+            out.println();
+            out.println(row(ruleSet.getId(), setCosts.get(ruleSet)));
+            final List<PMDRule> rules = setRules.get(ruleSet);
+            Collections.sort(rules, byTotal(costs));
+            for (final PMDRule rule : rules) {
+                out.println(row("  " + rule.getName(), costs.get(rule)));
+            }
+        }
+    }
+
+    private long median(final String reference, final List<Path> files) {
+        final StringBuilder inputPaths = new StringBuilder();
+        for (final Path file : files) {
+            if (inputPaths.length() > 0) {
+                inputPaths.append(',');
+            }
+            inputPaths.append(file);
+        }
+        for (int run = 0; run < warmups; run++) {
+            run(reference, inputPaths.toString());
+        }
+        final long[] samples = new long[repetitions];
+        for (int run = 0; run < repetitions; run++) {
+            final long start = System.nanoTime();
+            run(reference, inputPaths.toString());
+            samples[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[repetitions / 2];
+    }
+
+    private void run(final String ruleSets, final String inputPaths) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(pmd);
+        try {
+            final Class<?> configurationType = pmd.loadClass("net.sourceforge.pmd.PMDConfiguration");
+            final Object configuration = configurationType.getConstructor().newInstance();
+            invoke(configuration, "setRuleSets", String.class, ruleSets);
+            invoke(configuration, "setInputPaths", String.class, inputPaths);
+            invoke(configuration, "setReportFormat", String.class, "text");
+            invoke(configuration, "setReportFile", String.class, nullDevice());
+            invoke(configuration, "setThreads", int.class, Integer.valueOf(0));
+            invokeIfPresent(configuration, "setIgnoreIncrementalAnalysis", boolean.class, Boolean.TRUE);
+            pmd.loadClass("net.sourceforge.pmd.PMD").getMethod("doPMD", configurationType).invoke(null,
+                    configuration);
+        } catch (final InvocationTargetException exception) {
+            throw new IllegalStateException("PMD failed on " + ruleSets, exception.getCause());
+        } catch (final ReflectiveOperationException exception) {
+            throw new IllegalStateException("Unsupported PMD version", exception);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Calls a setter which PMD 5 and 6 both offer, thus fails with a {@link NoSuchMethodException} on other versions.
+     */
+    private static void invoke(final Object target, final String name, final Class<?> type, final Object value)
+            throws ReflectiveOperationException {
+        target.getClass().getMethod(name, type).invoke(target, value);
+    }
+
+    /**
+     * Calls a setter if the PMD version offers it.
+     */
+    private static void invokeIfPresent(final Object target, final String name, final Class<?> type,
+            final Object value) throws ReflectiveOperationException {
+        final Method method;
+        try {
+            method = target.getClass().getMethod(name, type);
+        } catch (final NoSuchMethodException exception) {
+            return;
+        }
+        method.invoke(target, value);
+    }
+
+    private void collect(final Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) {
+                final Path name = directory.getFileName();
+                return !directory.equals(root) && name != null && name.toString().startsWith(".")
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && file.toString().endsWith(JAVA_SUFFIX)) {
+                    int bucket = 0;
+                    while (bucket < BUCKETS.length && attributes.size() >= BUCKETS[bucket]) {
+                        bucket++;
+                    }
+                    buckets.get(bucket).add(file);
+                    bucketBytes[bucket] += attributes.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    private static String row(final String name, final long[] costs) {
+        final StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-40s %10.1f", name,
+                Double.valueOf(total(costs) / 1e6)));
+        for (final long cost : costs) {
+            row.append(String.format(Locale.ROOT, " %14.1f", Double.valueOf(cost / 1e6)));
+        }
+        return row.toString();
+    }
+
+    private static <T> Comparator<T> byTotal(final Map<T, long[]> costs) {
+        return new Comparator<T>() {
+
+            @Override
+            public int compare(final T first, final T second) {
+                return Long.compare(total(costs.get(second)), total(costs.get(first)));
+            }
+
+        };
+    }
+
+    private static long total(final long[] costs) {
+        long total = 0;
+        for (final long cost : costs) {
+            total += cost;
+        }
+        return total;
+    }
+
+    private static String nullDevice() {
+        return File.separatorChar == '\\' ? "NUL" : "/dev/null";
+    }
+
+    private static PMDRuleSet ruleSetOf(final String id) {
+        for (final PMDRuleSet ruleSet : PMDRuleSet.values()) {
+            if (ruleSet.getId().equals(id)) {
+                return ruleSet;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rule set: " + id);
+    }
+
+    private static ClassLoader classLoaderOf(final String classPath) throws IOException {
+        final String[] entries = classPath.split(File.pathSeparator);
+        final URL[] urls = new URL[entries.length];
+        for (int index = 0; index < entries.length; index++) {
+            urls[index] = Paths.get(entries[index]).toUri().toURL();
+        }
+        return new URLClassLoader(urls, RuleCostHarness.class.getClassLoader());
+    }
+
+}
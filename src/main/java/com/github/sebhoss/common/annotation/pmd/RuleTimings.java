@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.PMDWarnings;
+
+/**
+ * The wall-clock time PMD spends per rule. Timings are stored as text, one rule per line: the rule, either as its
+ * suppression key or its plain name, followed by whitespace and the seconds spent. Other lines are ignored, thus the
+ * rule rows of PMD's <code>-benchmark</code> text report can be read as well.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class RuleTimings {
+
+    private static final Pattern           WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<PMDRule, Double>     seconds;
+
+    /**
+     * @param seconds
+     *            The seconds spent per rule.
+     */
+    public RuleTimings(final Map<PMDRule, Double> seconds) {
+        this.seconds = Collections.unmodifiableMap(new EnumMap<>(seconds));
+    }
+
+    /**
+     * @param file
+     *            The timings to read.
+     * @return The timings of all known rules listed in the given file.
+     * @throws IOException
+     *             In case the file cannot be read.
+     */
+    public static RuleTimings read(final Path file) throws IOException {
+        final Map<PMDRule, Double> seconds = new EnumMap<>(PMDRule.class);
+        for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final String[] columns = WHITESPACE.split(line.trim());
+            if (columns.length < 2) {
+                continue;
+            }
+            final PMDRule rule = ruleOf(columns[0]);
+            if (rule != null) {
+                try {
+                    seconds.put(rule, Double.valueOf(columns[1]));
+                } catch (final NumberFormatException exception) {
+                    // header or summary line
+                }
+            }
+        }
+        return new RuleTimings(seconds);
+    }
+
+    /**
+     * @param file
+     *            The file to write to.
+     * @throws IOException
+     *             In case the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (final Map.Entry<PMDRule, Double> timing : seconds.entrySet()) {
+                writer.write(timing.getKey().getKey() + "\t" + timing.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return The seconds spent per rule, for the rules which were measured.
+     */
+    public Map<PMDRule, Double> getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * @param rule
+     *            Some rule.
+     * @return The seconds spent on the given rule, <code>0</code> if it was not measured.
+     */
+    public double getSeconds(final PMDRule rule) {
+        final Double timing = seconds.get(rule);
+        return timing == null ? 0 : timing.doubleValue();
+    }
+
+    /**
+     * @return The seconds spent on all measured rules.
+     */
+    public double getTotalSeconds() {
+        double total = 0;
+        for (final Double timing : seconds.values()) {
+            total += timing.doubleValue();
+        }
+        return total;
+    }
+
+    @Nullable
+    private static PMDRule ruleOf(final String name) {
+        return PMDRule.fromKey(name.startsWith(PMDWarnings.PMD + ".") ? name : PMDWarnings.PMD + "." + name);
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.PMDRuleSet;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+import com.github.sebhoss.common.annotation.inventory.SuppressedRegions;
+import com.github.sebhoss.common.annotation.inventory.SuppressionTable;
+
+/**
+ * Generates a PMD rule set which leaves out the rules a project suppresses anyway. A rule is excluded once the share of
+ * source files suppressing it throughout, directly, by <code>"PMD"</code> or by <code>"all"</code>, reaches a
+ * threshold. A file suppresses a rule throughout if the annotations of each of its top-level types do, see
+ * {@link SuppressedRegions#getFileSuppressions()}; suppressions of single members never count, since excluding their
+ * rule would drop violations elsewhere in the file. Rules suppressed by every file of a package are reported as well,
+ * since PMD rule sets cannot exclude a rule for some paths only.
+ * <p/>
+ * Usage:
+ * <code>RulesetGenerator [-t threshold] [-b timings] [-o ruleset.xml] &lt;table&gt; &lt;source root&gt;...</code>
+ * reads a {@link SuppressionTable} of the given source roots and writes the rule set to standard output or the given
+ * file. Given the {@link RuleTimings} of a full PMD run, the time saved by the trimmed rule set is reported.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class RulesetGenerator {
+
+    private static final String        JAVA_SUFFIX       = ".java";
+    private static final double        DEFAULT_THRESHOLD = 0.9;
+
+    private final Map<PMDRule, BitSet> suppressingFiles  = new EnumMap<>(PMDRule.class);
+    private final Map<Path, Integer>   filesPerPackage   = new TreeMap<>();
+    private final Map<Path, Integer>   fileIds           = new HashMap<>();
+    private final List<Path>           packageOfFile     = new ArrayList<>();
+
+    /**
+     * @param table
+     *            The suppressions of the project.
+     * @param roots
+     *            The source roots of the project, whose files are matched against the files listed in the table.
+     * @throws IOException
+     *             In case a source root cannot be walked or a file listed in the table cannot be read.
+     */
+    public RulesetGenerator(final SuppressionTable table, final List<Path> roots) throws IOException {
+        for (final Path root : roots) {
+            countFiles(root.toAbsolutePath().normalize());
+        }
+        final SuppressionSet[] values = new SuppressionSet[table.getValueCount()];
+        for (int valueId = 0; valueId < values.length; valueId++) {
+            values[valueId] = SuppressionSet.of(table.getValue(valueId));
+        }
+        final Path[] paths = new Path[table.getFileCount()];
+        final int[] files = new int[paths.length];
+        for (int fileId = 0; fileId < files.length; fileId++) {
+            paths[fileId] = Paths.get(table.getFile(fileId)).toAbsolutePath().normalize();
+            final Integer id = fileIds.get(paths[fileId]);
+            files[fileId] = id == null ? -1 : id.intValue();
+        }
+        for (final PMDRule rule : PMDRule.values()) {
+            suppressingFiles.put(rule, new BitSet(packageOfFile.size()));
+        }
+        // only files suppressing some rule anywhere are lexed again for their top-level suppressions
+        final BitSet candidates = new BitSet(files.length);
+        for (int row = 0; row < table.getRowCount(); row++) {
+            final int fileId = table.getFileId(row);
+            if (files[fileId] >= 0 && !values[table.getValueId(row)].isEmpty()) {
+                candidates.set(fileId);
+            }
+        }
+        for (int fileId = candidates.nextSetBit(0); fileId >= 0; fileId = candidates.nextSetBit(fileId + 1)) {
+            final byte[] source = Files.readAllBytes(paths[fileId]);
+            final SuppressionSet value = SuppressedRegions.scan(paths[fileId], source, source.length)
+                    .getFileSuppressions();
+            for (final PMDRule rule : PMDRule.values()) {
+                if (value.contains(rule)) {
+                    suppressingFiles.get(rule).set(files[fileId]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param args
+     *            The options, the table and the source roots.
+     * @throws IOException
+     *             In case the table, the timings or the sources cannot be read, or the rule set cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        double threshold = DEFAULT_THRESHOLD;
+        @Nullable
+        Path timings = null;
+        @Nullable
+        Path output = null;
+        final List<Path> paths = new ArrayList<>();
+        for (int index = 0; index < args.length; index++) {
+            if ("-t".equals(args[index]) && index + 1 < args.length) {
+                threshold = Double.parseDouble(args[++index]);
+            } else if ("-b".equals(args[index]) && index + 1 < args.length) {
+                timings = Paths.get(args[++index]);
+            } else if ("-o".equals(args[index]) && index + 1 < args.length) {
+                output = Paths.get(args[++index]);
+            } else {
+                paths.add(Paths.get(args[index]));
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: RulesetGenerator [-t threshold] [-b timings] [-o ruleset.xml] <table> "
+                    + "<source root>...");
+            return;
+        }
+        final RulesetGenerator generator = new RulesetGenerator(SuppressionTable.open(paths.get(0)),
+                paths.subList(1, paths.size()));
+        final Set<PMDRule> excluded = generator.getExcludedRules(threshold);
+        if (output != null) {
+            try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                writeRuleset(writer, excluded);
+            }
+        } else {
+            final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out,
+                    StandardCharsets.UTF_8));
+            writeRuleset(writer, excluded);
+            writer.flush();
+        }
+
+        final PrintStream err = System.err;
+        for (final PMDRule rule : excluded) {
+            err.println("excluded " + rule.getKey() + " (" + generator.getSuppressingFiles(rule) + " of "
+                    + generator.getFileCount() + " files)");
+        }
+        for (final Map.Entry<Path, Set<PMDRule>> entry : generator.getPackageSuppressions().entrySet()) {
+            final Set<PMDRule> rules = EnumSet.copyOf(entry.getValue());
+            rules.removeAll(excluded);
+            for (final PMDRule rule : rules) {
+                err.println("suppressed by every file of " + entry.getKey() + ": " + rule.getKey());
+            }
+        }
+        if (timings == null) {
+            err.println(excluded.size() + " rules excluded, pass the timings of a full PMD run (-b) to report the "
+                    + "time saved");
+        } else {
+            final RuleTimings measured = RuleTimings.read(timings);
+            double saved = 0;
+            for (final PMDRule rule : excluded) {
+                saved += measured.getSeconds(rule);
+            }
+            final double total = measured.getTotalSeconds();
+            err.println(String.format(Locale.ROOT, "%d rules excluded, saving %.2f s of %.2f s (%.1f%%)",
+                    Integer.valueOf(excluded.size()), Double.valueOf(saved), Double.valueOf(total),
+                    Double.valueOf(total == 0 ? 0 : 100 * saved / total)));
+        }
+    }
+
+    /**
+     * @return The number of source files found in the source roots.
+     */
+    public int getFileCount() {
+        return packageOfFile.size();
+    }
+
+    /**
+     * @param rule
+     *            Some rule.
+     * @return The number of source files suppressing the given rule throughout.
+     */
+    public int getSuppressingFiles(final PMDRule rule) {
+        return suppressingFiles.get(rule).cardinality();
+    }
+
+    /**
+     * @param threshold
+     *            The share of source files, between <code>0</code> exclusive and <code>1</code> inclusive, which must
+     *            suppress a rule throughout in order to exclude it.
+     * @return The rules to exclude from the rule set.
+     */
+    public Set<PMDRule> getExcludedRules(final double threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be in (0, 1]: " + threshold);
+        }
+        final Set<PMDRule> excluded = EnumSet.noneOf(PMDRule.class);
+        final int files = getFileCount();
+        if (files == 0) {
+            return excluded;
+        }
+        for (final Map.Entry<PMDRule, BitSet> entry : suppressingFiles.entrySet()) {
+            if (entry.getValue().cardinality() >= threshold * files) {
+                excluded.add(entry.getKey());
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * @return The rules suppressed throughout every source file of a directory, by directory.
+     */
+    public Map<Path, Set<PMDRule>> getPackageSuppressions() {
+        final Map<Path, Integer> suppressed = new HashMap<>();
+        final Map<Path, Set<PMDRule>> packages = new TreeMap<>();
+        for (final Map.Entry<PMDRule, BitSet> entry : suppressingFiles.entrySet()) {
+            suppressed.clear();
+            final BitSet files = entry.getValue();
+            for (int file = files.nextSetBit(0); file >= 0; file = files.nextSetBit(file + 1)) {
+                final Path directory = packageOfFile.get(file);
+                final Integer count = suppressed.get(directory);
+                suppressed.put(directory, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+            }
+            for (final Map.Entry<Path, Integer> count : suppressed.entrySet()) {
+                if (count.getValue().equals(filesPerPackage.get(count.getKey()))) {
+                    Set<PMDRule> rules = packages.get(count.getKey());
+                    if (rules == null) {
+                        rules = EnumSet.noneOf(PMDRule.class);
+                        packages.put(count.getKey(), rules);
+                    }
+                    rules.add(entry.getKey());
+                }
+            }
+        }
+        return packages;
+    }
+
+    /**
+     * Writes a rule set referencing every {@link PMDRuleSet}, except those whose rules are all excluded.
+     *
+     * @param writer
+     *            The writer to use.
+     * @param excluded
+     *            The rules to leave out.
+     * @throws IOException
+     *             In case the rule set cannot be written.
+     */
+    public static void writeRuleset(final Writer writer, final Set<PMDRule> excluded) throws IOException {
+        final Map<PMDRuleSet, List<PMDRule>> exclusions = new EnumMap<>(PMDRuleSet.class);
+        final Map<PMDRuleSet, Integer> sizes = new EnumMap<>(PMDRuleSet.class);
+        for (final PMDRule rule : PMDRule.values()) {
+            final Integer size = sizes.get(rule.getRuleSet());
+            sizes.put(rule.getRuleSet(), Integer.valueOf(size == null ? 1 : size.intValue() + 1));
+            if (excluded.contains(rule)) {
+                List<PMDRule> rules = exclusions.get(rule.getRuleSet());
+                if (rules == null) {
+                    rules = new ArrayList<>();
+                    exclusions.put(rule.getRuleSet(), rules);
+                }
+                rules.add(rule);
+            }
+        }
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<ruleset name=\"trimmed\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\"\n");
+        writer.write("        xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+        writer.write("        xsi:schemaLocation=\"http://pmd.sourceforge.net/ruleset/2.0.0 "
+                + "http://pmd.sourceforge.net/ruleset_2_0_0.xsd\">\n");
+        writer.write("    <description>Rules suppressed throughout the project are left out.</description>\n");
+        for (final PMDRuleSet ruleSet : PMDRuleSet.values()) {
+            final List<PMDRule> rules = exclusions.get(ruleSet);
+            if (rules == null) {
+                writer.write("    <rule ref=\"" + ruleSet.getReference() + "\"/>\n");
+            } else if (rules.size() < sizes.get(ruleSet).intValue()) {
+                writer.write("    <rule ref=\"" + ruleSet.getReference() + "\">\n");
+                for (final PMDRule rule : rules) {
+                    writer.write("        <exclude name=\"" + rule.getName() + "\"/>\n");
+                }
+                writer.write("    </rule>\n");
+            }
+        }
+        writer.write("</ruleset>\n");
+    }
+
+    private void countFiles(final Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) {
+                final Path name = directory.getFileName();
+                return !directory.equals(root) && name != null && name.toString().startsWith(".")
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && file.toString().endsWith(JAVA_SUFFIX)
+                        && !fileIds.containsKey(file)) {
+                    final Path directory = file.getParent();
+                    fileIds.put(file, Integer.valueOf(packageOfFile.size()));
+                    packageOfFile.add(directory);
+                    final Integer count = filesPerPackage.get(directory);
+                    filesPerPackage.put(directory, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+}
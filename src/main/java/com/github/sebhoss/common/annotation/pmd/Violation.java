@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import javax.annotation.Nullable;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+
+/**
+ * A rule violation reported by PMD for a single source file.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class Violation {
+
+    private final PMDRule rule;
+    private final int     line;
+    private final String  message;
+
+    /**
+     * @param rule
+     *            The violated rule.
+     * @param line
+     *            The line the violation begins at, starting at 1.
+     * @param message
+     *            The message of the violation.
+     */
+    public Violation(final PMDRule rule, final int line, final String message) {
+        this.rule = rule;
+        this.line = line;
+        this.message = message;
+    }
+
+    /**
+     * @return The violated rule.
+     */
+    public PMDRule getRule() {
+        return rule;
+    }
+
+    /**
+     * @return The line the violation begins at, starting at 1.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return The message of the violation.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object object) {
+        if (!(object instanceof Violation)) {
+            return false;
+        }
+        final Violation other = (Violation) object;
+        return rule == other.rule && line == other.line && message.equals(other.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return (rule.hashCode() * 31 + line) * 31 + message.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return line + ": " + rule.getKey() + " " + message;
+    }
+
+}
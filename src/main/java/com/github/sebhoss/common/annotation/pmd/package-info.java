@@ -0,0 +1,13 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+/**
+ * Tools which tailor PMD runs to the rules a project actually uses.
+ */
+@NotNullByDefault
+package com.github.sebhoss.common.annotation.pmd;
+
+import com.github.sebhoss.common.annotation.NotNullByDefault;
@@ -0,0 +1,606 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import com.github.sebhoss.common.annotation.BinaryCodec;
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * Generates the codecs of types annotated with {@link BinaryCodec}. Each codec offers <code>encode</code>,
+ * <code>decode</code> and <code>sizeOf</code>, uses the byte order of the given buffer and works with heap, direct and
+ * memory-mapped buffers alike. Null markers are written for all fields except those which are not null according to
+ * {@link NotNullByDefault}, and for all list elements since no checker verifies the default for type arguments.
+ */
+@SupportedAnnotationTypes("com.github.sebhoss.common.annotation.BinaryCodec")
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class BinaryCodecProcessor extends AbstractProcessor {
+
+    private static final String CODEC = "Codec";
+
+    private enum Kind {
+        PRIMITIVE, BOXED, STRING, BYTES, ENUM, CODEC, LIST
+    }
+
+    private static final class Property {
+
+        private final String     name;
+        private final TypeMirror type;
+        private final String     access;
+        private final boolean    notNull;
+
+        Property(final String name, final TypeMirror type, final String access, final boolean notNull) {
+            this.name = name;
+            this.type = type;
+            this.access = access;
+            this.notNull = notNull;
+        }
+
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(BinaryCodec.class)) {
+            final TypeElement type = (TypeElement) element;
+            try {
+                final String source = generate(type);
+                if (source != null) {
+                    try (Writer writer = processingEnv.getFiler().createSourceFile(codecOf(type), type)
+                            .openWriter()) {
+                        writer.write(source);
+                    }
+                }
+            } catch (final IOException exception) {
+                error(type, "Could not write codec: " + exception.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private String generate(final TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE) || !type.getTypeParameters().isEmpty()
+                || type.getKind() != ElementKind.CLASS && !GeneratedSources.isRecord(type)
+                || type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)
+                && !GeneratedSources.isRecord(type)) {
+            error(type, "@BinaryCodec requires a non-private, non-generic top-level or static nested class or record");
+            return null;
+        }
+        final boolean record = GeneratedSources.isRecord(type);
+        final List<Property> properties = new ArrayList<>();
+        for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            final String name = field.getSimpleName().toString();
+            final String access = GeneratedSources.accessorOf(processingEnv, type, field);
+            if (access == null) {
+                error(field, "@BinaryCodec requires a non-private field or an accessor");
+                return null;
+            }
+            if (!isSupported(field.asType())) {
+                error(field, "Unsupported type for @BinaryCodec: " + field.asType());
+                return null;
+            }
+            properties.add(new Property(name, field.asType(), access, NullnessElements.isNotNull(field)));
+        }
+        final boolean constructor = record || hasFieldConstructor(type, properties);
+        if (!constructor && !hasFieldAssignment(type, properties)) {
+            error(type, "@BinaryCodec requires a constructor taking all fields in declaration order, "
+                    + "or a no-arg constructor and non-final fields");
+            return null;
+        }
+        return new Source(type, properties, constructor).write();
+    }
+
+    /** Writes the source code of a single codec. */
+    private final class Source {
+
+        private final TypeElement         type;
+        private final List<Property>      properties;
+        private final boolean             constructor;
+        private final Map<String, String> enums   = new LinkedHashMap<>();
+        private final StringBuilder       out     = new StringBuilder(4096);
+        private boolean                   strings;
+        private int                       counter;
+
+        Source(final TypeElement type, final List<Property> properties, final boolean constructor) {
+            this.type = type;
+            this.properties = properties;
+            this.constructor = constructor;
+        }
+
+        String write() {
+            final String typeName = type.getQualifiedName().toString();
+            final StringBuilder body = new StringBuilder(4096);
+            encodeMethod(typeName);
+            body.append(out);
+            out.setLength(0);
+            decodeMethod(typeName);
+            body.append(out);
+            out.setLength(0);
+            sizeMethod(typeName);
+            body.append(out);
+            out.setLength(0);
+
+            final String packageName = GeneratedSources.packageOf(processingEnv, type);
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName, 0, packageName.length() - 1).append(";\n\n");
+            }
+            out.append("/**\n * Binary codec of {@link ").append(typeName).append("}, generated by ")
+                    .append(BinaryCodecProcessor.class.getSimpleName()).append(".\n */\n");
+            final String codecName = GeneratedSources.generatedName(type, CODEC);
+            out.append("public final class ").append(codecName).append(" {\n\n");
+            for (final Map.Entry<String, String> entry : enums.entrySet()) {
+                out.append("    private static final ").append(entry.getKey()).append("[] ").append(entry.getValue())
+                        .append(" = ").append(entry.getKey()).append(".values();\n");
+            }
+            if (!enums.isEmpty()) {
+                out.append('\n');
+            }
+            out.append(body);
+            if (strings) {
+                stringMethods();
+            }
+            out.append("    private ").append(codecName).append("() {\n        // utility class\n    }\n\n}\n");
+            return out.toString();
+        }
+
+        private void encodeMethod(final String typeName) {
+            out.append("    /**\n     * Writes the given value at the current position of the buffer.\n     *\n")
+                    .append("     * @param value\n     *            The value to write.\n")
+                    .append("     * @param buffer\n     *            The buffer to write to.\n     */\n")
+                    .append("    public static void encode(final ").append(typeName)
+                    .append(" value, final java.nio.ByteBuffer buffer) {\n");
+            for (final Property property : properties) {
+                final String local = "v" + counter++;
+                line(2, "final " + property.type + " " + local + " = value." + property.access + ";");
+                encode(2, property.type, local, property.notNull);
+            }
+            out.append("    }\n\n");
+        }
+
+        private void decodeMethod(final String typeName) {
+            out.append("    /**\n     * Reads a value from the current position of the buffer.\n     *\n")
+                    .append("     * @param buffer\n     *            The buffer to read from.\n")
+                    .append("     * @return The value read.\n     */\n").append("    public static ").append(typeName)
+                    .append(" decode(final java.nio.ByteBuffer buffer) {\n");
+            final List<String> locals = new ArrayList<>();
+            for (final Property property : properties) {
+                final String local = "v" + counter++;
+                locals.add(local);
+                line(2, "final " + property.type + " " + local + ";");
+                decode(2, property.type, local, property.notNull);
+            }
+            if (constructor) {
+                line(2, "return new " + typeName + "(" + String.join(", ", locals) + ");");
+            } else {
+                line(2, "final " + typeName + " value = new " + typeName + "();");
+                for (int index = 0; index < properties.size(); index++) {
+                    line(2, "value." + properties.get(index).name + " = " + locals.get(index) + ";");
+                }
+                line(2, "return value;");
+            }
+            out.append("    }\n\n");
+        }
+
+        private void sizeMethod(final String typeName) {
+            out.append("    /**\n     * @param value\n     *            The value to measure.\n")
+                    .append("     * @return The number of bytes written by <code>encode</code>.\n     */\n")
+                    .append("    public static int sizeOf(final ").append(typeName).append(" value) {\n");
+            int fixed = 0;
+            for (final Property property : properties) {
+                final Kind kind = kindOf(property.type);
+                if (kind == Kind.PRIMITIVE || property.notNull && kind == Kind.BOXED) {
+                    fixed += sizeOf(primitiveOf(property.type));
+                } else if (property.notNull && kind == Kind.ENUM) {
+                    fixed += 4;
+                }
+            }
+            line(2, "int size = " + fixed + ";");
+            for (final Property property : properties) {
+                final Kind kind = kindOf(property.type);
+                if (kind != Kind.PRIMITIVE && !(property.notNull && (kind == Kind.BOXED || kind == Kind.ENUM))) {
+                    final String local = "v" + counter++;
+                    line(2, "final " + property.type + " " + local + " = value." + property.access + ";");
+                    size(2, property.type, local, property.notNull);
+                }
+            }
+            line(2, "return size;");
+            out.append("    }\n\n");
+        }
+
+        private void encode(final int depth, final TypeMirror fieldType, final String value, final boolean notNull) {
+            if (notNull || fieldType.getKind().isPrimitive()) {
+                encodeValue(depth, fieldType, value);
+                return;
+            }
+            line(depth, "if (" + value + " == null) {");
+            line(depth + 1, "buffer.put((byte) 0);");
+            line(depth, "} else {");
+            line(depth + 1, "buffer.put((byte) 1);");
+            encodeValue(depth + 1, fieldType, value);
+            line(depth, "}");
+        }
+
+        private void encodeValue(final int depth, final TypeMirror fieldType, final String value) {
+            switch (kindOf(fieldType)) {
+                case PRIMITIVE:
+                case BOXED:
+                    line(depth, put(primitiveOf(fieldType), value));
+                    break;
+                case STRING:
+                    strings = true;
+                    line(depth, "writeString(buffer, " + value + ");");
+                    break;
+                case BYTES:
+                    line(depth, "buffer.putInt(" + value + ".length);");
+                    line(depth, "buffer.put(" + value + ");");
+                    break;
+                case ENUM:
+                    line(depth, "buffer.putInt(" + value + ".ordinal());");
+                    break;
+                case CODEC:
+                    line(depth, codecOf(fieldType) + ".encode(" + value + ", buffer);");
+                    break;
+                case LIST:
+                    final TypeMirror elementType = elementOf(fieldType);
+                    final String element = "e" + counter++;
+                    line(depth, "buffer.putInt(" + value + ".size());");
+                    line(depth, "for (final " + elementType + " " + element + " : " + value + ") {");
+                    encode(depth + 1, elementType, element, false);
+                    line(depth, "}");
+                    break;
+                default:
+                    throw new IllegalStateException(String.valueOf(fieldType));
+            }
+        }
+
+        private void decode(final int depth, final TypeMirror fieldType, final String target, final boolean notNull) {
+            if (notNull || fieldType.getKind().isPrimitive()) {
+                decodeValue(depth, fieldType, target);
+                return;
+            }
+            line(depth, "if (buffer.get() == 0) {");
+            line(depth + 1, target + " = null;");
+            line(depth, "} else {");
+            decodeValue(depth + 1, fieldType, target);
+            line(depth, "}");
+        }
+
+        private void decodeValue(final int depth, final TypeMirror fieldType, final String target) {
+            switch (kindOf(fieldType)) {
+                case PRIMITIVE:
+                case BOXED:
+                    line(depth, target + " = " + get(primitiveOf(fieldType)) + ";");
+                    break;
+                case STRING:
+                    strings = true;
+                    line(depth, target + " = readString(buffer);");
+                    break;
+                case BYTES:
+                    final String bytes = "b" + counter++;
+                    line(depth, "final byte[] " + bytes + " = new byte[buffer.getInt()];");
+                    line(depth, "buffer.get(" + bytes + ");");
+                    line(depth, target + " = " + bytes + ";");
+                    break;
+                case ENUM:
+                    String constants = enums.get(fieldType.toString());
+                    if (constants == null) {
+                        constants = "ENUM_" + enums.size();
+                        enums.put(fieldType.toString(), constants);
+                    }
+                    line(depth, target + " = " + constants + "[buffer.getInt()];");
+                    break;
+                case CODEC:
+                    line(depth, target + " = " + codecOf(fieldType) + ".decode(buffer);");
+                    break;
+                case LIST:
+                    final TypeMirror elementType = elementOf(fieldType);
+                    final int id = counter++;
+                    line(depth, "final int n" + id + " = buffer.getInt();");
+                    line(depth, "final java.util.List<" + elementType + "> l" + id + " = new java.util.ArrayList<>(n"
+                            + id + ");");
+                    line(depth, "for (int i" + id + " = 0; i" + id + " < n" + id + "; i" + id + "++) {");
+                    line(depth + 1, "final " + elementType + " e" + id + ";");
+                    decode(depth + 1, elementType, "e" + id, false);
+                    line(depth + 1, "l" + id + ".add(e" + id + ");");
+                    line(depth, "}");
+                    line(depth, target + " = l" + id + ";");
+                    break;
+                default:
+                    throw new IllegalStateException(String.valueOf(fieldType));
+            }
+        }
+
+        private void size(final int depth, final TypeMirror fieldType, final String value, final boolean notNull) {
+            if (notNull || fieldType.getKind().isPrimitive()) {
+                sizeValue(depth, fieldType, value);
+                return;
+            }
+            line(depth, "size += 1;");
+            line(depth, "if (" + value + " != null) {");
+            sizeValue(depth + 1, fieldType, value);
+            line(depth, "}");
+        }
+
+        private void sizeValue(final int depth, final TypeMirror fieldType, final String value) {
+            switch (kindOf(fieldType)) {
+                case PRIMITIVE:
+                case BOXED:
+                    line(depth, "size += " + sizeOf(primitiveOf(fieldType)) + ";");
+                    break;
+                case STRING:
+                    strings = true;
+                    line(depth, "size += 4 + utf8Length(" + value + ");");
+                    break;
+                case BYTES:
+                    line(depth, "size += 4 + " + value + ".length;");
+                    break;
+                case ENUM:
+                    line(depth, "size += 4;");
+                    break;
+                case CODEC:
+                    line(depth, "size += " + codecOf(fieldType) + ".sizeOf(" + value + ");");
+                    break;
+                case LIST:
+                    final TypeMirror elementType = elementOf(fieldType);
+                    final String element = "e" + counter++;
+                    line(depth, "size += 4;");
+                    line(depth, "for (final " + elementType + " " + element + " : " + value + ") {");
+                    size(depth + 1, elementType, element, false);
+                    line(depth, "}");
+                    break;
+                default:
+                    throw new IllegalStateException(String.valueOf(fieldType));
+            }
+        }
+
+        private void stringMethods() {
+            out.append("    private static void writeString(final java.nio.ByteBuffer buffer, final String value) {\n");
+            line(2, "final byte[] bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);");
+            line(2, "buffer.putInt(bytes.length);");
+            line(2, "buffer.put(bytes);");
+            out.append("    }\n\n");
+            out.append("    private static String readString(final java.nio.ByteBuffer buffer) {\n");
+            line(2, "final int length = buffer.getInt();");
+            line(2, "if (buffer.hasArray()) {");
+            line(3, "final int position = buffer.position();");
+            line(3, "final String value = new String(buffer.array(), buffer.arrayOffset() + position, length,");
+            line(5, "java.nio.charset.StandardCharsets.UTF_8);");
+            line(3, "((java.nio.Buffer) buffer).position(position + length);");
+            line(3, "return value;");
+            line(2, "}");
+            line(2, "final byte[] bytes = new byte[length];");
+            line(2, "buffer.get(bytes);");
+            line(2, "return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);");
+            out.append("    }\n\n");
+            out.append("    private static int utf8Length(final String value) {\n");
+            line(2, "int length = value.length();");
+            line(2, "for (int index = 0; index < value.length(); index++) {");
+            line(3, "final char character = value.charAt(index);");
+            line(3, "if (Character.isSurrogate(character)) {");
+            line(4, "if (Character.isHighSurrogate(character) && index + 1 < value.length()");
+            line(6, "&& Character.isLowSurrogate(value.charAt(index + 1))) {");
+            line(5, "length += 2;");
+            line(5, "index++;");
+            line(4, "}");
+            line(3, "} else if (character >= 0x800) {");
+            line(4, "length += 2;");
+            line(3, "} else if (character >= 0x80) {");
+            line(4, "length += 1;");
+            line(3, "}");
+            line(2, "}");
+            line(2, "return length;");
+            out.append("    }\n\n");
+        }
+
+        private void line(final int depth, final String code) {
+            GeneratedSources.line(out, depth, code);
+        }
+
+    }
+
+    private Kind kindOf(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return Kind.PRIMITIVE;
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return Kind.BYTES;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        final String name = element.getQualifiedName().toString();
+        if ("java.lang.String".equals(name)) {
+            return Kind.STRING;
+        } else if ("java.util.List".equals(name)) {
+            return Kind.LIST;
+        } else if (element.getKind() == ElementKind.ENUM) {
+            return Kind.ENUM;
+        } else if (element.getAnnotation(BinaryCodec.class) != null) {
+            return Kind.CODEC;
+        }
+        return Kind.BOXED;
+    }
+
+    private boolean isSupported(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE;
+        } else if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        final String name = element.getQualifiedName().toString();
+        if ("java.util.List".equals(name)) {
+            final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            return arguments.size() == 1 && arguments.get(0).getKind() == TypeKind.DECLARED
+                    && isSupported(arguments.get(0));
+        }
+        return "java.lang.String".equals(name) || element.getKind() == ElementKind.ENUM
+                || element.getAnnotation(BinaryCodec.class) != null && element.getTypeParameters().isEmpty()
+                || isBoxed(type);
+    }
+
+    private boolean isBoxed(final TypeMirror type) {
+        try {
+            processingEnv.getTypeUtils().unboxedType(type);
+            return true;
+        } catch (final IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    private TypeKind primitiveOf(final TypeMirror type) {
+        return type.getKind().isPrimitive() ? type.getKind() : processingEnv.getTypeUtils().unboxedType(type)
+                .getKind();
+    }
+
+    private static TypeMirror elementOf(final TypeMirror list) {
+        return ((DeclaredType) list).getTypeArguments().get(0);
+    }
+
+    private String codecOf(final TypeMirror type) {
+        return codecOf((TypeElement) ((DeclaredType) type).asElement());
+    }
+
+    private String codecOf(final TypeElement type) {
+        return GeneratedSources.packageOf(processingEnv, type) + GeneratedSources.generatedName(type, CODEC);
+    }
+
+    private static String put(final TypeKind kind, final String value) {
+        switch (kind) {
+            case BOOLEAN:
+                return "buffer.put((byte) (" + value + " ? 1 : 0));";
+            case BYTE:
+                return "buffer.put(" + value + ");";
+            case SHORT:
+                return "buffer.putShort(" + value + ");";
+            case CHAR:
+                return "buffer.putChar(" + value + ");";
+            case INT:
+                return "buffer.putInt(" + value + ");";
+            case LONG:
+                return "buffer.putLong(" + value + ");";
+            case FLOAT:
+                return "buffer.putFloat(" + value + ");";
+            default:
+                return "buffer.putDouble(" + value + ");";
+        }
+    }
+
+    private static String get(final TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "buffer.get() != 0";
+            case BYTE:
+                return "buffer.get()";
+            case SHORT:
+                return "buffer.getShort()";
+            case CHAR:
+                return "buffer.getChar()";
+            case INT:
+                return "buffer.getInt()";
+            case LONG:
+                return "buffer.getLong()";
+            case FLOAT:
+                return "buffer.getFloat()";
+            default:
+                return "buffer.getDouble()";
+        }
+    }
+
+    private static int sizeOf(final TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+            case BYTE:
+                return 1;
+            case SHORT:
+            case CHAR:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    private boolean hasFieldConstructor(final TypeElement type, final List<Property> properties) {
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            final List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PRIVATE) || parameters.size() != properties.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int index = 0; index < parameters.size() && matches; index++) {
+                matches = processingEnv.getTypeUtils().isSameType(parameters.get(index).asType(),
+                        properties.get(index).type);
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasFieldAssignment(final TypeElement type, final List<Property> properties) {
+        boolean noArgConstructor = false;
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            noArgConstructor |= constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE);
+        }
+        if (!noArgConstructor) {
+            return false;
+        }
+        for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            for (final Property property : properties) {
+                if (property.name.equals(field.getSimpleName().toString())
+                        && (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(
+                                Modifier.FINAL))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Naming and member access shared by the processors which generate a companion class next to an annotated type.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class GeneratedSources {
+
+    private static final String RECORD = "RECORD";
+
+    /**
+     * @param type
+     *            The type to check.
+     * @return <code>true</code> if the type is a record, which is detected by name to keep supporting Java 8.
+     */
+    static boolean isRecord(final TypeElement type) {
+        return RECORD.equals(type.getKind().name());
+    }
+
+    /**
+     * @param environment
+     *            The processing environment.
+     * @param type
+     *            Some type.
+     * @return The package of the type followed by a dot, or an empty string for the unnamed package.
+     */
+    static String packageOf(final ProcessingEnvironment environment, final TypeElement type) {
+        final String name = environment.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        return name.isEmpty() ? "" : name + ".";
+    }
+
+    /**
+     * @param type
+     *            The annotated type.
+     * @param suffix
+     *            The suffix of the generated class.
+     * @return The simple name of the generated class, which joins the names of enclosing types with an underscore.
+     */
+    static String generatedName(final TypeElement type, final String suffix) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing
+                .getEnclosingElement()) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+        return name.append(suffix).toString();
+    }
+
+    /**
+     * @param environment
+     *            The processing environment.
+     * @param type
+     *            The type declaring the field.
+     * @param field
+     *            The field to read.
+     * @return The expression reading the field from an instance in the same package, e.g. <code>name</code> or
+     *         <code>getName()</code>, or <code>null</code> if a private field has no accessor.
+     */
+    @Nullable
+    static String accessorOf(final ProcessingEnvironment environment, final TypeElement type,
+            final VariableElement field) {
+        final String name = field.getSimpleName().toString();
+        if (isRecord(type)) {
+            return name + "()";
+        } else if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (final ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            final String methodName = method.getSimpleName().toString();
+            if (!method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getParameters().isEmpty()
+                    && environment.getTypeUtils().isSameType(method.getReturnType(), field.asType())
+                    && (methodName.equals(name) || methodName.equals("get" + capitalized)
+                            || methodName.equals("is" + capitalized))) {
+                return methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends an indented line of code.
+     *
+     * @param out
+     *            The source code to append to.
+     * @param depth
+     *            The indentation level.
+     * @param code
+     *            The line to append.
+     */
+    static void line(final StringBuilder out, final int depth, final String code) {
+        for (int level = 0; level < depth; level++) {
+            out.append("    ");
+        }
+        out.append(code).append('\n');
+    }
+
+    private GeneratedSources() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.NullnessDefaults;
+import com.github.sebhoss.common.annotation.StaticNotNullByDefault;
+
+/**
+ * Compile-time counterpart of {@link NullnessDefaults}: applies the nesting rules of {@link NotNullByDefault} to the
+ * {@link Element elements} seen by an annotation processor.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class NullnessElements {
+
+    private static final String NULLABLE       = "javax.annotation.Nullable";
+    private static final String CHECK_FOR_NULL = "javax.annotation.CheckForNull";
+
+    /**
+     * @param element
+     *            The element to check.
+     * @return <code>true</code> if the element or one of its enclosing elements, up to and including its package, is
+     *         annotated with {@link NotNullByDefault} or {@link StaticNotNullByDefault}.
+     */
+    public static boolean isNotNullByDefault(final Element element) {
+        for (@Nullable Element current = element; current != null; current = current.getEnclosingElement()) {
+            if (current.getAnnotation(NotNullByDefault.class) != null
+                    || current.getAnnotation(StaticNotNullByDefault.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param element
+     *            The element to check.
+     * @return <code>true</code> if the element is explicitly annotated as nullable.
+     */
+    public static boolean isNullable(final Element element) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (NULLABLE.equals(name) || CHECK_FOR_NULL.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param element
+     *            A field, method or parameter.
+     * @return <code>true</code> if the value of the element can never be <code>null</code>, either because its type is
+     *         primitive or because it is covered by {@link NotNullByDefault} without being nullable.
+     */
+    public static boolean isNotNull(final Element element) {
+        final TypeMirror type = element instanceof ExecutableElement ? ((ExecutableElement) element).getReturnType()
+                : element.asType();
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        return type.getKind() != TypeKind.VOID && !isNullable(element) && isNotNullByDefault(element);
+    }
+
+    private NullnessElements() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.inventory.SuppressionInventory;
+
+/**
+ * Writes the {@link SuppressWarnings} values of each compiled top-level type into a fragment of its own, see
+ * {@link SuppressionInventory}. Every fragment is derived from a single type and names that type as its only
+ * originating element, so the processor is registered as <em>isolating</em> for Gradle's incremental compilation:
+ * recompiling a type rewrites its fragment, deleting it removes the fragment, and all other fragments stay untouched.
+ * Types without suppressions get an empty fragment, so that a type losing its last suppression does not keep the
+ * fragment of an earlier compilation in builds which leave the class output in place. For the same reason the
+ * processor runs for all sources, not only for those using {@link SuppressWarnings}. The fragments are merged when an
+ * inventory is read, never during compilation.
+ * <p/>
+ * Annotations on local variables are not visible to annotation processors and are therefore missing.
+ */
+@SupportedAnnotationTypes("*")
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class SuppressionInventoryProcessor extends AbstractProcessor {
+
+    private static final String MODULE_INFO = "module-info";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final Map<Element, StringBuilder> fragments = new LinkedHashMap<>();
+        for (final Element root : roundEnv.getRootElements()) {
+            if (!(root instanceof PackageElement)) {
+                fragments.put(root, new StringBuilder(0));
+            }
+        }
+        for (final Element element : roundEnv.getElementsAnnotatedWith(SuppressWarnings.class)) {
+            final Element origin = originOf(element);
+            StringBuilder fragment = fragments.get(origin);
+            if (fragment == null) {
+                fragment = new StringBuilder(256);
+                fragments.put(origin, fragment);
+            }
+            final String name = nameOf(element);
+            for (final String value : element.getAnnotation(SuppressWarnings.class).value()) {
+                fragment.append(element.getKind().name()).append('\t').append(name).append('\t')
+                        .append(value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ')).append('\n');
+            }
+        }
+        for (final Map.Entry<Element, StringBuilder> fragment : fragments.entrySet()) {
+            write(fragment.getKey(), fragment.getValue());
+        }
+        // other processors may handle @SuppressWarnings and all other annotations as well
+        return false;
+    }
+
+    private void write(final Element origin, final CharSequence fragment) {
+        final String name = SuppressionInventory.LOCATION + fragmentOf(origin) + SuppressionInventory.EXTENSION;
+        try (Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", name, origin).openWriter()) {
+            writer.append(fragment);
+        } catch (final IOException exception) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write suppression inventory: " + exception.getMessage(), origin);
+        }
+    }
+
+    /**
+     * @return The top-level type declaring the element, or the module the element is.
+     */
+    private static Element originOf(final Element element) {
+        Element current = element;
+        for (@Nullable Element enclosing = element.getEnclosingElement(); enclosing != null
+                && !(enclosing instanceof PackageElement); enclosing = current.getEnclosingElement()) {
+            current = enclosing;
+        }
+        return current;
+    }
+
+    private String fragmentOf(final Element origin) {
+        if (origin instanceof TypeElement) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) origin).toString();
+        }
+        return MODULE_INFO;
+    }
+
+    /**
+     * @return The binary name of types, the name of modules, and names like
+     *         <code>com.example.Foo#bar(java.lang.String)</code> for members.
+     */
+    private String nameOf(final Element element) {
+        if (element instanceof TypeElement) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+        }
+        @Nullable
+        final Element enclosing = element.getEnclosingElement();
+        if (enclosing == null) {
+            return element.toString();
+        }
+        return nameOf(enclosing) + (enclosing instanceof TypeElement ? "#" : "/") + element;
+    }
+
+}
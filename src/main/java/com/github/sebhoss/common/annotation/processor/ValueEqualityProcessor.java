@@ -0,0 +1,335 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+import com.github.sebhoss.common.annotation.ValueEquality;
+
+/**
+ * Generates the <code>equals</code>, <code>hashCode</code> and <code>compare</code> helpers of types annotated with
+ * {@link ValueEquality}. Fields which are not null according to {@link NotNullByDefault} call <code>equals</code>,
+ * <code>hashCode</code> and <code>compareTo</code> directly instead of going through <code>java.util.Objects</code>,
+ * and <code>equals</code> checks primitive and enum fields before any other field. Floating point fields are compared
+ * by their bits like {@link Double#equals(Object)} does, arrays by their content, including the content of nested
+ * arrays.
+ */
+@SupportedAnnotationTypes("com.github.sebhoss.common.annotation.ValueEquality")
+@SuppressWarnings(CompilerWarnings.NLS)
+public final class ValueEqualityProcessor extends AbstractProcessor {
+
+    private static final String EQUALITY = "Equality";
+
+    private static final class Field {
+
+        private final String     access;
+        private final TypeMirror type;
+        private final boolean    notNull;
+
+        Field(final String access, final TypeMirror type, final boolean notNull) {
+            this.access = access;
+            this.type = type;
+            this.notNull = notNull;
+        }
+
+        /**
+         * @return <code>true</code> if comparing the field for equality is a single <code>==</code>.
+         */
+        boolean isIdentity() {
+            return type.getKind().isPrimitive() || type.getKind() == TypeKind.DECLARED
+                    && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+        }
+
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(ValueEquality.class)) {
+            final TypeElement type = (TypeElement) element;
+            try {
+                final String source = generate(type);
+                if (source != null) {
+                    try (Writer writer = processingEnv.getFiler()
+                            .createSourceFile(GeneratedSources.packageOf(processingEnv, type)
+                                    + GeneratedSources.generatedName(type, EQUALITY), type).openWriter()) {
+                        writer.write(source);
+                    }
+                }
+            } catch (final IOException exception) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not write equality helpers: " + exception.getMessage(), type);
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private String generate(final TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE) || type.getNestingKind() == NestingKind.LOCAL
+                || type.getNestingKind() == NestingKind.ANONYMOUS || type.getKind() != ElementKind.CLASS
+                && !GeneratedSources.isRecord(type)) {
+            error(type, "@ValueEquality requires a non-private member or top-level class or record");
+            return null;
+        }
+        final List<Field> fields = new ArrayList<>();
+        boolean comparable = type.getTypeParameters().isEmpty();
+        for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            final String access = GeneratedSources.accessorOf(processingEnv, type, field);
+            if (access == null) {
+                error(field, "@ValueEquality requires a non-private field or an accessor");
+                return null;
+            }
+            fields.add(new Field(access, field.asType(), NullnessElements.isNotNull(field)));
+            comparable &= isComparable(field.asType());
+        }
+
+        final String typeName = typeNameOf(type);
+        final String className = GeneratedSources.generatedName(type, EQUALITY);
+        final StringBuilder out = new StringBuilder(2048);
+        final String packageName = GeneratedSources.packageOf(processingEnv, type);
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName, 0, packageName.length() - 1).append(";\n\n");
+        }
+        out.append("/**\n * Equality of {@link ").append(type.getQualifiedName()).append("}, generated by ")
+                .append(ValueEqualityProcessor.class.getSimpleName()).append(".\n */\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+        equalsMethod(out, type, typeName, fields);
+        hashCodeMethod(out, typeName, fields);
+        if (comparable) {
+            compareMethod(out, typeName, fields);
+        }
+        out.append("    private ").append(className).append("() {\n        // utility class\n    }\n\n}\n");
+        return out.toString();
+    }
+
+    private static void equalsMethod(final StringBuilder out, final TypeElement type, final String typeName,
+            final List<Field> fields) {
+        out.append("    /**\n     * @param value\n     *            The value to compare.\n")
+                .append("     * @param other\n     *            The object to compare with, possibly null.\n")
+                .append("     * @return <code>true</code> if both are equal.\n     */\n")
+                .append("    public static boolean equals(final ").append(typeName)
+                .append(" value, final Object other) {\n");
+        GeneratedSources.line(out, 2, "if (value == other) {");
+        GeneratedSources.line(out, 3, "return true;");
+        GeneratedSources.line(out, 2, "}");
+        if (type.getModifiers().contains(Modifier.FINAL) || GeneratedSources.isRecord(type)) {
+            GeneratedSources.line(out, 2, "if (!(other instanceof " + typeName + ")) {");
+        } else {
+            GeneratedSources.line(out, 2, "if (other == null || value.getClass() != other.getClass()) {");
+        }
+        GeneratedSources.line(out, 3, "return false;");
+        GeneratedSources.line(out, 2, "}");
+        if (fields.isEmpty()) {
+            GeneratedSources.line(out, 2, "return true;");
+        } else {
+            final List<Field> ordered = new ArrayList<>(fields);
+            Collections.sort(ordered, (first, second) -> Boolean.compare(!first.isIdentity(), !second.isIdentity()));
+            GeneratedSources.line(out, 2, "final " + typeName + " that = (" + typeName + ") other;");
+            for (int index = 0; index < ordered.size(); index++) {
+                GeneratedSources.line(out, index == 0 ? 2 : 4, (index == 0 ? "return " : "&& ")
+                        + equalsOf(ordered.get(index)) + (index == ordered.size() - 1 ? ";" : ""));
+            }
+        }
+        out.append("    }\n\n");
+    }
+
+    private static void hashCodeMethod(final StringBuilder out, final String typeName, final List<Field> fields) {
+        out.append("    /**\n     * @param value\n     *            The value to hash.\n")
+                .append("     * @return The hash code of the value.\n     */\n")
+                .append("    public static int hashCode(final ").append(typeName).append(" value) {\n");
+        if (fields.isEmpty()) {
+            GeneratedSources.line(out, 2, "return 0;");
+        } else {
+            GeneratedSources.line(out, 2, "int result = " + hashOf(fields.get(0)) + ";");
+            for (final Field field : fields.subList(1, fields.size())) {
+                GeneratedSources.line(out, 2, "result = 31 * result + " + hashOf(field) + ";");
+            }
+            GeneratedSources.line(out, 2, "return result;");
+        }
+        out.append("    }\n\n");
+    }
+
+    private static void compareMethod(final StringBuilder out, final String typeName, final List<Field> fields) {
+        out.append("    /**\n     * @param left\n     *            The first value to compare.\n")
+                .append("     * @param right\n     *            The second value to compare.\n")
+                .append("     * @return A negative number, zero or a positive number if the first value is less")
+                .append(" than, equal to or\n     *         greater than the second, comparing fields in declaration")
+                .append(" order and <code>null</code>\n     *         before all other values.\n     */\n")
+                .append("    public static int compare(final ").append(typeName).append(" left, final ")
+                .append(typeName).append(" right) {\n");
+        boolean nullable = false;
+        if (fields.isEmpty()) {
+            GeneratedSources.line(out, 2, "return 0;");
+        } else {
+            for (int index = 0; index < fields.size(); index++) {
+                final Field field = fields.get(index);
+                nullable |= !field.notNull;
+                if (index == fields.size() - 1) {
+                    GeneratedSources.line(out, 2, "return " + compareOf(field) + ";");
+                } else {
+                    GeneratedSources.line(out, 2, (index == 0 ? "int " : "") + "result = " + compareOf(field) + ";");
+                    GeneratedSources.line(out, 2, "if (result != 0) {");
+                    GeneratedSources.line(out, 3, "return result;");
+                    GeneratedSources.line(out, 2, "}");
+                }
+            }
+        }
+        out.append("    }\n\n");
+        if (nullable) {
+            out.append("    private static <T extends Comparable<? super T>> int compareNullable(final T left,")
+                    .append(" final T right) {\n");
+            GeneratedSources.line(out, 2, "if (left == right) {");
+            GeneratedSources.line(out, 3, "return 0;");
+            GeneratedSources.line(out, 2, "} else if (left == null) {");
+            GeneratedSources.line(out, 3, "return -1;");
+            GeneratedSources.line(out, 2, "} else if (right == null) {");
+            GeneratedSources.line(out, 3, "return 1;");
+            GeneratedSources.line(out, 2, "}");
+            GeneratedSources.line(out, 2, "return left.compareTo(right);");
+            out.append("    }\n\n");
+        }
+    }
+
+    private static String equalsOf(final Field field) {
+        final String left = "value." + field.access;
+        final String right = "that." + field.access;
+        switch (field.type.getKind()) {
+            case FLOAT:
+                return "Float.floatToIntBits(" + left + ") == Float.floatToIntBits(" + right + ")";
+            case DOUBLE:
+                return "Double.doubleToLongBits(" + left + ") == Double.doubleToLongBits(" + right + ")";
+            case ARRAY:
+                return "java.util.Arrays." + (isNested(field.type) ? "deepEquals(" : "equals(") + left + ", " + right
+                        + ")";
+            default:
+                if (field.isIdentity()) {
+                    return left + " == " + right;
+                }
+                return field.notNull ? left + ".equals(" + right + ")"
+                        : "java.util.Objects.equals(" + left + ", " + right + ")";
+        }
+    }
+
+    private static String hashOf(final Field field) {
+        final String value = "value." + field.access;
+        switch (field.type.getKind()) {
+            case BOOLEAN:
+                return "Boolean.hashCode(" + value + ")";
+            case BYTE:
+            case SHORT:
+            case CHAR:
+            case INT:
+                return value;
+            case LONG:
+                return "Long.hashCode(" + value + ")";
+            case FLOAT:
+                return "Float.hashCode(" + value + ")";
+            case DOUBLE:
+                return "Double.hashCode(" + value + ")";
+            case ARRAY:
+                return "java.util.Arrays." + (isNested(field.type) ? "deepHashCode(" : "hashCode(") + value + ")";
+            default:
+                return field.notNull ? value + ".hashCode()" : "java.util.Objects.hashCode(" + value + ")";
+        }
+    }
+
+    private static String compareOf(final Field field) {
+        final String left = "left." + field.access;
+        final String right = "right." + field.access;
+        switch (field.type.getKind()) {
+            case BOOLEAN:
+                return "Boolean.compare(" + left + ", " + right + ")";
+            case BYTE:
+                return "Byte.compare(" + left + ", " + right + ")";
+            case SHORT:
+                return "Short.compare(" + left + ", " + right + ")";
+            case CHAR:
+                return "Character.compare(" + left + ", " + right + ")";
+            case INT:
+                return "Integer.compare(" + left + ", " + right + ")";
+            case LONG:
+                return "Long.compare(" + left + ", " + right + ")";
+            case FLOAT:
+                return "Float.compare(" + left + ", " + right + ")";
+            case DOUBLE:
+                return "Double.compare(" + left + ", " + right + ")";
+            default:
+                return field.notNull ? left + ".compareTo(" + right + ")"
+                        : "compareNullable(" + left + ", " + right + ")";
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the elements of the array may be arrays themselves, which is the case for all arrays
+     *         of references.
+     */
+    private static boolean isNested(final TypeMirror array) {
+        return !((ArrayType) array).getComponentType().getKind().isPrimitive();
+    }
+
+    private boolean isComparable(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        } else if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        final Types types = processingEnv.getTypeUtils();
+        final TypeElement comparable = processingEnv.getElementUtils().getTypeElement(Comparable.class.getName());
+        return types.isAssignable(type, types.getDeclaredType(comparable, types.getWildcardType(null, type)));
+    }
+
+    private static String typeNameOf(final TypeElement type) {
+        final int parameters = type.getTypeParameters().size();
+        if (parameters == 0) {
+            return type.getQualifiedName().toString();
+        }
+        final StringBuilder name = new StringBuilder(type.getQualifiedName()).append("<?");
+        for (int index = 1; index < parameters; index++) {
+            name.append(", ?");
+        }
+        return name.append('>').toString();
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+/**
+ * Annotation processors and the compile-time nullness model they share. The processors are not registered in the
+ * main artifact, put the <code>processor</code> artifact on the processor path of a compilation to run them.
+ */
+@NotNullByDefault
+package com.github.sebhoss.common.annotation.processor;
+
+import com.github.sebhoss.common.annotation.NotNullByDefault;
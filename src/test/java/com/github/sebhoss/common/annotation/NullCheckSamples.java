@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Null checks for the tests of the agent's null check optimizer. The class is covered by the {@link NotNullByDefault}
+ * of its package and lives outside of the agent package, which the agent never rewrites. Methods named
+ * <code>redundant...</code> contain checks which can be removed, all other checks must survive.
+ */
+@SuppressWarnings({ CompilerWarnings.NLS, "null", "unused" })
+public final class NullCheckSamples {
+
+    private final int    length;
+    private final String name;
+
+    /**
+     * Inner class whose constructor takes the outer instance as synthetic first parameter.
+     */
+    public final class Inner {
+
+        private final String value;
+
+        /**
+         * @param value
+         *            Nullable, thus its check must survive even if parameters are trusted.
+         */
+        public Inner(@Nullable final String value) {
+            this.value = value == null ? "none" : value;
+        }
+
+        /**
+         * @return The value given to the constructor or <code>none</code>.
+         */
+        public String getValue() {
+            return value;
+        }
+
+    }
+
+    /**
+     * @param name
+     *            Nullable, thus its check must survive.
+     * @param other
+     *            Dereferenced before it is checked, thus the check is redundant.
+     */
+    public NullCheckSamples(@Nullable final String name, final String other) {
+        length = other.length();
+        final String checkedName = name == null ? "none" : name;
+        this.name = other == null ? "other" : checkedName;
+    }
+
+    /**
+     * @return A description of the constructed instance.
+     */
+    @Override
+    public String toString() {
+        return name + length;
+    }
+
+    /**
+     * @param value
+     *            Some string.
+     * @return The length of the string.
+     */
+    public static int redundantAfterDereference(final String value) {
+        final int result = value.length();
+        if (value == null) {
+            return -1;
+        }
+        return result;
+    }
+
+    /**
+     * @param value
+     *            Some string.
+     * @return The string itself.
+     */
+    public static String redundantAfterNullsafe(final String value) {
+        final String checked = Nullsafe.nullsafe(value);
+        Nullsafe.nullsafe(checked, "checked twice");
+        return checked == null ? "null" : checked;
+    }
+
+    /**
+     * @param value
+     *            Some string.
+     * @param times
+     *            Number of iterations.
+     * @return The length of the string times the number of iterations.
+     */
+    public static int redundantInLoop(final String value, final int times) {
+        int total = 0;
+        for (int index = 0; index < times; index++) {
+            total += value.length();
+            if (value == null) {
+                total = -1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param value
+     *            Some string.
+     * @return The length of the string, or <code>-1</code> if it could not be determined.
+     */
+    public static int redundantAfterTry(final String value) {
+        int result;
+        try {
+            result = value.length();
+        } catch (final RuntimeException exception) {
+            return -1;
+        }
+        return value == null ? -2 : result;
+    }
+
+    /**
+     * @param value
+     *            Nullable.
+     * @return The string or <code>null</code>.
+     */
+    public static String nullable(@Nullable final String value) {
+        return value == null ? "null" : value;
+    }
+
+    /**
+     * @param value
+     *            Not nullable, thus its check is only redundant if parameters are trusted.
+     * @return The string or <code>null</code>.
+     */
+    public static String parameter(final String value) {
+        return value == null ? "null" : value;
+    }
+
+    /**
+     * @param values
+     *            Some map.
+     * @param key
+     *            Some key.
+     * @return The value of the key or <code>none</code>.
+     */
+    public static String uncovered(final Map<String, String> values, final String key) {
+        final String value = values.get(key);
+        return value == null ? "none" : value;
+    }
+
+    /**
+     * @param values
+     *            Some strings, which may be null.
+     * @return The number of iterations which started with a null value.
+     */
+    public static int loop(final String[] values) {
+        String current = "start";
+        int nulls = 0;
+        for (final String value : values) {
+            if (current == null) {
+                nulls++;
+            }
+            current = value;
+        }
+        return nulls;
+    }
+
+    /**
+     * @param value
+     *            Some string.
+     * @return <code>null</code> if the string was null, <code>caught</code> if something else failed.
+     */
+    public static String tryCatch(final String value) {
+        try {
+            return value.trim();
+        } catch (final NullPointerException exception) {
+            return value == null ? "null" : "caught";
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link NullnessDefaults}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NullnessDefaultsTest {
+
+    private static final int    REDEPLOYMENTS = 50;
+
+    /** Loaded by a new class loader for every simulated redeployment, as if bundled with the application. */
+    private static final String REDEPLOYED    = Nullsafe.class.getName();
+
+    /**
+     * Nested class of an annotated package.
+     */
+    public static final class Nested {
+
+        // nothing to declare
+
+    }
+
+    /**
+     * Ensures that classes in annotated packages and their nested classes are covered.
+     */
+    @Test
+    public void shouldCoverClassesInAnnotatedPackage() {
+        assertTrue(NullnessDefaults.isNotNullByDefault(NullnessDefaults.class));
+        assertTrue(NullnessDefaults.isNotNullByDefault(Nested.class));
+        assertTrue(NullnessDefaults.isNotNullByDefault(NullnessDefaults.class.getPackage()));
+    }
+
+    /**
+     * Ensures that classes in packages without annotation are not covered.
+     *
+     * @throws NoSuchMethodException
+     *             Never.
+     */
+    @Test
+    public void shouldNotCoverUnannotatedClasses() throws NoSuchMethodException {
+        assertFalse(NullnessDefaults.isNotNullByDefault(String.class));
+        assertFalse(NullnessDefaults.isNotNullByDefault(String.class.getMethod("length")));
+        assertFalse(NullnessDefaults.isNotNullByDefault(String.class.getPackage()));
+    }
+
+    /**
+     * Ensures that repeated lookups agree with the first one.
+     */
+    @Test
+    public void shouldCacheResults() {
+        for (int index = 0; index < 3; index++) {
+            assertTrue(NullnessDefaults.isNotNullByDefault(Nested.class));
+            assertFalse(NullnessDefaults.isNotNullByDefault(String.class));
+        }
+    }
+
+    /**
+     * Ensures that looking up classes of redeployed applications keeps none of their class loaders reachable.
+     *
+     * @throws Exception
+     *             In case the redeployed class cannot be loaded.
+     */
+    @Test
+    public void shouldNotPinRedeployedClassLoaders() throws Exception {
+        final URL classes = Nullsafe.class.getProtectionDomain().getCodeSource().getLocation();
+        final List<WeakReference<ClassLoader>> loaders = new ArrayList<>();
+        for (int index = 0; index < REDEPLOYMENTS; index++) {
+            try (URLClassLoader loader = new RedeployingClassLoader(classes)) {
+                final Class<?> type = loader.loadClass(REDEPLOYED);
+                assertNotSame(Nullsafe.class, type);
+                assertTrue(NullnessDefaults.isNotNullByDefault(type));
+                assertTrue(NullnessDefaults.isNotNullByDefault(type.getMethod("nullsafe", Object.class)));
+                loaders.add(new WeakReference<ClassLoader>(loader));
+            }
+        }
+
+        for (int attempt = 0; attempt < 20 && NullnessDefaultsTest.reachable(loaders) > 0; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(0, NullnessDefaultsTest.reachable(loaders));
+    }
+
+    private static int reachable(final List<WeakReference<ClassLoader>> loaders) {
+        int reachable = 0;
+        for (final WeakReference<ClassLoader> loader : loaders) {
+            reachable += loader.get() == null ? 0 : 1;
+        }
+        return reachable;
+    }
+
+    /**
+     * Defines the redeployed class itself instead of asking its parent.
+     */
+    private static final class RedeployingClassLoader extends URLClassLoader {
+
+        RedeployingClassLoader(final URL classes) {
+            super(new URL[] { classes }, NullnessDefaultsTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!REDEPLOYED.equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    type = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(type);
+                }
+                return type;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link PMDRule}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class PMDRuleTest {
+
+    /**
+     * Ensures that every rule is found by its key, also if the key is not the interned constant.
+     */
+    @Test
+    public void shouldFindEveryRuleByKey() {
+        for (final PMDRule rule : PMDRule.values()) {
+            assertSame(rule, PMDRule.fromKey(rule.getKey()));
+            assertSame(rule, PMDRule.fromKey(new String(rule.getKey().toCharArray())));
+        }
+    }
+
+    /**
+     * Ensures that every rule has its own key.
+     */
+    @Test
+    public void shouldHaveDistinctKeys() {
+        final Set<String> keys = new HashSet<>();
+        for (final PMDRule rule : PMDRule.values()) {
+            assertEquals(rule.getKey(), PMDWarnings.PMD + "." + rule.getName());
+            keys.add(rule.getKey());
+        }
+        assertEquals(PMDRule.values().length, keys.size());
+    }
+
+    /**
+     * Ensures that keys of no rule are not found.
+     */
+    @Test
+    public void shouldNotFindUnknownKeys() {
+        assertNull(PMDRule.fromKey(""));
+        assertNull(PMDRule.fromKey(PMDWarnings.PMD));
+        assertNull(PMDRule.fromKey(CompilerWarnings.UNCHECKED));
+        assertNull(PMDRule.fromKey("PMD.NoSuchRule"));
+        for (final PMDRule rule : PMDRule.values()) {
+            assertNull(PMDRule.fromKey(rule.getName()));
+            assertNull(PMDRule.fromKey(rule.getKey().toUpperCase(Locale.ROOT)));
+            assertNull(PMDRule.fromKey(rule.getKey() + " "));
+        }
+    }
+
+    /**
+     * Ensures that keys sharing the hash code of a rule key are not mistaken for it.
+     */
+    @Test
+    public void shouldNotFindKeysWithCollidingHashes() {
+        for (final PMDRule rule : PMDRule.values()) {
+            final String colliding = PMDRuleTest.collidingWith(rule.getKey());
+            assertEquals(rule.getKey().hashCode(), colliding.hashCode());
+            assertNotEquals(rule.getKey(), colliding);
+            assertNull(PMDRule.fromKey(colliding));
+        }
+    }
+
+    /** Raising a character by one and lowering the next one by 31 keeps {@link String#hashCode()}. */
+    private static String collidingWith(final String key) {
+        final char[] characters = key.toCharArray();
+        final int last = characters.length - 1;
+        characters[last - 1]++;
+        characters[last] -= 31;
+        return new String(characters);
+    }
+
+}
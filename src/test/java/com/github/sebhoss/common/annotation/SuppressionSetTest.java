@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link SuppressionSet}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class SuppressionSetTest {
+
+    private static final String[] COMPILER_WARNINGS = { CompilerWarnings.BOXING, CompilerWarnings.CAST,
+            CompilerWarnings.DEPRECATION, CompilerWarnings.NLS, CompilerWarnings.RAWTYPES, CompilerWarnings.SERIAL,
+            CompilerWarnings.UNCHECKED, CompilerWarnings.UNUSED };
+
+    /**
+     * Ensures that the given values are suppressed and nothing else.
+     */
+    @Test
+    public void shouldContainGivenValues() {
+        final SuppressionSet set = SuppressionSet.of(CompilerWarnings.UNCHECKED, PMDWarnings.JUMBLED_INCREMENTER);
+        assertTrue(set.contains(CompilerWarnings.UNCHECKED));
+        assertTrue(set.contains(PMDRule.JUMBLED_INCREMENTER));
+        assertTrue(set.contains(PMDWarnings.JUMBLED_INCREMENTER));
+        assertFalse(set.contains(CompilerWarnings.RAWTYPES));
+        assertFalse(set.contains(PMDRule.EMPTY_CATCH_BLOCK));
+        assertEquals(2, set.size());
+    }
+
+    /**
+     * Ensures that <code>all</code> suppresses every warning.
+     */
+    @Test
+    public void shouldExpandAll() {
+        final SuppressionSet set = SuppressionSet.of(CompilerWarnings.UNCHECKED, CompilerWarnings.ALL);
+        assertSame(SuppressionSet.ALL, set);
+        for (final PMDRule rule : PMDRule.values()) {
+            assertTrue(set.contains(rule));
+        }
+        for (final String warning : COMPILER_WARNINGS) {
+            assertTrue(set.contains(warning));
+        }
+    }
+
+    /**
+     * Ensures that <code>PMD</code> suppresses every PMD rule but no compiler warning.
+     */
+    @Test
+    public void shouldExpandPMD() {
+        final SuppressionSet set = SuppressionSet.of(PMDWarnings.PMD);
+        for (final PMDRule rule : PMDRule.values()) {
+            assertTrue(set.contains(rule));
+        }
+        for (final String warning : COMPILER_WARNINGS) {
+            assertFalse(set.contains(warning));
+        }
+        assertTrue(SuppressionSet.ALL.containsAll(set));
+        assertFalse(set.containsAll(SuppressionSet.ALL));
+    }
+
+    /**
+     * Ensures that values of no catalog are ignored.
+     */
+    @Test
+    public void shouldIgnoreUnknownValues() {
+        final SuppressionSet set = SuppressionSet.of("PMD.NoSuchRule", "checkstyle:magicnumber", "");
+        assertTrue(set.isEmpty());
+        assertEquals(SuppressionSet.EMPTY, set);
+        assertFalse(set.contains("PMD.NoSuchRule"));
+    }
+
+    /**
+     * Ensures that unions and intersections match those of the sets of values.
+     */
+    @Test
+    public void shouldMatchSetOperations() {
+        final Random random = new Random(42);
+        final List<String> values = new ArrayList<>();
+        for (final String warning : COMPILER_WARNINGS) {
+            values.add(warning);
+        }
+        for (final PMDRule rule : PMDRule.values()) {
+            values.add(rule.getKey());
+        }
+        for (int round = 0; round < 1_000; round++) {
+            final Set<String> first = SuppressionSetTest.randomSubset(values, random);
+            final Set<String> second = SuppressionSetTest.randomSubset(values, random);
+            final SuppressionSet firstSet = SuppressionSetTest.of(first);
+            final SuppressionSet secondSet = SuppressionSetTest.of(second);
+
+            final Set<String> union = new HashSet<>(first);
+            union.addAll(second);
+            final Set<String> intersection = new HashSet<>(first);
+            intersection.retainAll(second);
+
+            assertEquals(SuppressionSetTest.of(union), firstSet.union(secondSet));
+            assertEquals(SuppressionSetTest.of(intersection), firstSet.intersection(secondSet));
+            assertEquals(first.containsAll(second), firstSet.containsAll(secondSet));
+            assertEquals(first.size(), firstSet.size());
+            assertEquals(first.equals(second), firstSet.equals(secondSet));
+            for (final String value : values) {
+                assertEquals(first.contains(value), firstSet.contains(value));
+            }
+        }
+    }
+
+    /**
+     * Ensures that equal sets have equal hash codes.
+     */
+    @Test
+    public void shouldHashEqualSetsAlike() {
+        final SuppressionSet first = SuppressionSet.of(CompilerWarnings.NLS, PMDWarnings.EMPTY_CATCH_BLOCK);
+        final SuppressionSet second = SuppressionSet.of(PMDWarnings.EMPTY_CATCH_BLOCK, CompilerWarnings.NLS,
+                CompilerWarnings.NLS);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    private static Set<String> randomSubset(final List<String> values, final Random random) {
+        final Set<String> subset = new HashSet<>();
+        final int density = 1 + random.nextInt(10);
+        for (final String value : values) {
+            if (random.nextInt(density) == 0) {
+                subset.add(value);
+            }
+        }
+        return subset;
+    }
+
+    private static SuppressionSet of(final Set<String> values) {
+        return SuppressionSet.of(values.toArray(new String[values.size()]));
+    }
+
+}
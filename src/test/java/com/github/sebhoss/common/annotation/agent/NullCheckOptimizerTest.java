@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NullCheckSamples;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Test cases for the {@link NullCheckOptimizer} and the {@link NullCheckElimination} it applies, run against the
+ * {@link NullCheckSamples}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NullCheckOptimizerTest {
+
+    private static final Class<?>[] SAMPLES = { NullCheckSamples.class, NullCheckSamples.Inner.class };
+    private static final String     INIT    = "<init>";
+
+    /**
+     * Ensures that rewritten classes pass the ASM analyzer as well as the verifier of the JVM, which also checks the
+     * stack map frames, with and without trusted parameters.
+     *
+     * @throws Exception
+     *             In case a sample class cannot be read or fails verification.
+     */
+    @Test
+    public void shouldPassVerifier() throws Exception {
+        for (final boolean trustParameters : new boolean[] { false, true }) {
+            final Map<String, byte[]> optimized = NullCheckOptimizerTest.optimize(trustParameters);
+            final ClassLoader loader = new SampleClassLoader(NullCheckOptimizerTest.class.getClassLoader(), optimized);
+            for (final Map.Entry<String, byte[]> entry : optimized.entrySet()) {
+                final StringWriter errors = new StringWriter();
+                CheckClassAdapter.verify(new ClassReader(entry.getValue()),
+                        NullCheckOptimizerTest.class.getClassLoader(), false, new PrintWriter(errors));
+                assertEquals("", errors.toString());
+                Class.forName(entry.getKey(), true, loader);
+            }
+        }
+    }
+
+    /**
+     * Ensures that checks of values proven non-null inside a method are removed, in loops, after try blocks and in
+     * constructors alike.
+     *
+     * @throws IOException
+     *             In case a sample class cannot be read.
+     */
+    @Test
+    public void shouldRemoveRedundantChecks() throws IOException {
+        final Map<String, byte[]> optimized = NullCheckOptimizerTest.optimize(false);
+        final byte[] samples = optimized.get(NullCheckSamples.class.getName());
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "redundantAfterDereference"));
+        assertEquals(1, NullCheckOptimizerTest.checks(samples, "redundantAfterNullsafe"));
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "redundantInLoop"));
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "redundantAfterTry"));
+        assertEquals(1, NullCheckOptimizerTest.checks(samples, INIT));
+    }
+
+    /**
+     * Ensures that checks of nullable parameters, untrusted parameters, values of unknown origin and values which may
+     * have become null again survive.
+     *
+     * @throws IOException
+     *             In case a sample class cannot be read.
+     */
+    @Test
+    public void shouldKeepChecksOfPossiblyNullValues() throws IOException {
+        final Map<String, byte[]> optimized = NullCheckOptimizerTest.optimize(false);
+        final byte[] samples = optimized.get(NullCheckSamples.class.getName());
+        for (final String method : new String[] { "nullable", "parameter", "uncovered", "loop", "tryCatch" }) {
+            assertEquals(method, 1, NullCheckOptimizerTest.checks(samples, method));
+        }
+        assertEquals(1, NullCheckOptimizerTest.checks(optimized.get(NullCheckSamples.Inner.class.getName()), INIT));
+    }
+
+    /**
+     * Ensures that trusted parameters drop their checks unless they are nullable, also behind synthetic constructor
+     * parameters.
+     *
+     * @throws IOException
+     *             In case a sample class cannot be read.
+     */
+    @Test
+    public void shouldTrustParametersUnlessNullable() throws IOException {
+        final Map<String, byte[]> optimized = NullCheckOptimizerTest.optimize(true);
+        final byte[] samples = optimized.get(NullCheckSamples.class.getName());
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "parameter"));
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "tryCatch"));
+        assertEquals(0, NullCheckOptimizerTest.checks(samples, "redundantAfterNullsafe"));
+        for (final String method : new String[] { "nullable", "uncovered", "loop", INIT }) {
+            assertEquals(method, 1, NullCheckOptimizerTest.checks(samples, method));
+        }
+        assertEquals(1, NullCheckOptimizerTest.checks(optimized.get(NullCheckSamples.Inner.class.getName()), INIT));
+    }
+
+    /**
+     * Ensures that rewritten methods return what the original ones return, including for <code>null</code>
+     * arguments which the removed checks were meant to catch.
+     *
+     * @throws Exception
+     *             In case a sample cannot be loaded or called.
+     */
+    @Test
+    public void shouldBehaveAsOriginal() throws Exception {
+        final ClassLoader untrusted = new SampleClassLoader(NullCheckOptimizerTest.class.getClassLoader(),
+                NullCheckOptimizerTest.optimize(false));
+        final Object[][] calls = { { "redundantAfterDereference", "abc" }, { "redundantAfterDereference", null },
+                { "redundantAfterNullsafe", "abc" }, { "redundantAfterNullsafe", null }, { "redundantInLoop", "ab", 3 },
+                { "redundantInLoop", null, 0 }, { "redundantInLoop", null, 2 }, { "redundantAfterTry", "abc" },
+                { "redundantAfterTry", null }, { "nullable", null }, { "nullable", "abc" }, { "parameter", null },
+                { "parameter", "abc" }, { "uncovered", Collections.singletonMap("key", "value"), "key" },
+                { "uncovered", Collections.singletonMap("key", "value"), "other" },
+                { "loop", new String[] { null, "a", null } }, { "loop", new String[] { "a", "b" } },
+                { "tryCatch", " abc " }, { "tryCatch", null } };
+        for (final Object[] call : calls) {
+            assertEquals(NullCheckOptimizerTest.call(NullCheckSamples.class, call),
+                    NullCheckOptimizerTest.call(untrusted.loadClass(NullCheckSamples.class.getName()), call));
+        }
+        assertEquals(NullCheckOptimizerTest.construct(NullCheckOptimizerTest.class.getClassLoader(), null, "other"),
+                NullCheckOptimizerTest.construct(untrusted, null, "other"));
+        assertEquals(NullCheckOptimizerTest.construct(NullCheckOptimizerTest.class.getClassLoader(), "name", null),
+                NullCheckOptimizerTest.construct(untrusted, "name", null));
+
+        final ClassLoader trusted = new SampleClassLoader(NullCheckOptimizerTest.class.getClassLoader(),
+                NullCheckOptimizerTest.optimize(true));
+        final Object[][] trustedCalls = { { "nullable", null }, { "parameter", "abc" }, { "tryCatch", " abc " },
+                { "redundantAfterNullsafe", "abc" }, { "uncovered", Collections.singletonMap("key", "value"), "x" },
+                { "loop", new String[] { null, "a", null } } };
+        for (final Object[] call : trustedCalls) {
+            assertEquals(NullCheckOptimizerTest.call(NullCheckSamples.class, call),
+                    NullCheckOptimizerTest.call(trusted.loadClass(NullCheckSamples.class.getName()), call));
+        }
+        assertEquals("none0", NullCheckOptimizerTest.construct(trusted, null, ""));
+        assertEquals("none", NullCheckOptimizerTest.inner(trusted, null));
+    }
+
+    /**
+     * Ensures that the report lists no classes which failed to optimize.
+     *
+     * @throws IOException
+     *             In case a sample class cannot be read.
+     */
+    @Test
+    public void shouldReportNoFailures() throws IOException {
+        final OptimizationReport report = new OptimizationReport(35, 325);
+        for (final Class<?> sample : SAMPLES) {
+            new NullCheckOptimizer(new NullnessScope(), report, true).transform(sample.getClassLoader(), Type
+                    .getInternalName(sample), null, null, SampleClassLoader.bytesOf(sample));
+        }
+        final StringWriter written = new StringWriter();
+        report.write(new PrintWriter(written));
+        assertFalse(written.toString(), written.toString().contains("Failed"));
+    }
+
+    private static Map<String, byte[]> optimize(final boolean trustParameters) throws IOException {
+        final NullCheckOptimizer optimizer = new NullCheckOptimizer(new NullnessScope(),
+                new OptimizationReport(35, 325), trustParameters);
+        final Map<String, byte[]> optimized = new HashMap<>();
+        for (final Class<?> sample : SAMPLES) {
+            final byte[] original = SampleClassLoader.bytesOf(sample);
+            final byte[] transformed = optimizer.transform(sample.getClassLoader(), Type.getInternalName(sample),
+                    null, null, original);
+            optimized.put(sample.getName(), transformed == null ? original : transformed);
+        }
+        return optimized;
+    }
+
+    /** Counts <code>IFNULL</code>, <code>IFNONNULL</code> and calls of {@link Nullsafe} in all methods of a name. */
+    private static int checks(final byte[] bytes, final String name) {
+        final ClassNode type = new ClassNode();
+        new ClassReader(bytes).accept(type, 0);
+        int checks = 0;
+        for (final MethodNode method : type.methods) {
+            if (!name.equals(method.name)) {
+                continue;
+            }
+            for (final Iterator<AbstractInsnNode> iterator = method.instructions.iterator(); iterator.hasNext();) {
+                final AbstractInsnNode instruction = iterator.next();
+                final int opcode = instruction.getOpcode();
+                if (opcode == Opcodes.IFNULL || opcode == Opcodes.IFNONNULL || opcode == Opcodes.INVOKESTATIC
+                        && Type.getInternalName(Nullsafe.class).equals(((MethodInsnNode) instruction).owner)) {
+                    checks++;
+                }
+            }
+        }
+        return checks;
+    }
+
+    /** @return The result of the call, or the type of the exception it threw. */
+    private static String call(final Class<?> type, final Object[] call) throws IllegalAccessException {
+        for (final Method method : type.getMethods()) {
+            if (method.getName().equals(call[0]) && method.getParameterTypes().length == call.length - 1) {
+                try {
+                    final Object[] arguments = new Object[call.length - 1];
+                    System.arraycopy(call, 1, arguments, 0, arguments.length);
+                    return String.valueOf(method.invoke(null, arguments));
+                } catch (final InvocationTargetException exception) {
+                    return exception.getCause().getClass().getName();
+                }
+            }
+        }
+        throw new IllegalArgumentException(String.valueOf(call[0]));
+    }
+
+    private static String construct(final ClassLoader loader, @Nullable final String name,
+            @Nullable final String other) throws ReflectiveOperationException {
+        try {
+            return loader.loadClass(NullCheckSamples.class.getName()).getConstructor(String.class, String.class)
+                    .newInstance(name, other).toString();
+        } catch (final InvocationTargetException exception) {
+            return exception.getCause().getClass().getName();
+        }
+    }
+
+    private static String inner(final ClassLoader loader, @Nullable final String value)
+            throws ReflectiveOperationException {
+        final Class<?> outer = loader.loadClass(NullCheckSamples.class.getName());
+        final Object instance = outer.getConstructor(String.class, String.class).newInstance("name", "other");
+        final Object inner = loader.loadClass(NullCheckSamples.Inner.class.getName()).getConstructor(outer,
+                String.class).newInstance(instance, value);
+        return String.valueOf(inner.getClass().getMethod("getValue").invoke(inner));
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NullCheckSamples;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Test cases for the {@link NullFlowProfiler}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NullFlowProfilerTest {
+
+    private static final String SAMPLE = NullCheckSamples.class.getName();
+    private static final String SITE   = SAMPLE + "::parameter(Ljava/lang/String;)Ljava/lang/String; parameter 0";
+
+    /**
+     * Samples every value and never settles a site.
+     */
+    @Before
+    public void sampleAll() {
+        NullFlowSamples.configure(1, Long.MAX_VALUE);
+    }
+
+    /**
+     * Ensures that instrumented code samples <code>null</code> values when it is called through a class loader other
+     * than the one of the test.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldSampleNulls() throws Exception {
+        final byte[] instrumented = NullFlowProfilerTest.instrument(NullCheckSamples.class.getClassLoader());
+        assertNotNull(instrumented);
+        final ClassLoader loader = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(),
+                Collections.singletonMap(SAMPLE, instrumented));
+        final long before = NullFlowProfilerTest.nulls();
+        assertEquals("null", NullFlowProfilerTest.parameter(loader, null));
+        assertEquals("value", NullFlowProfilerTest.parameter(loader, "value"));
+        assertEquals(before + 1, NullFlowProfilerTest.nulls());
+    }
+
+    /**
+     * Ensures that classes are not instrumented for class loaders which cannot see the agent.
+     *
+     * @throws IOException
+     *             In case the sample cannot be read.
+     */
+    @Test
+    public void shouldSkipLoadersWithoutAgent() throws IOException {
+        assertNull(NullFlowProfilerTest.instrument(SampleClassLoader.withoutAgent()));
+    }
+
+    /**
+     * Ensures that classes are not instrumented for class loaders which define their own copy of the agent.
+     *
+     * @throws IOException
+     *             In case the sample or the agent classes cannot be read.
+     */
+    @Test
+    public void shouldSkipLoadersWithOwnAgent() throws IOException {
+        final ClassLoader childFirst = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(),
+                NullFlowProfilerTest.agentCopy());
+        assertNull(NullFlowProfilerTest.instrument(childFirst));
+    }
+
+    /**
+     * Ensures that instrumented code which links against another copy of the agent ignores the unknown sites.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldIgnoreUnknownSites() throws Exception {
+        final Map<String, byte[]> classes = NullFlowProfilerTest.agentCopy();
+        classes.put(SAMPLE, NullFlowProfilerTest.instrument(NullCheckSamples.class.getClassLoader()));
+        final ClassLoader childFirst = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(), classes);
+        assertNotSame(NullFlowSamples.class, childFirst.loadClass(NullFlowSamples.class.getName()));
+        final long before = NullFlowProfilerTest.nulls();
+        assertEquals("null", NullFlowProfilerTest.parameter(childFirst, null));
+        assertEquals(before, NullFlowProfilerTest.nulls());
+        NullFlowSamples.observe(null, -1);
+        NullFlowSamples.observe(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ensures that a class is retransformed without the code injected for its settled sites while its other sites keep
+     * sampling.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldDropSettledSites() throws Exception {
+        NullFlowSamples.configure(1, 1);
+        final NullFlowProfiler profiler = NullFlowProfilerTest.profiler();
+        final Map<String, byte[]> classes = new HashMap<>();
+        final ClassLoader loader = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(), classes);
+        final byte[] instrumented = Nullsafe.nullsafe(NullFlowProfilerTest.instrument(profiler, loader));
+        assertEquals(2, NullFlowProfilerTest.observations(instrumented, "parameter"));
+        classes.put(SAMPLE, instrumented);
+        assertEquals("null", NullFlowProfilerTest.parameter(loader, null));
+
+        final byte[] retransformed = Nullsafe.nullsafe(NullFlowProfilerTest.instrument(profiler, loader));
+        assertEquals(0, NullFlowProfilerTest.observations(retransformed, "parameter"));
+        assertTrue(NullFlowProfilerTest.observations(retransformed, "nullable") > 0);
+    }
+
+    /**
+     * Ensures that sites settled for a class of one class loader neither settle nor retransform the class of the same
+     * name of another class loader.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldKeepSitesPerLoader() throws Exception {
+        NullFlowSamples.configure(1, 1);
+        final NullFlowProfiler profiler = NullFlowProfilerTest.profiler();
+        final Map<String, byte[]> classes = new HashMap<>();
+        final ClassLoader loader = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(), classes);
+        classes.put(SAMPLE, Nullsafe.nullsafe(NullFlowProfilerTest.instrument(profiler, loader)));
+        assertEquals("null", NullFlowProfilerTest.parameter(loader, null));
+
+        final ClassLoader other = new SampleClassLoader(NullFlowProfilerTest.class.getClassLoader(),
+                Collections.singletonMap(SAMPLE, SampleClassLoader.bytesOf(NullCheckSamples.class)));
+        final byte[] instrumented = Nullsafe.nullsafe(NullFlowProfilerTest.instrument(profiler, other));
+        assertEquals(2, NullFlowProfilerTest.observations(instrumented, "parameter"));
+
+        final List<Class<?>> retransformed = new ArrayList<>();
+        profiler.uninstrumentSettled(NullFlowProfilerTest.instrumentation(retransformed, loader.loadClass(SAMPLE),
+                other.loadClass(SAMPLE)));
+        assertEquals(Collections.singletonList(loader.loadClass(SAMPLE)), retransformed);
+    }
+
+    private static NullFlowProfiler profiler() {
+        return new NullFlowProfiler(new NullnessScope(), new String[0], new NullFlowReport(1, Long.MAX_VALUE));
+    }
+
+    @Nullable
+    private static byte[] instrument(final ClassLoader loader) throws IOException {
+        return NullFlowProfilerTest.instrument(NullFlowProfilerTest.profiler(), loader);
+    }
+
+    @Nullable
+    private static byte[] instrument(final NullFlowProfiler profiler, final ClassLoader loader) throws IOException {
+        return profiler.transform(loader, Type.getInternalName(NullCheckSamples.class), null, null,
+                SampleClassLoader.bytesOf(NullCheckSamples.class));
+    }
+
+    private static int observations(final byte[] bytecode, final String methodName) {
+        final ClassNode type = new ClassNode();
+        new ClassReader(bytecode).accept(type, 0);
+        final String owner = Type.getInternalName(NullFlowSamples.class);
+        int calls = 0;
+        for (final MethodNode method : type.methods) {
+            if (methodName.equals(method.name)) {
+                for (final AbstractInsnNode instruction : method.instructions.toArray()) {
+                    if (instruction instanceof MethodInsnNode
+                            && owner.equals(((MethodInsnNode) instruction).owner)) {
+                        calls++;
+                    }
+                }
+            }
+        }
+        return calls;
+    }
+
+    private static Instrumentation instrumentation(final List<Class<?>> retransformed, final Class<?>... loaded) {
+        return (Instrumentation) Proxy.newProxyInstance(NullFlowProfilerTest.class.getClassLoader(),
+                new Class<?>[] { Instrumentation.class }, new InvocationHandler() {
+
+                    @Override
+                    @Nullable
+                    public Object invoke(final Object proxy, final Method method, @Nullable final Object[] arguments) {
+                        switch (method.getName()) {
+                            case "getAllLoadedClasses":
+                                return loaded;
+                            case "isModifiableClass":
+                                return Boolean.TRUE;
+                            case "retransformClasses":
+                                retransformed.addAll(Arrays.asList((Class<?>[]) Nullsafe.nullsafe(arguments)[0]));
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+
+                });
+    }
+
+    private static Map<String, byte[]> agentCopy() throws IOException {
+        final Map<String, byte[]> classes = new HashMap<>();
+        for (final Class<?> type : new Class<?>[] { NullFlowSamples.class, NullFlowSamples.Site.class,
+                NullFlowSamples.Sites.class, SiteTable.class }) {
+            classes.put(type.getName(), SampleClassLoader.bytesOf(type));
+        }
+        return classes;
+    }
+
+    private static String parameter(final ClassLoader loader, @Nullable final String value)
+            throws ReflectiveOperationException {
+        return String.valueOf(loader.loadClass(SAMPLE).getMethod("parameter", String.class).invoke(null, value));
+    }
+
+    private static long nulls() {
+        long nulls = 0;
+        for (int site = 0; site < NullFlowSamples.SITES.size(); site++) {
+            if (SITE.equals(NullFlowSamples.SITES.describe(site))) {
+                nulls += NullFlowSamples.SITES.get(site).getNulls();
+            }
+        }
+        return nulls;
+    }
+
+}
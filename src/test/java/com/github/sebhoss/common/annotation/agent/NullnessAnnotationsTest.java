@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link NullnessAnnotations}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NullnessAnnotationsTest {
+
+    /**
+     * Sample methods with nullable and unannotated parameters.
+     */
+    public static final class Methods {
+
+        /**
+         * @param first
+         *            Not annotated.
+         * @param second
+         *            Nullable.
+         * @param third
+         *            Checked for null.
+         */
+        public static void parameters(final String first, @Nullable final String second,
+                @CheckForNull final String third) {
+            // only the annotations matter
+        }
+
+    }
+
+    /**
+     * Inner class whose constructor takes the outer instance as synthetic first parameter.
+     */
+    public final class Inner {
+
+        /**
+         * @param first
+         *            Nullable.
+         * @param second
+         *            Not annotated.
+         */
+        public Inner(@Nullable final String first, final String second) {
+            // only the annotations matter
+        }
+
+    }
+
+    /**
+     * Enum whose constructor takes name and ordinal as synthetic leading parameters.
+     */
+    public enum Constants {
+
+        /** Single constant. */
+        CONSTANT(null, "second");
+
+        Constants(@Nullable final String first, final String second) {
+            // only the annotations matter
+        }
+
+    }
+
+    /**
+     * Ensures that parameters are matched with their annotations by position.
+     *
+     * @throws IOException
+     *             In case the sample class cannot be read.
+     */
+    @Test
+    public void shouldFindNullableParameters() throws IOException {
+        final MethodNode method = NullnessAnnotationsTest.method(Methods.class, "parameters");
+        assertFalse(NullnessAnnotations.isNullable(method, 0));
+        assertTrue(NullnessAnnotations.isNullable(method, 1));
+        assertTrue(NullnessAnnotations.isNullable(method, 2));
+    }
+
+    /**
+     * Ensures that the synthetic outer instance does not shift the annotations of inner class constructors.
+     *
+     * @throws IOException
+     *             In case the sample class cannot be read.
+     */
+    @Test
+    public void shouldSkipOuterInstance() throws IOException {
+        final MethodNode constructor = NullnessAnnotationsTest.method(Inner.class, "<init>");
+        assertEquals(3, Type.getArgumentTypes(constructor.desc).length);
+        assertFalse(NullnessAnnotations.isNullable(constructor, 0));
+        assertTrue(NullnessAnnotations.isNullable(constructor, 1));
+        assertFalse(NullnessAnnotations.isNullable(constructor, 2));
+    }
+
+    /**
+     * Ensures that the synthetic name and ordinal do not shift the annotations of enum constructors.
+     *
+     * @throws IOException
+     *             In case the sample class cannot be read.
+     */
+    @Test
+    public void shouldSkipEnumNameAndOrdinal() throws IOException {
+        final MethodNode constructor = NullnessAnnotationsTest.method(Constants.class, "<init>");
+        assertEquals(4, Type.getArgumentTypes(constructor.desc).length);
+        assertFalse(NullnessAnnotations.isNullable(constructor, 0));
+        assertFalse(NullnessAnnotations.isNullable(constructor, 1));
+        assertTrue(NullnessAnnotations.isNullable(constructor, 2));
+        assertFalse(NullnessAnnotations.isNullable(constructor, 3));
+    }
+
+    private static MethodNode method(final Class<?> type, final String name) throws IOException {
+        final ClassNode node = new ClassNode();
+        try (InputStream input = type.getResourceAsStream(type.getName().substring(
+                type.getName().lastIndexOf('.') + 1) + ".class")) {
+            new ClassReader(input).accept(node, ClassReader.SKIP_CODE);
+        }
+        for (final MethodNode method : node.methods) {
+            if (name.equals(method.name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name + " not found in " + type);
+    }
+
+}
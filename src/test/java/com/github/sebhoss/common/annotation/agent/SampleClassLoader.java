@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.Type;
+
+/**
+ * Defines the given classes itself instead of asking its parent, e.g. rewritten samples or a private copy of the agent
+ * classes as bundled by a child-first class loader.
+ */
+final class SampleClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    /**
+     * @param parent
+     *            The parent to delegate all other classes to, <code>null</code> for the bootstrap class loader.
+     * @param classes
+     *            The bytecode of the classes to define, keyed by binary name.
+     */
+    SampleClassLoader(@Nullable final ClassLoader parent, final Map<String, byte[]> classes) {
+        super(parent);
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+        final byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> type = findLoadedClass(name);
+            if (type == null) {
+                type = defineClass(name, bytes, 0, bytes.length);
+            }
+            if (resolve) {
+                resolveClass(type);
+            }
+            return type;
+        }
+    }
+
+    /**
+     * @return A class loader which sees the test class path except for the agent, like a module which does not import
+     *         the agent package.
+     */
+    static ClassLoader withoutAgent() {
+        return new ClassLoader(SampleClassLoader.class.getClassLoader()) {
+
+            @Override
+            protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+                if (name.startsWith(SampleClassLoader.class.getPackage().getName())) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+
+        };
+    }
+
+    /**
+     * @param type
+     *            A class of the test class path.
+     * @return The bytecode of the class.
+     * @throws IOException
+     *             In case the class file cannot be read.
+     */
+    static byte[] bytesOf(final Class<?> type) throws IOException {
+        try (InputStream input = type.getClassLoader().getResourceAsStream(Type.getInternalName(type) + ".class")) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+}
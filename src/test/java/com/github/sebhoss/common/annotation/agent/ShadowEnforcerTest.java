@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+import org.objectweb.asm.Type;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NullCheckSamples;
+
+/**
+ * Test cases for the {@link ShadowEnforcer}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class ShadowEnforcerTest {
+
+    private static final String SITE = NullCheckSamples.class.getName()
+            + "::parameter(Ljava/lang/String;)Ljava/lang/String; parameter 0";
+
+    /**
+     * Ensures that instrumented code counts <code>null</code> values without throwing when it is called through a
+     * class loader other than the one of the test.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldCountViolations() throws Exception {
+        final byte[] instrumented = ShadowEnforcerTest.instrument(NullCheckSamples.class.getClassLoader());
+        assertNotNull(instrumented);
+        final ClassLoader loader = new SampleClassLoader(ShadowEnforcerTest.class.getClassLoader(),
+                Collections.singletonMap(NullCheckSamples.class.getName(), instrumented));
+        final long before = ShadowEnforcerTest.violations();
+        assertEquals("null", ShadowEnforcerTest.parameter(loader, null));
+        assertEquals("value", ShadowEnforcerTest.parameter(loader, "value"));
+        assertEquals(before + 1, ShadowEnforcerTest.violations());
+    }
+
+    /**
+     * Ensures that classes are not instrumented for class loaders which cannot see the agent, since the injected calls
+     * would fail to link.
+     *
+     * @throws IOException
+     *             In case the sample cannot be read.
+     */
+    @Test
+    public void shouldSkipLoadersWithoutAgent() throws IOException {
+        assertNull(ShadowEnforcerTest.instrument(SampleClassLoader.withoutAgent()));
+    }
+
+    /**
+     * Ensures that classes are not instrumented for class loaders which define their own copy of the agent, whose
+     * counters know none of the registered sites.
+     *
+     * @throws IOException
+     *             In case the sample or the agent classes cannot be read.
+     */
+    @Test
+    public void shouldSkipLoadersWithOwnAgent() throws IOException {
+        final ClassLoader childFirst = new SampleClassLoader(ShadowEnforcerTest.class.getClassLoader(),
+                ShadowEnforcerTest.agentCopy());
+        assertNull(ShadowEnforcerTest.instrument(childFirst));
+    }
+
+    /**
+     * Ensures that instrumented code which links against another copy of the agent ignores the unknown sites.
+     *
+     * @throws Exception
+     *             In case the sample cannot be instrumented or called.
+     */
+    @Test
+    public void shouldIgnoreUnknownSites() throws Exception {
+        final Map<String, byte[]> classes = ShadowEnforcerTest.agentCopy();
+        classes.put(NullCheckSamples.class.getName(),
+                ShadowEnforcerTest.instrument(NullCheckSamples.class.getClassLoader()));
+        final ClassLoader childFirst = new SampleClassLoader(ShadowEnforcerTest.class.getClassLoader(), classes);
+        assertNotSame(ShadowCounters.class, childFirst.loadClass(ShadowCounters.class.getName()));
+        final long before = ShadowEnforcerTest.violations();
+        assertEquals("null", ShadowEnforcerTest.parameter(childFirst, null));
+        assertEquals(before, ShadowEnforcerTest.violations());
+        ShadowCounters.observe(null, -1);
+        ShadowCounters.observe(null, Integer.MAX_VALUE);
+    }
+
+    @Nullable
+    private static byte[] instrument(final ClassLoader loader) throws IOException {
+        return new ShadowEnforcer(new NullnessScope(), new ShadowReport()).transform(loader,
+                Type.getInternalName(NullCheckSamples.class), null, null,
+                SampleClassLoader.bytesOf(NullCheckSamples.class));
+    }
+
+    private static Map<String, byte[]> agentCopy() throws IOException {
+        final Map<String, byte[]> classes = new HashMap<>();
+        for (final Class<?> type : new Class<?>[] { ShadowCounters.class, SiteTable.class }) {
+            classes.put(type.getName(), SampleClassLoader.bytesOf(type));
+        }
+        return classes;
+    }
+
+    private static String parameter(final ClassLoader loader, @Nullable final String value)
+            throws ReflectiveOperationException {
+        return String.valueOf(loader.loadClass(NullCheckSamples.class.getName()).getMethod("parameter", String.class)
+                .invoke(null, value));
+    }
+
+    private static long violations() {
+        for (int site = 0; site < ShadowCounters.SITES.size(); site++) {
+            if (SITE.equals(ShadowCounters.SITES.describe(site))) {
+                return ShadowCounters.SITES.get(site).sum();
+            }
+        }
+        return 0;
+    }
+
+}
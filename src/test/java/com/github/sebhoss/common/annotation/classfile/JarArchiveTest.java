@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link JarArchive}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class JarArchiveTest {
+
+    private static final String CONTENT = "package-info of a deflated entry, repeated, repeated, repeated";
+
+    private Path                jar;
+
+    /**
+     * Creates the file of the archive.
+     *
+     * @throws IOException
+     *             In case the file cannot be created.
+     */
+    @Before
+    public void createFile() throws IOException {
+        jar = Files.createTempFile("archive", ".jar");
+    }
+
+    /**
+     * Removes the file of the archive.
+     *
+     * @throws IOException
+     *             In case the file cannot be deleted.
+     */
+    @After
+    public void deleteFile() throws IOException {
+        Files.delete(jar);
+    }
+
+    /**
+     * Ensures that stored, deflated and empty entries are read in full.
+     *
+     * @throws IOException
+     *             In case the archive cannot be written or read.
+     */
+    @Test
+    public void shouldReadEntries() throws IOException {
+        Files.write(jar, JarArchiveTest.archive(CONTENT, ""));
+        final JarArchive archive = JarArchive.open(jar);
+        assertEquals(2, archive.getEntries().size());
+        assertEquals(CONTENT, JarArchiveTest.decode(archive.read(archive.getEntries().get(0))));
+        assertEquals("", JarArchiveTest.decode(archive.read(archive.getEntries().get(1))));
+    }
+
+    /**
+     * Ensures that an entry inflating to fewer bytes than its declared size is rejected.
+     *
+     * @throws IOException
+     *             In case the archive cannot be written or read.
+     */
+    @Test(expected = IOException.class)
+    public void shouldRejectEntryShorterThanDeclared() throws IOException {
+        final byte[] bytes = JarArchiveTest.archive(CONTENT);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final int entry = JarArchiveTest.centralDirectory(bytes);
+        buffer.putInt(entry + 24, buffer.getInt(entry + 24) + 1);
+        Files.write(jar, bytes);
+        final JarArchive archive = JarArchive.open(jar);
+        archive.read(archive.getEntries().get(0));
+    }
+
+    /**
+     * Ensures that an entry whose compressed data ends early is rejected.
+     *
+     * @throws IOException
+     *             In case the archive cannot be written or read.
+     */
+    @Test(expected = IOException.class)
+    public void shouldRejectTruncatedCompressedData() throws IOException {
+        final byte[] bytes = JarArchiveTest.archive(CONTENT);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final int entry = JarArchiveTest.centralDirectory(bytes);
+        buffer.putInt(entry + 20, buffer.getInt(entry + 20) / 2);
+        Files.write(jar, bytes);
+        final JarArchive archive = JarArchive.open(jar);
+        archive.read(archive.getEntries().get(0));
+    }
+
+    private static byte[] archive(final String... contents) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int index = 0; index < contents.length; index++) {
+                zip.putNextEntry(new ZipEntry("entry" + index + ".txt"));
+                zip.write(contents[index].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Offset of the first central directory entry, found by its signature <code>PK\1\2</code>. */
+    private static int centralDirectory(final byte[] bytes) {
+        for (int position = 0; position < bytes.length - 3; position++) {
+            if (bytes[position] == 'P' && bytes[position + 1] == 'K' && bytes[position + 2] == 1
+                    && bytes[position + 3] == 2) {
+                return position;
+            }
+        }
+        throw new IllegalArgumentException("No central directory");
+    }
+
+    private static String decode(final ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+}
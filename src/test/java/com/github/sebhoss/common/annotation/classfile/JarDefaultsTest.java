@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.ElementType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link JarDefaults}, resolved from the {@link NestingSamples}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class JarDefaultsTest {
+
+    private static final Class<?>[] SAMPLES   = { NestingSamples.class, NestingSamples.Member.class,
+            NestingSamples.Member.Deep.class, NestingSamples.coveredAnonymous().getClass(),
+            NestingSamples.uncoveredAnonymous().getClass(), NestingSamples.coveredLocal().getClass() };
+    private static final String     LOOKALIKE = Type.getInternalName(NestingSamples.Member.class) + "$Lookalike";
+
+    private Path                    jar;
+
+    /**
+     * Writes the samples and a top level class whose name contains <code>$</code> into an archive.
+     *
+     * @throws IOException
+     *             In case the archive cannot be written.
+     */
+    @Before
+    public void createArchive() throws IOException {
+        jar = Files.createTempFile("defaults", ".jar");
+        try (OutputStream file = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(file)) {
+            for (final Class<?> sample : SAMPLES) {
+                JarDefaultsTest.add(zip, Type.getInternalName(sample), JarDefaultsTest.bytesOf(sample));
+            }
+            final ClassWriter writer = new ClassWriter(0);
+            writer.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, LOOKALIKE, null, "java/lang/Object",
+                    null);
+            writer.visitEnd();
+            JarDefaultsTest.add(zip, LOOKALIKE, writer.toByteArray());
+        }
+    }
+
+    /**
+     * Removes the archive.
+     *
+     * @throws IOException
+     *             In case the file cannot be deleted.
+     */
+    @After
+    public void deleteArchive() throws IOException {
+        Files.delete(jar);
+    }
+
+    /**
+     * Ensures that the nesting of local and anonymous classes is read from their class files.
+     *
+     * @throws IOException
+     *             In case a sample cannot be read.
+     */
+    @Test
+    public void shouldReadEnclosingMethod() throws IOException {
+        final ClassFileReader anonymous = JarDefaultsTest.reader(NestingSamples.coveredAnonymous().getClass());
+        assertEquals(Type.getInternalName(NestingSamples.class), anonymous.getEnclosingClassName());
+        assertEquals("coveredAnonymous()Ljava/lang/Object;", anonymous.getEnclosingMethod());
+        final ClassFileReader member = JarDefaultsTest.reader(NestingSamples.Member.Deep.class);
+        assertEquals(Type.getInternalName(NestingSamples.Member.class), member.getEnclosingClassName());
+        assertNull(member.getEnclosingMethod());
+        assertNull(JarDefaultsTest.reader(NestingSamples.class).getEnclosingClassName());
+    }
+
+    /**
+     * Ensures that member classes are covered by the defaults of their enclosing classes.
+     *
+     * @throws IOException
+     *             In case the archive cannot be read.
+     */
+    @Test
+    public void shouldCoverMemberClasses() throws IOException {
+        final JarDefaults defaults = TypeQualifierDefaults.notNullByDefault().resolve(jar);
+        assertTrue(defaults.getDefaults(Type.getInternalName(NestingSamples.Member.class)).contains(
+                ElementType.PARAMETER));
+        assertTrue(defaults.getDefaults(Type.getInternalName(NestingSamples.Member.Deep.class)).contains(
+                ElementType.PARAMETER));
+    }
+
+    /**
+     * Ensures that local and anonymous classes are covered by the defaults of the methods declaring them.
+     *
+     * @throws IOException
+     *             In case the archive cannot be read.
+     */
+    @Test
+    public void shouldCoverClassesOfCoveredMethods() throws IOException {
+        final JarDefaults defaults = TypeQualifierDefaults.notNullByDefault().resolve(jar);
+        assertTrue(defaults.getDefaults(Type.getInternalName(NestingSamples.coveredAnonymous().getClass()))
+                .contains(ElementType.PARAMETER));
+        assertTrue(defaults.getDefaults(Type.getInternalName(NestingSamples.coveredLocal().getClass())).contains(
+                ElementType.PARAMETER));
+        assertEquals(Collections.emptySet(), defaults.getDefaults(Type.getInternalName(NestingSamples
+                .uncoveredAnonymous().getClass())));
+        assertEquals(4, defaults.getCoveredClassCount());
+    }
+
+    /**
+     * Ensures that top level classes are not nested in the class their name starts with.
+     *
+     * @throws IOException
+     *             In case the archive cannot be read.
+     */
+    @Test
+    public void shouldNotSplitTopLevelNames() throws IOException {
+        final JarDefaults defaults = TypeQualifierDefaults.notNullByDefault().resolve(jar);
+        assertEquals(Collections.emptySet(), defaults.getDefaults(LOOKALIKE));
+        assertEquals(Collections.emptySet(), defaults.getDefaults(Type.getInternalName(NestingSamples.class)));
+    }
+
+    private static void add(final ZipOutputStream zip, final String internalName, final byte[] bytes)
+            throws IOException {
+        zip.putNextEntry(new ZipEntry(internalName + ".class"));
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    private static ClassFileReader reader(final Class<?> type) throws IOException {
+        return new ClassFileReader(ByteBuffer.wrap(JarDefaultsTest.bytesOf(type)));
+    }
+
+    private static byte[] bytesOf(final Class<?> type) throws IOException {
+        try (InputStream input = type.getClassLoader().getResourceAsStream(Type.getInternalName(type) + ".class")) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+}
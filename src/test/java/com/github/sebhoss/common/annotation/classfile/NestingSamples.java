@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.classfile;
+
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * Nested classes for the tests of the {@link JarDefaults}, which only see the class files. The class itself declares
+ * no default.
+ */
+public final class NestingSamples {
+
+    /**
+     * Member class which declares a default.
+     */
+    @NotNullByDefault
+    public static final class Member {
+
+        /**
+         * Member class covered by the default of its enclosing class.
+         */
+        public static final class Deep {
+
+            // only the nesting matters
+
+        }
+
+    }
+
+    /**
+     * @return An anonymous class covered by the default of this method.
+     */
+    @NotNullByDefault
+    public static Object coveredAnonymous() {
+        return new Object() {
+
+            // only the nesting matters
+
+        };
+    }
+
+    /**
+     * @return An anonymous class which is not covered.
+     */
+    public static Object uncoveredAnonymous() {
+        return new Object() {
+
+            // only the nesting matters
+
+        };
+    }
+
+    /**
+     * @return A local class covered by the default of this method.
+     */
+    @NotNullByDefault
+    public static Object coveredLocal() {
+        final class Local {
+
+            // only the nesting matters
+
+        }
+        return new Local();
+    }
+
+    private NestingSamples() {
+        // samples only
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link NonNullArrayDeque}, which must behave like an {@link ArrayDeque}.
+ */
+public class NonNullArrayDequeTest {
+
+    /**
+     * Ensures that random operations yield the same results as an {@link ArrayDeque}.
+     */
+    @Test
+    public void shouldBehaveLikeArrayDeque() {
+        final Random random = new Random(42);
+        final Deque<Integer> expected = new ArrayDeque<>();
+        final Deque<Integer> actual = new NonNullArrayDeque<>();
+        for (int operation = 0; operation < 200_000; operation++) {
+            final Integer element = Integer.valueOf(random.nextInt(50));
+            // favour additions so that the deques grow, wrap around and shrink again
+            switch (random.nextInt(10)) {
+                case 0:
+                case 1:
+                    expected.addFirst(element);
+                    actual.addFirst(element);
+                    break;
+                case 2:
+                case 3:
+                    expected.addLast(element);
+                    actual.addLast(element);
+                    break;
+                case 4:
+                    assertEquals(expected.pollFirst(), actual.pollFirst());
+                    break;
+                case 5:
+                    assertEquals(expected.pollLast(), actual.pollLast());
+                    break;
+                case 6:
+                    assertEquals(Boolean.valueOf(expected.removeFirstOccurrence(element)),
+                            Boolean.valueOf(actual.removeFirstOccurrence(element)));
+                    break;
+                case 7:
+                    assertEquals(Boolean.valueOf(expected.removeLastOccurrence(element)),
+                            Boolean.valueOf(actual.removeLastOccurrence(element)));
+                    break;
+                case 8:
+                    assertEquals(expected.peekFirst(), actual.peekFirst());
+                    assertEquals(expected.peekLast(), actual.peekLast());
+                    assertEquals(Boolean.valueOf(expected.contains(element)),
+                            Boolean.valueOf(actual.contains(element)));
+                    break;
+                default:
+                    if (random.nextInt(100) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    }
+                    break;
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(listOf(expected.iterator()), listOf(actual.iterator()));
+        assertEquals(listOf(expected.descendingIterator()), listOf(actual.descendingIterator()));
+    }
+
+    /**
+     * Ensures that elements added at both ends keep their order across growing.
+     */
+    @Test
+    public void shouldKeepOrderWhenGrowing() {
+        final Deque<Integer> expected = new ArrayDeque<>();
+        final Deque<Integer> actual = new NonNullArrayDeque<>(3);
+        for (int index = 0; index < 1_000; index++) {
+            if (index % 3 == 0) {
+                expected.addFirst(Integer.valueOf(index));
+                actual.addFirst(Integer.valueOf(index));
+            } else {
+                expected.addLast(Integer.valueOf(index));
+                actual.addLast(Integer.valueOf(index));
+            }
+            assertEquals(listOf(expected.iterator()), listOf(actual.iterator()));
+        }
+    }
+
+    /**
+     * Ensures that <code>null</code> elements are rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullElements() {
+        new NonNullArrayDeque<Integer>().addFirst(null);
+    }
+
+    private static List<Integer> listOf(final Iterator<Integer> iterator) {
+        final List<Integer> elements = new ArrayList<>();
+        while (iterator.hasNext()) {
+            elements.add(iterator.next());
+        }
+        return elements;
+    }
+
+}
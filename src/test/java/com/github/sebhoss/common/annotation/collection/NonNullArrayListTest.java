@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link NonNullArrayList}, which must behave like an {@link ArrayList} without <code>null</code>s.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NonNullArrayListTest {
+
+    /**
+     * Ensures that random operations yield the same results as an {@link ArrayList}.
+     */
+    @Test
+    public void shouldBehaveLikeArrayList() {
+        final Random random = new Random(42);
+        final List<Integer> expected = new ArrayList<>();
+        final List<Integer> actual = new NonNullArrayList<>();
+        for (int operation = 0; operation < 100_000; operation++) {
+            final Integer element = Integer.valueOf(random.nextInt(100));
+            final int size = expected.size();
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                    assertEquals(Boolean.valueOf(expected.add(element)), Boolean.valueOf(actual.add(element)));
+                    break;
+                case 2:
+                    final int insertAt = random.nextInt(size + 1);
+                    expected.add(insertAt, element);
+                    actual.add(insertAt, element);
+                    break;
+                case 3:
+                    if (size > 0) {
+                        final int removeAt = random.nextInt(size);
+                        assertEquals(expected.remove(removeAt), actual.remove(removeAt));
+                    }
+                    break;
+                case 4:
+                    assertEquals(Boolean.valueOf(expected.remove(element)), Boolean.valueOf(actual.remove(element)));
+                    break;
+                case 5:
+                    if (size > 0) {
+                        final int setAt = random.nextInt(size);
+                        assertEquals(expected.set(setAt, element), actual.set(setAt, element));
+                    }
+                    break;
+                case 6:
+                    assertEquals(expected.indexOf(element), actual.indexOf(element));
+                    assertEquals(expected.lastIndexOf(element), actual.lastIndexOf(element));
+                    break;
+                default:
+                    final Set<Integer> some = new HashSet<>(Arrays.asList(element,
+                            Integer.valueOf(element.intValue() + 1)));
+                    if (random.nextBoolean()) {
+                        assertEquals(Boolean.valueOf(expected.removeAll(some)),
+                                Boolean.valueOf(actual.removeAll(some)));
+                    } else if (size > 50) {
+                        assertEquals(Boolean.valueOf(expected.retainAll(some)),
+                                Boolean.valueOf(actual.retainAll(some)));
+                    }
+                    break;
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    /**
+     * Ensures that removing ranges through sub lists works like an {@link ArrayList}.
+     */
+    @Test
+    public void shouldClearSubLists() {
+        final List<Integer> expected = new ArrayList<>();
+        final List<Integer> actual = new NonNullArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            expected.add(Integer.valueOf(index));
+            actual.add(Integer.valueOf(index));
+        }
+        expected.subList(10, 35).clear();
+        actual.subList(10, 35).clear();
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Ensures that a failing <code>contains</code> leaves all elements which were not yet removed in place.
+     */
+    @Test
+    public void shouldKeepElementsWhenContainsFails() {
+        final List<Integer> list = new NonNullArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int index = 0; index < 10; index++) {
+            list.add(Integer.valueOf(index));
+            expected.add(Integer.valueOf(index));
+        }
+        try {
+            list.removeAll(new FailingSet(6, Integer.valueOf(2), Integer.valueOf(4)));
+            fail("contains should have failed");
+        } catch (final IllegalStateException exception) {
+            // expected
+        }
+        expected.remove(Integer.valueOf(2));
+        expected.remove(Integer.valueOf(4));
+        assertEquals(expected, list);
+        assertEquals(8, list.size());
+        assertEquals(8, new ArrayList<>(list).size());
+    }
+
+    /**
+     * Ensures that <code>null</code> elements are rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullElements() {
+        new NonNullArrayList<Integer>().add(null);
+    }
+
+    /**
+     * A set whose <code>contains</code> fails after a number of calls.
+     */
+    private static final class FailingSet extends HashSet<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private int               calls;
+
+        FailingSet(final int calls, final Object... elements) {
+            super(Arrays.asList(elements));
+            this.calls = calls;
+        }
+
+        @Override
+        public boolean contains(final Object element) {
+            if (calls-- == 0) {
+                throw new IllegalStateException("contains failed");
+            }
+            return super.contains(element);
+        }
+
+    }
+
+}
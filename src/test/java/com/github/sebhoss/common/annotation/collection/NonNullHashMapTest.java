@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link NonNullHashMap}, which must behave like a {@link HashMap} without <code>null</code>s.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NonNullHashMapTest {
+
+    /**
+     * Ensures that random operations yield the same results as a {@link HashMap}.
+     */
+    @Test
+    public void shouldBehaveLikeHashMap() {
+        final Random random = new Random(42);
+        final Map<Integer, String> expected = new HashMap<>();
+        final Map<Integer, String> actual = new NonNullHashMap<>();
+        for (int operation = 0; operation < 200_000; operation++) {
+            final Integer key = Integer.valueOf(random.nextInt(2_000));
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, "v" + operation), actual.put(key, "v" + operation));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), actual.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), actual.get(key));
+                    assertEquals(Boolean.valueOf(expected.containsKey(key)),
+                            Boolean.valueOf(actual.containsKey(key)));
+                    break;
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    /**
+     * Ensures that colliding keys survive removals in the middle of their probe sequence.
+     */
+    @Test
+    public void shouldKeepCollidingKeysReachable() {
+        final Random random = new Random(7);
+        final Map<Colliding, Integer> expected = new HashMap<>();
+        final Map<Colliding, Integer> actual = new NonNullHashMap<>();
+        for (int operation = 0; operation < 50_000; operation++) {
+            final Colliding key = new Colliding(random.nextInt(300));
+            final Integer value = Integer.valueOf(operation);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, value), actual.put(key, value));
+            } else {
+                assertEquals(expected.remove(key), actual.remove(key));
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Ensures that entries removed through the iterator are gone while all others are still visited once.
+     */
+    @Test
+    public void shouldRemoveThroughIterator() {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Map<Integer, Integer> actual = new NonNullHashMap<>();
+        for (int index = 0; index < 5_000; index++) {
+            expected.put(Integer.valueOf(index), Integer.valueOf(index));
+            actual.put(Integer.valueOf(index), Integer.valueOf(index));
+        }
+        int visited = 0;
+        for (final Iterator<Map.Entry<Integer, Integer>> entries = actual.entrySet().iterator(); entries.hasNext();) {
+            final Map.Entry<Integer, Integer> entry = entries.next();
+            visited++;
+            if (entry.getKey().intValue() % 3 == 0) {
+                entries.remove();
+                expected.remove(entry.getKey());
+            }
+        }
+        assertEquals(5_000, visited);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Ensures that <code>null</code> lookups are answered and <code>null</code> keys are rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullKeys() {
+        final Map<Integer, String> map = new NonNullHashMap<>();
+        assertNull(map.get(null));
+        assertFalse(map.containsKey(null));
+        assertNull(map.remove(null));
+        map.put(null, "value");
+    }
+
+    /**
+     * Ensures that <code>null</code> values are rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullValues() {
+        new NonNullHashMap<String, String>().put("key", null);
+    }
+
+    private static final class Colliding {
+
+        private final int value;
+
+        Colliding(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return object instanceof Colliding && ((Colliding) object).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+
+    }
+
+}
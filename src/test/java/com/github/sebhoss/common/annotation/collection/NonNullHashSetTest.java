@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link NonNullHashSet}, which must behave like a {@link HashSet} without <code>null</code>s.
+ */
+public class NonNullHashSetTest {
+
+    /**
+     * Ensures that random operations yield the same results as a {@link HashSet}.
+     */
+    @Test
+    public void shouldBehaveLikeHashSet() {
+        final Random random = new Random(42);
+        final Set<Integer> expected = new HashSet<>();
+        final Set<Integer> actual = new NonNullHashSet<>();
+        for (int operation = 0; operation < 200_000; operation++) {
+            final Integer element = Integer.valueOf(random.nextInt(2_000));
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(Boolean.valueOf(expected.add(element)), Boolean.valueOf(actual.add(element)));
+                    break;
+                case 1:
+                    assertEquals(Boolean.valueOf(expected.remove(element)), Boolean.valueOf(actual.remove(element)));
+                    break;
+                default:
+                    assertEquals(Boolean.valueOf(expected.contains(element)),
+                            Boolean.valueOf(actual.contains(element)));
+                    break;
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+    }
+
+    /**
+     * Ensures that elements removed through the iterator are gone while all others are still visited once.
+     */
+    @Test
+    public void shouldRemoveThroughIterator() {
+        final Set<Integer> expected = new HashSet<>();
+        final Set<Integer> actual = new NonNullHashSet<>(5_000);
+        for (int index = 0; index < 5_000; index++) {
+            expected.add(Integer.valueOf(index * 31));
+            actual.add(Integer.valueOf(index * 31));
+        }
+        int visited = 0;
+        for (final Iterator<Integer> elements = actual.iterator(); elements.hasNext();) {
+            final Integer element = elements.next();
+            visited++;
+            if (element.intValue() % 2 == 0) {
+                elements.remove();
+                expected.remove(element);
+            }
+        }
+        assertEquals(5_000, visited);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Ensures that <code>null</code> elements are rejected.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullElements() {
+        new NonNullHashSet<Integer>().add(null);
+    }
+
+}
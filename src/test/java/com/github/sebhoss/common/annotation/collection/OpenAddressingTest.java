@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link OpenAddressing} sizing rules.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class OpenAddressingTest {
+
+    /**
+     * Ensures that a table sized for an expected number of entries reaches its threshold no earlier than that.
+     */
+    @Test
+    public void shouldHoldExpectedSizeWithoutResizing() {
+        for (int expectedSize = 0; expectedSize < 100_000; expectedSize++) {
+            final int capacity = OpenAddressing.capacityFor(expectedSize);
+            assertTrue("capacity for " + expectedSize, OpenAddressing.thresholdOf(capacity) >= expectedSize);
+        }
+    }
+
+    /**
+     * Ensures that the sizes which used to resize early are covered.
+     */
+    @Test
+    public void shouldNotResizeAtPreviouslyFailingSizes() {
+        for (final int expectedSize : new int[] { 5, 21, 85, 341, 1365, 5461, 21845, 87381 }) {
+            assertTrue("capacity for " + expectedSize,
+                    OpenAddressing.thresholdOf(OpenAddressing.capacityFor(expectedSize)) >= expectedSize);
+        }
+    }
+
+    /**
+     * Ensures that capacities are the smallest powers of two holding the expected size.
+     */
+    @Test
+    public void shouldUseSmallestPowerOfTwo() {
+        for (int expectedSize = 0; expectedSize < 100_000; expectedSize++) {
+            final int capacity = OpenAddressing.capacityFor(expectedSize);
+            assertEquals(Integer.bitCount(capacity), 1);
+            assertTrue(capacity == OpenAddressing.MINIMUM_CAPACITY
+                    || OpenAddressing.thresholdOf(capacity >>> 1) < expectedSize);
+        }
+    }
+
+    /**
+     * Ensures that huge sizes are capped at the maximum capacity.
+     */
+    @Test
+    public void shouldCapAtMaximumCapacity() {
+        assertEquals(OpenAddressing.MAXIMUM_CAPACITY, OpenAddressing.capacityFor(Integer.MAX_VALUE));
+        assertEquals(OpenAddressing.MAXIMUM_CAPACITY, OpenAddressing.capacityFor(OpenAddressing.MAXIMUM_CAPACITY / 2));
+    }
+
+    /**
+     * Ensures that negative sizes are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeSize() {
+        OpenAddressing.capacityFor(-1);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.delegate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.NotNullByDefault;
+
+/**
+ * Test cases for the {@link NullEnforcingDelegates}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class NullEnforcingDelegatesTest {
+
+    /**
+     * Interface whose parameters and return values must not be <code>null</code>.
+     */
+    @NotNullByDefault
+    public interface Greeter {
+
+        /**
+         * @param name
+         *            The name to greet.
+         * @return The greeting.
+         */
+        String greet(String name);
+
+    }
+
+    private static final Greeter ECHO = new Greeter() {
+
+        @Override
+        public String greet(final String name) {
+            return name;
+        }
+
+    };
+
+    /**
+     * Ensures that wrapping <code>null</code> fails right away and explains why.
+     */
+    @Test
+    public void shouldRejectNullDelegate() {
+        try {
+            NullEnforcingDelegates.wrap(Runnable.class, null);
+            fail("null delegate should have been rejected");
+        } catch (final NullPointerException exception) {
+            assertEquals("Cannot wrap a null delegate", exception.getMessage());
+        }
+    }
+
+    /**
+     * Ensures that calls are forwarded to the wrapped implementation.
+     */
+    @Test
+    public void shouldForwardCalls() {
+        assertEquals("hello", NullEnforcingDelegates.wrap(Greeter.class, ECHO).greet("hello"));
+    }
+
+    /**
+     * Ensures that <code>null</code> parameters are rejected before the wrapped implementation is called.
+     */
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullParameter() {
+        NullEnforcingDelegates.wrap(Greeter.class, ECHO).greet(null);
+    }
+
+}
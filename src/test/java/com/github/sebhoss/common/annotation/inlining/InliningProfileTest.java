@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inlining;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.Nullsafe;
+
+/**
+ * Test cases for the {@link InliningProfile}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class InliningProfileTest {
+
+    private static final MethodBudget LARGE = new MethodBudget("com.example.Foo", "bar", "(I)V", 412, 40, true);
+    private static final MethodBudget SMALL = new MethodBudget("com.example.Foo", "bar", "(Ljava/lang/String;)V", 30,
+                                                    0, true);
+
+    /**
+     * Ensures that rejections logged by <code>PrintInlining</code> are matched to the overload with the logged size.
+     *
+     * @throws IOException
+     *             In case the log cannot be written or read.
+     */
+    @Test
+    public void shouldMatchLoggedRejectionsBySize() throws IOException {
+        final Path log = Files.createTempFile("inlining", ".log");
+        try {
+            Files.write(log, Arrays.asList(
+                    "                @ 12   com.example.Foo::bar (412 bytes)   hot method too big",
+                    "                @ 20   com.example.Foo::bar (412 bytes)   too big",
+                    "                @ 31   com.example.Foo::bar (30 bytes)   inline (hot)"), StandardCharsets.UTF_8);
+            final InliningProfile profile = new InliningProfile();
+            profile.readPrintInlining(log);
+            final InliningProfile.Rejection rejection = Nullsafe.nullsafe(profile.getRejection(LARGE));
+            assertEquals(2, rejection.getCount());
+            assertTrue(rejection.isHot());
+            assertNull(profile.getRejection(SMALL));
+        } finally {
+            Files.delete(log);
+        }
+    }
+
+    /**
+     * Ensures that rejections, samples and compilations with a descriptor count for that overload only.
+     */
+    @Test
+    public void shouldSeparateOverloadsByDescriptor() {
+        final InliningProfile profile = new InliningProfile();
+        profile.reject("com.example.Foo::bar(Ljava/lang/String;)V", "callee is too large");
+        profile.sample("com.example.Foo::bar(I)V");
+        profile.sample("com.example.Foo::bar(I)V");
+        profile.compile("com.example.Foo::bar(Ljava/lang/String;)V");
+        assertNull(profile.getRejection(LARGE));
+        assertFalse(Nullsafe.nullsafe(profile.getRejection(SMALL)).isHot());
+        assertEquals(2, profile.getSamples(LARGE));
+        assertEquals(0, profile.getSamples(SMALL));
+        assertEquals(0, profile.getCompilations(LARGE));
+        assertEquals(1, profile.getCompilations(SMALL));
+    }
+
+}
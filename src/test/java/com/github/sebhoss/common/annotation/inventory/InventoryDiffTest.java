@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link InventoryDiff}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class InventoryDiffTest {
+
+    /**
+     * Ensures that the merge reports the same changes as counting the suppressions of each file and value.
+     *
+     * @throws IOException
+     *             In case a table cannot be written or read.
+     */
+    @Test
+    public void shouldMatchNaiveDiff() throws IOException {
+        final Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            final List<SourceSuppression> before = InventoryDiffTest.randomSuppressions(random);
+            final List<SourceSuppression> after = new ArrayList<>();
+            for (final SourceSuppression suppression : before) {
+                final int change = random.nextInt(10);
+                if (change == 0) {
+                    // removed
+                    continue;
+                } else if (change == 1) {
+                    // moved to another line
+                    after.add(new SourceSuppression(suppression.getFile(), suppression.getLine() + 1,
+                            suppression.getValue(), null));
+                } else {
+                    after.add(suppression);
+                }
+            }
+            after.addAll(InventoryDiffTest.randomSuppressions(random).subList(0, random.nextInt(50)));
+
+            final Map<String, Integer> expected = new TreeMap<>();
+            InventoryDiffTest.count(expected, before, -1);
+            InventoryDiffTest.count(expected, after, 1);
+            expected.values().removeAll(Collections.singleton(Integer.valueOf(0)));
+
+            final Map<String, Integer> actual = new TreeMap<>();
+            InventoryDiff.diff(SuppressionTableTest.roundTrip(before), SuppressionTableTest.roundTrip(after),
+                    new InventoryDiff.Listener() {
+
+                        @Override
+                        public void removed(final SuppressionTable table, final int row) {
+                            InventoryDiffTest.add(actual, InventoryDiffTest.keyOf(table, row), -1);
+                        }
+
+                        @Override
+                        public void added(final SuppressionTable table, final int row) {
+                            InventoryDiffTest.add(actual, InventoryDiffTest.keyOf(table, row), 1);
+                        }
+
+                    });
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Ensures that equal tables have no differences.
+     *
+     * @throws IOException
+     *             In case a table cannot be written or read.
+     */
+    @Test
+    public void shouldFindNoDifferencesInEqualTables() throws IOException {
+        final List<SourceSuppression> suppressions = InventoryDiffTest.randomSuppressions(new Random(7));
+        final int[] changes = new int[1];
+        InventoryDiff.diff(SuppressionTableTest.roundTrip(suppressions), SuppressionTableTest.roundTrip(suppressions),
+                new InventoryDiff.Listener() {
+
+                    @Override
+                    public void removed(final SuppressionTable table, final int row) {
+                        changes[0]++;
+                    }
+
+                    @Override
+                    public void added(final SuppressionTable table, final int row) {
+                        changes[0]++;
+                    }
+
+                });
+        assertEquals(0, changes[0]);
+    }
+
+    private static List<SourceSuppression> randomSuppressions(final Random random) {
+        final List<SourceSuppression> suppressions = new ArrayList<>();
+        for (int index = 0; index < 1_000; index++) {
+            suppressions.add(new SourceSuppression(Paths.get("F" + random.nextInt(40) + ".java"),
+                    random.nextInt(200), "PMD.Rule" + random.nextInt(15), null));
+        }
+        return suppressions;
+    }
+
+    private static void count(final Map<String, Integer> counts, final List<SourceSuppression> suppressions,
+            final int sign) {
+        for (final SourceSuppression suppression : suppressions) {
+            InventoryDiffTest.add(counts, suppression.getFile() + "\t" + suppression.getValue(), sign);
+        }
+    }
+
+    private static String keyOf(final SuppressionTable table, final int row) {
+        return table.getFile(table.getFileId(row)) + "\t" + table.getValue(table.getValueId(row));
+    }
+
+    static void add(final Map<String, Integer> counts, final String key, final int delta) {
+        final Integer count = counts.get(key);
+        counts.put(key, Integer.valueOf((count == null ? 0 : count.intValue()) + delta));
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+import com.github.sebhoss.common.annotation.PMDWarnings;
+import com.github.sebhoss.common.annotation.SuppressionSet;
+
+/**
+ * Test cases for the {@link SuppressionLexer}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class SuppressionLexerTest {
+
+    private static final Path FILE = Paths.get("Example.java");
+
+    /**
+     * Ensures that single values, arrays and named values are found with their lines.
+     */
+    @Test
+    public void shouldFindStringValues() {
+        final List<SourceSuppression> found = SuppressionLexerTest.scan(
+                "@SuppressWarnings(\"unchecked\")",
+                "class Example {",
+                "    @SuppressWarnings({ \"rawtypes\",",
+                "            \"PMD.JumbledIncrementer\" })",
+                "    void first() {}",
+                "    @java.lang.SuppressWarnings(value = \"nls\")",
+                "    void second() {}",
+                "}");
+        assertEquals(Arrays.asList("1 unchecked", "3 rawtypes", "4 PMD.JumbledIncrementer", "6 nls"),
+                SuppressionLexerTest.describe(found));
+    }
+
+    /**
+     * Ensures that qualified and statically imported constants are resolved.
+     */
+    @Test
+    public void shouldResolveConstants() {
+        final List<SourceSuppression> found = SuppressionLexerTest.scan(
+                "import static com.github.sebhoss.common.annotation.CompilerWarnings.UNCHECKED;",
+                "import static com.github.sebhoss.common.annotation.PMDWarnings.*;",
+                "import java.util.List;",
+                "class Example {",
+                "    @SuppressWarnings(CompilerWarnings.NLS) void first() {}",
+                "    @SuppressWarnings(com.github.sebhoss.common.annotation.CompilerWarnings.RAWTYPES)",
+                "    void second() {}",
+                "    @SuppressWarnings({ UNCHECKED, JUMBLED_INCREMENTER }) void third() {}",
+                "    @SuppressWarnings({ UNKNOWN, Other.UNCHECKED, NLS }) void fourth() {}",
+                "}");
+        assertEquals(Arrays.asList("5 nls", "6 rawtypes", "8 unchecked", "8 PMD.JumbledIncrementer"),
+                SuppressionLexerTest.describe(found));
+        assertEquals("CompilerWarnings.NLS", found.get(0).getConstant());
+        assertEquals("PMDWarnings.JUMBLED_INCREMENTER", found.get(3).getConstant());
+    }
+
+    /**
+     * Ensures that annotations in comments, string, character and text block literals and the values of other
+     * annotations are ignored, while lines keep being counted.
+     */
+    @Test
+    public void shouldSkipCommentsAndLiterals() {
+        final List<SourceSuppression> found = SuppressionLexerTest.scan(
+                "// @SuppressWarnings(\"line\")",
+                "/* @SuppressWarnings(\"block\")",
+                "   */",
+                "@Named(\"unchecked\") class Example {",
+                "    String text = \"@SuppressWarnings(\\\"string\\\")\";",
+                "    char at = '@';",
+                "    char quote = '\"';",
+                "    String block = \"\"\"",
+                "        @SuppressWarnings(\"text block\")",
+                "        \"\"\";",
+                "    @SuppressWarnings(\"serial\") Object last;",
+                "}");
+        assertEquals(Collections.singletonList("11 serial"), SuppressionLexerTest.describe(found));
+    }
+
+    /**
+     * Ensures that escape sequences in values are decoded.
+     */
+    @Test
+    public void shouldDecodeEscapes() {
+        final List<SourceSuppression> found = SuppressionLexerTest.scan(
+                "@SuppressWarnings({ \"un\\" + "u0063hecked\", \"tab\\tbed\", \"quo\\\"ted\" })",
+                "class Example {}");
+        assertEquals(Arrays.asList("1 unchecked", "1 tab\tbed", "1 quo\"ted"), SuppressionLexerTest.describe(found));
+        assertNull(found.get(0).getConstant());
+    }
+
+    /**
+     * Ensures that truncated sources do not fail the scan, an unterminated string ending at its line.
+     */
+    @Test
+    public void shouldTolerateTruncatedSources() {
+        assertEquals(Collections.singletonList("1 unterminated"), SuppressionLexerTest.describe(SuppressionLexerTest
+                .scan("@SuppressWarnings(\"unterminated")));
+        assertEquals(Collections.singletonList("1 unchecked"), SuppressionLexerTest.describe(SuppressionLexerTest
+                .scan("@SuppressWarnings({ \"unchecked\", ")));
+        assertEquals(Collections.emptyList(), SuppressionLexerTest.describe(SuppressionLexerTest.scan(
+                "class Example { /* open comment")));
+        assertEquals(Collections.emptyList(), SuppressionLexerTest.describe(SuppressionLexerTest.scan("")));
+    }
+
+    /**
+     * Ensures that suppressed regions cover the annotated declarations and the lines of <code>NOPMD</code> comments.
+     */
+    @Test
+    public void shouldCoverAnnotatedDeclarations() {
+        final SuppressedRegions regions = SuppressionLexerTest.regions(
+                "class Example {",
+                "    @SuppressWarnings(\"PMD.JumbledIncrementer\")",
+                "    void loop() {",
+                "        for (int i = 0; i < 10; i++) {",
+                "        }",
+                "    }",
+                "    void other() {",
+                "        int unused; // NOPMD",
+                "    }",
+                "}");
+        assertEquals(1, regions.size());
+        assertFalse(regions.isSuppressed(PMDRule.JUMBLED_INCREMENTER, 1));
+        for (int line = 2; line <= 6; line++) {
+            assertTrue(regions.isSuppressed(PMDRule.JUMBLED_INCREMENTER, line));
+        }
+        assertFalse(regions.isSuppressed(PMDRule.JUMBLED_INCREMENTER, 7));
+        assertTrue(regions.isSuppressed(PMDRule.EMPTY_CATCH_BLOCK, 8));
+        assertFalse(regions.isSuppressed(PMDRule.EMPTY_CATCH_BLOCK, 9));
+        assertTrue(regions.getFileSuppressions().isEmpty());
+    }
+
+    /**
+     * Ensures that the annotations of all top-level types suppress warnings throughout the file.
+     */
+    @Test
+    public void shouldFindFileSuppressions() {
+        final SuppressedRegions regions = SuppressionLexerTest.regions(
+                "@SuppressWarnings({ \"PMD.JumbledIncrementer\", \"unchecked\" })",
+                "class First {",
+                "    @SuppressWarnings(\"rawtypes\") void member() {}",
+                "}",
+                "@SuppressWarnings(\"PMD.JumbledIncrementer\")",
+                "class Second {}");
+        assertEquals(SuppressionSet.of(PMDWarnings.JUMBLED_INCREMENTER), regions.getFileSuppressions());
+        assertEquals(3, regions.size());
+    }
+
+    /**
+     * Ensures that an annotation on a line of its own is removed with its line from the normalized source.
+     */
+    @Test
+    public void shouldTranslateLines() {
+        final SuppressedRegions regions = SuppressionLexerTest.regions(
+                "class Example {",
+                "    @SuppressWarnings(\"unchecked\")",
+                "    void first() {}",
+                "    @SuppressWarnings(\"nls\") void second() {}",
+                "}");
+        assertEquals(1, regions.toNormalizedLine(1));
+        assertEquals(2, regions.toNormalizedLine(3));
+        assertEquals(3, regions.toNormalizedLine(4));
+        assertEquals(3, regions.toLine(2));
+        assertEquals(4, regions.toLine(3));
+    }
+
+    private static List<SourceSuppression> scan(final String... lines) {
+        final byte[] source = SuppressionLexerTest.join(lines);
+        return SuppressionLexer.scan(FILE, source, source.length);
+    }
+
+    private static SuppressedRegions regions(final String... lines) {
+        final byte[] source = SuppressionLexerTest.join(lines);
+        return SuppressedRegions.scan(FILE, source, source.length);
+    }
+
+    private static byte[] join(final String... lines) {
+        final StringBuilder source = new StringBuilder();
+        for (final String line : lines) {
+            source.append(line).append('\n');
+        }
+        return source.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> describe(final List<SourceSuppression> found) {
+        final List<String> described = new ArrayList<>();
+        for (final SourceSuppression suppression : found) {
+            described.add(suppression.getLine() + " " + suppression.getValue());
+        }
+        return described;
+    }
+
+}
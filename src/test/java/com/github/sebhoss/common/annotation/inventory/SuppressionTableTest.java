@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.inventory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link SuppressionTable}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class SuppressionTableTest {
+
+    /**
+     * Ensures that a table holds every written suppression, sorted by file, value and line.
+     *
+     * @throws IOException
+     *             In case the table cannot be written or read.
+     */
+    @Test
+    public void shouldStoreSortedRows() throws IOException {
+        final Random random = new Random(42);
+        final List<SourceSuppression> suppressions = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int index = 0; index < 10_000; index++) {
+            final String file = "src/p" + random.nextInt(20) + "/F" + random.nextInt(100) + ".java";
+            final String value = random.nextBoolean() ? "PMD.Rule" + random.nextInt(30) : "unchecked";
+            final int line = random.nextInt(5_000);
+            suppressions.add(new SourceSuppression(Paths.get(file), line, value, null));
+            expected.add(file + "\t" + value + "\t" + String.format("%08d", Integer.valueOf(line)));
+        }
+        Collections.sort(expected);
+
+        final SuppressionTable table = SuppressionTableTest.roundTrip(suppressions);
+        final List<String> actual = new ArrayList<>();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            actual.add(table.getFile(table.getFileId(row)) + "\t" + table.getValue(table.getValueId(row)) + "\t"
+                    + String.format("%08d", Integer.valueOf(table.getLine(row))));
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Ensures that values are assigned to their catalogs.
+     *
+     * @throws IOException
+     *             In case the table cannot be written or read.
+     */
+    @Test
+    public void shouldStoreCatalogs() throws IOException {
+        final List<SourceSuppression> suppressions = new ArrayList<>();
+        suppressions.add(new SourceSuppression(Paths.get("A.java"), 1, "PMD.JumbledIncrementer", null));
+        suppressions.add(new SourceSuppression(Paths.get("A.java"), 2, "unchecked", null));
+        final SuppressionTable table = SuppressionTableTest.roundTrip(suppressions);
+        for (int value = 0; value < table.getValueCount(); value++) {
+            assertEquals(WarningCatalog.of(table.getValue(value)), table.getCatalog(value));
+        }
+        assertEquals(2, table.getValueCount());
+        assertEquals(1, table.getFileCount());
+    }
+
+    /**
+     * Ensures that an empty table can be written and read.
+     *
+     * @throws IOException
+     *             In case the table cannot be written or read.
+     */
+    @Test
+    public void shouldStoreEmptyTable() throws IOException {
+        final SuppressionTable table = SuppressionTableTest.roundTrip(Collections.<SourceSuppression> emptyList());
+        assertEquals(0, table.getRowCount());
+        assertEquals(0, table.getFileCount());
+        assertEquals(0, table.getValueCount());
+    }
+
+    static SuppressionTable roundTrip(final List<SourceSuppression> suppressions) throws IOException {
+        final Path file = Files.createTempFile("suppressions", ".bin");
+        try {
+            SuppressionTable.write(file, suppressions);
+            return SuppressionTable.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.pmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+import com.github.sebhoss.common.annotation.PMDRule;
+
+/**
+ * Test cases for the {@link AnalysisCache}.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class AnalysisCacheTest {
+
+    private static final Path         FILE          = Paths.get("Loop.java");
+    private static final String       CONFIGURATION = "pmd-5.0.5 jdk-1.7";
+    private static final Set<PMDRule> RULES         = EnumSet.of(PMDRule.JUMBLED_INCREMENTER,
+                                                            PMDRule.EMPTY_CATCH_BLOCK);
+    private static final String       SOURCE        = "class Loop {\n" //
+                                                            + "    void loop() {\n" //
+                                                            + "        for (int i = 0; i < 10; i++) {\n" //
+                                                            + "            for (int k = 0; k < 20; i++) {\n" //
+                                                            + "            }\n" //
+                                                            + "        }\n" //
+                                                            + "    }\n" //
+                                                            + "}\n";
+    private static final Violation    VIOLATION     = new Violation(PMDRule.JUMBLED_INCREMENTER, 4,
+                                                            "Avoid modifying an outer loop incrementer");
+
+    private Path                      cacheFile;
+
+    /**
+     * Creates a directory for the cache file.
+     *
+     * @throws IOException
+     *             In case the directory cannot be created.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        cacheFile = Files.createTempDirectory("analysis").resolve("cache.bin");
+    }
+
+    /**
+     * Removes the cache file and its directory.
+     *
+     * @throws IOException
+     *             In case a file cannot be deleted.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(cacheFile);
+        Files.delete(cacheFile.getParent());
+    }
+
+    /**
+     * Ensures that unknown sources are misses.
+     *
+     * @throws IOException
+     *             In case the cache cannot be opened.
+     */
+    @Test
+    public void shouldMissUnknownSource() throws IOException {
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * Ensures that written violations are found again after reopening the cache.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldHitWrittenSource() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertEquals(Collections.singletonList(VIOLATION), AnalysisCacheTest.lookup(cache, SOURCE));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    /**
+     * Ensures that changes to the code itself are misses.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMissChangedSource() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE.replace("20", "30")));
+    }
+
+    /**
+     * Ensures that a cache of another configuration is empty.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMissOtherConfiguration() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, "pmd-5.1.0 jdk-1.7", RULES);
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE));
+    }
+
+    /**
+     * Ensures that a cache lacking some of the requested rules is empty.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMissAdditionalRules() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION,
+                EnumSet.of(PMDRule.JUMBLED_INCREMENTER, PMDRule.EMPTY_IF_STATEMENT));
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE));
+    }
+
+    /**
+     * Ensures that a cache written with another list of rules is empty, since its rule ordinals may name other rules.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMissOtherRuleList() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+        bytes.putLong(28, bytes.getLong(28) + 1);
+        Files.write(cacheFile, bytes.array());
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE));
+    }
+
+    /**
+     * Ensures that a cache of another version is empty.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMissOtherVersion() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+        bytes.putInt(4, 1);
+        Files.write(cacheFile, bytes.array());
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertNull(AnalysisCacheTest.lookup(cache, SOURCE));
+    }
+
+    /**
+     * Ensures that an annotation on a line of its own is a hit which moves the cached violations below it.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldMoveLinesBelowAddedAnnotation() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        final String annotated = SOURCE.replace("    void loop", "    @SuppressWarnings(\"unchecked\")\n    void loop");
+        assertEquals(Collections.singletonList(new Violation(PMDRule.JUMBLED_INCREMENTER, 5, VIOLATION.getMessage())),
+                AnalysisCacheTest.lookup(cache, annotated));
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * Ensures that an annotation suppressing the rule is a hit without violations.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldApplyAddedAnnotation() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        final String annotated = SOURCE.replace("    void loop",
+                "    @SuppressWarnings(\"PMD.JumbledIncrementer\")\n    void loop");
+        assertEquals(Collections.emptyList(), AnalysisCacheTest.lookup(cache, annotated));
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * Ensures that a <code>NOPMD</code> comment is a hit which suppresses the violations of its line only.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldApplyAddedComment() throws IOException {
+        AnalysisCacheTest.fill(cacheFile);
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        final String commented = SOURCE.replace("i++) {\n            }", "i++) { // NOPMD\n            }");
+        assertEquals(Collections.emptyList(), AnalysisCacheTest.lookup(cache, commented));
+        assertEquals(Collections.singletonList(VIOLATION),
+                AnalysisCacheTest.lookup(cache, SOURCE.replace("loop() {\n", "loop() { // NOPMD - no loop here\n")));
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    /**
+     * Ensures that removing a <code>NOPMD</code> comment is a hit which reports the violations of its line again.
+     *
+     * @throws IOException
+     *             In case the cache cannot be written or opened.
+     */
+    @Test
+    public void shouldApplyRemovedComment() throws IOException {
+        final String commented = SOURCE.replace("i++) {\n            }", "i++) {\t// NOPMD\r\n            }");
+        final AnalysisCache filled = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        AnalysisCacheTest.store(filled, commented);
+        assertEquals(Collections.emptyList(), AnalysisCacheTest.lookup(filled, commented));
+        filled.write(cacheFile);
+
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        assertEquals(Collections.singletonList(VIOLATION), AnalysisCacheTest.lookup(cache,
+                commented.replace("\t// NOPMD\r\n", "\r\n")));
+        assertEquals(1, cache.getHits());
+    }
+
+    private static void fill(final Path cacheFile) throws IOException {
+        final AnalysisCache cache = AnalysisCache.open(cacheFile, CONFIGURATION, RULES);
+        AnalysisCacheTest.store(cache, SOURCE);
+        cache.write(cacheFile);
+    }
+
+    private static void store(final AnalysisCache cache, final String source) {
+        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        cache.put(FILE, bytes, bytes.length, Collections.singletonList(VIOLATION));
+    }
+
+    private static List<Violation> lookup(final AnalysisCache cache, final String source) {
+        final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return cache.get(FILE, bytes, bytes.length);
+    }
+
+}
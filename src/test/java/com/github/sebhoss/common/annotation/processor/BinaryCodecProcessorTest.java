@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link BinaryCodecProcessor}, which compile sample types with the processor and round trip values
+ * through the generated codecs.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class BinaryCodecProcessorTest {
+
+    private static final String MESSAGE  = "samples.Message";
+    private static final String HEADER   = "samples.Message$Header";
+    private static final String PRIORITY = "samples.Message$Priority";
+    private static final String POINT    = "samples.Point";
+
+    private ClassLoader         loader;
+
+    /**
+     * Compiles the samples.
+     */
+    @Before
+    public void compileSamples() {
+        loader = ProcessorCompiler.compile(new BinaryCodecProcessor(), ProcessorCompiler.source(
+                "package samples;",
+                "import java.util.Arrays;",
+                "import java.util.List;",
+                "import javax.annotation.Nullable;",
+                "import com.github.sebhoss.common.annotation.BinaryCodec;",
+                "import com.github.sebhoss.common.annotation.NotNullByDefault;",
+                "@NotNullByDefault",
+                "@BinaryCodec",
+                "public final class Message {",
+                "    public enum Priority { LOW, HIGH }",
+                "    @BinaryCodec",
+                "    public static final class Header {",
+                "        final long id;",
+                "        final Priority priority;",
+                "        public Header(long id, Priority priority) {",
+                "            this.id = id;",
+                "            this.priority = priority;",
+                "        }",
+                "        @Override",
+                "        public String toString() {",
+                "            return id + \" \" + priority;",
+                "        }",
+                "    }",
+                "    final int version;",
+                "    final Header header;",
+                "    @Nullable final Header reply;",
+                "    final String text;",
+                "    @Nullable final String comment;",
+                "    @Nullable final Integer retries;",
+                "    final List<String> tags;",
+                "    final byte[] payload;",
+                "    public Message(int version, Header header, @Nullable Header reply, String text,",
+                "            @Nullable String comment, @Nullable Integer retries, List<String> tags, byte[] payload) {",
+                "        this.version = version;",
+                "        this.header = header;",
+                "        this.reply = reply;",
+                "        this.text = text;",
+                "        this.comment = comment;",
+                "        this.retries = retries;",
+                "        this.tags = tags;",
+                "        this.payload = payload;",
+                "    }",
+                "    @Override",
+                "    public String toString() {",
+                "        return version + \", \" + header + \", \" + reply + \", \" + text + \", \" + comment + \", \"",
+                "                + retries + \", \" + tags + \", \" + Arrays.toString(payload);",
+                "    }",
+                "}"));
+    }
+
+    /**
+     * Ensures that values round trip with unset nullable fields and <code>null</code> list elements.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated codec cannot be called.
+     */
+    @Test
+    public void shouldRoundTripNulls() throws ReflectiveOperationException {
+        final Object message = BinaryCodecProcessorTest.message(loader, null, null, null,
+                Arrays.asList("a", null, "b"));
+        final Object decoded = BinaryCodecProcessorTest.roundTrip(loader, MESSAGE, message,
+                ByteBuffer.allocate(BinaryCodecProcessorTest.sizeOf(loader, MESSAGE, message)));
+        assertEquals(message.toString(), decoded.toString());
+    }
+
+    /**
+     * Ensures that values round trip with set nullable fields, nested codecs and text outside of ASCII, using the
+     * byte order of direct buffers.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated codec cannot be called.
+     */
+    @Test
+    public void shouldRoundTripValues() throws ReflectiveOperationException {
+        final Object reply = BinaryCodecProcessorTest.header(loader, 2, "LOW");
+        final Object message = BinaryCodecProcessorTest.message(loader, reply, "grüße", Integer.valueOf(3),
+                Arrays.asList("a"));
+        final Object decoded = BinaryCodecProcessorTest.roundTrip(loader, MESSAGE, message, ByteBuffer
+                .allocateDirect(BinaryCodecProcessorTest.sizeOf(loader, MESSAGE, message))
+                .order(ByteOrder.LITTLE_ENDIAN));
+        assertEquals(message.toString(), decoded.toString());
+    }
+
+    /**
+     * Ensures that records round trip through their accessors and canonical constructor.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated codec cannot be called.
+     */
+    @Test
+    public void shouldRoundTripRecords() throws ReflectiveOperationException {
+        Assume.assumeTrue(ProcessorCompiler.supportsRecords());
+        final ClassLoader records = ProcessorCompiler.compile(new BinaryCodecProcessor(), ProcessorCompiler.source(
+                "package samples;",
+                "import java.util.List;",
+                "import javax.annotation.Nullable;",
+                "import com.github.sebhoss.common.annotation.BinaryCodec;",
+                "import com.github.sebhoss.common.annotation.NotNullByDefault;",
+                "@NotNullByDefault",
+                "@BinaryCodec",
+                "public record Point(int x, @Nullable String label, List<Integer> values) {}"));
+        final Object point = records.loadClass(POINT).getConstructors()[0].newInstance(Integer.valueOf(1), null,
+                Arrays.asList(Integer.valueOf(2), null));
+        final Object decoded = BinaryCodecProcessorTest.roundTrip(records, POINT, point,
+                ByteBuffer.allocate(BinaryCodecProcessorTest.sizeOf(records, POINT, point)));
+        assertEquals(point, decoded);
+    }
+
+    private static Object message(final ClassLoader loader, @Nullable final Object reply,
+            @Nullable final String comment, @Nullable final Integer retries, final List<String> tags)
+            throws ReflectiveOperationException {
+        return loader.loadClass(MESSAGE).getConstructors()[0].newInstance(Integer.valueOf(1),
+                BinaryCodecProcessorTest.header(loader, 1, "HIGH"), reply, "text", comment, retries, tags,
+                new byte[] { 1, 2, 3 });
+    }
+
+    private static Object header(final ClassLoader loader, final long id, final String priority)
+            throws ReflectiveOperationException {
+        return loader.loadClass(HEADER).getConstructors()[0].newInstance(Long.valueOf(id),
+                loader.loadClass(PRIORITY).getMethod("valueOf", String.class).invoke(null, priority));
+    }
+
+    private static int sizeOf(final ClassLoader loader, final String type, final Object value)
+            throws ReflectiveOperationException {
+        return ((Integer) BinaryCodecProcessorTest.codec(loader, type).getMethod("sizeOf", loader.loadClass(type))
+                .invoke(null, value)).intValue();
+    }
+
+    private static Object roundTrip(final ClassLoader loader, final String type, final Object value,
+            final ByteBuffer buffer) throws ReflectiveOperationException {
+        final Class<?> codec = BinaryCodecProcessorTest.codec(loader, type);
+        codec.getMethod("encode", loader.loadClass(type), ByteBuffer.class).invoke(null, value, buffer);
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+        final Object decoded = codec.getMethod("decode", ByteBuffer.class).invoke(null, buffer);
+        assertEquals(0, buffer.remaining());
+        return decoded;
+    }
+
+    private static Class<?> codec(final ClassLoader loader, final String type) throws ClassNotFoundException {
+        return loader.loadClass(type.replace('$', '_') + "Codec");
+    }
+
+}
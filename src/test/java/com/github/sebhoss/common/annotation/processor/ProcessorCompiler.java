@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+import javax.annotation.processing.Processor;
+import javax.lang.model.SourceVersion;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Compiles sample sources in memory together with the sources an annotation processor generates for them, the way a
+ * build using the processor would, and loads the resulting classes.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+final class ProcessorCompiler {
+
+    private static final Pattern NAME = Pattern.compile(
+            "(?s)(?:package\\s+([\\w.]+)\\s*;)?.*?\\b(?:class|enum|interface|record)\\s+(\\w+)");
+
+    /**
+     * A source or class file kept in memory.
+     */
+    private static final class MemoryFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        @Nullable
+        private final String                content;
+
+        MemoryFile(final String binaryName, final Kind kind, @Nullable final String content) {
+            super(URI.create("mem:///" + binaryName.replace('.', '/') + kind.extension), kind);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return content != null ? content : new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            bytes.reset();
+            return bytes;
+        }
+
+    }
+
+    /**
+     * @param lines
+     *            The lines of a compilation unit declaring a single top level type.
+     * @return The compilation unit.
+     */
+    static JavaFileObject source(final String... lines) {
+        final String content = String.join("\n", lines);
+        final Matcher matcher = NAME.matcher(content);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("No type declared in " + content);
+        }
+        final String name = matcher.group(1) == null ? matcher.group(2) : matcher.group(1) + "." + matcher.group(2);
+        return new MemoryFile(name, JavaFileObject.Kind.SOURCE, content);
+    }
+
+    /**
+     * @return <code>true</code> if the compiler of the running JDK supports records.
+     */
+    static boolean supportsRecords() {
+        return SourceVersion.latestSupported().ordinal() >= 16;
+    }
+
+    /**
+     * @param processor
+     *            The processor to run.
+     * @param sources
+     *            The sample sources to compile.
+     * @return A class loader which defines the compiled samples and the compiled generated sources.
+     */
+    static ClassLoader compile(final Processor processor, final JavaFileObject... sources) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final Map<String, MemoryFile> classes = new HashMap<>();
+        final StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8);
+        final ForwardingJavaFileManager<StandardJavaFileManager> files = new ForwardingJavaFileManager<
+                StandardJavaFileManager>(standard) {
+
+            @Override
+            public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                    final JavaFileObject.Kind kind, @Nullable final FileObject sibling) {
+                final MemoryFile output = new MemoryFile(className, kind, null);
+                if (kind == JavaFileObject.Kind.CLASS) {
+                    classes.put(className, output);
+                }
+                return output;
+            }
+
+        };
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                Arrays.asList("-classpath", System.getProperty("java.class.path"), "-Xlint:none"), null,
+                Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(processor));
+        if (!task.call().booleanValue()) {
+            throw new AssertionError("Compilation failed: " + diagnostics.getDiagnostics());
+        }
+        return new ClassLoader(ProcessorCompiler.class.getClassLoader()) {
+
+            @Override
+            protected Class<?> findClass(final String name) throws ClassNotFoundException {
+                final MemoryFile file = classes.get(name);
+                if (file == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                final byte[] bytecode = file.bytes.toByteArray();
+                return defineClass(name, bytecode, 0, bytecode.length);
+            }
+
+        };
+    }
+
+    private ProcessorCompiler() {
+        // utility class
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2013 Sebastian Hoß <mail@shoss.de>
+ * This work is free. You can redistribute it and/or modify it under the
+ * terms of the Do What The Fuck You Want To Public License, Version 2,
+ * as published by Sam Hocevar. See http://www.wtfpl.net/ for more details.
+ */
+package com.github.sebhoss.common.annotation.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sebhoss.common.annotation.CompilerWarnings;
+
+/**
+ * Test cases for the {@link ValueEqualityProcessor}, which compile sample types with the processor and call the
+ * generated helpers.
+ */
+@SuppressWarnings(CompilerWarnings.NLS)
+public class ValueEqualityProcessorTest {
+
+    private static final String SHAPE   = "samples.Shape";
+    private static final String VERSION = "samples.Shape$Version";
+    private static final String COLOR   = "samples.Shape$Color";
+    private static final String RANGE   = "samples.Range";
+
+    private ClassLoader         loader;
+
+    /**
+     * Compiles the samples.
+     */
+    @Before
+    public void compileSamples() {
+        loader = ProcessorCompiler.compile(new ValueEqualityProcessor(), ProcessorCompiler.source(
+                "package samples;",
+                "import java.util.List;",
+                "import javax.annotation.Nullable;",
+                "import com.github.sebhoss.common.annotation.NotNullByDefault;",
+                "import com.github.sebhoss.common.annotation.ValueEquality;",
+                "@NotNullByDefault",
+                "@ValueEquality",
+                "public final class Shape {",
+                "    public enum Color { RED, GREEN }",
+                "    @ValueEquality",
+                "    public static final class Version {",
+                "        final int major;",
+                "        final Color color;",
+                "        final String name;",
+                "        @Nullable final String label;",
+                "        public Version(int major, Color color, String name, @Nullable String label) {",
+                "            this.major = major;",
+                "            this.color = color;",
+                "            this.name = name;",
+                "            this.label = label;",
+                "        }",
+                "        @Override",
+                "        public boolean equals(@Nullable Object other) {",
+                "            return Shape_VersionEquality.equals(this, other);",
+                "        }",
+                "        @Override",
+                "        public int hashCode() {",
+                "            return Shape_VersionEquality.hashCode(this);",
+                "        }",
+                "    }",
+                "    final double weight;",
+                "    final Color color;",
+                "    @Nullable final String label;",
+                "    final List<String> tags;",
+                "    final int[][] grid;",
+                "    final Version version;",
+                "    public Shape(double weight, Color color, @Nullable String label, List<String> tags, int[][] grid,",
+                "            Version version) {",
+                "        this.weight = weight;",
+                "        this.color = color;",
+                "        this.label = label;",
+                "        this.tags = tags;",
+                "        this.grid = grid;",
+                "        this.version = version;",
+                "    }",
+                "}"));
+    }
+
+    /**
+     * Ensures that equal values with distinct field instances, including nested arrays, are equal and share their hash
+     * code.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated helpers cannot be called.
+     */
+    @Test
+    public void shouldCompareFieldsByValue() throws ReflectiveOperationException {
+        final Object shape = ValueEqualityProcessorTest.shape(loader, 0.5, "label", new int[][] { { 1, 2 }, { 3 } });
+        final Object same = ValueEqualityProcessorTest.shape(loader, 0.5, new String("label"),
+                new int[][] { { 1, 2 }, { 3 } });
+        final Object otherGrid = ValueEqualityProcessorTest.shape(loader, 0.5, "label",
+                new int[][] { { 1, 2 }, { 4 } });
+        final Object otherWeight = ValueEqualityProcessorTest.shape(loader, -0.5, "label",
+                new int[][] { { 1, 2 }, { 3 } });
+        assertTrue(ValueEqualityProcessorTest.equals(loader, SHAPE, shape, same));
+        assertEquals(ValueEqualityProcessorTest.hashCode(loader, SHAPE, shape),
+                ValueEqualityProcessorTest.hashCode(loader, SHAPE, same));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, shape, otherGrid));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, shape, otherWeight));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, shape, "label"));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, shape, null));
+    }
+
+    /**
+     * Ensures that nullable fields compare <code>null</code> with both <code>null</code> and other values.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated helpers cannot be called.
+     */
+    @Test
+    public void shouldCompareNullableFields() throws ReflectiveOperationException {
+        final Object unlabeled = ValueEqualityProcessorTest.shape(loader, 0.5, null, new int[0][]);
+        final Object same = ValueEqualityProcessorTest.shape(loader, 0.5, null, new int[0][]);
+        final Object labeled = ValueEqualityProcessorTest.shape(loader, 0.5, "label", new int[0][]);
+        assertTrue(ValueEqualityProcessorTest.equals(loader, SHAPE, unlabeled, same));
+        assertEquals(ValueEqualityProcessorTest.hashCode(loader, SHAPE, unlabeled),
+                ValueEqualityProcessorTest.hashCode(loader, SHAPE, same));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, unlabeled, labeled));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, SHAPE, labeled, unlabeled));
+    }
+
+    /**
+     * Ensures that nested types are compared in field declaration order, with <code>null</code> before all other
+     * values.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated helpers cannot be called.
+     */
+    @Test
+    public void shouldOrderNestedTypes() throws ReflectiveOperationException {
+        final Object version = ValueEqualityProcessorTest.version(loader, 1, "GREEN", "name", "label");
+        final Object same = ValueEqualityProcessorTest.version(loader, 1, "GREEN", new String("name"), "label");
+        final Object unlabeled = ValueEqualityProcessorTest.version(loader, 1, "GREEN", "name", null);
+        assertTrue(ValueEqualityProcessorTest.equals(loader, VERSION, version, same));
+        assertEquals(0, ValueEqualityProcessorTest.compare(loader, VERSION, version, same));
+        assertTrue(ValueEqualityProcessorTest.compare(loader, VERSION, version,
+                ValueEqualityProcessorTest.version(loader, 2, "RED", "name", "label")) < 0);
+        assertTrue(ValueEqualityProcessorTest.compare(loader, VERSION, version,
+                ValueEqualityProcessorTest.version(loader, 1, "RED", "name", "label")) > 0);
+        assertTrue(ValueEqualityProcessorTest.compare(loader, VERSION, version,
+                ValueEqualityProcessorTest.version(loader, 1, "GREEN", "other", "label")) < 0);
+        assertTrue(ValueEqualityProcessorTest.compare(loader, VERSION, version, unlabeled) > 0);
+        assertTrue(ValueEqualityProcessorTest.compare(loader, VERSION, unlabeled, version) < 0);
+        assertEquals(0, ValueEqualityProcessorTest.compare(loader, VERSION, unlabeled,
+                ValueEqualityProcessorTest.version(loader, 1, "GREEN", "name", null)));
+        assertFalse(ValueEqualityProcessorTest.equals(loader, VERSION, version, unlabeled));
+    }
+
+    /**
+     * Ensures that records are compared through their accessors, including nested arrays.
+     *
+     * @throws ReflectiveOperationException
+     *             In case the samples cannot be created or the generated helpers cannot be called.
+     */
+    @Test
+    public void shouldCompareRecords() throws ReflectiveOperationException {
+        Assume.assumeTrue(ProcessorCompiler.supportsRecords());
+        final ClassLoader records = ProcessorCompiler.compile(new ValueEqualityProcessor(), ProcessorCompiler.source(
+                "package samples;",
+                "import javax.annotation.Nullable;",
+                "import com.github.sebhoss.common.annotation.NotNullByDefault;",
+                "import com.github.sebhoss.common.annotation.ValueEquality;",
+                "@NotNullByDefault",
+                "@ValueEquality",
+                "public record Range(int from, @Nullable String label, String[][] names) {}"));
+        final Constructor<?> range = records.loadClass(RANGE).getConstructors()[0];
+        final Object value = range.newInstance(Integer.valueOf(1), null, new String[][] { { "a" } });
+        final Object same = range.newInstance(Integer.valueOf(1), null, new String[][] { { "a" } });
+        assertTrue(ValueEqualityProcessorTest.equals(records, RANGE, value, same));
+        assertEquals(ValueEqualityProcessorTest.hashCode(records, RANGE, value),
+                ValueEqualityProcessorTest.hashCode(records, RANGE, same));
+        assertFalse(ValueEqualityProcessorTest.equals(records, RANGE, value,
+                range.newInstance(Integer.valueOf(1), "label", new String[][] { { "a" } })));
+    }
+
+    private static Object shape(final ClassLoader loader, final double weight, @Nullable final String label,
+            final int[][] grid) throws ReflectiveOperationException {
+        final List<String> tags = new ArrayList<>(Arrays.asList("a", "b"));
+        return loader.loadClass(SHAPE).getConstructors()[0].newInstance(Double.valueOf(weight),
+                ValueEqualityProcessorTest.color(loader, "RED"), label, tags, grid,
+                ValueEqualityProcessorTest.version(loader, 1, "GREEN", "name", null));
+    }
+
+    private static Object version(final ClassLoader loader, final int major, final String color, final String name,
+            @Nullable final String label) throws ReflectiveOperationException {
+        return loader.loadClass(VERSION).getConstructors()[0].newInstance(Integer.valueOf(major),
+                ValueEqualityProcessorTest.color(loader, color), name, label);
+    }
+
+    private static Object color(final ClassLoader loader, final String name) throws ReflectiveOperationException {
+        return loader.loadClass(COLOR).getMethod("valueOf", String.class).invoke(null, name);
+    }
+
+    private static boolean equals(final ClassLoader loader, final String type, final Object value,
+            @Nullable final Object other) throws ReflectiveOperationException {
+        return ((Boolean) ValueEqualityProcessorTest.helpers(loader, type)
+                .getMethod("equals", loader.loadClass(type), Object.class).invoke(null, value, other)).booleanValue();
+    }
+
+    private static int hashCode(final ClassLoader loader, final String type, final Object value)
+            throws ReflectiveOperationException {
+        return ((Integer) ValueEqualityProcessorTest.helpers(loader, type)
+                .getMethod("hashCode", loader.loadClass(type)).invoke(null, value)).intValue();
+    }
+
+    private static int compare(final ClassLoader loader, final String type, final Object left, final Object right)
+            throws ReflectiveOperationException {
+        final Class<?> valueType = loader.loadClass(type);
+        return ((Integer) ValueEqualityProcessorTest.helpers(loader, type)
+                .getMethod("compare", valueType, valueType).invoke(null, left, right)).intValue();
+    }
+
+    private static Class<?> helpers(final ClassLoader loader, final String type) throws ClassNotFoundException {
+        return loader.loadClass(type.replace('$', '_') + "Equality");
+    }
+
+}